@@ -0,0 +1,230 @@
+package com.example.recipesapi.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an existing schema with synthetic users and recipes using JDBC batch inserts. Recipe owners and ingredients
+ * follow Zipf distributions, so some users own hundreds of recipes and a few ingredients are in most of them.
+ * <p>
+ * Ids are assigned here, continuing after the highest existing id, and the identity columns are moved past them
+ * afterwards so the application can keep inserting.
+ */
+@Log4j2
+public class DataSeeder {
+    static final String EMAIL_DOMAIN = "@loadtest.example";
+
+    private final LoadTestSettings settings;
+    private final SplittableRandom random;
+    private final List<String> ingredients;
+    private final List<String> categories;
+
+    public DataSeeder(final LoadTestSettings settings) {
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.getRandomSeed());
+        this.ingredients = Vocabulary.ingredients(settings.getIngredients());
+        this.categories = Vocabulary.categories(settings.getCategories());
+    }
+
+    public void seed(Connection connection) throws SQLException {
+        final long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        final long firstUserId = maxId(connection, "users") + 1;
+        final long firstRecipeId = maxId(connection, "recipes") + 1;
+        final Map<String, Integer> termIds = insertTerms(connection);
+        insertUsers(connection, firstUserId);
+        insertRecipes(connection, firstUserId, firstRecipeId, termIds);
+        restartIdentity(connection, "users", firstUserId + settings.getUsers());
+        restartIdentity(connection, "recipes", firstRecipeId + settings.getRecipes());
+        connection.commit();
+        log.info("Seeded " + settings.getUsers() + " users and " + settings.getRecipes() + " recipes in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Reads back the seeded users and all recipe ids, also when the data was seeded by an earlier run.
+     */
+    public Dataset load(Connection connection) throws SQLException {
+        final Map<Long, List<Long>> recipesByUser = new HashMap<>();
+        final List<Long> recipeIds = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select id, user_id from recipes")) {
+            while (rows.next()) {
+                recipeIds.add(rows.getLong(1));
+                final long userId = rows.getLong(2);
+                if (!rows.wasNull()) {
+                    recipesByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(rows.getLong(1));
+                }
+            }
+        }
+        final List<Dataset.SeededUser> users = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("select id, email from users where email like ?")) {
+            statement.setString(1, "%" + EMAIL_DOMAIN);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    final long[] owned = recipesByUser.getOrDefault(rows.getLong(1), List.of())
+                            .stream()
+                            .mapToLong(Long::longValue)
+                            .toArray();
+                    users.add(new Dataset.SeededUser(rows.getLong(1), rows.getString(2), owned));
+                }
+            }
+        }
+        if (users.isEmpty() || recipeIds.isEmpty()) {
+            throw new IllegalStateException("No seeded data found, run with -Dloadtest.seed=true first");
+        }
+        return new Dataset(users, recipeIds.stream().mapToLong(Long::longValue).toArray(), categories, ingredients);
+    }
+
+    private void insertUsers(Connection connection, long firstId) throws SQLException {
+        final String passwordHash = new BCryptPasswordEncoder().encode(Dataset.PASSWORD);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into users (id, email, password) values (?, ?, ?)")) {
+            for (int index = 0; index < settings.getUsers(); index++) {
+                final long id = firstId + index;
+                insert.setLong(1, id);
+                insert.setString(2, "user-" + id + EMAIL_DOMAIN);
+                insert.setString(3, passwordHash);
+                insert.addBatch();
+                if ((index + 1) % settings.getBatchSize() == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Categories and ingredients are stored as vocabulary ids, terms already in the vocabulary are reused.
+     */
+    private Map<String, Integer> insertTerms(Connection connection) throws SQLException {
+        final Map<String, Integer> termIds = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select id, term from vocabulary_terms")) {
+            while (rows.next()) {
+                termIds.put(rows.getString(2), rows.getInt(1));
+            }
+        }
+        final long firstTermId = maxId(connection, "vocabulary_terms") + 1;
+        int added = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into vocabulary_terms (id, term) values (?, ?)")) {
+            for (String term : concat(categories, ingredients)) {
+                if (!termIds.containsKey(term)) {
+                    final int id = Math.toIntExact(firstTermId + added++);
+                    termIds.put(term, id);
+                    insert.setInt(1, id);
+                    insert.setString(2, term);
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        restartIdentity(connection, "vocabulary_terms", firstTermId + added);
+        return termIds;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        final List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private void insertRecipes(Connection connection, long firstUserId, long firstRecipeId,
+                               Map<String, Integer> termIds) throws SQLException {
+        final ZipfSampler owners = new ZipfSampler(settings.getUsers(), settings.getUserSkew());
+        final ZipfSampler ingredientRanks = new ZipfSampler(ingredients.size(), settings.getIngredientSkew());
+        final ZipfSampler categoryRanks = new ZipfSampler(categories.size(), 0.5);
+        final LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement recipes = connection.prepareStatement(
+                "insert into recipes (id, name, description, category_id, date, user_id, version) values (?, ?, ?, ?, ?, ?, 0)");
+             PreparedStatement recipeIngredients = connection.prepareStatement(
+                     "insert into recipe_ingredients (recipe_id, ingredients_order, ingredient_id) values (?, ?, ?)");
+             PreparedStatement recipeDirections = connection.prepareStatement(
+                     "insert into recipe_directions (recipe_id, directions_order, directions) values (?, ?, ?)")) {
+            for (int index = 0; index < settings.getRecipes(); index++) {
+                final long id = firstRecipeId + index;
+                final List<String> recipeIngredientList = pickIngredients(ingredientRanks);
+                final String category = categories.get(categoryRanks.sample(random));
+                recipes.setLong(1, id);
+                recipes.setString(2, recipeIngredientList.get(0) + " " + category + " " + id);
+                recipes.setString(3, "A " + category + " with " + String.join(", ", recipeIngredientList));
+                recipes.setInt(4, termIds.get(category));
+                recipes.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(random.nextInt(365 * 24 * 60))));
+                recipes.setLong(6, firstUserId + owners.sample(random));
+                recipes.addBatch();
+                for (int position = 0; position < recipeIngredientList.size(); position++) {
+                    recipeIngredients.setLong(1, id);
+                    recipeIngredients.setInt(2, position);
+                    recipeIngredients.setInt(3, termIds.get(recipeIngredientList.get(position)));
+                    recipeIngredients.addBatch();
+                }
+                final int steps = 2 + random.nextInt(7);
+                for (int position = 0; position < steps; position++) {
+                    recipeDirections.setLong(1, id);
+                    recipeDirections.setInt(2, position);
+                    recipeDirections.setString(3, "Step " + (position + 1) + ": prepare the "
+                            + recipeIngredientList.get(position % recipeIngredientList.size()));
+                    recipeDirections.addBatch();
+                }
+                if ((index + 1) % settings.getBatchSize() == 0) {
+                    flush(connection, recipes, recipeIngredients, recipeDirections);
+                    log.info("Seeded " + (index + 1) + " recipes");
+                }
+            }
+            flush(connection, recipes, recipeIngredients, recipeDirections);
+        }
+    }
+
+    private List<String> pickIngredients(ZipfSampler ranks) {
+        final int count = Math.min(ingredients.size(), 3 + random.nextInt(10));
+        final Set<String> picked = new LinkedHashSet<>();
+        while (picked.size() < count) {
+            picked.add(ingredients.get(ranks.sample(random)));
+        }
+        return new ArrayList<>(picked);
+    }
+
+    /**
+     * Parents first, the collection tables reference them.
+     */
+    private static void flush(Connection connection, PreparedStatement... batches) throws SQLException {
+        for (PreparedStatement batch : batches) {
+            batch.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private void restartIdentity(Connection connection, String table, long nextId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (settings.isH2()) {
+                statement.execute("alter table " + table + " alter column id restart with " + nextId);
+            } else {
+                statement.execute("select setval(pg_get_serial_sequence('" + table + "', 'id'), " + (nextId - 1) + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.recipesapi.loadtest;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * What the load driver needs to know about the seeded data: who can log in and who owns which recipe.
+ */
+@Value
+public class Dataset {
+    public static final String PASSWORD = "loadtest";
+
+    List<SeededUser> users;
+    long[] recipeIds;
+    List<String> categories;
+    List<String> ingredients;
+
+    public SeededUser randomUser(SplittableRandom random) {
+        return users.get(random.nextInt(users.size()));
+    }
+
+    /**
+     * A random user that owns at least one recipe, or {@code null} when nobody does.
+     */
+    public SeededUser randomOwner(SplittableRandom random) {
+        for (int attempt = 0; attempt < 16; attempt++) {
+            final SeededUser user = randomUser(random);
+            if (user.getRecipeIds().length > 0) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    public long randomRecipeId(SplittableRandom random) {
+        return recipeIds[random.nextInt(recipeIds.length)];
+    }
+
+    @Value
+    public static class SeededUser {
+        long id;
+        String email;
+        long[] recipeIds;
+    }
+}
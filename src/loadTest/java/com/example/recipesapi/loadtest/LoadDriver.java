@@ -0,0 +1,110 @@
+package com.example.recipesapi.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open model load generator: requests are sent on a fixed schedule at the target rate, whether or not earlier
+ * responses have arrived. At most {@code maxInFlight} requests wait for a response, requests beyond that are
+ * dropped and reported as errors.
+ */
+@Log4j2
+public class LoadDriver {
+    private final LoadTestSettings settings;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public LoadDriver(final LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    public LoadReport run(String baseUrl, Dataset dataset) throws InterruptedException {
+        final SplittableRandom random = new SplittableRandom(settings.getRandomSeed());
+        final Operation.Context context = new Operation.Context(baseUrl, dataset, random);
+        final List<Operation> mix = mix(settings.getMix());
+        final LoadReport report = new LoadReport(settings.getRps());
+        final Semaphore inFlight = new Semaphore(settings.getMaxInFlight());
+        final long interval = TimeUnit.SECONDS.toNanos(1) / settings.getRps();
+        final long start = System.nanoTime();
+        final long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        final long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+        log.info("Driving " + settings.getRps() + " rps against " + baseUrl + " for " + settings.getWarmupSeconds()
+                + " s warmup and " + settings.getDurationSeconds() + " s measurement");
+
+        for (long sent = 0; ; sent++) {
+            final long scheduled = start + sent * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            final long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final Operation operation = mix.get(random.nextInt(mix.size()));
+            final boolean measured = scheduled >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    report.recordDropped(operation);
+                }
+                continue;
+            }
+            client.sendAsync(operation.request(context).timeout(Duration.ofSeconds(30)).build(),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (!measured) {
+                            return;
+                        }
+                        final long latency = System.nanoTime() - scheduled;
+                        if (error != null) {
+                            report.recordError(operation, latency, error.getClass().getSimpleName());
+                        } else if (response.statusCode() >= 400) {
+                            report.recordError(operation, latency, "HTTP " + response.statusCode());
+                        } else {
+                            report.recordSuccess(operation, latency);
+                        }
+                    });
+        }
+        if (!inFlight.tryAcquire(settings.getMaxInFlight(), 60, TimeUnit.SECONDS)) {
+            log.warn("Some requests were still running when the report was made");
+        }
+        report.finish(end - measureFrom);
+        return report;
+    }
+
+    /**
+     * Expands weights into a list to pick from, {@code getRecipe:40,addRecipe:5} or the default weights when empty.
+     */
+    static List<Operation> mix(String weights) {
+        final List<Operation> mix = new ArrayList<>();
+        if (weights == null || weights.isBlank()) {
+            for (Operation operation : Operation.values()) {
+                for (int i = 0; i < operation.getDefaultWeight(); i++) {
+                    mix.add(operation);
+                }
+            }
+            return mix;
+        }
+        for (String weight : weights.split(",")) {
+            final String[] parts = weight.trim().split(":");
+            final Operation operation = Operation.byKey(parts[0].trim());
+            for (int i = 0; i < Integer.parseInt(parts[1].trim()); i++) {
+                mix.add(operation);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty operation mix " + weights);
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.recipesapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per operation, measured from the moment a request was scheduled to be sent, so a stalled server
+ * shows up as latency instead of as fewer requests (coordinated omission).
+ */
+public class LoadReport {
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final Histogram total = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final int targetRps;
+    private long measuredNanos;
+
+    public LoadReport(final int targetRps) {
+        this.targetRps = targetRps;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void recordSuccess(Operation operation, long latencyNanos) {
+        record(operation, latencyNanos);
+        stats.get(operation).succeeded.increment();
+    }
+
+    void recordError(Operation operation, long latencyNanos, String error) {
+        record(operation, latencyNanos);
+        stats.get(operation).failed.increment();
+        errors.computeIfAbsent(operation.getKey() + " " + error, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Requests not sent because too many were still waiting for a response, counted as errors.
+     */
+    void recordDropped(Operation operation) {
+        stats.get(operation).dropped.increment();
+        errors.computeIfAbsent(operation.getKey() + " dropped", key -> new LongAdder()).increment();
+    }
+
+    void finish(long measuredNanos) {
+        this.measuredNanos = measuredNanos;
+    }
+
+    private void record(Operation operation, long latencyNanos) {
+        final long micros = Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)), HIGHEST_LATENCY_MICROS);
+        stats.get(operation).latency.recordValue(micros);
+        total.recordValue(micros);
+    }
+
+    public String render() {
+        final double seconds = measuredNanos / 1e9;
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("Target %d rps, measured %.1f s%n%n", targetRps, seconds));
+        report.append(String.format("%-20s %8s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "rps", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms"));
+        stats.forEach((operation, operationStats) -> {
+            if (operationStats.attempts() > 0) {
+                report.append(row(operation.getKey(), operationStats.latency, operationStats.attempts(),
+                        operationStats.errors(), seconds));
+            }
+        });
+        final long attempts = stats.values().stream().mapToLong(Stats::attempts).sum();
+        final long failures = stats.values().stream().mapToLong(Stats::errors).sum();
+        report.append(row("total", total, attempts, failures, seconds));
+        if (!errors.isEmpty()) {
+            report.append(String.format("%nErrors:%n"));
+            new TreeMap<>(errors).forEach((error, count) -> report.append(String.format("  %-40s %d%n", error, count.sum())));
+        }
+        return report.toString();
+    }
+
+    private static String row(String name, Histogram latency, long attempts, long failures, double seconds) {
+        return String.format("%-20s %8d %8.1f %6.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, attempts, attempts / seconds, attempts == 0 ? 0 : 100.0 * failures / attempts,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()), latency.getMean() / 1000);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Stats {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        private long attempts() {
+            return succeeded.sum() + failed.sum() + dropped.sum();
+        }
+
+        private long errors() {
+            return failed.sum() + dropped.sum();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.recipesapi.loadtest;
+
+import com.example.recipesapi.RecipesApiApplication;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds the database and load tests the api, see the "Load testing" section of the README.
+ * <p>
+ * Without {@code loadtest.base-url} everything runs in this JVM: the application is started once to create the
+ * schema, the data is seeded, and the application is started again, so its in-memory indexes include the seeded
+ * data, before the load is driven against it. With {@code seed-only} as argument it stops after seeding.
+ */
+@Log4j2
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        final boolean seedOnly = args.length > 0 && args[0].equals("seed-only");
+        final boolean embedded = settings.getBaseUrl() == null;
+        final DataSeeder seeder = new DataSeeder(settings);
+
+        if (settings.isSeed()) {
+            if (embedded || seedOnly) {
+                createSchema(settings);
+            }
+            try (Connection connection = connect(settings)) {
+                seeder.seed(connection);
+            }
+        }
+        if (seedOnly) {
+            return;
+        }
+
+        final Dataset dataset;
+        try (Connection connection = connect(settings)) {
+            dataset = seeder.load(connection);
+        }
+        final LoadReport report;
+        if (embedded) {
+            try (ConfigurableApplicationContext application = application(WebApplicationType.SERVLET)
+                    .run(arguments(settings, "--server.port=0"))) {
+                final String port = application.getEnvironment().getProperty("local.server.port");
+                report = new LoadDriver(settings).run("http://localhost:" + port, dataset);
+            }
+        } else {
+            report = new LoadDriver(settings).run(settings.getBaseUrl(), dataset);
+        }
+
+        final String rendered = report.render();
+        log.info("Load test report:\n" + rendered);
+        Files.createDirectories(settings.getReport().toAbsolutePath().getParent());
+        Files.writeString(settings.getReport(), rendered);
+        log.info("Report written to " + settings.getReport().toAbsolutePath());
+    }
+
+    /**
+     * Lets Hibernate create or update the schema the seeder writes to.
+     */
+    private static void createSchema(LoadTestSettings settings) {
+        application(WebApplicationType.NONE).run(arguments(settings)).close();
+    }
+
+    private static SpringApplicationBuilder application(WebApplicationType type) {
+        return new SpringApplicationBuilder(RecipesApiApplication.class).web(type);
+    }
+
+    /**
+     * Passed as command line arguments, they have to override application.properties.
+     */
+    private static String[] arguments(LoadTestSettings settings, String... extra) {
+        final List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + settings.getJdbcUrl(),
+                "--spring.datasource.driverClassName=" + settings.driverClassName(),
+                "--spring.datasource.username=" + settings.getJdbcUser(),
+                "--spring.datasource.password=" + settings.getJdbcPassword(),
+                "--spring.jpa.hibernate.ddl-auto=update"));
+        arguments.addAll(List.of(extra));
+        return arguments.toArray(String[]::new);
+    }
+
+    private static Connection connect(LoadTestSettings settings) throws Exception {
+        return DriverManager.getConnection(settings.getJdbcUrl(), settings.getJdbcUser(), settings.getJdbcPassword());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.recipesapi.loadtest;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * Load test configuration, read from {@code loadtest.*} system properties. The Gradle tasks pass on every
+ * {@code -Dloadtest.*} property they are started with.
+ */
+@Value
+public class LoadTestSettings {
+    String jdbcUrl;
+    String jdbcUser;
+    String jdbcPassword;
+    String baseUrl;
+    boolean seed;
+    int users;
+    int recipes;
+    double userSkew;
+    double ingredientSkew;
+    int ingredients;
+    int categories;
+    long randomSeed;
+    int batchSize;
+    int rps;
+    int durationSeconds;
+    int warmupSeconds;
+    int maxInFlight;
+    String mix;
+    Path report;
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                System.getProperty("loadtest.jdbc-url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1"),
+                System.getProperty("loadtest.jdbc-user", "sa"),
+                System.getProperty("loadtest.jdbc-password", ""),
+                System.getProperty("loadtest.base-url"),
+                Boolean.parseBoolean(System.getProperty("loadtest.seed", "true")),
+                Integer.getInteger("loadtest.users", 1_000),
+                Integer.getInteger("loadtest.recipes", 20_000),
+                Double.parseDouble(System.getProperty("loadtest.user-skew", "1.1")),
+                Double.parseDouble(System.getProperty("loadtest.ingredient-skew", "1.0")),
+                Integer.getInteger("loadtest.ingredients", 500),
+                Integer.getInteger("loadtest.categories", 20),
+                Long.getLong("loadtest.random-seed", 42),
+                Integer.getInteger("loadtest.batch-size", 1_000),
+                Integer.getInteger("loadtest.rps", 100),
+                Integer.getInteger("loadtest.duration-s", 60),
+                Integer.getInteger("loadtest.warmup-s", 10),
+                Integer.getInteger("loadtest.max-in-flight", 500),
+                System.getProperty("loadtest.mix", ""),
+                Path.of(System.getProperty("loadtest.report", "build/loadtest/report.txt"))
+        );
+    }
+
+    public boolean isH2() {
+        return jdbcUrl.startsWith("jdbc:h2:");
+    }
+
+    public String driverClassName() {
+        return isH2() ? "org.h2.Driver" : "org.postgresql.Driver";
+    }
+}
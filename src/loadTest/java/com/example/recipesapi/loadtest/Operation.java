@@ -0,0 +1,189 @@
+package com.example.recipesapi.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Calls of the scripted mix with their default weights. Authenticated calls log in with HTTP basic as a random
+ * seeded user, like real clients do on every request.
+ */
+public enum Operation {
+    GET_RECIPE("getRecipe", 35) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            return context.get("/api/v1/recipe/" + context.dataset.randomRecipeId(context.random));
+        }
+    },
+    GET_RECIPES_BY_IDS("getRecipesByIds", 5) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            final String ids = LongStream.range(0, 20)
+                    .mapToObj(index -> String.valueOf(context.dataset.randomRecipeId(context.random)))
+                    .collect(Collectors.joining(","));
+            return context.get("/api/v1/recipe?ids=" + ids);
+        }
+    },
+    SUGGEST("suggest", 10) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            final String ingredient = context.randomIngredient();
+            return context.get("/api/v1/recipe/suggest?q="
+                    + encode(ingredient.substring(0, Math.min(ingredient.length(), 1 + context.random.nextInt(4)))));
+        }
+    },
+    SEARCH_BY_INGREDIENTS("searchByIngredients", 8) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            return context.authenticated(context.get("/api/v1/recipe/search/ingredients?all="
+                    + encode(context.randomIngredient()) + "&any=" + encode(context.randomIngredient())));
+        }
+    },
+    FACETS("facets", 4) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            return context.get("/api/v1/recipe/facets?ingredients=20");
+        }
+    },
+    SEARCH_BY_NAME("searchByName", 8) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            return context.authenticated(context.get("/api/v1/recipe/search/?name=" + encode(context.randomIngredient())));
+        }
+    },
+    SEARCH_BY_CATEGORY("searchByCategory", 4) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            final String category = context.dataset.getCategories()
+                    .get(context.random.nextInt(context.dataset.getCategories().size()));
+            return context.authenticated(context.get("/api/v1/recipe/search/?category=" + encode(category)));
+        }
+    },
+    MY_RECIPES("myRecipes", 5) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            return context.authenticated(context.get("/api/v1/recipe/my"));
+        }
+    },
+    ADD_RECIPE("addRecipe", 8) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            return context.authenticated(context.json("/api/v1/recipe", "POST", context.recipeJson()));
+        }
+    },
+    UPDATE_RECIPE("updateRecipe", 6) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            final Dataset.SeededUser owner = context.dataset.randomOwner(context.random);
+            if (owner == null) {
+                return GET_RECIPE.request(context);
+            }
+            final long recipeId = owner.getRecipeIds()[context.random.nextInt(owner.getRecipeIds().length)];
+            return context.authenticatedAs(owner,
+                    context.json("/api/v1/recipe/" + recipeId, "PUT", context.recipeJson()));
+        }
+    },
+    REGISTER("register", 3) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            final String email = "new-" + context.runId + "-" + context.registrations.incrementAndGet()
+                    + DataSeeder.EMAIL_DOMAIN;
+            return context.json("/api/v1/auth/register", "POST",
+                    "{\"email\":\"" + email + "\",\"password\":\"" + Dataset.PASSWORD + "\"}");
+        }
+    },
+    GET_USER("getUser", 4) {
+        @Override
+        HttpRequest.Builder request(Context context) {
+            return context.authenticated(context.get("/api/v1/auth/" + context.dataset.randomUser(context.random).getId()));
+        }
+    };
+
+    private final String key;
+    private final int defaultWeight;
+
+    Operation(final String key, final int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    abstract HttpRequest.Builder request(Context context);
+
+    public static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Shared by all requests of a run. Only used from the thread that schedules the requests.
+     */
+    static class Context {
+        private final String baseUrl;
+        private final Dataset dataset;
+        private final SplittableRandom random;
+        private final long runId = System.currentTimeMillis();
+        private final AtomicLong registrations = new AtomicLong();
+
+        Context(final String baseUrl, final Dataset dataset, final SplittableRandom random) {
+            this.baseUrl = baseUrl;
+            this.dataset = dataset;
+            this.random = random;
+        }
+
+        private HttpRequest.Builder get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        }
+
+        private HttpRequest.Builder json(String path, String method, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        }
+
+        private HttpRequest.Builder authenticated(HttpRequest.Builder request) {
+            return authenticatedAs(dataset.randomUser(random), request);
+        }
+
+        private HttpRequest.Builder authenticatedAs(Dataset.SeededUser user, HttpRequest.Builder request) {
+            final String credentials = user.getEmail() + ":" + Dataset.PASSWORD;
+            return request.header("Authorization", "Basic " + Base64.getEncoder()
+                    .encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        private String randomIngredient() {
+            return dataset.getIngredients().get(random.nextInt(dataset.getIngredients().size()));
+        }
+
+        private String recipeJson() {
+            final String category = dataset.getCategories().get(random.nextInt(dataset.getCategories().size()));
+            final String ingredient = randomIngredient();
+            return "{\"name\":\"" + ingredient + " " + category + "\","
+                    + "\"description\":\"Load test " + category + "\","
+                    + "\"category\":\"" + category + "\","
+                    + "\"ingredients\":[\"" + ingredient + "\",\"" + randomIngredient() + "\"],"
+                    + "\"directions\":[\"Mix\",\"Cook\"]}";
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.recipesapi.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic ingredient and category names, so a seeded database can be reused by later runs.
+ */
+public final class Vocabulary {
+    private static final List<String> INGREDIENTS = List.of(
+            "salt", "pepper", "olive oil", "garlic", "onion", "butter", "sugar", "flour", "egg", "milk",
+            "tomato", "water", "lemon", "parsley", "basil", "carrot", "potato", "rice", "chicken", "beef",
+            "pork", "cream", "cheese", "paprika", "cumin", "ginger", "soy sauce", "honey", "vinegar", "mushroom",
+            "spinach", "bell pepper", "chili", "coriander", "thyme", "rosemary", "oregano", "cinnamon", "nutmeg", "yogurt",
+            "pasta", "bread", "celery", "leek", "zucchini", "eggplant", "lentils", "chickpeas", "beans", "salmon"
+    );
+    private static final List<String> MODIFIERS = List.of(
+            "fresh", "dried", "smoked", "ground", "chopped", "roasted", "pickled", "grated", "frozen", "minced",
+            "sliced", "toasted", "sweet", "spicy", "organic", "wild", "baby", "red", "green", "white"
+    );
+    private static final List<String> CATEGORIES = List.of(
+            "soup", "salad", "dessert", "breakfast", "pasta", "curry", "stew", "cake", "bread", "snack",
+            "sandwich", "pie", "risotto", "grill", "sauce", "drink", "casserole", "stir fry", "pizza", "dumplings"
+    );
+
+    private Vocabulary() {
+    }
+
+    public static List<String> ingredients(int size) {
+        final List<String> ingredients = new ArrayList<>(size);
+        for (int index = 0; ingredients.size() < size; index++) {
+            if (index < INGREDIENTS.size()) {
+                ingredients.add(INGREDIENTS.get(index));
+            } else {
+                final int combination = index - INGREDIENTS.size();
+                final int round = combination / (MODIFIERS.size() * INGREDIENTS.size());
+                final String name = MODIFIERS.get(combination % MODIFIERS.size()) + " "
+                        + INGREDIENTS.get(combination / MODIFIERS.size() % INGREDIENTS.size());
+                ingredients.add(round == 0 ? name : name + " " + (round + 1));
+            }
+        }
+        return ingredients;
+    }
+
+    public static List<String> categories(int size) {
+        final List<String> categories = new ArrayList<>(size);
+        for (int index = 0; categories.size() < size; index++) {
+            categories.add(index < CATEGORIES.size() ? CATEGORIES.get(index) : "category " + (index + 1));
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.recipesapi.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks {@code 0..size-1} where rank k is drawn with probability proportional to {@code 1 / (k + 1)^skew}:
+ * a few users own most recipes, a few ingredients appear in most of them. Skew 0 is uniform.
+ */
+public class ZipfSampler {
+    private final double[] cumulative;
+
+    public ZipfSampler(int size, double skew) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        final int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -1,21 +1,20 @@
 package com.example.recipesapi;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class RecipesApiApplication {
+	private static final int STARTUP_STEPS_BUFFER = 4096;
 
 	public static void main(String[] args) {
-		SpringApplication.run(RecipesApiApplication.class, args);
-	}
-
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
+		SpringApplication application = new SpringApplication(RecipesApiApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_BUFFER));
+		application.run(args);
 	}
 }
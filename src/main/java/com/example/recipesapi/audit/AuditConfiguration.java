@@ -0,0 +1,54 @@
+package com.example.recipesapi.audit;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Locale;
+
+/**
+ * Audit log of recipe changes, written to the {@code recipe_audit_log} table ({@code recipes.audit.sink=jdbc}) or
+ * to segment files ({@code file}). Disabled with {@code recipes.audit.enabled=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "recipes.audit.enabled", matchIfMissing = true)
+@Log4j2
+public class AuditConfiguration {
+
+    @Bean
+    AuditSink auditSink(@Value("${recipes.audit.sink:jdbc}") String sink,
+                        @Value("${recipes.audit.file.path:data/audit}") String path,
+                        @Value("${recipes.audit.file.segment-bytes:67108864}") int segmentBytes,
+                        @Value("${recipes.audit.file.max-segments:16}") int maxSegments,
+                        JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate) throws IOException {
+        switch (sink) {
+            case "jdbc":
+                return new JdbcAuditSink(jdbcTemplate, transactionTemplate);
+            case "file":
+                log.info("Writing audit records to " + path);
+                return new SegmentFileAuditSink(Path.of(path), segmentBytes, maxSegments);
+            default:
+                throw new IllegalArgumentException("Unknown audit sink " + sink + ", use jdbc or file");
+        }
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    AuditLog auditLog(AuditSink auditSink,
+                      @Value("${recipes.audit.queue-capacity:65536}") int capacity,
+                      @Value("${recipes.audit.back-pressure:drop}") String backPressure,
+                      @Value("${recipes.audit.block-timeout-ms:100}") long blockTimeoutMillis,
+                      @Value("${recipes.audit.batch-size:500}") int batchSize,
+                      @Value("${recipes.audit.idle-wait-ms:20}") long idleWaitMillis,
+                      @Value("${recipes.audit.retry-interval-ms:1000}") long retryIntervalMillis) {
+        return new AuditLog(auditSink, capacity, AuditLog.BackPressure.valueOf(backPressure.toUpperCase(Locale.ROOT)),
+                blockTimeoutMillis, batchSize, idleWaitMillis, retryIntervalMillis, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.recipesapi.audit;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.security.model.CustomUserDetails;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of recipe changes. Committed changes are handed to an {@link AuditQueue} by the committing thread,
+ * which never waits for the sink, a single writer thread takes them off in batches of up to {@code batchSize} and
+ * writes each batch to the {@link AuditSink}. While the sink fails the batch is retried and the queue fills up.
+ * <p>
+ * With a full queue the committing thread either drops the record ({@link BackPressure#DROP}) or waits for the
+ * writer up to the block timeout and then drops it ({@link BackPressure#BLOCK}). Dropped records are counted, as
+ * is the lag from a change to its record being written.
+ */
+@Log4j2
+public class AuditLog implements MeterBinder {
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditQueue<AuditRecord> queue;
+    private final AuditSink sink;
+    private final BackPressure backPressure;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long idleWaitNanos;
+    private final long retryIntervalNanos;
+    private final Clock clock;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile boolean running = true;
+    private volatile boolean writerIdle;
+    private volatile Timer lag;
+
+    public AuditLog(final AuditSink sink,
+                    final int capacity,
+                    final BackPressure backPressure,
+                    final long blockTimeoutMillis,
+                    final int batchSize,
+                    final long idleWaitMillis,
+                    final long retryIntervalMillis,
+                    final Clock clock) {
+        this.queue = new AuditQueue<>(capacity);
+        this.sink = sink;
+        this.backPressure = backPressure;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.batchSize = batchSize;
+        this.idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(idleWaitMillis);
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(retryIntervalMillis);
+        this.clock = clock;
+        this.writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+    }
+
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * The actor is the authenticated user of the thread that committed the change, none for background jobs.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        final Long actorId = authentication != null && authentication.getPrincipal() instanceof CustomUserDetails details
+                ? details.getUser().getId()
+                : null;
+        append(AuditRecord.of(event, actorId));
+    }
+
+    /**
+     * @return false when the record was dropped
+     */
+    public boolean append(AuditRecord record) {
+        if (queue.offer(record)) {
+            wakeWriter();
+            return true;
+        }
+        if (backPressure == BackPressure.BLOCK) {
+            final long deadline = System.nanoTime() + blockTimeoutNanos;
+            wakeWriter();
+            while (running && deadline - System.nanoTime() > 0) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (queue.offer(record)) {
+                    wakeWriter();
+                    return true;
+                }
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Stops taking records and writes the ones queued, unless the sink fails; those are counted as dropped.
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void wakeWriter() {
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void run() {
+        final List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (true) {
+            if (batch.isEmpty() && queue.drain(batch::add, batchSize) == 0) {
+                if (!running) {
+                    return;
+                }
+                writerIdle = true;
+                if (queue.size() == 0) {
+                    LockSupport.parkNanos(idleWaitNanos);
+                }
+                writerIdle = false;
+                continue;
+            }
+            if (write(batch)) {
+                batch.clear();
+            } else if (running) {
+                LockSupport.parkNanos(retryIntervalNanos);
+            } else {
+                dropped.add(batch.size());
+                batch.clear();
+                queue.drain(record -> dropped.increment(), Integer.MAX_VALUE);
+                return;
+            }
+        }
+    }
+
+    private boolean write(List<AuditRecord> batch) {
+        try {
+            sink.write(batch);
+        } catch (IOException | RuntimeException e) {
+            failedBatches.increment();
+            log.warn("Could not write " + batch.size() + " audit records, retrying: " + e.getMessage());
+            return false;
+        }
+        written.add(batch.size());
+        final Timer timer = lag;
+        if (timer != null) {
+            final long now = clock.millis();
+            batch.forEach(record ->
+                    timer.record(Math.max(0, now - record.getOccurredAt().toEpochMilli()), TimeUnit.MILLISECONDS));
+        }
+        return true;
+    }
+
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public long failedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("recipes.audit.records", written, LongAdder::sum)
+                .description("Audit records written to the sink")
+                .tag("outcome", "written")
+                .register(registry);
+        FunctionCounter.builder("recipes.audit.records", dropped, LongAdder::sum)
+                .description("Audit records lost to a full queue or a sink failing at shutdown")
+                .tag("outcome", "dropped")
+                .register(registry);
+        FunctionCounter.builder("recipes.audit.batches.failed", failedBatches, LongAdder::sum)
+                .description("Batches the sink failed to write, they are retried")
+                .register(registry);
+        Gauge.builder("recipes.audit.queue.size", queue, AuditQueue::size)
+                .description("Audit records waiting for the writer")
+                .register(registry);
+        Gauge.builder("recipes.audit.queue.capacity", queue, AuditQueue::capacity)
+                .register(registry);
+        lag = Timer.builder("recipes.audit.lag")
+                .description("Time from a recipe change to its audit record being written")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    public enum BackPressure {
+        DROP,
+        BLOCK
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.recipesapi.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue for many producers and a single consumer, without locks. Like a disruptor ring buffer, producers
+ * claim a sequence with a compare-and-set on the tail and publish their slot by writing its sequence into it, the
+ * consumer takes slots in sequence order as long as they are published. A producer that finds the ring full gets
+ * {@code false} back and decides itself whether to drop or retry.
+ */
+public class AuditQueue<T> {
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public AuditQueue(final int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, was: " + capacity);
+        }
+        final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Object[size];
+        this.published = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int index = 0; index < size; index++) {
+            published.set(index, -1);
+        }
+    }
+
+    /**
+     * @return false when the queue is full
+     */
+    public boolean offer(T value) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head.get() >= slots.length) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        final int index = (int) (sequence & mask);
+        slots[index] = value;
+        published.lazySet(index, sequence);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} values to the consumer, in the order their sequences were claimed. Stops early at a
+     * slot that is claimed but not yet published. Must only be called by one thread at a time.
+     *
+     * @return number of values drained
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<T> consumer, int max) {
+        long sequence = head.get();
+        int drained = 0;
+        while (drained < max) {
+            final int index = (int) (sequence & mask);
+            if (published.get(index) != sequence) {
+                break;
+            }
+            final T value = (T) slots[index];
+            slots[index] = null;
+            sequence++;
+            drained++;
+            consumer.accept(value);
+        }
+        head.lazySet(sequence);
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.recipesapi.audit;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * One committed recipe change: what happened to which recipe of which owner, and who did it. The actor is
+ * {@code null} for changes made by the application itself, e.g. archiving old recipes.
+ */
+@Value
+public class AuditRecord {
+    Instant occurredAt;
+    RecipeChangeEvent.ChangeType action;
+    Long recipeId;
+    Long ownerId;
+    Long actorId;
+    String recipeName;
+
+    public static AuditRecord of(RecipeChangeEvent event, Long actorId) {
+        return new AuditRecord(event.getOccurredAt(), event.getType(), event.getRecipeId(), event.getUserId(), actorId,
+                event.latest() != null ? event.latest().getName() : null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.recipesapi.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Durable store of audit records, written to by a single thread. A batch that fails is written again as a whole,
+ * so records written before the failure are stored twice.
+ */
+public interface AuditSink {
+
+    void write(List<AuditRecord> records) throws IOException;
+
+    default void close() throws IOException {
+    }
+}
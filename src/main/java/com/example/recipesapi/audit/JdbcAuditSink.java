@@ -0,0 +1,40 @@
+package com.example.recipesapi.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts each batch of records with one JDBC batch in one transaction into {@code recipe_audit_log}.
+ */
+public class JdbcAuditSink implements AuditSink {
+    static final String INSERT_SQL = "insert into recipe_audit_log "
+            + "(occurred_at, action, recipe_id, owner_id, actor_id, recipe_name) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcAuditSink(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        final List<Object[]> rows = records.stream()
+                .map(record -> new Object[]{
+                        Timestamp.from(record.getOccurredAt()),
+                        record.getAction().name(),
+                        record.getRecipeId(),
+                        record.getOwnerId(),
+                        record.getActorId(),
+                        record.getRecipeName()})
+                .collect(Collectors.toList());
+        final int[] types = {Types.TIMESTAMP, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.VARCHAR};
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows, types));
+    }
+}
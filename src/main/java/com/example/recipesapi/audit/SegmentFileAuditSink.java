@@ -0,0 +1,198 @@
+package com.example.recipesapi.audit;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Appends records to segment files of up to {@code segmentBytes}, {@code audit-<number>.seg} in the directory.
+ * A record is its length, its fields and a CRC32 of them; a torn record at the end (after a crash) fails its
+ * checksum. Every start and every full segment begins a new segment, the previous one is closed and only the
+ * newest {@code maxSegments} are kept. Each batch is written with one call and forced to disk.
+ */
+@Log4j2
+public class SegmentFileAuditSink implements AuditSink {
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".seg";
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private long segmentNumber;
+    private FileChannel segment;
+    private long position;
+
+    public SegmentFileAuditSink(final Path directory, final int segmentBytes, final int maxSegments) throws IOException {
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be kept, was: " + maxSegments);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        final List<Path> existing = segments(directory);
+        segmentNumber = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1));
+        rotate();
+    }
+
+    /**
+     * Records are encoded before any of them is written, a record that can't be written fails the batch as a whole.
+     */
+    @Override
+    public void write(List<AuditRecord> records) throws IOException {
+        final List<byte[]> payloads = new ArrayList<>(records.size());
+        for (AuditRecord record : records) {
+            final byte[] payload = encode(record);
+            if (HEADER_BYTES + payload.length + TRAILER_BYTES > segmentBytes) {
+                throw new IOException("Audit record of recipe " + record.getRecipeId() + " doesn't fit into a segment");
+            }
+            payloads.add(payload);
+        }
+        final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(batch);
+        for (byte[] payload : payloads) {
+            if (position + batch.size() + HEADER_BYTES + payload.length + TRAILER_BYTES > segmentBytes) {
+                append(batch);
+                rotate();
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(payload);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeInt((int) crc.getValue());
+        }
+        append(batch);
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment.close();
+    }
+
+    /**
+     * Segment files of the directory, oldest first.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Records of a segment, up to the first torn record if there is one.
+     */
+    public static List<AuditRecord> read(Path segment) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        final List<AuditRecord> records = new ArrayList<>();
+        while (buffer.remaining() >= HEADER_BYTES + TRAILER_BYTES) {
+            final int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - TRAILER_BYTES) {
+                break;
+            }
+            final byte[] payload = new byte[length];
+            buffer.get(payload);
+            final CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            records.add(decode(ByteBuffer.wrap(payload)));
+        }
+        return records;
+    }
+
+    private void append(ByteArrayOutputStream batch) throws IOException {
+        if (batch.size() == 0) {
+            return;
+        }
+        final ByteBuffer bytes = ByteBuffer.wrap(batch.toByteArray());
+        while (bytes.hasRemaining()) {
+            position += segment.write(bytes, position);
+        }
+        segment.force(false);
+        batch.reset();
+    }
+
+    private void rotate() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        segmentNumber++;
+        final Path file = directory.resolve(String.format("%s%020d%s", PREFIX, segmentNumber, SUFFIX));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        position = 0;
+        final List<Path> all = segments(directory);
+        for (Path old : all.subList(0, Math.max(0, all.size() - maxSegments))) {
+            Files.deleteIfExists(old);
+        }
+        log.debug("Writing audit records to " + file);
+    }
+
+    private static long number(Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static byte[] encode(AuditRecord record) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(record.getOccurredAt().getEpochSecond());
+            out.writeInt(record.getOccurredAt().getNano());
+            out.writeByte(record.getAction().ordinal());
+            out.writeLong(orNone(record.getRecipeId()));
+            out.writeLong(orNone(record.getOwnerId()));
+            out.writeLong(orNone(record.getActorId()));
+            final byte[] name = record.getRecipeName() != null
+                    ? record.getRecipeName().getBytes(StandardCharsets.UTF_8)
+                    : new byte[0];
+            out.writeInt(record.getRecipeName() != null ? name.length : -1);
+            out.write(name);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static AuditRecord decode(ByteBuffer payload) {
+        final Instant occurredAt = Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+        final RecipeChangeEvent.ChangeType action = RecipeChangeEvent.ChangeType.values()[payload.get()];
+        final Long recipeId = orNull(payload.getLong());
+        final Long ownerId = orNull(payload.getLong());
+        final Long actorId = orNull(payload.getLong());
+        final int nameLength = payload.getInt();
+        String name = null;
+        if (nameLength >= 0) {
+            final byte[] bytes = new byte[nameLength];
+            payload.get(bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new AuditRecord(occurredAt, action, recipeId, ownerId, actorId, name);
+    }
+
+    private static long orNone(Long value) {
+        return value != null ? value : NONE;
+    }
+
+    private static Long orNull(long value) {
+        return value != NONE ? value : null;
+    }
+}
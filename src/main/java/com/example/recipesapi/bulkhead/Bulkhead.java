@@ -0,0 +1,124 @@
+package com.example.recipesapi.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many requests of one endpoint group run at the same time. A request that finds all slots taken waits
+ * at most {@code maxWait} for one, in arrival order, but only while fewer than {@code maxWaiting} requests are
+ * waiting already; otherwise it's rejected right away, so a saturated group fails fast instead of holding on to
+ * server threads other groups need.
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final long timeoutNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+    private final LongAdder rejectedWaiting = new LongAdder();
+
+    /**
+     * @param timeout deadline of the whole request, including the time spent waiting for a slot
+     */
+    public Bulkhead(final String name,
+                    final int maxConcurrent,
+                    final int maxWaiting,
+                    final Duration maxWait,
+                    final Duration timeout) {
+        if (maxConcurrent < 1 || maxWaiting < 0) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs at least one slot and a non-negative queue");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Takes a slot, every successful call must be followed by {@link #release()}.
+     *
+     * @throws BulkheadFullException when too many requests are waiting already or no slot freed up in time
+     */
+    public void acquire() {
+        // The timed variant honours fairness, a plain tryAcquire() would jump ahead of waiting requests.
+        if (tryAcquire(0)) {
+            accepted.increment();
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejectedFull.increment();
+            throw new BulkheadFullException("Too many concurrent " + name + " requests");
+        }
+        try {
+            if (!tryAcquire(maxWaitNanos)) {
+                rejectedWaiting.increment();
+                throw new BulkheadFullException("No free slot for " + name + " request in time");
+            }
+            accepted.increment();
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    private boolean tryAcquire(long nanos) {
+        try {
+            return permits.tryAcquire(nanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException("Interrupted while waiting for a " + name + " slot");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public int activeCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int waitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * Share of the slots in use, 1 once requests start to wait.
+     */
+    public double saturation() {
+        return (double) activeCount() / maxConcurrent;
+    }
+
+    public long acceptedCount() {
+        return accepted.sum();
+    }
+
+    public long rejectedFullCount() {
+        return rejectedFull.sum();
+    }
+
+    public long rejectedWaitingCount() {
+        return rejectedWaiting.sum();
+    }
+}
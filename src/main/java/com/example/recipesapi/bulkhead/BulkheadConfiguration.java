@@ -0,0 +1,33 @@
+package com.example.recipesapi.bulkhead;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "recipes.bulkhead.enabled", matchIfMissing = true)
+public class BulkheadConfiguration {
+
+    @Bean
+    BulkheadRegistry bulkheadRegistry(Environment environment) {
+        return new BulkheadRegistry(environment);
+    }
+
+    @Bean
+    DeadlineQueryTimeoutListener deadlineQueryTimeoutListener() {
+        return new DeadlineQueryTimeoutListener();
+    }
+
+    @Bean
+    WebMvcConfigurer bulkheadWebMvcConfigurer(BulkheadRegistry bulkheadRegistry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(final InterceptorRegistry registry) {
+                registry.addInterceptor(new BulkheadInterceptor(bulkheadRegistry));
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.recipesapi.bulkhead;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(final String message) {
+        super(message);
+    }
+
+}
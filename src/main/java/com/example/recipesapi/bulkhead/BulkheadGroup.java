@@ -0,0 +1,17 @@
+package com.example.recipesapi.bulkhead;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler method, or all handler methods of a controller, into a bulkhead group. The limits of a group are
+ * configured with {@code recipes.bulkhead.<group>.*}, see {@link BulkheadRegistry}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BulkheadGroup {
+
+    String value();
+}
@@ -0,0 +1,77 @@
+package com.example.recipesapi.bulkhead;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Runs handler methods annotated with {@link BulkheadGroup} inside their group's {@link Bulkhead} and sets the
+ * {@link RequestDeadline} for the rest of the request, rendering the response included. Rejected requests get
+ * {@code 503} with a {@code Retry-After} header.
+ */
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+    private static final String BULKHEAD_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".bulkhead";
+
+    private final BulkheadRegistry registry;
+
+    public BulkheadInterceptor(final BulkheadRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        final BulkheadGroup group = groupOf(handlerMethod);
+        if (group == null) {
+            return true;
+        }
+        final long start = System.nanoTime();
+        final Bulkhead bulkhead = registry.get(group.value());
+        try {
+            bulkhead.acquire();
+        } catch (BulkheadFullException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            throw e;
+        }
+        request.setAttribute(BULKHEAD_ATTRIBUTE, bulkhead);
+        RequestDeadline.set(start + bulkhead.getTimeoutNanos());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response,
+                                final Object handler, final Exception ex) {
+        release(request);
+    }
+
+    /**
+     * The thread goes back to the pool while the asynchronous part runs, so the slot and the deadline go with it.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(final HttpServletRequest request, final HttpServletResponse response,
+                                               final Object handler) {
+        release(request);
+    }
+
+    private static void release(HttpServletRequest request) {
+        final Object bulkhead = request.getAttribute(BULKHEAD_ATTRIBUTE);
+        if (bulkhead != null) {
+            request.removeAttribute(BULKHEAD_ATTRIBUTE);
+            ((Bulkhead) bulkhead).release();
+            RequestDeadline.clear();
+        }
+    }
+
+    private static BulkheadGroup groupOf(HandlerMethod handlerMethod) {
+        final BulkheadGroup methodGroup = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), BulkheadGroup.class);
+        return methodGroup != null
+                ? methodGroup
+                : AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), BulkheadGroup.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.recipesapi.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link Bulkhead} per group, created on first use from {@code recipes.bulkhead.<group>.max-concurrent},
+ * {@code max-waiting}, {@code max-wait-ms} and {@code timeout-ms}. Groups without settings get the defaults.
+ */
+public class BulkheadRegistry implements MeterBinder {
+    private final Environment environment;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final List<MeterRegistry> meterRegistries = new ArrayList<>();
+
+    public BulkheadRegistry(final Environment environment) {
+        this.environment = environment;
+    }
+
+    public Bulkhead get(String group) {
+        final Bulkhead existing = bulkheads.get(group);
+        return existing != null ? existing : create(group);
+    }
+
+    private synchronized Bulkhead create(String group) {
+        final Bulkhead existing = bulkheads.get(group);
+        if (existing != null) {
+            return existing;
+        }
+        final String prefix = "recipes.bulkhead." + group + ".";
+        final Bulkhead bulkhead = new Bulkhead(group,
+                environment.getProperty(prefix + "max-concurrent", Integer.class, 10),
+                environment.getProperty(prefix + "max-waiting", Integer.class, 20),
+                Duration.ofMillis(environment.getProperty(prefix + "max-wait-ms", Long.class, 500L)),
+                Duration.ofMillis(environment.getProperty(prefix + "timeout-ms", Long.class, 5000L)));
+        meterRegistries.forEach(registry -> bind(bulkhead, registry));
+        bulkheads.put(group, bulkhead);
+        return bulkhead;
+    }
+
+    @Override
+    public synchronized void bindTo(final MeterRegistry registry) {
+        meterRegistries.add(registry);
+        bulkheads.values().forEach(bulkhead -> bind(bulkhead, registry));
+    }
+
+    private static void bind(Bulkhead bulkhead, MeterRegistry registry) {
+        final Tags group = Tags.of("group", bulkhead.getName());
+        Gauge.builder("recipes.bulkhead.active", bulkhead, Bulkhead::activeCount)
+                .tags(group)
+                .description("Requests of the group being handled")
+                .register(registry);
+        Gauge.builder("recipes.bulkhead.waiting", bulkhead, Bulkhead::waitingCount)
+                .tags(group)
+                .description("Requests of the group waiting for a slot")
+                .register(registry);
+        Gauge.builder("recipes.bulkhead.saturation", bulkhead, Bulkhead::saturation)
+                .tags(group)
+                .description("Share of the group's slots in use")
+                .register(registry);
+        FunctionCounter.builder("recipes.bulkhead.calls", bulkhead, Bulkhead::acceptedCount)
+                .tags(group.and("outcome", "accepted"))
+                .register(registry);
+        FunctionCounter.builder("recipes.bulkhead.calls", bulkhead, Bulkhead::rejectedFullCount)
+                .tags(group.and("outcome", "queue_full"))
+                .description("Requests rejected because too many were waiting already")
+                .register(registry);
+        FunctionCounter.builder("recipes.bulkhead.calls", bulkhead, Bulkhead::rejectedWaitingCount)
+                .tags(group.and("outcome", "wait_timeout"))
+                .description("Requests rejected because no slot freed up in time")
+                .register(registry);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.recipesapi.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives every statement run for a request with a {@link RequestDeadline} a query timeout of the time left, so the
+ * driver cancels it on the server once the request is overdue instead of leaving it to run (and hold a connection)
+ * after the client gave up. This covers JPA queries, repository methods and {@code JdbcTemplate} calls alike.
+ * <p>
+ * JDBC timeouts are whole seconds: the time left is rounded up and a statement always gets at least one second,
+ * also when the deadline passed already. Shorter timeouts set by the caller are kept.
+ */
+public class DeadlineQueryTimeoutListener implements QueryExecutionListener, MeterBinder {
+    private static final String QUERY_CANCELED_STATE = "57014";
+
+    private final LongAdder cancelled = new LongAdder();
+
+    @Override
+    public void beforeQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+        if (!RequestDeadline.isSet() || execInfo.getStatement() == null) {
+            return;
+        }
+        final int seconds = timeoutSeconds(RequestDeadline.remainingNanos());
+        try {
+            final Statement statement = execInfo.getStatement();
+            final int current = statement.getQueryTimeout();
+            if (current == 0 || current > seconds) {
+                statement.setQueryTimeout(seconds);
+            }
+        } catch (SQLException e) {
+            // The statement runs without a timeout, as it would without a deadline.
+        }
+    }
+
+    @Override
+    public void afterQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+        final Throwable throwable = execInfo.getThrowable();
+        if (throwable instanceof SQLTimeoutException
+                || throwable instanceof SQLException sqlException && QUERY_CANCELED_STATE.equals(sqlException.getSQLState())) {
+            cancelled.increment();
+        }
+    }
+
+    static int timeoutSeconds(long remainingNanos) {
+        if (remainingNanos <= 0) {
+            return 1;
+        }
+        final long seconds = (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        return (int) Math.min(seconds, Integer.MAX_VALUE);
+    }
+
+    public long cancelledCount() {
+        return cancelled.sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("recipes.bulkhead.queries.cancelled", this, DeadlineQueryTimeoutListener::cancelledCount)
+                .description("Statements cancelled because their request ran past its deadline")
+                .register(registry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.recipesapi.bulkhead;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * A statement cancelled at the request's deadline means the database is too busy right now, answered like a full
+ * bulkhead.
+ */
+@RestControllerAdvice
+@Log4j2
+public class QueryTimeoutExceptionHandler {
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    ResponseEntity<Void> queryTimedOut(QueryTimeoutException e) {
+        log.warn("Statement cancelled at request deadline: " + e.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.recipesapi.bulkhead;
+
+/**
+ * Deadline of the request handled by the current thread, set by {@link BulkheadInterceptor} and read by
+ * {@link DeadlineQueryTimeoutListener}. Threads outside a bulkhead (background jobs, the change feed) have none.
+ */
+public final class RequestDeadline {
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * @param deadlineNanos in {@link System#nanoTime()} terms
+     */
+    public static void set(long deadlineNanos) {
+        DEADLINE.set(deadlineNanos);
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE.get() != null;
+    }
+
+    /**
+     * @return nanoseconds left, negative once the deadline passed and {@link Long#MAX_VALUE} without a deadline
+     */
+    public static long remainingNanos() {
+        final Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.recipesapi.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.DriverManager;
+
+@Configuration(proxyBeanMethods = false)
+public class CacheConfiguration {
+
+    /**
+     * {@code postgres} with a PostgreSQL database unless {@code recipes.cache.invalidation} says otherwise.
+     */
+    @Bean(destroyMethod = "shutdown")
+    InvalidationBus invalidationBus(@Value("${recipes.cache.invalidation:auto}") String invalidation,
+                                    @Value("${spring.datasource.url:}") String url,
+                                    @Value("${spring.datasource.username:}") String username,
+                                    @Value("${spring.datasource.password:}") String password,
+                                    @Value("${recipes.cache.invalidation.max-pending:10000}") int maxPending) {
+        final boolean postgres = invalidation.equals("postgres")
+                || invalidation.equals("auto") && url.startsWith("jdbc:postgresql:");
+        if (!postgres) {
+            return new LocalInvalidationBus();
+        }
+        final PostgresInvalidationBus bus = new PostgresInvalidationBus(
+                () -> DriverManager.getConnection(url, username, password), maxPending);
+        bus.start();
+        return bus;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.recipesapi.cache;
+
+import lombok.Value;
+
+/**
+ * Message sent over an {@link InvalidationBus}: drop one key, all entries with a tag, or everything of a cache.
+ */
+@Value
+public class Invalidation {
+    /**
+     * Cache name that stands for every cache, used when a node may have missed invalidations.
+     */
+    public static final String ALL_CACHES = "*";
+
+    String cache;
+    Kind kind;
+    String value;
+    String origin;
+    long sentAtMillis;
+
+    public static Invalidation key(String cache, String key, String origin) {
+        return new Invalidation(cache, Kind.KEY, key, origin, System.currentTimeMillis());
+    }
+
+    public static Invalidation tag(String cache, String tag, String origin) {
+        return new Invalidation(cache, Kind.TAG, tag, origin, System.currentTimeMillis());
+    }
+
+    public static Invalidation all(String cache, String origin) {
+        return new Invalidation(cache, Kind.ALL, "", origin, System.currentTimeMillis());
+    }
+
+    public boolean appliesTo(String cacheName) {
+        return cache.equals(cacheName) || cache.equals(ALL_CACHES);
+    }
+
+    public enum Kind {
+        KEY,
+        TAG,
+        ALL
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.recipesapi.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link Invalidation}s from the node that changed data to the {@link NearCache}s of all other nodes.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Id of this node, set as the origin of the invalidations it publishes.
+     */
+    String nodeId();
+
+    /**
+     * Sends the invalidation to the other nodes. Called once the change is committed, must not block on the network.
+     */
+    void publish(Invalidation invalidation);
+
+    /**
+     * Invalidations published by other nodes. When the bus may have lost some, e.g. after a reconnect, it delivers
+     * an {@link Invalidation#all} for {@link Invalidation#ALL_CACHES} instead.
+     */
+    void subscribe(Consumer<Invalidation> listener);
+
+    default void shutdown() {
+    }
+}
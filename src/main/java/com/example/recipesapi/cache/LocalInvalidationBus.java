@@ -0,0 +1,24 @@
+package com.example.recipesapi.cache;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Bus of a single instance: there are no other nodes, so there is nothing to send or receive.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(final Invalidation invalidation) {
+    }
+
+    @Override
+    public void subscribe(final Consumer<Invalidation> listener) {
+    }
+}
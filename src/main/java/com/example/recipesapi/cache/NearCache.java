@@ -0,0 +1,252 @@
+package com.example.recipesapi.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Local cache of one node that stays coherent with the other nodes through an {@link InvalidationBus}: writers call
+ * {@link #invalidate} or {@link #invalidateTag} after their change committed, which drops the entries here and on
+ * every other node. Least recently used entries are evicted beyond {@code maxEntries}, and every entry expires after
+ * the ttl, which bounds staleness when an invalidation gets lost (a node crashing right after its commit).
+ * <p>
+ * A load that overlaps an invalidation of its key is returned to its caller but not cached, since it may have read
+ * the data from before the change. Keys travel over the bus as strings, {@code keyParser} turns them back.
+ */
+public class NearCache<K, V> implements MeterBinder {
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final InvalidationBus bus;
+    private final Function<String, K> keyParser;
+    private final Function<V, String> tagOf;
+    private final LongSupplier nanoClock;
+    private final Map<K, Object> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+    private volatile Timer invalidationLag;
+
+    /**
+     * @param tagOf tag of a value for {@link #invalidateTag}, {@code null} when the cache doesn't use tags
+     */
+    public NearCache(final String name,
+                     final int maxEntries,
+                     final Duration ttl,
+                     final InvalidationBus bus,
+                     final Function<String, K> keyParser,
+                     final Function<V, String> tagOf) {
+        this(name, maxEntries, ttl, bus, keyParser, tagOf, System::nanoTime);
+    }
+
+    NearCache(final String name,
+              final int maxEntries,
+              final Duration ttl,
+              final InvalidationBus bus,
+              final Function<String, K> keyParser,
+              final Function<V, String> tagOf,
+              final LongSupplier nanoClock) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.bus = bus;
+        this.keyParser = keyParser;
+        this.tagOf = tagOf;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        bus.subscribe(this::onRemoteInvalidation);
+    }
+
+    /**
+     * Cached value of the key, loaded with the loader on a miss. Null values and exceptions are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key, Function<K, V> loader) {
+        final Loading token = new Loading();
+        synchronized (entries) {
+            final Object current = entries.get(key);
+            if (current instanceof Entry entry && entry.expiresAtNanos - nanoClock.getAsLong() > 0) {
+                hits.increment();
+                return (V) entry.value;
+            }
+            misses.increment();
+            if (maxEntries > 0) {
+                entries.put(key, token);
+            }
+        }
+        final V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            remove(key, token);
+            throw e;
+        }
+        synchronized (entries) {
+            if (entries.get(key) != token) {
+                discardedLoads.increment();
+            } else if (value == null) {
+                entries.remove(key);
+            } else {
+                final String tag = tagOf != null ? tagOf.apply(value) : null;
+                entries.put(key, new Entry(value, tag, nanoClock.getAsLong() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops the key here and on all other nodes.
+     */
+    public void invalidate(K key) {
+        invalidateLocally(key);
+        bus.publish(Invalidation.key(name, String.valueOf(key), bus.nodeId()));
+    }
+
+    /**
+     * Drops the entries with the tag here and on all other nodes.
+     */
+    public void invalidateTag(String tag) {
+        invalidateTagLocally(tag);
+        bus.publish(Invalidation.tag(name, tag, bus.nodeId()));
+    }
+
+    public void invalidateAll() {
+        invalidateAllLocally();
+        bus.publish(Invalidation.all(name, bus.nodeId()));
+    }
+
+    void onRemoteInvalidation(Invalidation invalidation) {
+        if (!invalidation.appliesTo(name) || bus.nodeId().equals(invalidation.getOrigin())) {
+            return;
+        }
+        remoteInvalidations.increment();
+        switch (invalidation.getKind()) {
+            case KEY -> invalidateLocally(keyParser.apply(invalidation.getValue()));
+            case TAG -> invalidateTagLocally(invalidation.getValue());
+            case ALL -> invalidateAllLocally();
+        }
+        final Timer lag = invalidationLag;
+        if (lag != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - invalidation.getSentAtMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void invalidateLocally(K key) {
+        invalidations.increment();
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Loads in progress are dropped too: their tag is only known once they complete.
+     */
+    private void invalidateTagLocally(String tag) {
+        invalidations.increment();
+        synchronized (entries) {
+            entries.values().removeIf(value -> value instanceof Loading
+                    || value instanceof Entry entry && tag.equals(entry.tag));
+        }
+    }
+
+    private void invalidateAllLocally() {
+        invalidations.increment();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private void remove(K key, Loading token) {
+        synchronized (entries) {
+            if (entries.get(key) == token) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long discardedLoadCount() {
+        return discardedLoads.sum();
+    }
+
+    public long remoteInvalidationCount() {
+        return remoteInvalidations.sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        final Tags cache = Tags.of("cache", name);
+        Gauge.builder("recipes.cache.size", this, NearCache::size)
+                .tags(cache)
+                .register(registry);
+        FunctionCounter.builder("recipes.cache.gets", this, NearCache::hitCount)
+                .tags(cache.and("result", "hit"))
+                .register(registry);
+        FunctionCounter.builder("recipes.cache.gets", this, NearCache::missCount)
+                .tags(cache.and("result", "miss"))
+                .register(registry);
+        FunctionCounter.builder("recipes.cache.invalidations", invalidations, LongAdder::sum)
+                .tags(cache)
+                .description("Local and remote invalidations applied to the cache")
+                .register(registry);
+        FunctionCounter.builder("recipes.cache.loads.discarded", this, NearCache::discardedLoadCount)
+                .tags(cache)
+                .description("Loads not cached because an invalidation of their key arrived meanwhile")
+                .register(registry);
+        invalidationLag = Timer.builder("recipes.cache.invalidation.lag")
+                .tags(cache)
+                .description("Time from a change committed on another node until its invalidation arrived here")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static final class Loading {
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final String tag;
+        private final long expiresAtNanos;
+
+        private Entry(final Object value, final String tag, final long expiresAtNanos) {
+            this.value = value;
+            this.tag = tag;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.recipesapi.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation bus over PostgreSQL {@code LISTEN}/{@code NOTIFY}, so instances sharing a database need nothing else
+ * to keep their caches coherent. It uses two connections of its own, outside the pool: one listening, one sending.
+ * <p>
+ * Invalidations are sent in the background, in the order they were published. PostgreSQL delivers notifications of
+ * one sender in order and to every listening node, but not to nodes that aren't connected at the time: after
+ * (re)connecting, and whenever invalidations could not be sent or the send queue overflowed, all caches of the
+ * affected nodes are cleared instead.
+ */
+@Log4j2
+public class PostgresInvalidationBus implements InvalidationBus {
+    static final String CHANNEL = "recipes_cache_invalidation";
+    private static final char SEPARATOR = '|';
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int POLL_MILLIS = 500;
+
+    private final ConnectionFactory connectionFactory;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Invalidation> outbox;
+    private final Thread listenerThread;
+    private final Thread senderThread;
+    private volatile boolean running = true;
+    private volatile boolean outboxOverflowed;
+    private boolean sendFailed;
+
+    public PostgresInvalidationBus(final ConnectionFactory connectionFactory, final int maxPending) {
+        this.connectionFactory = connectionFactory;
+        this.outbox = new ArrayBlockingQueue<>(maxPending);
+        this.listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        this.senderThread = new Thread(this::send, "cache-invalidation-sender");
+        listenerThread.setDaemon(true);
+        senderThread.setDaemon(true);
+    }
+
+    public void start() {
+        listenerThread.start();
+        senderThread.start();
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        listenerThread.interrupt();
+        senderThread.interrupt();
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(final Invalidation invalidation) {
+        if (!outbox.offer(invalidation)) {
+            outboxOverflowed = true;
+        }
+    }
+
+    @Override
+    public void subscribe(final Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = connectionFactory.connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Whatever was sent while this node wasn't listening is lost.
+                deliver(Invalidation.all(Invalidation.ALL_CACHES, ""));
+                log.info("Listening for cache invalidations on " + CHANNEL);
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    final PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            final Invalidation invalidation = parse(notification.getParameter());
+                            if (invalidation != null && !nodeId.equals(invalidation.getOrigin())) {
+                                deliver(invalidation);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, reconnecting", e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void send() {
+        while (running) {
+            try (Connection connection = connectionFactory.connect();
+                 PreparedStatement notify = connection.prepareStatement("select pg_notify(?, ?)")) {
+                connection.setAutoCommit(true);
+                notify.setString(1, CHANNEL);
+                if (sendFailed) {
+                    // Invalidations in flight when the connection broke may be lost, other nodes have to start over.
+                    sendOne(notify, Invalidation.all(Invalidation.ALL_CACHES, nodeId));
+                    sendFailed = false;
+                }
+                while (running) {
+                    final Invalidation invalidation = outbox.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (outboxOverflowed) {
+                        outboxOverflowed = false;
+                        outbox.clear();
+                        sendOne(notify, Invalidation.all(Invalidation.ALL_CACHES, nodeId));
+                    } else if (invalidation != null) {
+                        final List<Invalidation> batch = new ArrayList<>();
+                        batch.add(invalidation);
+                        outbox.drainTo(batch);
+                        for (Invalidation next : batch) {
+                            sendOne(notify, next);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException | RuntimeException e) {
+                sendFailed = true;
+                if (running) {
+                    log.warn("Cache invalidation sender lost its connection, reconnecting", e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void sendOne(PreparedStatement notify, Invalidation invalidation) throws SQLException {
+        notify.setString(2, format(invalidation));
+        notify.execute();
+    }
+
+    private void deliver(Invalidation invalidation) {
+        for (Consumer<Invalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.error("Applying cache invalidation failed: " + invalidation, e);
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * {@code origin|sentAtMillis|cache|kind|value}, the value goes last so it may contain the separator.
+     */
+    static String format(Invalidation invalidation) {
+        return invalidation.getOrigin() + SEPARATOR + invalidation.getSentAtMillis() + SEPARATOR
+                + invalidation.getCache() + SEPARATOR + invalidation.getKind() + SEPARATOR + invalidation.getValue();
+    }
+
+    static Invalidation parse(String payload) {
+        final String[] parts = payload.split("\\|", 5);
+        if (parts.length != 5) {
+            log.warn("Ignoring malformed cache invalidation: " + payload);
+            return null;
+        }
+        try {
+            return new Invalidation(parts[2], Invalidation.Kind.valueOf(parts[3]), parts[4], parts[0],
+                    Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed cache invalidation: " + payload);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+}
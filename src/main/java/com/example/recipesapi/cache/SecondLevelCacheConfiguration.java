@@ -0,0 +1,74 @@
+package com.example.recipesapi.cache;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hibernate's second-level cache, held on the heap of every node by Ehcache through JCache. Only the regions declared
+ * here exist, an entity or collection mapped to any other region fails the start instead of getting an unbounded
+ * cache. The regions are local to the node: Hibernate keeps them coherent with the node's own writes, writes of other
+ * nodes are evicted through the {@link InvalidationBus} (see
+ * {@link com.example.recipesapi.v1.security.service.UserSecondLevelCache}) and by the ttl.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "recipes.cache.l2.enabled", matchIfMissing = true)
+public class SecondLevelCacheConfiguration {
+    public static final String USERS_REGION = "users";
+    public static final String USERS_BY_EMAIL_REGION = "users-by-email";
+
+    /**
+     * A cache manager of its own for every application context, tests start several of them in one JVM.
+     */
+    @Bean(destroyMethod = "close")
+    CacheManager secondLevelCacheManager(@Value("${recipes.cache.l2.users.max-entries:10000}") long maxUsers,
+                                         @Value("${recipes.cache.l2.users.ttl-ms:600000}") long usersTtlMillis) {
+        final Duration usersTtl = Duration.ofMillis(usersTtlMillis);
+        final org.ehcache.config.Configuration configuration = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(USERS_REGION, region(maxUsers, usersTtl))
+                .withCache(USERS_BY_EMAIL_REGION, region(maxUsers, usersTtl))
+                .build();
+        final EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("urn:recipes:l2:" + UUID.randomUUID()), configuration);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    SecondLevelCacheEndpoint secondLevelCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        return new SecondLevelCacheEndpoint(entityManagerFactory);
+    }
+
+    private static CacheConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                        ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl))
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.recipesapi.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * {@code GET /actuator/secondlevelcache} reports hits, misses, puts and size of every second-level cache region of
+ * this node, {@code DELETE /actuator/secondlevelcache} empties the regions. Counts are only kept while Hibernate
+ * statistics are enabled: with {@code hibernate.generate_statistics=true} (the {@code metrics} profile), or from
+ * {@code POST /actuator/secondlevelcache} with {@code statisticsEnabled} until the next restart. While they are
+ * disabled the report lists the regions without counts and says so.
+ */
+@Endpoint(id = "secondlevelcache")
+public class SecondLevelCacheEndpoint {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheEndpoint(final EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        final Statistics statistics = sessionFactory().getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            final Map<String, Object> report = new LinkedHashMap<>();
+            report.put("statisticsEnabled", false);
+            report.put("regions", new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames())));
+            return report;
+        }
+        final Map<String, Object> regions = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()))) {
+            final CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+            final Map<String, Object> report = new LinkedHashMap<>();
+            report.put("hits", region.getHitCount());
+            report.put("misses", region.getMissCount());
+            report.put("puts", region.getPutCount());
+            report.put("hitRatio", hitRatio(region.getHitCount(), region.getMissCount()));
+            report.put("entries", region.getElementCountInMemory());
+            regions.put(name, report);
+        }
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        report.put("regions", regions);
+        report.put("naturalIdHits", statistics.getNaturalIdCacheHitCount());
+        report.put("naturalIdMisses", statistics.getNaturalIdCacheMissCount());
+        report.put("naturalIdQueries", statistics.getNaturalIdQueryExecutionCount());
+        return report;
+    }
+
+    /**
+     * Counting starts from zero when statistics are enabled.
+     */
+    @WriteOperation
+    public Map<String, Object> statistics(boolean statisticsEnabled) {
+        final Statistics statistics = sessionFactory().getStatistics();
+        if (statisticsEnabled && !statistics.isStatisticsEnabled()) {
+            statistics.clear();
+        }
+        statistics.setStatisticsEnabled(statisticsEnabled);
+        return report();
+    }
+
+    @DeleteOperation
+    public void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.recipesapi.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On demand Flight Recorder recording, one at a time:
+ * <ul>
+ *     <li>{@code POST /actuator/jfr} starts it, optionally with {@code durationSeconds} and {@code settings}
+ *     ({@code default}, about 1% overhead, or {@code profile}, about 2%)</li>
+ *     <li>{@code GET /actuator/jfr} reports its state</li>
+ *     <li>{@code GET /actuator/jfr/recording.jfr} downloads what was recorded so far, dumped to a temporary file
+ *     of its own that is deleted once the response has been read from it</li>
+ *     <li>{@code DELETE /actuator/jfr} stops it, it can still be downloaded until the next one starts</li>
+ * </ul>
+ * Recordings stop on their own after the configured maximum duration and never keep more than the maximum size.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+    static final String FILE_NAME = "recording.jfr";
+    private static final List<String> SETTINGS = List.of("default", "profile");
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(
+            RecipeOperationEvent.class, UserLookupEvent.class, OwnershipCheckEvent.class, MappingEvent.class);
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private Recording recording;
+
+    public JfrRecordingEndpoint(@Value("${recipes.jfr.recording.max-duration-s:600}") final long maxDurationSeconds,
+                                @Value("${recipes.jfr.recording.max-size-mb:100}") final long maxSizeMegabytes) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMegabytes * 1024 * 1024;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        final Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("duration", recording.getDuration());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Long durationSeconds, @Nullable String settings) {
+        final String configurationName = settings != null ? settings : "default";
+        if (!SETTINGS.contains(configurationName)) {
+            throw new InvalidEndpointRequestException("Unknown settings " + settings, "Settings must be one of " + SETTINGS);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new InvalidEndpointRequestException("A recording is already running", "Recording already running");
+        }
+        close();
+        final Duration duration = durationSeconds != null && durationSeconds > 0
+                ? Duration.ofSeconds(Math.min(durationSeconds, maxDuration.toSeconds()))
+                : maxDuration;
+        try {
+            recording = new Recording(Configuration.getConfiguration(configurationName));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Can't read JFR settings " + configurationName, e);
+        }
+        recording.setName("recipes-api");
+        recording.setToDisk(true);
+        recording.setDuration(duration);
+        recording.setMaxSize(maxSizeBytes);
+        EVENTS.forEach(recording::enable);
+        recording.start();
+        return status();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        return status();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector String file) {
+        if (!FILE_NAME.equals(file) || recording == null || recording.getState() == RecordingState.NEW) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path dump = null;
+        try {
+            dump = Files.createTempFile("recipes-api-", ".jfr");
+            recording.dump(dump);
+            return new WebEndpointResponse<>(new DumpResource(dump));
+        } catch (IOException e) {
+            deleteQuietly(dump);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * A dump that deletes itself when the stream it was read from is closed.
+     */
+    static class DumpResource extends FileSystemResource {
+        private final Path dump;
+
+        DumpResource(final Path dump) {
+            super(dump);
+            this.dump = dump;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(dump, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.recipesapi.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Converting an entity to its DTO. Happens for every recipe in a response, so only slow conversions are recorded
+ * unless the threshold is lowered in the recording settings.
+ */
+@Name(MappingEvent.NAME)
+@Label("Mapping")
+@Category({"Recipes API", "Mapping"})
+@Description("Entity to DTO conversion with the number of collection elements copied")
+@StackTrace(false)
+@Threshold("1 ms")
+public class MappingEvent extends Event {
+    public static final String NAME = "com.example.recipesapi.Mapping";
+
+    @Label("Type")
+    String type;
+
+    @Label("Id")
+    long id;
+
+    @Label("Elements")
+    int elements;
+
+    public static MappingEvent start(String type) {
+        final MappingEvent event = new MappingEvent();
+        event.type = type;
+        event.begin();
+        return event;
+    }
+
+    public void finish(Long id, int elements) {
+        end();
+        if (shouldCommit()) {
+            this.id = id != null ? id : -1;
+            this.elements = elements;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.recipesapi.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evaluation of the {@code isOwner} security expression, which scans the recipes of the authenticated user.
+ */
+@Name(OwnershipCheckEvent.NAME)
+@Label("Ownership Check")
+@Category({"Recipes API", "Security"})
+@Description("isOwner(#id) check of a recipe against the recipes of the authenticated user")
+@StackTrace(false)
+public class OwnershipCheckEvent extends Event {
+    public static final String NAME = "com.example.recipesapi.OwnershipCheck";
+
+    @Label("Recipe Id")
+    long recipeId;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Owned Recipes")
+    @Description("Number of recipes scanned")
+    int ownedRecipes;
+
+    @Label("Owner")
+    boolean owner;
+
+    public static OwnershipCheckEvent start() {
+        final OwnershipCheckEvent event = new OwnershipCheckEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(long recipeId, long userId, int ownedRecipes, boolean owner) {
+        end();
+        if (shouldCommit()) {
+            this.recipeId = recipeId;
+            this.userId = userId;
+            this.ownedRecipes = ownedRecipes;
+            this.owner = owner;
+            commit();
+        }
+    }
+}
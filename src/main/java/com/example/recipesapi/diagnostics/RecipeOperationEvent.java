@@ -0,0 +1,68 @@
+package com.example.recipesapi.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A completed {@code RecipeService} call. Recorded only while a recording with this event enabled is running,
+ * otherwise creating and finishing the event is optimized away.
+ */
+@Name(RecipeOperationEvent.NAME)
+@Label("Recipe Operation")
+@Category({"Recipes API", "Service"})
+@Description("RecipeService call with the recipe it targeted and the number of recipes it read or wrote")
+@StackTrace(false)
+public class RecipeOperationEvent extends Event {
+    public static final String NAME = "com.example.recipesapi.RecipeOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Recipe Id")
+    @Description("Recipe the operation targeted, -1 for operations on several recipes")
+    long recipeId;
+
+    @Label("Rows")
+    @Description("Number of recipes read or written")
+    int rows;
+
+    /**
+     * Runs the call as one recorded operation, {@code rows} counts the recipes in its result.
+     * Nothing is recorded when the call throws.
+     */
+    public static <T> T record(String operation, Long recipeId, Supplier<T> call, ToIntFunction<? super T> rows) {
+        final RecipeOperationEvent event = start(operation, recipeId);
+        final T result = call.get();
+        event.finish(rows.applyAsInt(result));
+        return result;
+    }
+
+    public static void record(String operation, Long recipeId, Runnable call, int rows) {
+        final RecipeOperationEvent event = start(operation, recipeId);
+        call.run();
+        event.finish(rows);
+    }
+
+    public static RecipeOperationEvent start(String operation, Long recipeId) {
+        final RecipeOperationEvent event = new RecipeOperationEvent();
+        event.operation = operation;
+        event.recipeId = recipeId != null ? recipeId : -1;
+        event.begin();
+        return event;
+    }
+
+    public void finish(int rows) {
+        end();
+        if (shouldCommit()) {
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.recipesapi.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams the application's Flight Recorder events in process and records those slower than the threshold
+ * in the {@code recipes.jfr.slow.events} timer, tagged by event and operation, together with contended locks
+ * ({@code jdk.JavaMonitorEnter}). Events below the threshold are filtered by the JVM and cost next to nothing.
+ */
+@Component
+@ConditionalOnProperty("recipes.jfr.slow-events.enabled")
+@Log4j2
+public class SlowEventMetrics implements SmartLifecycle {
+    static final String METRIC = "recipes.jfr.slow.events";
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final List<String> EVENTS = List.of(
+            RecipeOperationEvent.NAME, UserLookupEvent.NAME, OwnershipCheckEvent.NAME, MappingEvent.NAME, MONITOR_ENTER);
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public SlowEventMetrics(final MeterRegistry meterRegistry,
+                            @Value("${recipes.jfr.slow-events.threshold-ms:200}") final long thresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @Override
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.setMaxAge(Duration.ofSeconds(30));
+        for (String event : EVENTS) {
+            stream.enable(event).withThreshold(threshold).withoutStackTrace();
+            stream.onEvent(event, this::record);
+        }
+        stream.startAsync();
+        log.info("Recording JFR events slower than " + threshold.toMillis() + " ms as metrics");
+    }
+
+    /**
+     * Another recording with a lower threshold makes the JVM emit faster events too, they are skipped here.
+     */
+    void record(RecordedEvent event) {
+        if (event.getDuration().compareTo(threshold) < 0) {
+            return;
+        }
+        Timer.builder(METRIC)
+                .description("Flight Recorder events slower than recipes.jfr.slow-events.threshold-ms")
+                .tag("event", event.getEventType().getName())
+                .tag("operation", operation(event))
+                .register(meterRegistry)
+                .record(event.getDuration());
+    }
+
+    private static String operation(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case RecipeOperationEvent.NAME -> event.getString("operation");
+            case MappingEvent.NAME -> event.getString("type");
+            case MONITOR_ENTER -> event.getClass("monitorClass") != null ? event.getClass("monitorClass").getName() : "";
+            default -> "";
+        };
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+}
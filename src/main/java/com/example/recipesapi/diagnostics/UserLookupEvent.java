@@ -0,0 +1,42 @@
+package com.example.recipesapi.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Loading the user of an authenticated request, which also loads all of the user's recipes.
+ */
+@Name(UserLookupEvent.NAME)
+@Label("User Lookup")
+@Category({"Recipes API", "Security"})
+@Description("UserService.loadUserByUsername, done for every authenticated request")
+@StackTrace(false)
+public class UserLookupEvent extends Event {
+    public static final String NAME = "com.example.recipesapi.UserLookup";
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Recipes")
+    @Description("Number of recipes loaded together with the user")
+    int recipes;
+
+    public static UserLookupEvent start() {
+        final UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(long userId, int recipes) {
+        end();
+        if (shouldCommit()) {
+            this.userId = userId;
+            this.recipes = recipes;
+            commit();
+        }
+    }
+}
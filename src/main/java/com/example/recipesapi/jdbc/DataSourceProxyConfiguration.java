@@ -0,0 +1,17 @@
+package com.example.recipesapi.jdbc;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class DataSourceProxyConfiguration {
+
+    @Bean
+    static DataSourceProxyPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> queryListeners,
+                                                                     ObjectProvider<MethodExecutionListener> methodListeners) {
+        return new DataSourceProxyPostProcessor(queryListeners, methodListeners);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.recipesapi.jdbc;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Wraps the application's {@link DataSource} so every {@link QueryExecutionListener} and
+ * {@link MethodExecutionListener} bean sees the statements sent to the database. Without listener beans the
+ * data source is left as it is.
+ */
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<QueryExecutionListener> queryListeners;
+    private final ObjectProvider<MethodExecutionListener> methodListeners;
+
+    public DataSourceProxyPostProcessor(final ObjectProvider<QueryExecutionListener> queryListeners,
+                                        final ObjectProvider<MethodExecutionListener> methodListeners) {
+        this.queryListeners = queryListeners;
+        this.methodListeners = methodListeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        final List<QueryExecutionListener> queries = queryListeners.orderedStream().collect(Collectors.toList());
+        final List<MethodExecutionListener> methods = methodListeners.orderedStream().collect(Collectors.toList());
+        if (queries.isEmpty() && methods.isEmpty()) {
+            return bean;
+        }
+        final ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+        queries.forEach(builder::listener);
+        methods.forEach(builder::methodListener);
+        if (!methods.isEmpty()) {
+            builder.proxyResultSet();
+        }
+        return builder.build();
+    }
+}
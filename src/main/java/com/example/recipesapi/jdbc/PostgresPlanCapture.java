@@ -0,0 +1,159 @@
+package com.example.recipesapi.jdbc;
+
+import lombok.extern.log4j.Log4j2;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures PostgreSQL plans of slow statements in the background, on a connection of its own so the request that
+ * ran the statement doesn't wait. The statement is prepared with its placeholders and explained as a generic plan
+ * ({@code plan_cache_mode = force_generic_plan}) executed with nulls, so neither the captured plan nor the
+ * captured statement contains the values the application bound. The statement is not run.
+ */
+@Log4j2
+public class PostgresPlanCapture {
+    private static final String STATEMENT_NAME = "recipes_slow_query_explain";
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final SlowQueryLog slowQueryLog;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    public PostgresPlanCapture(final ObjectProvider<DataSource> dataSource,
+                               final SlowQueryLog slowQueryLog,
+                               final long timeoutMillis) {
+        this.dataSource = dataSource;
+        this.slowQueryLog = slowQueryLog;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            final Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void captureLater(final String sql) {
+        if (!isExplainable(sql)) {
+            return;
+        }
+        try {
+            executor.execute(() -> capture(sql));
+        } catch (RejectedExecutionException e) {
+            log.debug("Plan capture queue full, skipping plan of " + sql);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void capture(final String sql) {
+        try (Connection connection = unwrap(dataSource.getObject()).getConnection();
+             Statement statement = connection.createStatement()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            boolean prepared = false;
+            connection.setAutoCommit(false);
+            try {
+                statement.execute("SET LOCAL statement_timeout = " + timeoutMillis);
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE " + STATEMENT_NAME + " AS " + numberPlaceholders(sql));
+                prepared = true;
+                slowQueryLog.attachPlan(sql, explain(statement, countPlaceholders(sql)));
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+                if (prepared) {
+                    deallocate(statement);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Could not capture the plan of " + sql + ": " + e.getMessage());
+        }
+    }
+
+    private static String explain(final Statement statement, final int parameters) throws SQLException {
+        final StringJoiner nulls = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < parameters; i++) {
+            nulls.add("NULL");
+        }
+        final String execute = "EXPLAIN (ANALYZE off) EXECUTE " + STATEMENT_NAME + (parameters > 0 ? nulls : "");
+        final StringJoiner plan = new StringJoiner("\n");
+        try (ResultSet rows = statement.executeQuery(execute)) {
+            while (rows.next()) {
+                plan.add(rows.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Prepared statements outlive the transaction, the pooled connection must not keep this one.
+     */
+    private static void deallocate(final Statement statement) {
+        try {
+            statement.execute("DEALLOCATE " + STATEMENT_NAME);
+        } catch (SQLException e) {
+            log.debug("Could not deallocate " + STATEMENT_NAME + ": " + e.getMessage());
+        }
+    }
+
+    private static DataSource unwrap(final DataSource dataSource) {
+        return dataSource instanceof ProxyDataSource proxy ? proxy.getDataSource() : dataSource;
+    }
+
+    static boolean isExplainable(final String sql) {
+        final String operation = sql.stripLeading().split("\\s", 2)[0].toLowerCase();
+        return (operation.equals("select") || operation.equals("insert") || operation.equals("update")
+                || operation.equals("delete") || operation.equals("with")) && !sql.contains(";");
+    }
+
+    static int countPlaceholders(final String sql) {
+        return scanPlaceholders(sql, null);
+    }
+
+    static String numberPlaceholders(final String sql) {
+        final StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        scanPlaceholders(sql, numbered);
+        return numbered.toString();
+    }
+
+    /**
+     * Counts JDBC {@code ?} placeholders outside quoted literals and identifiers and, when {@code out} is given,
+     * writes the statement with them replaced by PostgreSQL's {@code $1, $2, ...}.
+     */
+    private static int scanPlaceholders(final String sql, final StringBuilder out) {
+        int count = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+                if (out != null) {
+                    out.append('$').append(count);
+                }
+                continue;
+            }
+            if (out != null) {
+                out.append(c);
+            }
+        }
+        return count;
+    }
+}
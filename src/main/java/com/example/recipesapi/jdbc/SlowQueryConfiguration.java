@@ -0,0 +1,43 @@
+package com.example.recipesapi.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "recipes.slow-query.enabled", matchIfMissing = true)
+public class SlowQueryConfiguration {
+
+    @Bean
+    SlowQueryLog slowQueryLog(@Value("${recipes.slow-query.max-statements:50}") int maxStatements,
+                              @Value("${recipes.slow-query.max-recent:100}") int maxRecent) {
+        return new SlowQueryLog(maxStatements, maxRecent);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnExpression("${recipes.slow-query.explain:true} and '${spring.datasource.url:}'.startsWith('jdbc:postgresql:')")
+    PostgresPlanCapture postgresPlanCapture(ObjectProvider<DataSource> dataSource,
+                                            SlowQueryLog slowQueryLog,
+                                            @Value("${recipes.slow-query.explain-timeout-ms:2000}") long timeoutMillis) {
+        return new PostgresPlanCapture(dataSource, slowQueryLog, timeoutMillis);
+    }
+
+    @Bean
+    SlowQueryListener slowQueryListener(SlowQueryLog slowQueryLog,
+                                        ObjectProvider<PostgresPlanCapture> planCapture,
+                                        @Value("${recipes.slow-query.threshold-ms:200}") long thresholdMillis) {
+        return new SlowQueryListener(slowQueryLog, planCapture.getIfAvailable(), thresholdMillis, Clock.systemUTC());
+    }
+
+    @Bean
+    SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog,
+                                        @Value("${recipes.slow-query.threshold-ms:200}") long thresholdMillis) {
+        return new SlowQueryEndpoint(slowQueryLog, thresholdMillis);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.recipesapi.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/slowqueries} lists the statements with the most time spent in slow executions, with their
+ * plans, and the latest slow executions. {@code DELETE /actuator/slowqueries} starts over.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdMillis;
+
+    public SlowQueryEndpoint(final SlowQueryLog slowQueryLog, final long thresholdMillis) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report(@Nullable Integer limit) {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("thresholdMillis", thresholdMillis);
+        report.put("top", slowQueryLog.top(limit != null && limit > 0 ? limit : DEFAULT_LIMIT));
+        report.put("recent", slowQueryLog.recent());
+        return report;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
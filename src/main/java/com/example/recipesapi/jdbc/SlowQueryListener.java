@@ -0,0 +1,72 @@
+package com.example.recipesapi.jdbc;
+
+import lombok.extern.log4j.Log4j2;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+/**
+ * Logs statements that took at least the threshold to execute and keeps them in the {@link SlowQueryLog}.
+ * Bind values are redacted, only their position and type are logged. The first time a statement turns up slow
+ * its plan is captured, when a {@link PostgresPlanCapture} is given.
+ */
+@Log4j2
+public class SlowQueryListener implements QueryExecutionListener {
+    private final SlowQueryLog slowQueryLog;
+    private final PostgresPlanCapture planCapture;
+    private final long thresholdMillis;
+    private final Clock clock;
+
+    public SlowQueryListener(final SlowQueryLog slowQueryLog,
+                             final PostgresPlanCapture planCapture,
+                             final long thresholdMillis,
+                             final Clock clock) {
+        this.slowQueryLog = slowQueryLog;
+        this.planCapture = planCapture;
+        this.thresholdMillis = thresholdMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public void beforeQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+        final long elapsedMillis = execInfo.getElapsedTime();
+        if (elapsedMillis < thresholdMillis) {
+            return;
+        }
+        final String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining(";\n"));
+        final String bindTypes = redactedBinds(queryInfoList);
+        log.warn("Slow query (" + elapsedMillis + " ms" + (execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "")
+                + "): " + sql + " " + bindTypes);
+        if (slowQueryLog.record(sql, elapsedMillis, bindTypes, clock.instant()) && planCapture != null) {
+            planCapture.captureLater(sql);
+        }
+    }
+
+    /**
+     * The first parameter set of the statement as {@code [1:Long, 2:String]}, batches are summarized by it.
+     */
+    static String redactedBinds(final List<QueryInfo> queryInfoList) {
+        final StringJoiner binds = new StringJoiner(", ", "[", "]");
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (queryInfo.getParametersList().isEmpty()) {
+                continue;
+            }
+            for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+                final Object[] args = operation.getArgs();
+                final boolean isNull = operation.getMethod().getName().equals("setNull") || args.length < 2 || args[1] == null;
+                binds.add(args[0] + ":" + (isNull ? "null" : args[1].getClass().getSimpleName()));
+            }
+        }
+        return binds.toString();
+    }
+}
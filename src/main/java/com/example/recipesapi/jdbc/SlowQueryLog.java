@@ -0,0 +1,134 @@
+package com.example.recipesapi.jdbc;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Slow statements, kept in two bounded structures: per statement totals for at most {@code maxStatements}
+ * distinct statements (when full, the statement with the least total time makes room) and a ring buffer of the
+ * last {@code maxRecent} slow executions. Bind values are never stored, only their types.
+ */
+public class SlowQueryLog {
+    private final int maxStatements;
+    private final int maxRecent;
+    private final Map<String, Offender> offenders = new HashMap<>();
+    private final Deque<Execution> recent = new ArrayDeque<>();
+
+    public SlowQueryLog(final int maxStatements, final int maxRecent) {
+        this.maxStatements = maxStatements;
+        this.maxRecent = maxRecent;
+    }
+
+    /**
+     * @return true when the statement is new to the log and has no plan yet
+     */
+    public synchronized boolean record(final String sql, final long elapsedMillis, final String bindTypes, final Instant at) {
+        if (recent.size() == maxRecent) {
+            recent.removeFirst();
+        }
+        recent.addLast(new Execution(sql, elapsedMillis, bindTypes, at));
+
+        Offender offender = offenders.get(sql);
+        if (offender == null) {
+            if (offenders.size() == maxStatements && !evictCheapest(elapsedMillis)) {
+                return false;
+            }
+            offender = new Offender(sql);
+            offenders.put(sql, offender);
+        }
+        offender.count++;
+        offender.totalMillis += elapsedMillis;
+        offender.maxMillis = Math.max(offender.maxMillis, elapsedMillis);
+        offender.lastSeen = at;
+        offender.lastBindTypes = bindTypes;
+        return offender.count == 1;
+    }
+
+    public synchronized void attachPlan(final String sql, final String plan) {
+        final Offender offender = offenders.get(sql);
+        if (offender != null) {
+            offender.plan = plan;
+        }
+    }
+
+    public synchronized List<OffenderView> top(final int limit) {
+        return offenders.values().stream()
+                .sorted(Comparator.comparingLong((Offender offender) -> offender.totalMillis).reversed())
+                .limit(limit)
+                .map(Offender::view)
+                .collect(Collectors.toList());
+    }
+
+    public synchronized List<Execution> recent() {
+        final List<Execution> newestFirst = new ArrayList<>(recent);
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    public synchronized void clear() {
+        offenders.clear();
+        recent.clear();
+    }
+
+    private boolean evictCheapest(final long elapsedMillis) {
+        final Offender cheapest = offenders.values().stream()
+                .min(Comparator.comparingLong(offender -> offender.totalMillis))
+                .orElseThrow();
+        if (cheapest.totalMillis > elapsedMillis) {
+            return false;
+        }
+        offenders.remove(cheapest.sql);
+        return true;
+    }
+
+    private static final class Offender {
+        private final String sql;
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+        private Instant lastSeen;
+        private String lastBindTypes;
+        private String plan;
+
+        private Offender(final String sql) {
+            this.sql = sql;
+        }
+
+        private OffenderView view() {
+            return new OffenderView(sql, count, totalMillis, maxMillis, totalMillis / count, lastSeen, lastBindTypes, plan);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class OffenderView {
+        private final String sql;
+        private final long count;
+        private final long totalMillis;
+        private final long maxMillis;
+        private final long averageMillis;
+        private final Instant lastSeen;
+        private final String lastBindTypes;
+        private final String plan;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Execution {
+        private final String sql;
+        private final long elapsedMillis;
+        private final String bindTypes;
+        private final Instant at;
+    }
+}
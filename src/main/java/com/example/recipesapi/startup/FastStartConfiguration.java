@@ -0,0 +1,20 @@
+package com.example.recipesapi.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With {@code spring.main.lazy-initialization} (the {@code faststart} profile) framework beans such as the
+ * OpenAPI UI are only created when first used. The application's own beans stay eager: they build in-memory
+ * indexes and start background jobs, and doing that on the first request would only move the delay there.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FastStartConfiguration {
+    private static final String APPLICATION_PACKAGE = "com.example.recipesapi.";
+
+    @Bean
+    static LazyInitializationExcludeFilter applicationBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType.getName().startsWith(APPLICATION_PACKAGE);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.recipesapi.startup;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.model.dto.IngredientSearchResultDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeChangeDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeChangesDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeFacetsDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeSyncEntryDto;
+import com.example.recipesapi.v1.recipe.model.dto.SimilarRecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.SuggestionDto;
+import com.example.recipesapi.v1.recipe.model.dto.TrendingRecipeDto;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeAuditEntry;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeImage;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeTombstone;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeViewCount;
+import com.example.recipesapi.v1.recipe.model.entity.VocabularyTerm;
+import com.example.recipesapi.v1.recipe.model.request.RecipeBatchRequest;
+import com.example.recipesapi.v1.recipe.service.RecipeImageService;
+import com.example.recipesapi.v1.recipe.service.RecipeService;
+import com.example.recipesapi.v1.recipe.service.RecipeSyncService;
+import com.example.recipesapi.v1.recipe.util.VocabularyTermConverter;
+import com.example.recipesapi.v1.security.authorization.CustomMethodSecurityExpressionRoot;
+import com.example.recipesapi.v1.security.authorization.OperatorAuthorization;
+import com.example.recipesapi.v1.security.model.dto.UserDto;
+import com.example.recipesapi.v1.security.model.entity.User;
+import com.example.recipesapi.v1.security.model.request.AuthenticationRequest;
+import com.example.recipesapi.v1.security.service.UserService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.nativex.hint.AotProxyHint;
+import org.springframework.nativex.hint.ProxyBits;
+import org.springframework.nativex.hint.ResourceHint;
+import org.springframework.nativex.hint.TypeAccess;
+import org.springframework.nativex.hint.TypeHint;
+
+/**
+ * Reflection, proxy and resource hints for the native executable (built with {@code -Pnative}), for everything
+ * Spring AOT can't infer on its own:
+ * <ul>
+ *     <li>entities, DTOs and requests, read and written by Hibernate and Jackson through their Lombok
+ *     generated constructors and accessors</li>
+ *     <li>objects called from security expressions, {@code isOwner} set up by {@code MethodSecurityConfiguration}
+ *     and {@code @operators}</li>
+ *     <li>class based proxies for services with {@code @PreAuthorize} and {@code @Transactional} methods</li>
+ * </ul>
+ * On the JVM the annotations are ignored.
+ */
+@Configuration(proxyBeanMethods = false)
+@TypeHint(types = {Recipe.class, User.class, RecipeTombstone.class, RecipeViewCount.class, VocabularyTerm.class,
+        VocabularyTermConverter.class, RecipeImage.class, RecipeAuditEntry.class},
+        access = {TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.DECLARED_METHODS, TypeAccess.DECLARED_FIELDS})
+@TypeHint(types = {
+        RecipeDto.class, RecipeBatchDto.class, RecipeChangeDto.class, RecipeChangesDto.class, RecipeSyncEntryDto.class,
+        RecipeFacetsDto.class, IngredientSearchResultDto.class, SuggestionDto.class, SuggestionDto.Type.class,
+        TrendingRecipeDto.class, SimilarRecipeDto.class, RecipeBatchRequest.class, UserDto.class,
+        AuthenticationRequest.class, AuthenticationRequest.AuthenticationRequestBuilder.class, RecipeChangeEvent.class,
+        RecipeChangeEvent.ChangeType.class, RecipeSnapshot.class},
+        access = {TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.PUBLIC_METHODS, TypeAccess.DECLARED_FIELDS})
+@TypeHint(types = {CustomMethodSecurityExpressionRoot.class, OperatorAuthorization.class},
+        access = {TypeAccess.PUBLIC_METHODS})
+@AotProxyHint(targetClass = RecipeService.class, proxyFeatures = ProxyBits.IS_STATIC)
+@AotProxyHint(targetClass = RecipeSyncService.class, proxyFeatures = ProxyBits.IS_STATIC)
+@AotProxyHint(targetClass = RecipeImageService.class, proxyFeatures = ProxyBits.IS_STATIC)
+@AotProxyHint(targetClass = UserService.class, proxyFeatures = ProxyBits.IS_STATIC)
+@ResourceHint(patterns = {"banner.txt", "application-.*\\.properties"})
+public class NativeImageHints {
+}
@@ -0,0 +1,54 @@
+package com.example.recipesapi.startup;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Logs how long startup took and its slowest steps, so startup changes can be compared run to run.
+ * The full timeline is available from the {@code /actuator/startup} endpoint.
+ */
+@Component
+@Log4j2
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+    private final int slowestSteps;
+
+    public StartupTimingReporter(@Value("${recipes.startup.report-steps:10}") final int slowestSteps) {
+        this.slowestSteps = slowestSteps;
+    }
+
+    @Override
+    public void onApplicationEvent(final ApplicationReadyEvent event) {
+        log.info("Ready in " + event.getTimeTaken().toMillis() + " ms, JVM uptime "
+                + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+        if (slowestSteps <= 0
+                || !(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        final String report = startup.getBufferedTimeline()
+                .getEvents()
+                .stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestSteps)
+                .map(step -> String.format("%6d ms  %s", step.getDuration().toMillis(), describe(step.getStartupStep())))
+                .collect(Collectors.joining("\n"));
+        log.info("Slowest startup steps:\n" + report);
+    }
+
+    private static String describe(StartupStep step) {
+        final String tags = StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", "));
+        return tags.isEmpty() ? step.getName() : step.getName() + " [" + tags + "]";
+    }
+}
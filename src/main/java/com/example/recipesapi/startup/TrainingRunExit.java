@@ -0,0 +1,24 @@
+package com.example.recipesapi.startup;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application as soon as it is ready. Used by the {@code cdsArchive} Gradle task: the JVM writes the
+ * class data sharing archive on exit, containing every class loaded during startup.
+ */
+@Component
+@ConditionalOnProperty("recipes.startup.exit-on-ready")
+@Log4j2
+public class TrainingRunExit implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(final ApplicationReadyEvent event) {
+        log.info("Training run finished, exiting");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
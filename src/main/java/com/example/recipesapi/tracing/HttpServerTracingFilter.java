@@ -0,0 +1,75 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Opens the server span of every request, before any other filter, continuing the caller's trace when the
+ * request carries a {@code traceparent} header. The span is named after the matched route once the request is
+ * handled, so {@code /api/v1/recipe/1} and {@code /api/v1/recipe/2} group together.
+ */
+public class HttpServerTracingFilter extends OncePerRequestFilter {
+    private static final TextMapGetter<HttpServletRequest> HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(final HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(final HttpServletRequest request, final String key) {
+            return request == null ? null : request.getHeader(key);
+        }
+    };
+
+    private final Tracer tracer;
+
+    public HttpServerTracingFilter(final Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final Context parent = W3CTraceContextPropagator.getInstance().extract(Context.root(), request, HEADERS);
+        final Span span = tracer.spanBuilder(request.getMethod())
+                .setParent(parent)
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute("http.method", request.getMethod())
+                .setAttribute("http.target", request.getRequestURI())
+                .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            final Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                span.updateName(request.getMethod() + " " + route);
+                span.setAttribute("http.route", route.toString());
+            }
+            span.setAttribute("http.status_code", response.getStatus());
+            if (response.getStatus() >= 500) {
+                span.setStatus(StatusCode.ERROR);
+            }
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Opens a client span for every SQL statement, with the statement text (placeholders only, never the bound
+ * values) and the number of rows it touched. Updates end their span when they return. Queries end it when their
+ * result set is closed (or at the latest their statement or connection), so the span includes fetching the rows
+ * and carries the number of rows read.
+ */
+public class JdbcTracingListener implements QueryExecutionListener, MethodExecutionListener {
+    private static final String SPAN = JdbcTracingListener.class.getName() + ".span";
+    private static final int MAX_STATEMENT_LENGTH = 2000;
+
+    private final ObjectProvider<Tracer> tracer;
+    private final String databaseSystem;
+    private final ThreadLocal<Map<Statement, OpenQuery>> openQueries = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    public JdbcTracingListener(final ObjectProvider<Tracer> tracer, final String databaseSystem) {
+        this.tracer = tracer;
+        this.databaseSystem = databaseSystem;
+    }
+
+    @Override
+    public void beforeQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+        final String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining(";\n"));
+        final String operation = operation(sql);
+        final Span span = tracer.getObject().spanBuilder(operation)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("db.system", databaseSystem)
+                .setAttribute("db.operation", operation)
+                .setAttribute("db.statement", sql.length() > MAX_STATEMENT_LENGTH ? sql.substring(0, MAX_STATEMENT_LENGTH) : sql)
+                .startSpan();
+        if (execInfo.isBatch()) {
+            span.setAttribute("db.batch_size", execInfo.getBatchSize());
+        }
+        execInfo.addCustomValue(SPAN, span);
+    }
+
+    @Override
+    public void afterQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+        final Span span = execInfo.getCustomValue(SPAN, Span.class);
+        if (span == null) {
+            return;
+        }
+        if (!execInfo.isSuccess()) {
+            span.recordException(execInfo.getThrowable());
+            span.setStatus(StatusCode.ERROR);
+            span.end();
+            return;
+        }
+        final Object result = execInfo.getResult();
+        if (result instanceof ResultSet resultSet) {
+            final Statement statement = statementOf(resultSet);
+            openQueries.get().put(statement != null ? statement : execInfo.getStatement(), new OpenQuery(span));
+            return;
+        }
+        final long rows = updatedRows(result);
+        if (rows >= 0) {
+            span.setAttribute("db.rows_affected", rows);
+        }
+        span.end();
+    }
+
+    @Override
+    public void beforeMethod(final MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(final MethodExecutionContext executionContext) {
+        final Map<Statement, OpenQuery> queries = openQueries.get();
+        if (queries.isEmpty()) {
+            return;
+        }
+        final Object target = executionContext.getTarget();
+        final String method = executionContext.getMethod().getName();
+        if (target instanceof ResultSet resultSet) {
+            if (method.equals("next") && Boolean.TRUE.equals(executionContext.getResult())) {
+                final OpenQuery query = queries.get(statementOf(resultSet));
+                if (query != null) {
+                    query.rows++;
+                }
+            } else if (method.equals("close")) {
+                end(queries.remove(statementOf(resultSet)));
+            }
+        } else if (target instanceof Statement statement && method.equals("close")) {
+            end(queries.remove(statement));
+        } else if (target instanceof Connection && method.equals("close")) {
+            queries.values().forEach(JdbcTracingListener::end);
+            queries.clear();
+        }
+    }
+
+    private static void end(final OpenQuery query) {
+        if (query != null) {
+            query.span.setAttribute("db.rows_returned", query.rows);
+            query.span.end();
+        }
+    }
+
+    private static Statement statementOf(final ResultSet resultSet) {
+        try {
+            return resultSet.getStatement();
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static long updatedRows(final Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                if (count < 0) {
+                    return -1;
+                }
+                total += count;
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    static String operation(final String sql) {
+        final String trimmed = sql.stripLeading();
+        final int end = trimmed.indexOf(' ');
+        return (end < 0 ? trimmed : trimmed.substring(0, end)).toUpperCase(Locale.ROOT);
+    }
+
+    private static final class OpenQuery {
+        private final Span span;
+        private long rows;
+
+        private OpenQuery(final Span span) {
+            this.span = span;
+        }
+    }
+}
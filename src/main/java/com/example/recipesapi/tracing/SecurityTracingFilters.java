@@ -0,0 +1,75 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * A pair of filters registered around Spring Security's filter chain: {@link Start} opens the
+ * {@code security.filters} span and {@link End} closes it when security lets the request through, so the span
+ * covers authentication (user lookup, password check) and URL authorization but not the controller. Rejected
+ * requests never reach {@link End}, their span is closed by {@link Start}.
+ */
+public final class SecurityTracingFilters {
+    private static final String SPAN_ATTRIBUTE = SecurityTracingFilters.class.getName() + ".span";
+    private static final String PARENT_ATTRIBUTE = SecurityTracingFilters.class.getName() + ".parent";
+
+    private SecurityTracingFilters() {
+    }
+
+    public static class Start extends OncePerRequestFilter {
+        private final Tracer tracer;
+
+        public Start(final Tracer tracer) {
+            this.tracer = tracer;
+        }
+
+        @Override
+        protected void doFilterInternal(final HttpServletRequest request,
+                                        final HttpServletResponse response,
+                                        final FilterChain filterChain) throws ServletException, IOException {
+            final Context parent = Context.current();
+            final Span span = tracer.spanBuilder("security.filters").startSpan();
+            request.setAttribute(SPAN_ATTRIBUTE, span);
+            request.setAttribute(PARENT_ATTRIBUTE, parent);
+            try (Scope ignored = span.makeCurrent()) {
+                filterChain.doFilter(request, response);
+            } finally {
+                if (request.getAttribute(SPAN_ATTRIBUTE) != null) {
+                    request.removeAttribute(SPAN_ATTRIBUTE);
+                    span.setAttribute("security.rejected", true);
+                    span.end();
+                }
+                request.removeAttribute(PARENT_ATTRIBUTE);
+            }
+        }
+    }
+
+    public static class End extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(final HttpServletRequest request,
+                                        final HttpServletResponse response,
+                                        final FilterChain filterChain) throws ServletException, IOException {
+            final Span span = (Span) request.getAttribute(SPAN_ATTRIBUTE);
+            final Context parent = (Context) request.getAttribute(PARENT_ATTRIBUTE);
+            if (span == null || parent == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            request.removeAttribute(SPAN_ATTRIBUTE);
+            span.end();
+            try (Scope ignored = parent.makeCurrent()) {
+                filterChain.doFilter(request, response);
+            }
+        }
+    }
+}
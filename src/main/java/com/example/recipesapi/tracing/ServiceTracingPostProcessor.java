@@ -0,0 +1,60 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Opens a span around the method calls on the application's {@code @Service} beans, named
+ * {@code RecipeService.getRecipeById}. The advice is added in front of the advisors a bean already has, so the
+ * span includes method security ({@code isOwner}) and the transaction commit.
+ */
+public class ServiceTracingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+    private static final String APPLICATION_PACKAGE = "com.example.recipesapi.";
+
+    public ServiceTracingPostProcessor(final ObjectProvider<Tracer> tracer) {
+        final ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Service.class, true))
+                .intersection((ClassFilter) type -> type.getName().startsWith(APPLICATION_PACKAGE));
+        this.advisor = new DefaultPointcutAdvisor(pointcut, new ServiceSpanInterceptor(tracer));
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+
+    private static final class ServiceSpanInterceptor implements MethodInterceptor {
+        private final ObjectProvider<Tracer> tracer;
+
+        private ServiceSpanInterceptor(final ObjectProvider<Tracer> tracer) {
+            this.tracer = tracer;
+        }
+
+        @Override
+        public Object invoke(final MethodInvocation invocation) throws Throwable {
+            final Class<?> type = ClassUtils.getUserClass(invocation.getMethod().getDeclaringClass());
+            final Span span = tracer.getObject()
+                    .spanBuilder(type.getSimpleName() + "." + invocation.getMethod().getName())
+                    .setAttribute("code.namespace", type.getName())
+                    .setAttribute("code.function", invocation.getMethod().getName())
+                    .startSpan();
+            try (Scope ignored = span.makeCurrent()) {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                span.recordException(e);
+                span.setStatus(StatusCode.ERROR);
+                throw e;
+            } finally {
+                span.end();
+            }
+        }
+    }
+}
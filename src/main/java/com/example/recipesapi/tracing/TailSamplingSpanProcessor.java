@@ -0,0 +1,207 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether to keep a trace once it is complete instead of when it starts. Spans are held per trace until
+ * the local root span (usually the HTTP request) ends, then the whole trace is handed to the delegate if the root
+ * took at least the slow threshold, any span failed, or the trace falls into the baseline ratio. Other traces are
+ * dropped, so fast requests cost only the in-memory spans.
+ * <p>
+ * Memory is bounded: at most {@code maxTraces} traces and {@code maxSpansPerTrace} spans per trace are held, and
+ * traces whose root never ends locally are dropped after {@code maxTraceAgeNanos}.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final long baselineBound;
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+    private final long maxTraceAgeNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+    private final AtomicLong kept = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private volatile long nextSweepNanos;
+
+    public TailSamplingSpanProcessor(final SpanProcessor delegate,
+                                     final long slowThresholdMillis,
+                                     final double baselineRatio,
+                                     final int maxTraces,
+                                     final int maxSpansPerTrace,
+                                     final long maxTraceAgeMillis) {
+        this(delegate, slowThresholdMillis, baselineRatio, maxTraces, maxSpansPerTrace, maxTraceAgeMillis,
+                System::nanoTime);
+    }
+
+    TailSamplingSpanProcessor(final SpanProcessor delegate,
+                              final long slowThresholdMillis,
+                              final double baselineRatio,
+                              final int maxTraces,
+                              final int maxSpansPerTrace,
+                              final long maxTraceAgeMillis,
+                              final LongSupplier nanoClock) {
+        if (baselineRatio < 0 || baselineRatio > 1) {
+            throw new IllegalArgumentException("Baseline ratio must be between 0 and 1");
+        }
+        this.delegate = delegate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.baselineBound = (long) (baselineRatio * Long.MAX_VALUE);
+        this.maxTraces = maxTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.maxTraceAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxTraceAgeMillis);
+        this.nanoClock = nanoClock;
+        this.nextSweepNanos = nanoClock.getAsLong() + maxTraceAgeNanos;
+    }
+
+    @Override
+    public void onStart(final Context parentContext, final ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(final ReadableSpan span) {
+        final String traceId = span.getSpanContext().getTraceId();
+        final SpanContext parent = span.getParentSpanContext();
+        final boolean localRoot = !parent.isValid() || parent.isRemote();
+        if (localRoot) {
+            final PendingTrace trace = pending.remove(traceId);
+            final List<ReadableSpan> spans = trace != null ? trace.drain() : new ArrayList<>(1);
+            spans.add(span);
+            if (shouldKeep(span, trace)) {
+                kept.incrementAndGet();
+                spans.forEach(delegate::onEnd);
+            } else {
+                dropped.incrementAndGet();
+            }
+        } else {
+            buffer(traceId, span);
+        }
+        sweepIfDue();
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.clear();
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    public long getKeptTraces() {
+        return kept.get();
+    }
+
+    public long getDroppedTraces() {
+        return dropped.get();
+    }
+
+    public long getEvictedTraces() {
+        return evicted.get();
+    }
+
+    public int getPendingTraces() {
+        return pending.size();
+    }
+
+    private void buffer(final String traceId, final ReadableSpan span) {
+        PendingTrace trace = pending.get(traceId);
+        if (trace == null) {
+            if (pending.size() >= maxTraces) {
+                evicted.incrementAndGet();
+                return;
+            }
+            trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(nanoClock.getAsLong()));
+        }
+        trace.add(span, isError(span));
+    }
+
+    private boolean shouldKeep(final ReadableSpan root, final PendingTrace trace) {
+        if (root.getLatencyNanos() >= slowThresholdNanos || isError(root) || (trace != null && trace.failed)) {
+            return true;
+        }
+        return inBaseline(root.getSpanContext().getTraceId());
+    }
+
+    /**
+     * Same rule as the SDK's ratio sampler: the lower half of the random trace id, so services sampling by
+     * ratio agree on which traces to keep.
+     */
+    private boolean inBaseline(final String traceId) {
+        if (baselineBound == 0) {
+            return false;
+        }
+        final long random = Long.parseUnsignedLong(traceId.substring(16), 16) & Long.MAX_VALUE;
+        return random < baselineBound;
+    }
+
+    private static boolean isError(final ReadableSpan span) {
+        return span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    private void sweepIfDue() {
+        final long now = nanoClock.getAsLong();
+        if (now - nextSweepNanos < 0) {
+            return;
+        }
+        nextSweepNanos = now + maxTraceAgeNanos;
+        final Iterator<PendingTrace> traces = pending.values().iterator();
+        while (traces.hasNext()) {
+            if (now - traces.next().firstSeenNanos >= maxTraceAgeNanos) {
+                traces.remove();
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    private final class PendingTrace {
+        private final long firstSeenNanos;
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private volatile boolean failed;
+
+        private PendingTrace(final long firstSeenNanos) {
+            this.firstSeenNanos = firstSeenNanos;
+        }
+
+        private synchronized void add(final ReadableSpan span, final boolean error) {
+            if (error) {
+                failed = true;
+            }
+            if (spans.size() < maxSpansPerTrace) {
+                spans.add(span);
+            }
+        }
+
+        private synchronized List<ReadableSpan> drain() {
+            return new ArrayList<>(spans);
+        }
+    }
+}
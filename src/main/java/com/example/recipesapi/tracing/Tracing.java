@@ -0,0 +1,29 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+
+/**
+ * Tracer for code Spring doesn't create, such as security expression roots. It is a no-op tracer until
+ * {@link TracingConfiguration} installs the application's tracer and again after the application stops.
+ */
+public final class Tracing {
+    static final String INSTRUMENTATION_NAME = "com.example.recipesapi";
+    private static final Tracer NOOP = OpenTelemetry.noop().getTracer(INSTRUMENTATION_NAME);
+    private static volatile Tracer tracer = NOOP;
+
+    private Tracing() {
+    }
+
+    public static Tracer tracer() {
+        return tracer;
+    }
+
+    static void install(Tracer applicationTracer) {
+        tracer = applicationTracer;
+    }
+
+    static void uninstall() {
+        tracer = NOOP;
+    }
+}
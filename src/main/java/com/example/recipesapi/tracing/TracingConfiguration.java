@@ -0,0 +1,157 @@
+package com.example.recipesapi.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Traces requests through the filter, security, service and JDBC layers. Every span is recorded, the
+ * {@link TailSamplingSpanProcessor} then exports only slow or failed requests and a small baseline of the rest.
+ * Enabled by setting {@code recipes.tracing.exporter} to {@code otlp} or {@code file}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("'${recipes.tracing.exporter:none}' != 'none'")
+@Log4j2
+public class TracingConfiguration implements DisposableBean {
+
+    @Bean
+    SpanExporter spanExporter(@Value("${recipes.tracing.exporter}") String exporter,
+                              @Value("${recipes.tracing.otlp.endpoint:http://localhost:4317}") String endpoint,
+                              @Value("${recipes.tracing.file.path:build/traces/spans.jsonl}") String path,
+                              ObjectMapper objectMapper) throws IOException {
+        switch (exporter) {
+            case "otlp":
+                log.info("Exporting traces to " + endpoint);
+                return OtlpGrpcSpanExporter.builder().setEndpoint(endpoint).build();
+            case "file":
+                log.info("Writing traces to " + path);
+                return new FileSpanExporter(Path.of(path), objectMapper);
+            default:
+                throw new IllegalArgumentException("Unknown trace exporter " + exporter + ", use otlp, file or none");
+        }
+    }
+
+    @Bean
+    TailSamplingSpanProcessor tailSamplingSpanProcessor(SpanExporter spanExporter,
+                                                        @Value("${recipes.tracing.slow-threshold-ms:500}") long slowThresholdMillis,
+                                                        @Value("${recipes.tracing.baseline-ratio:0.01}") double baselineRatio,
+                                                        @Value("${recipes.tracing.max-traces:10000}") int maxTraces,
+                                                        @Value("${recipes.tracing.max-spans-per-trace:500}") int maxSpansPerTrace,
+                                                        @Value("${recipes.tracing.max-trace-age-ms:60000}") long maxTraceAgeMillis) {
+        return new TailSamplingSpanProcessor(BatchSpanProcessor.builder(spanExporter).build(),
+                slowThresholdMillis, baselineRatio, maxTraces, maxSpansPerTrace, maxTraceAgeMillis);
+    }
+
+    @Bean(destroyMethod = "close")
+    SdkTracerProvider sdkTracerProvider(TailSamplingSpanProcessor tailSamplingSpanProcessor,
+                                        @Value("${recipes.tracing.service-name:recipes-api}") String serviceName) {
+        final Resource resource = Resource.getDefault()
+                .merge(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName)));
+        return SdkTracerProvider.builder()
+                .setResource(resource)
+                .setSampler(Sampler.alwaysOn())
+                .addSpanProcessor(tailSamplingSpanProcessor)
+                .build();
+    }
+
+    @Bean
+    Tracer tracer(SdkTracerProvider sdkTracerProvider) {
+        final Tracer tracer = sdkTracerProvider.get(Tracing.INSTRUMENTATION_NAME);
+        Tracing.install(tracer);
+        return tracer;
+    }
+
+    @Bean
+    MeterBinder tailSamplingMetrics(TailSamplingSpanProcessor processor) {
+        return registry -> {
+            FunctionCounter.builder("recipes.tracing.traces", processor, TailSamplingSpanProcessor::getKeptTraces)
+                    .tag("outcome", "kept").register(registry);
+            FunctionCounter.builder("recipes.tracing.traces", processor, TailSamplingSpanProcessor::getDroppedTraces)
+                    .tag("outcome", "dropped").register(registry);
+            FunctionCounter.builder("recipes.tracing.traces", processor, TailSamplingSpanProcessor::getEvictedTraces)
+                    .tag("outcome", "evicted").register(registry);
+            Gauge.builder("recipes.tracing.pending.traces", processor, TailSamplingSpanProcessor::getPendingTraces)
+                    .description("Traces waiting for their root span to end")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<HttpServerTracingFilter> httpServerTracingFilter(Tracer tracer) {
+        final FilterRegistrationBean<HttpServerTracingFilter> registration =
+                new FilterRegistrationBean<>(new HttpServerTracingFilter(tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    FilterRegistrationBean<SecurityTracingFilters.Start> securityTracingStartFilter(Tracer tracer) {
+        final FilterRegistrationBean<SecurityTracingFilters.Start> registration =
+                new FilterRegistrationBean<>(new SecurityTracingFilters.Start(tracer));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    FilterRegistrationBean<SecurityTracingFilters.End> securityTracingEndFilter() {
+        final FilterRegistrationBean<SecurityTracingFilters.End> registration =
+                new FilterRegistrationBean<>(new SecurityTracingFilters.End());
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Bean
+    JdbcTracingListener jdbcTracingListener(ObjectProvider<Tracer> tracer,
+                                            @Value("${spring.datasource.url:}") String url) {
+        final String[] parts = url.split(":");
+        return new JdbcTracingListener(tracer, parts.length > 1 ? parts[1] : "other_sql");
+    }
+
+    @Bean
+    static ServiceTracingPostProcessor serviceTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new ServiceTracingPostProcessor(tracer);
+    }
+
+    @Bean
+    static BeanPostProcessor passwordEncoderTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PasswordEncoder encoder && !(bean instanceof TracingPasswordEncoder)) {
+                    return new TracingPasswordEncoder(encoder, tracer);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        Tracing.uninstall();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Times password hashing, which is deliberately slow and often the largest part of an authenticated request.
+ */
+public class TracingPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final ObjectProvider<Tracer> tracer;
+
+    public TracingPasswordEncoder(final PasswordEncoder delegate, final ObjectProvider<Tracer> tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        final Span span = tracer.getObject().spanBuilder("password.encode").startSpan();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            span.end();
+        }
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        final Span span = tracer.getObject().spanBuilder("password.matches").startSpan();
+        try {
+            final boolean matches = delegate.matches(rawPassword, encodedPassword);
+            span.setAttribute("password.matches", matches);
+            return matches;
+        } finally {
+            span.end();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,73 +1,232 @@
 package com.example.recipesapi.v1.recipe.controller;
 
+import com.example.recipesapi.bulkhead.BulkheadGroup;
+import com.example.recipesapi.v1.recipe.exception.RecipeVersionMismatchException;
+import com.example.recipesapi.v1.recipe.model.dto.IngredientSearchResultDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeChangesDto;
 import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeFacetsDto;
+import com.example.recipesapi.v1.recipe.model.dto.SimilarRecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.SuggestionDto;
+import com.example.recipesapi.v1.recipe.model.dto.TrendingRecipeDto;
 import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.model.request.RecipeBatchRequest;
+import com.example.recipesapi.v1.recipe.service.RecipeChangeFeedService;
+import com.example.recipesapi.v1.recipe.service.RecipeFacetService;
+import com.example.recipesapi.v1.recipe.service.RecipeIngredientIndexService;
 import com.example.recipesapi.v1.recipe.service.RecipeService;
+import com.example.recipesapi.v1.recipe.service.RecipeSimilarityService;
+import com.example.recipesapi.v1.recipe.service.RecipeSuggestService;
+import com.example.recipesapi.v1.recipe.service.RecipeSyncService;
+import com.example.recipesapi.v1.recipe.service.RecipeViewService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/v1/recipe")
 public class RecipeController {
+    // Bulkhead groups: id lookups, scans over many recipes and writes don't compete for the same slots.
+    static final String LOOKUP = "recipe-lookup";
+    static final String SEARCH = "recipe-search";
+    static final String WRITE = "recipe-write";
 
     private final RecipeService recipeService;
+    private final RecipeChangeFeedService recipeChangeFeedService;
+    private final RecipeSyncService recipeSyncService;
+    private final RecipeFacetService recipeFacetService;
+    private final RecipeIngredientIndexService recipeIngredientIndexService;
+    private final RecipeSuggestService recipeSuggestService;
+    private final RecipeViewService recipeViewService;
+    private final RecipeSimilarityService recipeSimilarityService;
 
     @Autowired
-    public RecipeController(final RecipeService recipeService) {
+    public RecipeController(final RecipeService recipeService,
+                            final RecipeChangeFeedService recipeChangeFeedService,
+                            final RecipeSyncService recipeSyncService,
+                            final RecipeFacetService recipeFacetService,
+                            final RecipeIngredientIndexService recipeIngredientIndexService,
+                            final RecipeSuggestService recipeSuggestService,
+                            final RecipeViewService recipeViewService,
+                            final RecipeSimilarityService recipeSimilarityService) {
         this.recipeService = recipeService;
+        this.recipeChangeFeedService = recipeChangeFeedService;
+        this.recipeSyncService = recipeSyncService;
+        this.recipeFacetService = recipeFacetService;
+        this.recipeIngredientIndexService = recipeIngredientIndexService;
+        this.recipeSuggestService = recipeSuggestService;
+        this.recipeViewService = recipeViewService;
+        this.recipeSimilarityService = recipeSimilarityService;
     }
 
+    @BulkheadGroup(SEARCH)
     @GetMapping
     private ResponseEntity<List<RecipeDto>> allRecipes() {
         List<RecipeDto> recipes = recipeService.getAllRecipes();
         return new ResponseEntity<>(recipes, HttpStatus.OK);
     }
 
+    @BulkheadGroup(LOOKUP)
+    @GetMapping(params = "ids")
+    private ResponseEntity<RecipeBatchDto> recipesByIds(@RequestParam List<Long> ids) {
+        return new ResponseEntity<>(recipeService.getRecipeDtosByIds(ids), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(LOOKUP)
+    @PostMapping("/batch")
+    private ResponseEntity<RecipeBatchDto> recipesByIdsBatch(@RequestBody @Valid RecipeBatchRequest request) {
+        return new ResponseEntity<>(recipeService.getRecipeDtosByIds(request.getIds()), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(LOOKUP)
     @GetMapping("/my")
     private ResponseEntity<List<Recipe>> allUserRecipes(Authentication authentication) {
         List<Recipe> recipes = recipeService.getAuthenticatedUserRecipes(authentication);
         return new ResponseEntity<>(recipes, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    private SseEmitter recipeChangeFeed(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                        @RequestParam(required = false) String category,
+                                        @RequestParam(required = false) Long userId) {
+        return recipeChangeFeedService.subscribe(lastEventId, category, userId);
+    }
+
+    @BulkheadGroup(LOOKUP)
+    @GetMapping("/changes")
+    private ResponseEntity<RecipeChangesDto> recipeChanges(@RequestParam(required = false) String since,
+                                                           @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(recipeSyncService.getChangesSince(since, limit), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(LOOKUP)
+    @GetMapping("/facets")
+    private ResponseEntity<RecipeFacetsDto> recipeFacets(@RequestParam(defaultValue = "0") int ingredients) {
+        return new ResponseEntity<>(recipeFacetService.getFacets(ingredients), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(LOOKUP)
+    @GetMapping("/suggest")
+    private ResponseEntity<List<SuggestionDto>> suggest(@RequestParam String q,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(recipeSuggestService.suggest(q, limit), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(LOOKUP)
+    @GetMapping("/trending")
+    private ResponseEntity<List<TrendingRecipeDto>> trending(@RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(recipeViewService.getTrending(limit), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(LOOKUP)
     @GetMapping("{id}")
     private ResponseEntity<RecipeDto> getRecipeById(@PathVariable Long id) {
         final RecipeDto recipeDto = recipeService.getRecipeDtoById(id);
-        return new ResponseEntity<>(recipeDto, HttpStatus.OK);
+        recipeViewService.recordView(id);
+        return new ResponseEntity<>(recipeDto, versionHeaders(recipeDto), HttpStatus.OK);
     }
 
+    @BulkheadGroup(LOOKUP)
+    @GetMapping("{id}/similar")
+    private ResponseEntity<List<SimilarRecipeDto>> similarRecipes(@PathVariable Long id,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(recipeSimilarityService.getSimilar(id, limit), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(SEARCH)
     @GetMapping(value = "/search/", params = "name")
     private ResponseEntity<List<Recipe>> getRecipeByName(@RequestParam String name) {
         final List<Recipe> recipe = recipeService.getRecipesByNameContaining(name);
         return new ResponseEntity<>(recipe, HttpStatus.OK);
     }
 
+    @BulkheadGroup(SEARCH)
     @GetMapping(value = "/search/", params = "category")
     private ResponseEntity<List<Recipe>> getRecipesByCategory(@RequestParam String category) {
         final List<Recipe> recipe = recipeService.getRecipesByCategory(category);
         return new ResponseEntity<>(recipe, HttpStatus.OK);
     }
 
+    @BulkheadGroup(SEARCH)
+    @GetMapping("/search/ingredients")
+    private ResponseEntity<IngredientSearchResultDto> getRecipesByIngredients(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            @RequestParam(defaultValue = "50") int limit) {
+        final IngredientSearchResultDto result = recipeIngredientIndexService.search(
+                Objects.requireNonNullElse(all, List.of()),
+                Objects.requireNonNullElse(any, List.of()),
+                Objects.requireNonNullElse(none, List.of()),
+                limit);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @BulkheadGroup(WRITE)
     @PostMapping("")
     private void newRecipe(@RequestBody Recipe recipe, Authentication authentication) {
         recipeService.addRecipe(recipe, authentication);
     }
 
+    @BulkheadGroup(WRITE)
     @PutMapping("{id}")
     private ResponseEntity<RecipeDto> updateRecipe(@PathVariable Long id, @RequestBody @Valid Recipe recipe) {
-        recipeService.updateWholeRecipe(id, recipe);
+        final RecipeDto recipeDto = recipeService.updateWholeRecipe(id, recipe);
+
+        return new ResponseEntity<>(recipeDto, versionHeaders(recipeDto), HttpStatus.OK);
+    }
+
+    @BulkheadGroup(WRITE)
+    @PatchMapping(value = "{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    private ResponseEntity<RecipeDto> patchRecipe(@PathVariable Long id,
+                                                  @RequestBody JsonNode patch,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        final RecipeDto recipeDto = recipeService.patchRecipe(id, patch, parseVersion(ifMatch));
 
-        return new ResponseEntity<>(recipeService.getRecipeDtoById(id), HttpStatus.OK);
+        return new ResponseEntity<>(recipeDto, versionHeaders(recipeDto), HttpStatus.OK);
     }
 
+    @BulkheadGroup(WRITE)
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     private void removeRecipe(@PathVariable Long id) {
         recipeService.deleteRecipe(id);
     }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    private void concurrentModification() {
+    }
+
+    private static HttpHeaders versionHeaders(RecipeDto recipeDto) {
+        final HttpHeaders headers = new HttpHeaders();
+        if (recipeDto != null && recipeDto.getVersion() != null) {
+            headers.setETag("\"" + recipeDto.getVersion() + "\"");
+        }
+        return headers;
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        final String tag = ifMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new RecipeVersionMismatchException("Unknown entity tag: " + ifMatch);
+        }
+    }
 }
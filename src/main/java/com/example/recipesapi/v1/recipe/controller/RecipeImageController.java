@@ -0,0 +1,97 @@
+package com.example.recipesapi.v1.recipe.controller;
+
+import com.example.recipesapi.bulkhead.BulkheadGroup;
+import com.example.recipesapi.v1.recipe.exception.CustomNotFoundException;
+import com.example.recipesapi.v1.recipe.exception.ThumbnailNotReadyException;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeImage;
+import com.example.recipesapi.v1.recipe.service.RecipeImageService;
+import com.example.recipesapi.v1.recipe.storage.ImageStorage;
+import com.example.recipesapi.v1.recipe.storage.StoredImage;
+import com.example.recipesapi.v1.recipe.storage.ThumbnailSize;
+import com.example.recipesapi.v1.recipe.util.ImageResponseWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.ZoneId;
+
+@RestController
+@RequestMapping("/api/v1/recipe/{id}/image")
+@BulkheadGroup("recipe-image")
+public class RecipeImageController {
+    private final RecipeImageService recipeImageService;
+    private final ImageStorage imageStorage;
+    private final long maxAgeSeconds;
+
+    @Autowired
+    public RecipeImageController(final RecipeImageService recipeImageService,
+                                 final ImageStorage imageStorage,
+                                 @Value("${recipes.images.cache-max-age-s:86400}") final long maxAgeSeconds) {
+        this.recipeImageService = recipeImageService;
+        this.imageStorage = imageStorage;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * The image is the raw request body, its type is detected from the content.
+     */
+    @PutMapping(consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    private ResponseEntity<Void> uploadImage(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        final StoredImage image = recipeImageService.upload(id, request.getInputStream());
+        return ResponseEntity.noContent().eTag(image.getSha256()).build();
+    }
+
+    @GetMapping
+    private void getImage(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        final RecipeImage image = recipeImageService.getImage(id);
+        final Path localFile = imageStorage.localFile(image.getStorageKey()).orElse(null);
+        try {
+            ImageResponseWriter.write(request, response, image.getContentType(), image.getSize(), image.getSha256(),
+                    image.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant(), maxAgeSeconds, localFile,
+                    () -> imageStorage.open(image.getStorageKey()));
+        } catch (NoSuchFileException e) {
+            // Replaced or deleted while the response was being written.
+            throw new CustomNotFoundException("Not found image of recipe with id: " + id);
+        }
+    }
+
+    @GetMapping("/thumbnail/{size}")
+    private void getThumbnail(@PathVariable Long id, @PathVariable String size, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        final ThumbnailSize thumbnailSize = ThumbnailSize.of(size);
+        final RecipeImage image = recipeImageService.getImage(id);
+        final Path thumbnail = recipeImageService.getThumbnail(image, thumbnailSize);
+        try {
+            ImageResponseWriter.write(request, response, MediaType.IMAGE_JPEG_VALUE, Files.size(thumbnail),
+                    image.getSha256() + "-" + thumbnailSize.getPixels(),
+                    image.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant(), maxAgeSeconds, thumbnail,
+                    () -> Files.newByteChannel(thumbnail));
+        } catch (NoSuchFileException e) {
+            // Evicted from the thumbnail cache in the meantime.
+            throw new CustomNotFoundException("Not found thumbnail of recipe with id: " + id);
+        }
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    private void deleteImage(@PathVariable Long id) {
+        recipeImageService.deleteImage(id);
+    }
+
+    @ExceptionHandler(ThumbnailNotReadyException.class)
+    private ResponseEntity<Void> thumbnailNotReady() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.recipesapi.v1.recipe.event;
+
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Published by {@link com.example.recipesapi.v1.recipe.service.RecipeService} for every recipe write.
+ * Listeners should use {@code @TransactionalEventListener} so they only observe committed changes.
+ */
+@Value
+public class RecipeChangeEvent {
+    ChangeType type;
+    Long recipeId;
+    Long userId;
+    RecipeSnapshot before;
+    RecipeSnapshot after;
+    Instant occurredAt;
+
+    public static RecipeChangeEvent created(Recipe recipe) {
+        final RecipeSnapshot after = RecipeSnapshot.of(recipe);
+        return new RecipeChangeEvent(ChangeType.CREATED, after.getId(), after.getUserId(), null, after, Instant.now());
+    }
+
+    public static RecipeChangeEvent updated(RecipeSnapshot before, Recipe recipe) {
+        final RecipeSnapshot after = RecipeSnapshot.of(recipe);
+        return new RecipeChangeEvent(ChangeType.UPDATED, after.getId(), after.getUserId(), before, after, Instant.now());
+    }
+
+    public static RecipeChangeEvent deleted(RecipeSnapshot before) {
+        return new RecipeChangeEvent(ChangeType.DELETED, before.getId(), before.getUserId(), before, null, Instant.now());
+    }
+
+    /**
+     * The recipe was moved out of the recipes table by the application, it still exists in the archive.
+     */
+    public static RecipeChangeEvent archived(RecipeSnapshot before) {
+        return new RecipeChangeEvent(ChangeType.ARCHIVED, before.getId(), before.getUserId(), before, null, Instant.now());
+    }
+
+    /**
+     * Snapshot of the recipe as it is after the change, or as it was before a delete.
+     */
+    public RecipeSnapshot latest() {
+        return after != null ? after : before;
+    }
+
+    /**
+     * Audit segments store the ordinal, new types go last.
+     */
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED, ARCHIVED
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.recipesapi.v1.recipe.event;
+
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Value
+public class RecipeSnapshot {
+    Long id;
+    Long userId;
+    String name;
+    String category;
+    List<String> ingredients;
+    LocalDateTime date;
+
+    public static RecipeSnapshot of(Recipe recipe) {
+        return new RecipeSnapshot(
+                recipe.getId(),
+                recipe.getUser() != null ? recipe.getUser().getId() : null,
+                recipe.getName(),
+                recipe.getCategory(),
+                recipe.getIngredients() != null ? List.copyOf(recipe.getIngredients()) : List.of(),
+                recipe.getDate()
+        );
+    }
+}
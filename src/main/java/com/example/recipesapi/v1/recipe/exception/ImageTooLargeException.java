@@ -0,0 +1,13 @@
+package com.example.recipesapi.v1.recipe.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE)
+public class ImageTooLargeException extends RuntimeException {
+
+    public ImageTooLargeException(final String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.recipesapi.v1.recipe.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(final String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.recipesapi.v1.recipe.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED)
+public class RecipeVersionMismatchException extends RuntimeException {
+
+    public RecipeVersionMismatchException(final String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.recipesapi.v1.recipe.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException(final String message) {
+        super(message);
+    }
+
+}
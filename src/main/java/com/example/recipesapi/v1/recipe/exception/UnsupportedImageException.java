@@ -0,0 +1,13 @@
+package com.example.recipesapi.v1.recipe.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+public class UnsupportedImageException extends RuntimeException {
+
+    public UnsupportedImageException(final String message) {
+        super(message);
+    }
+
+}
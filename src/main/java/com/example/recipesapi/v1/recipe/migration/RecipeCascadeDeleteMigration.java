@@ -0,0 +1,62 @@
+package com.example.recipesapi.v1.recipe.migration;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Recipes are deleted with set-based statements that leave their ingredients and directions to the database's
+ * {@code ON DELETE CASCADE}. New schemas get the cascading foreign keys from the entity mapping, but schema update
+ * doesn't change the foreign keys of existing tables. This migration replaces them, once, with the cascading
+ * keys the mapping declares.
+ * Disabled with {@code recipes.migration.cascade-delete.enabled=false} once every database has been migrated.
+ */
+@Component
+@ConditionalOnProperty(name = "recipes.migration.cascade-delete.enabled", matchIfMissing = true)
+@DependsOn("entityManagerFactory")
+@Log4j2
+public class RecipeCascadeDeleteMigration implements InitializingBean {
+    private static final List<String[]> COLLECTIONS = List.of(
+            new String[]{"recipe_ingredients", "fk_recipe_ingredients_recipe"},
+            new String[]{"recipe_directions", "fk_recipe_directions_recipe"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecipeCascadeDeleteMigration(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        final String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.debug("Skipping recipe cascade delete migration on " + database);
+            return;
+        }
+        COLLECTIONS.forEach(collection -> migrate(collection[0], collection[1]));
+    }
+
+    private void migrate(String table, String constraint) {
+        final List<String> nonCascading = jdbcTemplate.queryForList(
+                "SELECT tc.constraint_name FROM information_schema.table_constraints tc " +
+                        "JOIN information_schema.referential_constraints rc " +
+                        "  ON rc.constraint_name = tc.constraint_name AND rc.constraint_schema = tc.constraint_schema " +
+                        "WHERE tc.table_name = ? AND tc.constraint_type = 'FOREIGN KEY' AND rc.delete_rule <> 'CASCADE'",
+                String.class, table);
+        if (nonCascading.isEmpty()) {
+            return;
+        }
+        nonCascading.forEach(name -> jdbcTemplate.execute("ALTER TABLE " + table + " DROP CONSTRAINT " + name));
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + constraint +
+                " FOREIGN KEY (recipe_id) REFERENCES recipes (id) ON DELETE CASCADE");
+        log.info("Replaced foreign keys " + nonCascading + " of " + table + " by " + constraint + " with ON DELETE CASCADE");
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.recipesapi.v1.recipe.migration;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Recipe ingredients and directions used to be stored as unordered bags. They are now lists with an order column,
+ * so Hibernate can update single rows instead of deleting and re-inserting the whole collection.
+ * <p>
+ * The order column is part of the list's primary key, so schema update would add it as {@code NOT NULL}, which
+ * fails on a table that has rows. The migration therefore runs before the entity manager factory: it adds the
+ * column as nullable, numbers the existing rows of every recipe in their physical order (the order the bag was
+ * loaded in), makes the column {@code NOT NULL} and adds the primary key, in one transaction per table. Hibernate
+ * then finds the columns in place. It does nothing on databases that were already migrated or created from scratch.
+ * Disabled with {@code recipes.migration.collection-order.enabled=false} once every database has been migrated.
+ */
+@Component(RecipeCollectionOrderMigration.BEAN_NAME)
+@ConditionalOnProperty(name = "recipes.migration.collection-order.enabled", matchIfMissing = true)
+@Log4j2
+public class RecipeCollectionOrderMigration implements InitializingBean {
+    static final String BEAN_NAME = "recipeCollectionOrderMigration";
+    static final List<String[]> COLLECTIONS = List.of(
+            new String[]{"recipe_ingredients", "ingredients_order"},
+            new String[]{"recipe_directions", "directions_order"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param vocabularyMigration created first so it runs first, it deletes ingredient rows the numbering would count
+     */
+    public RecipeCollectionOrderMigration(final DataSource dataSource,
+                                          final ObjectProvider<RecipeVocabularyMigration> vocabularyMigration) {
+        vocabularyMigration.getIfAvailable();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        final String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.debug("Skipping recipe collection order migration on " + database);
+            return;
+        }
+        COLLECTIONS.forEach(collection -> migrate(collection[0], collection[1]));
+    }
+
+    private void migrate(String table, String orderColumn) {
+        if (!hasTable(table) || hasPrimaryKey(table)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + orderColumn + " integer");
+            final int numbered = jdbcTemplate.update(
+                    "UPDATE " + table + " t SET " + orderColumn + " = s.position " +
+                            "FROM (SELECT ctid, row_number() OVER (PARTITION BY recipe_id ORDER BY ctid) - 1 AS position " +
+                            "      FROM " + table + ") s " +
+                            "WHERE t.ctid = s.ctid");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + orderColumn + " SET NOT NULL");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (recipe_id, " + orderColumn + ")");
+            log.info("Numbered " + numbered + " legacy rows in " + table + " and added primary key (recipe_id, "
+                    + orderColumn + ")");
+        });
+    }
+
+    private boolean hasTable(String table) {
+        final Integer tables = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.tables WHERE table_schema = current_schema() AND table_name = ?",
+                Integer.class, table);
+        return tables != null && tables > 0;
+    }
+
+    private boolean hasPrimaryKey(String table) {
+        final Integer primaryKeys = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.table_constraints " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND constraint_type = 'PRIMARY KEY'",
+                Integer.class, table);
+        return primaryKeys != null && primaryKeys > 0;
+    }
+
+    /**
+     * Makes the entity manager factory wait for the migration.
+     */
+    @Component
+    @ConditionalOnProperty(name = "recipes.migration.collection-order.enabled", matchIfMissing = true)
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnMigration() {
+            super(BEAN_NAME);
+        }
+    }
+}
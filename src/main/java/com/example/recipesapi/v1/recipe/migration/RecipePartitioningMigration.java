@@ -0,0 +1,185 @@
+package com.example.recipesapi.v1.recipe.migration;
+
+import com.example.recipesapi.v1.recipe.partition.RecipePartitions;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Converts the {@code recipes} table into a table partitioned by month of {@code date}, once, in one transaction
+ * that holds an exclusive lock on the table while the rows are copied. Afterwards the
+ * {@link com.example.recipesapi.v1.recipe.partition.RecipePartitionManager} keeps creating the coming months'
+ * partitions.
+ * <p>
+ * PostgreSQL requires the primary key of a partitioned table to contain the partition key, so it becomes
+ * {@code (id, date)} and no other table can reference {@code recipes (id)} with a foreign key any longer. The
+ * foreign keys of the recipe's collections and image are dropped; their {@code ON DELETE CASCADE} is replaced by
+ * a statement trigger on deletes from {@code recipes}. The trigger isn't fired when an update moves a recipe to the
+ * partition of the current month, unlike the row triggers and foreign keys of the partitions would be.
+ * <p>
+ * Enabled with {@code recipes.partitioning.enabled=true} (PostgreSQL 12 or newer), see the {@code partitioned}
+ * profile.
+ */
+@Component
+@ConditionalOnProperty(name = "recipes.partitioning.enabled", havingValue = "true")
+@DependsOn("entityManagerFactory")
+@Log4j2
+public class RecipePartitioningMigration implements InitializingBean {
+    static final String OLD_TABLE = "recipes_unpartitioned";
+    static final String SEQUENCE = "recipes_id_seq";
+    static final String TRIGGER = "recipes_delete_dependents";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeMonths;
+    private volatile boolean partitioned;
+
+    public RecipePartitioningMigration(final JdbcTemplate jdbcTemplate,
+                                       final TransactionTemplate transactionTemplate,
+                                       @Value("${recipes.partitioning.premake-months:3}") final int premakeMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.premakeMonths = premakeMonths;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        final String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.warn("Recipes can only be partitioned on PostgreSQL, not on " + database);
+            return;
+        }
+        if (!"p".equals(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, RecipePartitions.TABLE))) {
+            final long start = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> migrate());
+            log.info("Partitioned recipes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        partitioned = true;
+    }
+
+    /**
+     * @return whether the recipes table is partitioned, false on databases other than PostgreSQL
+     */
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    private void migrate() {
+        jdbcTemplate.execute("LOCK TABLE recipes IN ACCESS EXCLUSIVE MODE");
+        final List<Map<String, Object>> dependents = jdbcTemplate.queryForList(
+                "SELECT c.conrelid::regclass::text AS table_name, c.conname, a.attname, c.confdeltype::text AS on_delete " +
+                        "FROM pg_constraint c " +
+                        "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1] " +
+                        "WHERE c.confrelid = 'recipes'::regclass AND c.contype = 'f'");
+        final List<Map<String, Object>> references = jdbcTemplate.queryForList(
+                "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint " +
+                        "WHERE conrelid = 'recipes'::regclass AND contype = 'f'");
+
+        for (Map<String, Object> dependent : dependents) {
+            jdbcTemplate.execute("ALTER TABLE " + dependent.get("table_name") + " DROP CONSTRAINT " + dependent.get("conname"));
+        }
+        jdbcTemplate.execute("ALTER TABLE recipes RENAME TO " + OLD_TABLE);
+        final String primaryKey = jdbcTemplate.queryForObject(
+                "SELECT conname FROM pg_constraint WHERE conrelid = '" + OLD_TABLE + "'::regclass AND contype = 'p'",
+                String.class);
+        jdbcTemplate.execute("ALTER TABLE " + OLD_TABLE + " RENAME CONSTRAINT " + primaryKey + " TO " + OLD_TABLE + "_pkey");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_recipes_date_id");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_recipes_category_id");
+        final long nextId = takeOverIds();
+        jdbcTemplate.update("UPDATE " + OLD_TABLE + " SET date = now() WHERE date IS NULL");
+
+        jdbcTemplate.execute("CREATE SEQUENCE " + SEQUENCE + " START WITH " + nextId);
+        jdbcTemplate.execute("CREATE TABLE recipes (LIKE " + OLD_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) " +
+                "PARTITION BY RANGE (date)");
+        jdbcTemplate.execute("ALTER TABLE recipes ALTER COLUMN id SET DEFAULT nextval('" + SEQUENCE + "')");
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " OWNED BY recipes.id");
+        jdbcTemplate.execute("ALTER TABLE recipes ADD CONSTRAINT recipes_pkey PRIMARY KEY (id, date)");
+        jdbcTemplate.execute("CREATE INDEX idx_recipes_date_id ON recipes (date, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_recipes_category_id ON recipes (category_id)");
+        for (Map<String, Object> reference : references) {
+            jdbcTemplate.execute("ALTER TABLE recipes ADD CONSTRAINT " + reference.get("conname") + " "
+                    + reference.get("definition"));
+        }
+
+        final Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(date) FROM " + OLD_TABLE, Timestamp.class);
+        final YearMonth now = YearMonth.now();
+        YearMonth month = oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : now;
+        if (month.isAfter(now)) {
+            month = now;
+        }
+        for (; !month.isAfter(now.plusMonths(premakeMonths)); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE " + RecipePartitions.name(month) + " PARTITION OF recipes "
+                    + RecipePartitions.bounds(month));
+        }
+        jdbcTemplate.execute("CREATE TABLE " + RecipePartitions.DEFAULT_PARTITION + " PARTITION OF recipes DEFAULT");
+
+        final int copied = jdbcTemplate.update("INSERT INTO recipes SELECT * FROM " + OLD_TABLE);
+        jdbcTemplate.execute("DROP TABLE " + OLD_TABLE);
+        createDeleteTrigger(dependents);
+        log.info("Copied " + copied + " recipes into monthly partitions, replaced foreign keys "
+                + dependents.stream().map(dependent -> dependent.get("table_name") + "." + dependent.get("conname"))
+                .collect(Collectors.joining(", "))
+                + " by trigger " + TRIGGER);
+    }
+
+    /**
+     * Detaches the id generator from the old table, so it isn't dropped with it, and returns the next id. Ids are
+     * never reused, deleted recipes are still known to sync clients by their id.
+     */
+    private long takeOverIds() {
+        final long maxId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM " + OLD_TABLE, Long.class);
+        final String sequence = jdbcTemplate.queryForObject(
+                "SELECT pg_get_serial_sequence(?, 'id')", String.class, OLD_TABLE);
+        long nextId = maxId + 1;
+        if (sequence != null) {
+            final Long next = jdbcTemplate.queryForObject("SELECT nextval(?::regclass)", Long.class, sequence);
+            nextId = Math.max(nextId, next);
+        }
+        final Boolean identity = jdbcTemplate.queryForObject(
+                "SELECT is_identity = 'YES' FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'",
+                Boolean.class, OLD_TABLE);
+        if (Boolean.TRUE.equals(identity)) {
+            jdbcTemplate.execute("ALTER TABLE " + OLD_TABLE + " ALTER COLUMN id DROP IDENTITY");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE " + OLD_TABLE + " ALTER COLUMN id DROP DEFAULT");
+            if (sequence != null) {
+                jdbcTemplate.execute("DROP SEQUENCE " + sequence);
+            }
+        }
+        return nextId;
+    }
+
+    /**
+     * One statement per dependent table for all recipes a statement deleted. Dependents whose foreign key didn't
+     * cascade are left alone, as are rows of partitions that are detached.
+     */
+    private void createDeleteTrigger(List<Map<String, Object>> dependents) {
+        final StringBuilder body = new StringBuilder();
+        for (Map<String, Object> dependent : dependents) {
+            if ("c".equals(dependent.get("on_delete"))) {
+                body.append("    DELETE FROM ").append(dependent.get("table_name"))
+                        .append(" WHERE ").append(dependent.get("attname"))
+                        .append(" IN (SELECT id FROM deleted_recipes);\n");
+            }
+        }
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + TRIGGER + "() RETURNS trigger LANGUAGE plpgsql AS $$\n" +
+                "BEGIN\n" + body + "    RETURN NULL;\nEND\n$$");
+        jdbcTemplate.execute("CREATE TRIGGER " + TRIGGER + " AFTER DELETE ON recipes " +
+                "REFERENCING OLD TABLE AS deleted_recipes FOR EACH STATEMENT EXECUTE FUNCTION " + TRIGGER + "()");
+    }
+}
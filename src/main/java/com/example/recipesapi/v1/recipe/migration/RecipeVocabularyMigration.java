@@ -0,0 +1,129 @@
+package com.example.recipesapi.v1.recipe.migration;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Categories and ingredients used to be stored as text in every recipe. They are now ids of the shared
+ * {@code vocabulary_terms} table, see {@link com.example.recipesapi.v1.recipe.util.TermDictionary}.
+ * <p>
+ * The migration runs before the entity manager factory, so Hibernate never sees the old text columns: it fills
+ * the vocabulary with the distinct texts, points every recipe and ingredient row at its term, drops the text
+ * columns and makes the ids {@code NOT NULL} foreign keys of the vocabulary, all in one transaction. Ingredient rows
+ * without a text carried nothing and are deleted. It does nothing on databases that were already migrated or created from
+ * scratch. Disabled with {@code recipes.migration.vocabulary.enabled=false} once every database has been migrated.
+ */
+@Component(RecipeVocabularyMigration.BEAN_NAME)
+@ConditionalOnProperty(name = "recipes.migration.vocabulary.enabled", matchIfMissing = true)
+@Log4j2
+public class RecipeVocabularyMigration implements InitializingBean {
+    static final String BEAN_NAME = "recipeVocabularyMigration";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public RecipeVocabularyMigration(final DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        final String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.debug("Skipping recipe vocabulary migration on " + database);
+            return;
+        }
+        final boolean categories = hasColumn("recipes", "category");
+        final boolean ingredients = hasColumn("recipe_ingredients", "ingredients");
+        if (!categories && !ingredients) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS vocabulary_terms (" +
+                    "id serial PRIMARY KEY, " +
+                    "term varchar(255) NOT NULL, " +
+                    "CONSTRAINT uk_vocabulary_terms_term UNIQUE (term))");
+            if (categories) {
+                migrate("recipes", "category", "category_id");
+                constrain("recipes", "category_id", "fk_recipes_category");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_recipes_category_id ON recipes (category_id)");
+            }
+            if (ingredients) {
+                migrate("recipe_ingredients", "ingredients", "ingredient_id");
+                deleteEmptyIngredients();
+                constrain("recipe_ingredients", "ingredient_id", "fk_recipe_ingredients_ingredient");
+            }
+        });
+        final Long terms = jdbcTemplate.queryForObject("SELECT count(*) FROM vocabulary_terms", Long.class);
+        log.info("Migrated recipe categories and ingredients to " + terms + " vocabulary terms");
+    }
+
+    private void migrate(String table, String textColumn, String idColumn) {
+        final int added = jdbcTemplate.update(
+                "INSERT INTO vocabulary_terms (term) " +
+                        "SELECT DISTINCT " + textColumn + " FROM " + table + " WHERE " + textColumn + " IS NOT NULL " +
+                        "ON CONFLICT (term) DO NOTHING");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + idColumn + " integer");
+        final int rows = jdbcTemplate.update(
+                "UPDATE " + table + " t SET " + idColumn + " = v.id FROM vocabulary_terms v " +
+                        "WHERE v.term = t." + textColumn);
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + textColumn);
+        log.info("Replaced " + textColumn + " of " + rows + " rows in " + table + " by ids, " + added + " new terms");
+    }
+
+    /**
+     * Renumbers the remaining ingredients when the list order column is already there, so the lists keep no gaps.
+     */
+    private void deleteEmptyIngredients() {
+        final int deleted = jdbcTemplate.update("DELETE FROM recipe_ingredients WHERE ingredient_id IS NULL");
+        if (deleted == 0) {
+            return;
+        }
+        if (hasColumn("recipe_ingredients", "ingredients_order")) {
+            // Through negative positions, the primary key on the order column is checked row by row.
+            jdbcTemplate.update("UPDATE recipe_ingredients t SET ingredients_order = -1 - s.position " +
+                    "FROM (SELECT ctid, row_number() OVER (PARTITION BY recipe_id ORDER BY ingredients_order) - 1 AS position " +
+                    "      FROM recipe_ingredients) s " +
+                    "WHERE t.ctid = s.ctid AND t.ingredients_order <> s.position");
+            jdbcTemplate.update("UPDATE recipe_ingredients SET ingredients_order = -1 - ingredients_order " +
+                    "WHERE ingredients_order < 0");
+        }
+        log.info("Deleted " + deleted + " recipe ingredients without a text");
+    }
+
+    private void constrain(String table, String idColumn, String foreignKey) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + foreignKey + " FOREIGN KEY (" + idColumn +
+                ") REFERENCES vocabulary_terms (id)");
+    }
+
+    private boolean hasColumn(String table, String column) {
+        final Integer columns = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                Integer.class, table, column);
+        return columns != null && columns > 0;
+    }
+
+    /**
+     * Makes the entity manager factory wait for the migration.
+     */
+    @Component
+    @ConditionalOnProperty(name = "recipes.migration.vocabulary.enabled", matchIfMissing = true)
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnMigration() {
+            super(BEAN_NAME);
+        }
+    }
+}
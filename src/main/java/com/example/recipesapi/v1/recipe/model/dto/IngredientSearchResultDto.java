@@ -0,0 +1,19 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class IngredientSearchResultDto {
+    private long total;
+    private List<Recipe> recipes = new ArrayList<>();
+}
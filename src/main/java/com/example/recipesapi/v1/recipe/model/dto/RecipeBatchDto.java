@@ -0,0 +1,20 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RecipeBatchDto {
+    private Map<Long, RecipeDto> recipes = new LinkedHashMap<>();
+    private List<Long> missing = new ArrayList<>();
+}
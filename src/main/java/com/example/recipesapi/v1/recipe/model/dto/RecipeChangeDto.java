@@ -0,0 +1,35 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RecipeChangeDto {
+    private RecipeChangeEvent.ChangeType type;
+    private Long recipeId;
+    private Long userId;
+    private String name;
+    private String category;
+    private Instant occurredAt;
+
+    public static RecipeChangeDto of(RecipeChangeEvent event) {
+        final RecipeSnapshot snapshot = event.latest();
+        return new RecipeChangeDto(
+                event.getType(),
+                event.getRecipeId(),
+                event.getUserId(),
+                snapshot.getName(),
+                snapshot.getCategory(),
+                event.getOccurredAt()
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RecipeChangesDto {
+    private List<RecipeSyncEntryDto> changes = new ArrayList<>();
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -42,4 +42,15 @@ public class RecipeDto {
 
     @CreatedDate
     private LocalDateTime date;
+
+    private Long version;
+
+    public RecipeDto(final String name,
+                     final String description,
+                     final String category,
+                     final List<String> ingredients,
+                     final List<String> directions,
+                     final LocalDateTime date) {
+        this(name, description, category, ingredients, directions, date, null);
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RecipeFacetsDto {
+    private long total;
+    private Map<String, Long> categories = new LinkedHashMap<>();
+    private Map<String, Long> ingredients = new LinkedHashMap<>();
+}
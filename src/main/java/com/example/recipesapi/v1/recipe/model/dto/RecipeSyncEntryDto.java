@@ -0,0 +1,19 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RecipeSyncEntryDto {
+    private Long id;
+    private boolean deleted;
+    private LocalDateTime changedAt;
+    private RecipeDto recipe;
+}
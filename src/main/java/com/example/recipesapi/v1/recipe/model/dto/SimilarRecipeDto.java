@@ -0,0 +1,19 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class SimilarRecipeDto {
+    private Long recipeId;
+    private RecipeDto recipe;
+    /**
+     * Jaccard similarity of the ingredients, between 0 and 1.
+     */
+    private double similarity;
+}
@@ -0,0 +1,20 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class SuggestionDto {
+    private Type type;
+    private String text;
+    private Long recipeId;
+
+    public enum Type {
+        NAME, CATEGORY
+    }
+}
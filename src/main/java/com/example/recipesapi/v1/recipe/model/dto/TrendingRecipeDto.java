@@ -0,0 +1,16 @@
+package com.example.recipesapi.v1.recipe.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TrendingRecipeDto {
+    private Long recipeId;
+    private RecipeDto recipe;
+    private double score;
+}
@@ -1,12 +1,15 @@
 package com.example.recipesapi.v1.recipe.model.entity;
 
+import com.example.recipesapi.v1.recipe.util.VocabularyTermConverter;
 import com.example.recipesapi.v1.security.model.entity.User;
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -20,12 +23,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
-@AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
-@Table(name = "Recipes")
+@DynamicUpdate
+@Table(name = "Recipes", indexes = {
+        @Index(name = "idx_recipes_date_id", columnList = "date, id"),
+        @Index(name = "idx_recipes_category_id", columnList = "category_id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Recipe {
     @Id
@@ -45,11 +51,25 @@ public class Recipe {
     @NotBlank
     @NotNull
     @NotEmpty
+    @Convert(converter = VocabularyTermConverter.class)
+    @Column(name = "category_id")
     private String category;
     @ElementCollection
+    @CollectionTable(name = "recipe_ingredients", joinColumns = @JoinColumn(name = "recipe_id"),
+            foreignKey = @ForeignKey(name = "fk_recipe_ingredients_recipe",
+                    foreignKeyDefinition = "foreign key (recipe_id) references recipes (id) on delete cascade"))
+    @OrderColumn(name = "ingredients_order")
+    @Convert(converter = VocabularyTermConverter.class)
+    @Column(name = "ingredient_id")
+    @BatchSize(size = 100)
     private List<String> ingredients = new ArrayList<>();
 
     @ElementCollection
+    @CollectionTable(name = "recipe_directions", joinColumns = @JoinColumn(name = "recipe_id"),
+            foreignKey = @ForeignKey(name = "fk_recipe_directions_recipe",
+                    foreignKeyDefinition = "foreign key (recipe_id) references recipes (id) on delete cascade"))
+    @OrderColumn(name = "directions_order")
+    @BatchSize(size = 100)
     private List<String> directions = new ArrayList<>();
 
     @CreatedDate
@@ -61,6 +81,29 @@ public class Recipe {
     @JsonBackReference
     private User user;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    public Recipe(final Long id,
+                  final String name,
+                  final String description,
+                  final String category,
+                  final List<String> ingredients,
+                  final List<String> directions,
+                  final LocalDateTime date,
+                  final User user) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.category = category;
+        this.ingredients = ingredients;
+        this.directions = directions;
+        this.date = date;
+        this.user = user;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -0,0 +1,60 @@
+package com.example.recipesapi.v1.recipe.model.entity;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Audit log entry of a committed recipe change. Written in batches by the audit log, never through JPA.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "Recipe_Audit_Log",
+        indexes = @Index(name = "idx_recipe_audit_log_recipe_id", columnList = "recipe_id"))
+public class RecipeAuditEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action", nullable = false, length = 16)
+    private RecipeChangeEvent.ChangeType action;
+
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Column(name = "recipe_name")
+    private String recipeName;
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        final RecipeAuditEntry entry = (RecipeAuditEntry) o;
+        return id != null && Objects.equals(id, entry.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.recipesapi.v1.recipe.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.MapsId;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Where the image of a recipe is stored and what it is. The image itself lives in the {@code ImageStorage},
+ * only its metadata goes through JPA. Deleted together with the recipe by the database.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "Recipe_Images")
+public class RecipeImage {
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @MapsId
+    @JoinColumn(name = "recipe_id", foreignKey = @ForeignKey(name = "fk_recipe_images_recipe",
+            foreignKeyDefinition = "foreign key (recipe_id) references recipes (id) on delete cascade"))
+    private Recipe recipe;
+
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private LocalDateTime uploadedAt;
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        final RecipeImage image = (RecipeImage) o;
+        return recipeId != null && Objects.equals(recipeId, image.recipeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
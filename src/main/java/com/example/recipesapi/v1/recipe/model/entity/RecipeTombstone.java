@@ -0,0 +1,55 @@
+package com.example.recipesapi.v1.recipe.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Deletion log entry, kept so incremental sync clients learn about recipes that no longer exist.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "Recipe_Tombstones",
+        indexes = @Index(name = "idx_recipe_tombstones_deleted_at_recipe_id", columnList = "deleted_at, recipe_id"))
+public class RecipeTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipe_id", nullable = false)
+    private Long recipeId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public RecipeTombstone(final Long recipeId, final Long userId, final LocalDateTime deletedAt) {
+        this.recipeId = recipeId;
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        final RecipeTombstone tombstone = (RecipeTombstone) o;
+        return id != null && Objects.equals(id, tombstone.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.recipesapi.v1.recipe.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.Objects;
+
+/**
+ * Total number of times a recipe was read. Written in batches by the view counter, never through JPA.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "Recipe_View_Counts")
+public class RecipeViewCount {
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Column(name = "view_count", nullable = false)
+    private long viewCount;
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        final RecipeViewCount viewCount = (RecipeViewCount) o;
+        return recipeId != null && Objects.equals(recipeId, viewCount.recipeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.recipesapi.v1.recipe.model.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * A category or ingredient, stored once and referenced by id from recipes. Terms are never changed or deleted,
+ * so an id always stands for the same text. Read and written through {@link com.example.recipesapi.v1.recipe.util.TermDictionary}.
+ */
+@NoArgsConstructor
+@Getter
+@Entity
+@Table(name = "Vocabulary_Terms", uniqueConstraints = @UniqueConstraint(name = "uk_vocabulary_terms_term", columnNames = "term"))
+public class VocabularyTerm {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    private String term;
+}
@@ -0,0 +1,17 @@
+package com.example.recipesapi.v1.recipe.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeBatchRequest {
+    @NotNull
+    private List<Long> ids = new ArrayList<>();
+}
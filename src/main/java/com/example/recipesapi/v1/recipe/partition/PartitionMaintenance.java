@@ -0,0 +1,14 @@
+package com.example.recipesapi.v1.recipe.partition;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Partitions created and archived by one run of the {@link RecipePartitionManager}.
+ */
+@Value
+public class PartitionMaintenance {
+    List<String> created;
+    List<String> archived;
+}
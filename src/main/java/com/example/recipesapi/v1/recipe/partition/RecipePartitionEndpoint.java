@@ -0,0 +1,36 @@
+package com.example.recipesapi.v1.recipe.partition;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/partitions} lists the partitions of the recipes table and the archived ones,
+ * {@code POST /actuator/partitions} runs the partition maintenance right away.
+ */
+@Component
+@Endpoint(id = "partitions")
+@ConditionalOnProperty(name = "recipes.partitioning.enabled", havingValue = "true")
+public class RecipePartitionEndpoint {
+    private final RecipePartitionManager partitionManager;
+
+    public RecipePartitionEndpoint(final RecipePartitionManager partitionManager) {
+        this.partitionManager = partitionManager;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> partitions() {
+        return partitionManager.describe();
+    }
+
+    @WriteOperation
+    public PartitionMaintenance maintain() {
+        return partitionManager.maintain(YearMonth.now());
+    }
+}
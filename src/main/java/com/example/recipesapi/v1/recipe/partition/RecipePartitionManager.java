@@ -0,0 +1,187 @@
+package com.example.recipesapi.v1.recipe.partition;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.migration.RecipePartitioningMigration;
+import com.example.recipesapi.v1.recipe.service.RecipeService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps partitions of the coming months ready, so new and updated recipes never land in the default partition,
+ * and optionally moves partitions of months older than {@code recipes.partitioning.archive-after-months} out of
+ * the {@code recipes} table into the archive schema.
+ * <p>
+ * An archived partition is detached and moved to the archive schema as it is, the ingredients and directions of
+ * its recipes are moved to copies of their tables in the archive schema. Images and view counts aren't archived.
+ * Every archived recipe is published as archived, so caches, indexes and sync clients forget it and the audit log
+ * tells it apart from a delete.
+ * <p>
+ * Instances take turns through a transaction-scoped advisory lock, a run that doesn't get it does nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "recipes.partitioning.enabled", havingValue = "true")
+@Log4j2
+public class RecipePartitionManager {
+    static final long LOCK_KEY = 0x7265636970657300L;
+    static final List<String> ARCHIVED_COLLECTIONS = List.of("recipe_ingredients", "recipe_directions");
+    private static final int SNAPSHOT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecipePartitioningMigration migration;
+    private final RecipeService recipeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int premakeMonths;
+    private final int archiveAfterMonths;
+    private final String archiveSchema;
+
+    public RecipePartitionManager(final JdbcTemplate jdbcTemplate,
+                                  final TransactionTemplate transactionTemplate,
+                                  final RecipePartitioningMigration migration,
+                                  final RecipeService recipeService,
+                                  final ApplicationEventPublisher eventPublisher,
+                                  @Value("${recipes.partitioning.premake-months:3}") final int premakeMonths,
+                                  @Value("${recipes.partitioning.archive-after-months:0}") final int archiveAfterMonths,
+                                  @Value("${recipes.partitioning.archive-schema:recipes_archive}") final String archiveSchema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.migration = migration;
+        this.recipeService = recipeService;
+        this.eventPublisher = eventPublisher;
+        this.premakeMonths = premakeMonths;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.archiveSchema = RecipePartitions.checkIdentifier(archiveSchema);
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.partitioning.interval-ms:3600000}")
+    public void scheduledMaintenance() {
+        try {
+            maintain(YearMonth.now());
+        } catch (DataAccessException e) {
+            log.warn("Recipe partition maintenance failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Creates the missing partitions from {@code current} to {@code premake-months} ahead and archives the
+     * partitions that are old enough, each archived partition in its own transaction.
+     */
+    public PartitionMaintenance maintain(YearMonth current) {
+        if (!migration.isPartitioned()) {
+            return new PartitionMaintenance(List.of(), List.of());
+        }
+        final List<String> created = transactionTemplate.execute(status -> lock() ? createPartitions(current) : List.of());
+        final List<String> archived = new ArrayList<>();
+        if (archiveAfterMonths > 0) {
+            final YearMonth cutoff = current.minusMonths(archiveAfterMonths);
+            for (String partition : partitions()) {
+                final Optional<YearMonth> month = RecipePartitions.month(partition);
+                if (month.isPresent() && month.get().isBefore(cutoff)
+                        && Boolean.TRUE.equals(transactionTemplate.execute(status -> lock() && archive(partition)))) {
+                    archived.add(partition);
+                }
+            }
+        }
+        if (!created.isEmpty() || !archived.isEmpty()) {
+            log.info("Created recipe partitions " + created + ", archived " + archived);
+        }
+        return new PartitionMaintenance(created, archived);
+    }
+
+    /**
+     * @return names of the partitions attached to the recipes table, in order of their months
+     */
+    public Set<String> partitions() {
+        return new TreeSet<>(jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'recipes'::regclass", String.class));
+    }
+
+    /**
+     * Attached partitions with their bounds and estimated sizes, followed by the archived ones.
+     */
+    public List<Map<String, Object>> describe() {
+        final List<Map<String, Object>> partitions = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bounds, " +
+                        "c.reltuples::bigint AS estimated_rows, pg_total_relation_size(c.oid) AS bytes, false AS archived " +
+                        "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'recipes'::regclass ORDER BY c.relname"));
+        partitions.addAll(jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, NULL AS bounds, c.reltuples::bigint AS estimated_rows, " +
+                        "pg_total_relation_size(c.oid) AS bytes, true AS archived " +
+                        "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                        "WHERE n.nspname = ? AND c.relkind = 'r' AND c.relname LIKE 'recipes\\_p%' ORDER BY c.relname",
+                archiveSchema));
+        return partitions;
+    }
+
+    private boolean lock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY));
+    }
+
+    /**
+     * A partition can't be attached while the default partition holds rows of its month, they are moved into the
+     * new partition first.
+     */
+    private List<String> createPartitions(YearMonth current) {
+        final Set<String> existing = partitions();
+        final List<String> created = new ArrayList<>();
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(premakeMonths)); month = month.plusMonths(1)) {
+            final String partition = RecipePartitions.name(month);
+            if (existing.contains(partition)) {
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE recipes INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            final int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + RecipePartitions.DEFAULT_PARTITION +
+                    " WHERE date >= ? AND date < ? RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved",
+                    month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+            jdbcTemplate.execute("ALTER TABLE recipes ATTACH PARTITION " + partition + " " + RecipePartitions.bounds(month));
+            if (moved > 0) {
+                log.warn("Moved " + moved + " recipes from the default partition into " + partition);
+            }
+            created.add(partition);
+        }
+        return created;
+    }
+
+    private boolean archive(String partition) {
+        if (!partitions().contains(partition)) {
+            return false;
+        }
+        final List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + partition, Long.class);
+        final List<RecipeSnapshot> snapshots = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += SNAPSHOT_BATCH_SIZE) {
+            snapshots.addAll(recipeService.getSnapshots(ids.subList(from, Math.min(ids.size(), from + SNAPSHOT_BATCH_SIZE))));
+        }
+
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+        jdbcTemplate.execute("ALTER TABLE recipes DETACH PARTITION " + partition);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + archiveSchema);
+        final String archived = archiveSchema + "." + partition;
+        for (String collection : ARCHIVED_COLLECTIONS) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archiveSchema + "." + collection + " (LIKE " + collection + ")");
+            jdbcTemplate.update("WITH moved AS (DELETE FROM " + collection + " WHERE recipe_id IN (SELECT id FROM " + archived +
+                    ") RETURNING *) INSERT INTO " + archiveSchema + "." + collection + " SELECT * FROM moved");
+        }
+        jdbcTemplate.update("DELETE FROM recipe_images WHERE recipe_id IN (SELECT id FROM " + archived + ")");
+        snapshots.forEach(snapshot -> eventPublisher.publishEvent(RecipeChangeEvent.archived(snapshot)));
+        log.info("Archived " + ids.size() + " recipes of partition " + partition + " to " + archived);
+        return true;
+    }
+}
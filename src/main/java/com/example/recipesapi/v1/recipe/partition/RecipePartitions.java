@@ -0,0 +1,54 @@
+package com.example.recipesapi.v1.recipe.partition;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Names and bounds of the monthly partitions of the {@code recipes} table. A month's partition holds the recipes
+ * whose {@code date} (last change) falls into it, e.g. {@code recipes_p2024_03} those changed in March 2024.
+ */
+public final class RecipePartitions {
+    public static final String TABLE = "recipes";
+    public static final String DEFAULT_PARTITION = "recipes_default";
+    private static final String PREFIX = "recipes_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private RecipePartitions() {
+    }
+
+    public static String name(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    /**
+     * @return the month of a partition created by {@link #name(YearMonth)}, empty for any other table
+     */
+    public static Optional<YearMonth> month(String name) {
+        if (!name.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(name.substring(PREFIX.length()), SUFFIX));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Bounds of the month's partition, the start of the month inclusive and the start of the next one exclusive.
+     */
+    public static String bounds(YearMonth month) {
+        return "FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00') TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00')";
+    }
+
+    static String checkIdentifier(String identifier) {
+        if (!IDENTIFIER.matcher(identifier).matches()) {
+            throw new IllegalArgumentException("Invalid identifier: " + identifier);
+        }
+        return identifier;
+    }
+}
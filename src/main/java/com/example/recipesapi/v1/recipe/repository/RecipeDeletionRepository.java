@@ -0,0 +1,15 @@
+package com.example.recipesapi.v1.recipe.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface RecipeDeletionRepository {
+
+    /**
+     * One statement for all recipes, the database deletes their ingredients and directions
+     * ({@code ON DELETE CASCADE}, or a trigger once recipes are partitioned). Bypasses the persistence context,
+     * the recipes must not be loaded. {@code since} is the oldest change date of the recipes, with a partitioned
+     * table it limits the delete to the partitions that may hold them.
+     */
+    int deleteAllByIdIn(Collection<Long> ids, LocalDateTime since);
+}
@@ -0,0 +1,35 @@
+package com.example.recipesapi.v1.recipe.repository;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Every table the statement changes is declared to Hibernate as a query space of its own, so Hibernate evicts
+ * only the second-level cache regions of those tables. Without them it evicts the whole cache after a native
+ * statement, cached users included.
+ */
+class RecipeDeletionRepositoryImpl implements RecipeDeletionRepository {
+    static final List<String> QUERY_SPACES = List.of("recipes", "recipe_ingredients", "recipe_directions", "recipe_images");
+    private static final String DELETE_SQL = "delete from recipes where id in (:ids) and (date >= :since or date is null)";
+
+    private final EntityManager entityManager;
+
+    RecipeDeletionRepositoryImpl(final EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllByIdIn(Collection<Long> ids, LocalDateTime since) {
+        final NativeQuery<?> query = entityManager.createNativeQuery(DELETE_SQL).unwrap(NativeQuery.class);
+        QUERY_SPACES.forEach(query::addSynchronizedQuerySpace);
+        return query.setParameter("ids", ids)
+                .setParameter("since", since)
+                .executeUpdate();
+    }
+}
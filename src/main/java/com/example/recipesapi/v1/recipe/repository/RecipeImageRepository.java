@@ -0,0 +1,9 @@
+package com.example.recipesapi.v1.recipe.repository;
+
+import com.example.recipesapi.v1.recipe.model.entity.RecipeImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RecipeImageRepository extends JpaRepository<RecipeImage, Long> {
+}
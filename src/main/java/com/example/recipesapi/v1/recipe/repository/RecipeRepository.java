@@ -1,15 +1,76 @@
 package com.example.recipesapi.v1.recipe.repository;
 
 import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, RecipeDeletionRepository {
     List<Recipe> findByNameContainingIgnoreCaseOrderByDateDesc(String name);
-    List<Recipe> findAllByCategoryIgnoreCaseOrderByDateDesc(String category);
+    /**
+     * Categories are stored as vocabulary ids, the case-insensitive match runs on the small vocabulary table and
+     * recipes are filtered by integer id.
+     */
+    @Query("select r from Recipe r " +
+            "where r.category in (select t.id from VocabularyTerm t where upper(t.term) = upper(:category)) " +
+            "order by r.date desc")
+    List<Recipe> findAllByCategoryIgnoreCaseOrderByDateDesc(@Param("category") String category);
 
     List<Recipe> findAllByUserId(Long id);
+
+    @Query("select r.id from Recipe r")
+    Stream<Long> streamAllIds();
+
+    @Query("select r.id, r.name, r.date from Recipe r")
+    Stream<Object[]> streamIdNameAndDate();
+
+    @Query("select r.id, i from Recipe r join r.ingredients i")
+    Stream<Object[]> streamIdAndIngredient();
+
+    @Query("select r.id, r.category from Recipe r")
+    Stream<Object[]> streamIdAndCategory();
+
+    @Query("select r.id from Recipe r where r.user.id = :userId order by r.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Id, owner id, name, category and date of the recipes, enough for their change events without loading them.
+     */
+    @Query("select r.id, u.id, r.name, r.category, r.date from Recipe r left join r.user u where r.id in :ids")
+    List<Object[]> findSnapshotRows(@Param("ids") Collection<Long> ids);
+
+    @Query("select r.id, i from Recipe r join r.ingredients i where r.id in :ids order by r.id, index(i)")
+    List<Object[]> findIngredientRows(@Param("ids") Collection<Long> ids);
+
+    @Query("select r.category, count(r) from Recipe r group by r.category")
+    List<Object[]> countByCategory();
+
+    /**
+     * (ingredient, number of recipes) rows, a recipe listing an ingredient twice counted once.
+     */
+    @Query("select i, count(distinct r.id) from Recipe r join r.ingredients i group by i")
+    List<Object[]> countByIngredient();
+
+    @Query("select count(distinct r.id) from Recipe r join r.ingredients i where i in :ingredients")
+    long countByIngredientIn(@Param("ingredients") Collection<String> ingredients);
+
+    /**
+     * The date range comes first and on its own so a partitioned table is only read from the partitions
+     * covering it.
+     */
+    @Query("select r from Recipe r " +
+            "where r.date >= :date and r.date <= :until and (r.date > :date or r.id > :id) " +
+            "order by r.date, r.id")
+    List<Recipe> findChangedAfter(@Param("date") LocalDateTime date,
+                                  @Param("id") Long id,
+                                  @Param("until") LocalDateTime until,
+                                  Pageable pageable);
 }
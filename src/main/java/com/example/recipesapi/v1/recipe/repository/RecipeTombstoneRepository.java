@@ -0,0 +1,34 @@
+package com.example.recipesapi.v1.recipe.repository;
+
+import com.example.recipesapi.v1.recipe.model.entity.RecipeTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RecipeTombstoneRepository extends JpaRepository<RecipeTombstone, Long> {
+
+    @Query("select t from RecipeTombstone t " +
+            "where (t.deletedAt > :date or (t.deletedAt = :date and t.recipeId > :recipeId)) and t.deletedAt <= :until " +
+            "order by t.deletedAt, t.recipeId")
+    List<RecipeTombstone> findDeletedAfter(@Param("date") LocalDateTime date,
+                                           @Param("recipeId") Long recipeId,
+                                           @Param("until") LocalDateTime until,
+                                           Pageable pageable);
+
+    @Query("select min(t.deletedAt) from RecipeTombstone t")
+    LocalDateTime findOldestDeletedAt();
+
+    @Query("select max(t.deletedAt) from RecipeTombstone t where t.deletedAt < :date")
+    LocalDateTime findNewestDeletedAtBefore(@Param("date") LocalDateTime date);
+
+    @Modifying
+    @Query("delete from RecipeTombstone t where t.deletedAt < :date")
+    int deleteAllDeletedBefore(@Param("date") LocalDateTime date);
+}
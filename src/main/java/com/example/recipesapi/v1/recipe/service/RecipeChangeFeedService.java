@@ -0,0 +1,246 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.exception.TooManySubscribersException;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeChangeDto;
+import com.example.recipesapi.v1.recipe.util.EventRingBuffer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events feed of committed recipe changes.
+ * <p>
+ * Events are kept in a bounded {@link EventRingBuffer} to resume reconnecting clients, their ids are the buffer's
+ * sequence prefixed with the epoch of this boot, so an id from before a restart or from another instance is never
+ * mistaken for one of ours. Every subscriber gets the events it asked for in a bounded queue of its own, drained on
+ * the shared dispatcher threads a batch at a time, so a slow client never holds up the events of the others. A
+ * client that can't be resumed or whose queue overflows gets a {@code reset} event and is disconnected, after
+ * which it should reload its state and reconnect.
+ */
+@Service
+@Log4j2
+public class RecipeChangeFeedService {
+    static final String RESET_EVENT = "reset";
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Object lock = new Object();
+    private final EventRingBuffer<RecipeChangeEvent> buffer;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher;
+    private final long emitterTimeoutMillis;
+    private final int maxSubscribers;
+    private final int queueSize;
+
+    public RecipeChangeFeedService(@Value("${recipes.feed.buffer-size:1024}") final int bufferSize,
+                                   @Value("${recipes.feed.emitter-timeout-ms:1800000}") final long emitterTimeoutMillis,
+                                   @Value("${recipes.feed.max-subscribers:1000}") final int maxSubscribers,
+                                   @Value("${recipes.feed.dispatcher-threads:2}") final int dispatcherThreads,
+                                   @Value("${recipes.feed.subscriber-queue-size:256}") final int queueSize) {
+        this.buffer = new EventRingBuffer<>(bufferSize);
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.queueSize = queueSize;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "recipe-feed-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        synchronized (lock) {
+            final long sequence = buffer.append(event);
+            final EventRingBuffer.Entry<RecipeChangeEvent> entry = new EventRingBuffer.Entry<>(sequence, event);
+            subscriptions.forEach(subscription -> offer(subscription, entry));
+        }
+        subscriptions.forEach(this::schedule);
+    }
+
+    /**
+     * @param lastEventId id of the last event the client received, {@code null} to only get new events
+     */
+    public SseEmitter subscribe(String lastEventId, String category, Long userId) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new TooManySubscribersException("Too many recipe feed subscribers, try again later");
+        }
+        final SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        final Subscription subscription = new Subscription(emitter, category, userId, queueSize);
+
+        emitter.onCompletion(() -> close(subscription));
+        emitter.onTimeout(() -> close(subscription));
+        emitter.onError(e -> close(subscription));
+
+        synchronized (lock) {
+            final Long cursor = resumeSequence(lastEventId);
+            final EventRingBuffer.Slice<RecipeChangeEvent> missed =
+                    cursor != null ? buffer.readAfter(cursor, buffer.capacity()) : null;
+            if (missed == null || missed.isGap()) {
+                subscription.reset = true;
+            } else {
+                missed.getEntries().forEach(subscription::offer);
+            }
+            if (!subscription.reset) {
+                subscriptions.add(subscription);
+            }
+        }
+        schedule(subscription);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * @return sequence after which the client resumes, {@code null} when it can't resume from the id
+     */
+    private Long resumeSequence(String lastEventId) {
+        if (lastEventId == null) {
+            return buffer.lastSequence();
+        }
+        final int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return null;
+        }
+        try {
+            final long sequence = Long.parseLong(lastEventId.substring(separator + 1));
+            return sequence >= 0 && sequence <= buffer.lastSequence() ? sequence : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void offer(Subscription subscription, EventRingBuffer.Entry<RecipeChangeEvent> entry) {
+        if (!subscription.offer(entry)) {
+            log.debug("Recipe feed subscriber fell " + queueSize + " events behind, resetting it");
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private void schedule(Subscription subscription) {
+        if (!subscription.closed && subscription.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscription));
+        }
+    }
+
+    /**
+     * Sends at most one batch, then makes way for the other subscribers.
+     */
+    private void drain(Subscription subscription) {
+        try {
+            for (int sent = 0; sent < DRAIN_BATCH_SIZE; sent++) {
+                if (subscription.reset) {
+                    reset(subscription);
+                    return;
+                }
+                final EventRingBuffer.Entry<RecipeChangeEvent> entry = subscription.queue.poll();
+                if (entry == null) {
+                    break;
+                }
+                subscription.emitter.send(SseEmitter.event()
+                        .id(eventId(entry.getSequence()))
+                        .name(entry.getValue().getType().name())
+                        .data(RecipeChangeDto.of(entry.getValue()), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping recipe feed subscriber: " + e.getMessage());
+            close(subscription);
+            subscription.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscription.draining.set(false);
+        }
+        // More events, or an event queued after the last poll but before the flag was cleared.
+        if (!subscription.queue.isEmpty() || subscription.reset) {
+            schedule(subscription);
+        }
+    }
+
+    private void reset(Subscription subscription) throws IOException {
+        close(subscription);
+        subscription.emitter.send(SseEmitter.event()
+                .id(eventId(buffer.lastSequence()))
+                .name(RESET_EVENT)
+                .data(""));
+        subscription.emitter.complete();
+    }
+
+    private void close(Subscription subscription) {
+        subscription.closed = true;
+        subscriptions.remove(subscription);
+    }
+
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final String category;
+        private final Long userId;
+        private final BlockingQueue<EventRingBuffer.Entry<RecipeChangeEvent>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean reset;
+        private volatile boolean closed;
+
+        private Subscription(final SseEmitter emitter, final String category, final Long userId, final int queueSize) {
+            this.emitter = emitter;
+            this.category = category;
+            this.userId = userId;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        /**
+         * @return false when the queue is full, the subscriber is then reset instead
+         */
+        private boolean offer(EventRingBuffer.Entry<RecipeChangeEvent> entry) {
+            if (reset || !accepts(entry.getValue())) {
+                return true;
+            }
+            if (queue.offer(entry)) {
+                return true;
+            }
+            reset = true;
+            queue.clear();
+            return false;
+        }
+
+        private boolean accepts(RecipeChangeEvent event) {
+            if (userId != null && !userId.equals(event.getUserId())) {
+                return false;
+            }
+            return category == null || matchesCategory(event.getBefore()) || matchesCategory(event.getAfter());
+        }
+
+        private boolean matchesCategory(RecipeSnapshot snapshot) {
+            return snapshot != null && category.equalsIgnoreCase(Objects.toString(snapshot.getCategory(), ""));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.cache.InvalidationBus;
+import com.example.recipesapi.cache.NearCache;
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Recipes by id, cached on every node and dropped on all of them once a change to the recipe is committed.
+ * The cached DTOs are shared between requests and must not be modified.
+ */
+@Component
+public class RecipeDtoCache implements MeterBinder {
+    private final NearCache<Long, RecipeDto> recipes;
+
+    public RecipeDtoCache(final InvalidationBus invalidationBus,
+                          @Value("${recipes.cache.recipes.max-entries:10000}") final int maxEntries,
+                          @Value("${recipes.cache.recipes.ttl-ms:300000}") final long ttlMillis) {
+        this.recipes = new NearCache<>("recipes", maxEntries, Duration.ofMillis(ttlMillis), invalidationBus,
+                Long::valueOf, null);
+    }
+
+    public RecipeDto get(Long id, Supplier<RecipeDto> loader) {
+        return recipes.get(id, key -> loader.get());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        if (event.getType() != RecipeChangeEvent.ChangeType.CREATED) {
+            recipes.invalidate(event.getRecipeId());
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        recipes.bindTo(registry);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeFacetsDto;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.util.TermNormalizer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory recipe counts per category and per ingredient. The counters are loaded from the database on startup,
+ * counting each recipe once per normalized ingredient as the change events do, and afterwards maintained from
+ * committed {@link RecipeChangeEvent}s, so reading them never touches the recipes table.
+ */
+@Service
+@Log4j2
+public class RecipeFacetService {
+    private static final Comparator<Map.Entry<String, Long>> BY_COUNT =
+            Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey());
+
+    private final RecipeRepository recipeRepository;
+    private final Map<String, Long> categoryCounts = new ConcurrentHashMap<>();
+    private final Map<String, Long> ingredientCounts = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+
+    public RecipeFacetService(final RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        final Map<String, Long> categories = merge(recipeRepository.countByCategory());
+        final Map<String, Long> ingredients = countIngredients(recipeRepository.countByIngredient());
+        categoryCounts.clear();
+        categoryCounts.putAll(categories);
+        ingredientCounts.clear();
+        ingredientCounts.putAll(ingredients);
+        total.set(recipeRepository.count());
+        log.info("Loaded recipe facets: " + categories.size() + " categories, " + ingredients.size() + " ingredients");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        if (event.getBefore() != null) {
+            apply(event.getBefore(), -1);
+        }
+        if (event.getAfter() != null) {
+            apply(event.getAfter(), 1);
+        }
+    }
+
+    /**
+     * @param ingredientLimit number of most common ingredients to include, 0 to leave them out
+     */
+    public RecipeFacetsDto getFacets(int ingredientLimit) {
+        return new RecipeFacetsDto(
+                total.get(),
+                mostCommon(categoryCounts, Integer.MAX_VALUE),
+                ingredientLimit > 0 ? mostCommon(ingredientCounts, ingredientLimit) : new LinkedHashMap<>()
+        );
+    }
+
+    /**
+     * Categories starting with the prefix, most used first.
+     */
+    public List<String> categoriesStartingWith(String prefix, int limit) {
+        final String normalized = TermNormalizer.normalize(prefix);
+        return categoryCounts.entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().startsWith(normalized))
+                .sorted(BY_COUNT)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void apply(RecipeSnapshot snapshot, long delta) {
+        total.addAndGet(delta);
+        add(categoryCounts, TermNormalizer.normalize(snapshot.getCategory()), delta);
+        normalized(snapshot.getIngredients()).forEach(ingredient -> add(ingredientCounts, ingredient, delta));
+    }
+
+    private static Set<String> normalized(Collection<String> ingredients) {
+        return ingredients.stream()
+                .map(TermNormalizer::normalize)
+                .collect(Collectors.toSet());
+    }
+
+    private static void add(Map<String, Long> counts, String key, long delta) {
+        if (key.isEmpty()) {
+            return;
+        }
+        counts.compute(key, (k, count) -> {
+            final long updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    private static Map<String, Long> merge(List<Object[]> rows) {
+        final Map<String, Long> counts = new ConcurrentHashMap<>();
+        rows.forEach(row -> add(counts, TermNormalizer.normalize((String) row[0]), ((Number) row[1]).longValue()));
+        return counts;
+    }
+
+    /**
+     * Spellings of an ingredient that normalize the same are counted together, where one recipe may list several
+     * of them, so only those are counted again by the database.
+     *
+     * @param rows (ingredient, number of recipes) rows
+     */
+    private Map<String, Long> countIngredients(List<Object[]> rows) {
+        final Map<String, List<Object[]>> spellings = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            final String ingredient = TermNormalizer.normalize((String) row[0]);
+            if (!ingredient.isEmpty()) {
+                spellings.computeIfAbsent(ingredient, key -> new ArrayList<>()).add(row);
+            }
+        }
+        final Map<String, Long> counts = new ConcurrentHashMap<>();
+        spellings.forEach((ingredient, same) -> add(counts, ingredient, same.size() == 1
+                ? ((Number) same.get(0)[1]).longValue()
+                : recipeRepository.countByIngredientIn(same.stream().map(row -> (String) row[0]).toList())));
+        return counts;
+    }
+
+    /**
+     * The most common entries, most common first, kept in a heap of {@code limit} entries instead of sorting all.
+     */
+    private static Map<String, Long> mostCommon(Map<String, Long> counts, int limit) {
+        final PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(BY_COUNT.reversed());
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            final Map.Entry<String, Long> candidate = Map.entry(entry.getKey(), entry.getValue());
+            if (top.size() < limit) {
+                top.add(candidate);
+            } else if (BY_COUNT.compare(candidate, top.peek()) < 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        }
+        final List<Map.Entry<String, Long>> sorted = new ArrayList<>(top);
+        sorted.sort(BY_COUNT);
+        final Map<String, Long> result = new LinkedHashMap<>();
+        sorted.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.exception.CustomNotFoundException;
+import com.example.recipesapi.v1.recipe.exception.ThumbnailNotReadyException;
+import com.example.recipesapi.v1.recipe.exception.UnsupportedImageException;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeImage;
+import com.example.recipesapi.v1.recipe.repository.RecipeImageRepository;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.storage.ImageStorage;
+import com.example.recipesapi.v1.recipe.storage.StoredImage;
+import com.example.recipesapi.v1.recipe.storage.ThumbnailCache;
+import com.example.recipesapi.v1.recipe.storage.ThumbnailSize;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recipe images and their thumbnails. Image bytes are streamed between the client and the {@link ImageStorage},
+ * the database only holds where an image is stored.
+ * <p>
+ * Thumbnails are generated in the fixed {@link ThumbnailSize sizes} on a small thread pool, right after an upload
+ * and again whenever one has been evicted from the {@link ThumbnailCache}. Requests for the same missing thumbnail
+ * share one generation and wait for it at most {@code recipes.images.thumbnails.wait-ms}. Images are decoded
+ * subsampled close to the thumbnail size, so a large photo never has to be decoded in full.
+ */
+@Service
+@Log4j2
+public class RecipeImageService implements MeterBinder {
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final RecipeImageRepository recipeImageRepository;
+    private final RecipeRepository recipeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageStorage imageStorage;
+    private final ThumbnailCache thumbnailCache;
+    private final long maxBytes;
+    private final long maxPixels;
+    private final long waitMillis;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public RecipeImageService(final RecipeImageRepository recipeImageRepository,
+                              final RecipeRepository recipeRepository,
+                              final TransactionTemplate transactionTemplate,
+                              final ImageStorage imageStorage,
+                              final ThumbnailCache thumbnailCache,
+                              @Value("${recipes.images.max-bytes:5242880}") final long maxBytes,
+                              @Value("${recipes.images.max-pixels:40000000}") final long maxPixels,
+                              @Value("${recipes.images.thumbnails.threads:2}") final int threads,
+                              @Value("${recipes.images.thumbnails.wait-ms:2000}") final long waitMillis) {
+        this.recipeImageRepository = recipeImageRepository;
+        this.recipeRepository = recipeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.imageStorage = imageStorage;
+        this.thumbnailCache = thumbnailCache;
+        this.maxBytes = maxBytes;
+        this.maxPixels = maxPixels;
+        this.waitMillis = waitMillis;
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), runnable -> {
+            final Thread thread = new Thread(runnable, "recipe-thumbnails-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stores the image and replaces the recipe's previous one. The image is written to the storage before the
+     * transaction starts, so no database connection is held while the client uploads.
+     */
+    @PreAuthorize("isOwner(#id)")
+    public StoredImage upload(Long id, InputStream content) {
+        if (!recipeRepository.existsById(id)) {
+            throw new CustomNotFoundException("Not found recipe with id: " + id);
+        }
+        final StoredImage stored;
+        try {
+            stored = imageStorage.save(String.valueOf(id), content, maxBytes);
+            checkDimensions(stored.getKey());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final String previousKey;
+        try {
+            previousKey = saveImage(id, stored);
+        } catch (RuntimeException e) {
+            deleteQuietly(stored.getKey());
+            throw e;
+        }
+
+        if (previousKey != null && !previousKey.equals(stored.getKey())) {
+            deleteQuietly(previousKey);
+            thumbnailCache.removeAll(previousKey + "-");
+        }
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            generateLater(stored.getKey(), size);
+        }
+        return stored;
+    }
+
+    /**
+     * @return key of the image the new one replaces, {@code null} when the recipe had none
+     */
+    private String saveImage(Long id, StoredImage stored) {
+        try {
+            return transactionTemplate.execute(status -> updateImage(id, stored));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first upload inserted the row before this one, replace its image instead.
+            return transactionTemplate.execute(status -> updateImage(id, stored));
+        }
+    }
+
+    private String updateImage(Long id, StoredImage stored) {
+        final RecipeImage image = recipeImageRepository.findById(id).orElseGet(() -> {
+            final RecipeImage created = new RecipeImage();
+            created.setRecipe(recipeRepository.getReferenceById(id));
+            return created;
+        });
+        final String previousKey = image.getStorageKey();
+        image.setStorageKey(stored.getKey());
+        image.setContentType(stored.getContentType());
+        image.setSize(stored.getSize());
+        image.setSha256(stored.getSha256());
+        image.setUploadedAt(LocalDateTime.now());
+        recipeImageRepository.save(image);
+        return previousKey;
+    }
+
+    public RecipeImage getImage(Long id) {
+        return recipeImageRepository.findById(id)
+                .orElseThrow(() -> new CustomNotFoundException("Not found image of recipe with id: " + id));
+    }
+
+    /**
+     * @return the thumbnail file, generated first when it's not cached
+     * @throws ThumbnailNotReadyException when it isn't generated in time, the client should retry
+     */
+    public Path getThumbnail(RecipeImage image, ThumbnailSize size) {
+        final String name = thumbnailName(image.getStorageKey(), size);
+        final Optional<Path> cached = thumbnailCache.get(name);
+        if (cached.isPresent()) {
+            hits.incrementAndGet();
+            return cached.get();
+        }
+        misses.incrementAndGet();
+        final CompletableFuture<Path> generation = generateLater(image.getStorageKey(), size);
+        if (generation == null) {
+            throw new ThumbnailNotReadyException("Too many thumbnails are being generated, try again later");
+        }
+        try {
+            return generation.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ThumbnailNotReadyException("Thumbnail of recipe " + image.getRecipeId() + " is not ready yet");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThumbnailNotReadyException("Interrupted while generating a thumbnail");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Can't generate thumbnail " + name, e.getCause());
+        }
+    }
+
+    @PreAuthorize("isOwner(#id)")
+    public void deleteImage(Long id) {
+        final RecipeImage image = getImage(id);
+        transactionTemplate.executeWithoutResult(status -> recipeImageRepository.deleteById(id));
+        deleteQuietly(image.getStorageKey());
+        thumbnailCache.removeAll(image.getStorageKey() + "-");
+    }
+
+    /**
+     * The image row goes with the recipe through the foreign key (the delete trigger once recipes are partitioned),
+     * or is deleted by the archiving, the files are deleted here.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        if (event.getType() != RecipeChangeEvent.ChangeType.DELETED
+                && event.getType() != RecipeChangeEvent.ChangeType.ARCHIVED) {
+            return;
+        }
+        final String prefix = String.valueOf(event.getRecipeId());
+        try {
+            imageStorage.deleteAll(prefix);
+        } catch (IOException e) {
+            log.warn("Can't delete images of recipe " + prefix + ": " + e.getMessage());
+        }
+        thumbnailCache.removeAll(prefix + "-");
+    }
+
+    /**
+     * Drops queued thumbnails and waits briefly for the ones being written.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("recipes.images.thumbnails.cache.bytes", thumbnailCache, ThumbnailCache::totalBytes)
+                .description("Size of the cached thumbnails")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("recipes.images.thumbnails.cache.entries", thumbnailCache, ThumbnailCache::size)
+                .description("Number of cached thumbnails")
+                .register(registry);
+        FunctionCounter.builder("recipes.images.thumbnails.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("recipes.images.thumbnails.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("recipes.images.thumbnails.generated", generated, AtomicLong::get)
+                .tag("outcome", "success")
+                .register(registry);
+        FunctionCounter.builder("recipes.images.thumbnails.generated", failed, AtomicLong::get)
+                .tag("outcome", "failure")
+                .register(registry);
+        Gauge.builder("recipes.images.thumbnails.queued", executor, pool -> pool.getQueue().size())
+                .description("Thumbnails waiting to be generated")
+                .register(registry);
+    }
+
+    static String thumbnailName(String storageKey, ThumbnailSize size) {
+        return storageKey + "-" + size.name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    /**
+     * @return the generation of the thumbnail, shared with other callers asking for it at the same time, or
+     * {@code null} when the queue is full
+     */
+    private CompletableFuture<Path> generateLater(String storageKey, ThumbnailSize size) {
+        final String name = thumbnailName(storageKey, size);
+        final CompletableFuture<Path> created = new CompletableFuture<>();
+        final CompletableFuture<Path> existing = inFlight.putIfAbsent(name, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    // Another generation may have finished between the caller's cache miss and now.
+                    final Optional<Path> cached = thumbnailCache.get(name);
+                    if (cached.isPresent()) {
+                        created.complete(cached.get());
+                    } else {
+                        created.complete(generate(storageKey, size, name));
+                        generated.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    log.warn("Can't generate thumbnail " + name + ": " + e.getMessage());
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(name, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(name, created);
+            return null;
+        }
+        return created;
+    }
+
+    Path generate(String storageKey, ThumbnailSize size, String name) {
+        try (ImageInputStream input = openImage(storageKey)) {
+            final ImageReader reader = reader(input);
+            try {
+                final int width = reader.getWidth(0);
+                final int height = reader.getHeight(0);
+                final double scale = Math.min(1.0, (double) size.getPixels() / Math.max(width, height));
+                final int targetWidth = Math.max(1, (int) Math.round(width * scale));
+                final int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+                // Decode only every n-th pixel, keeping about twice the target size for a smooth downscale.
+                final ImageReadParam param = reader.getDefaultReadParam();
+                final int subsampling = Math.max(1, Math.max(width, height) / (size.getPixels() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                final BufferedImage source = reader.read(0, param);
+
+                final BufferedImage thumbnail = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+                final Graphics2D graphics = thumbnail.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    // JPEG has no transparency, transparent PNG and GIF pixels become white.
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, targetWidth, targetHeight);
+                    graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+                } finally {
+                    graphics.dispose();
+                }
+                return writeThumbnail(thumbnail, name);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path writeThumbnail(BufferedImage thumbnail, String name) throws IOException {
+        final Path temp = thumbnailCache.createTempFile(name);
+        try {
+            final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                final ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(thumbnail, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return thumbnailCache.put(name, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads only the image header, rejecting images that would take too much memory to decode.
+     */
+    private void checkDimensions(String storageKey) throws IOException {
+        final long pixels;
+        try (ImageInputStream input = openImage(storageKey)) {
+            final ImageReader reader = reader(input);
+            try {
+                pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | UnsupportedImageException e) {
+            deleteQuietly(storageKey);
+            throw new UnsupportedImageException("Can't read the image");
+        }
+        if (pixels > maxPixels) {
+            deleteQuietly(storageKey);
+            throw new UnsupportedImageException("Images can't have more than " + maxPixels + " pixels");
+        }
+    }
+
+    private ImageInputStream openImage(String storageKey) throws IOException {
+        final Optional<Path> file = imageStorage.localFile(storageKey);
+        if (file.isPresent()) {
+            return new FileImageInputStream(file.get().toFile());
+        }
+        final ImageInputStream input = ImageIO.createImageInputStream(Channels.newInputStream(imageStorage.open(storageKey)));
+        if (input == null) {
+            throw new IOException("Can't read image " + storageKey);
+        }
+        return input;
+    }
+
+    private static ImageReader reader(ImageInputStream input) {
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new UnsupportedImageException("Only JPEG, PNG and GIF images are supported");
+        }
+        final ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    private void deleteQuietly(String storageKey) {
+        try {
+            imageStorage.delete(storageKey);
+        } catch (IOException e) {
+            log.warn("Can't delete image " + storageKey + ": " + e.getMessage());
+        }
+    }
+}
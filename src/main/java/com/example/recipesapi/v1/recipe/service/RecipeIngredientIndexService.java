@@ -0,0 +1,87 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.model.dto.IngredientSearchResultDto;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.util.IngredientBitmapIndex;
+import lombok.extern.log4j.Log4j2;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link IngredientBitmapIndex} in sync with the database: fully loaded on startup, then updated from
+ * committed {@link RecipeChangeEvent}s.
+ */
+@Service
+@Log4j2
+public class RecipeIngredientIndexService {
+    static final int MAX_LIMIT = 200;
+
+    private final RecipeRepository recipeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IngredientBitmapIndex index = new IngredientBitmapIndex();
+
+    public RecipeIngredientIndexService(final RecipeRepository recipeRepository,
+                                        final TransactionTemplate transactionTemplate) {
+        this.recipeRepository = recipeRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        final long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            index.clear();
+            try (Stream<Long> ids = recipeRepository.streamAllIds()) {
+                ids.forEach(id -> index.add(id, List.of()));
+            }
+            try (Stream<Object[]> rows = recipeRepository.streamIdAndIngredient()) {
+                rows.forEach(row -> index.add((Long) row[0], List.of((String) row[1])));
+            }
+        });
+        index.optimize();
+        log.info("Built ingredient index: " + index.recipeCount() + " recipes, " + index.ingredientCount()
+                + " ingredients in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        if (event.getBefore() != null) {
+            index.remove(event.getRecipeId(), event.getBefore().getIngredients());
+        }
+        if (event.getAfter() != null) {
+            index.add(event.getRecipeId(), event.getAfter().getIngredients());
+        }
+    }
+
+    public RoaringBitmap findRecipeIds(Collection<String> all, Collection<String> any, Collection<String> none) {
+        return index.query(all, any, none);
+    }
+
+    public IngredientSearchResultDto search(Collection<String> all, Collection<String> any, Collection<String> none,
+                                            int limit) {
+        final RoaringBitmap matches = findRecipeIds(all, any, none);
+        final List<Long> ids = IngredientBitmapIndex.newestFirst(matches, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        final Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+        final List<Recipe> recipes = recipeRepository.findAllById(ids)
+                .stream()
+                .sorted(Comparator.comparing(recipe -> position.get(recipe.getId())))
+                .toList();
+        return new IngredientSearchResultDto(matches.getLongCardinality(), recipes);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import com.example.recipesapi.v1.recipe.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Shares one database load between concurrent requests for the same recipe, see {@link SingleFlight}.
+ */
+@Component
+public class RecipeLoadCoalescer implements MeterBinder {
+    private final SingleFlight<Long, RecipeDto> recipeLoads;
+
+    public RecipeLoadCoalescer(@Value("${recipes.coalescing.timeout-ms:2000}") final long timeoutMillis) {
+        this.recipeLoads = new SingleFlight<>(Duration.ofMillis(timeoutMillis));
+    }
+
+    public RecipeDto load(Long id, Supplier<RecipeDto> loader) {
+        return recipeLoads.load(id, loader);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("recipes.load.calls", recipeLoads, SingleFlight::callCount)
+                .description("Recipe lookups by id")
+                .register(registry);
+        FunctionCounter.builder("recipes.load.database", recipeLoads, SingleFlight::loadCount)
+                .description("Recipe lookups by id that went to the database")
+                .register(registry);
+        FunctionCounter.builder("recipes.load.coalesced", recipeLoads, SingleFlight::coalescedCount)
+                .description("Recipe lookups that waited for a concurrent identical lookup")
+                .register(registry);
+        FunctionCounter.builder("recipes.load.timeouts", recipeLoads, SingleFlight::timeoutCount)
+                .description("Coalesced lookups that stopped waiting and loaded on their own")
+                .register(registry);
+        Gauge.builder("recipes.load.in.flight", recipeLoads, SingleFlight::inFlightCount)
+                .register(registry);
+        Gauge.builder("recipes.load.coalescing.ratio", recipeLoads, SingleFlight::coalescingRatio)
+                .description("Share of recipe lookups served by another request's database load")
+                .register(registry);
+    }
+}
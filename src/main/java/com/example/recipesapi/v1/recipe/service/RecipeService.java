@@ -1,89 +1,270 @@
 package com.example.recipesapi.v1.recipe.service;
 
+import com.example.recipesapi.diagnostics.RecipeOperationEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
 import com.example.recipesapi.v1.recipe.exception.CustomNotFoundException;
+import com.example.recipesapi.v1.recipe.exception.RecipeVersionMismatchException;
+import com.example.recipesapi.v1.recipe.exception.TooManyIdsException;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
 import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
 import com.example.recipesapi.v1.recipe.model.entity.Recipe;
 import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
 import com.example.recipesapi.v1.recipe.util.RecipeMapper;
+import com.example.recipesapi.v1.recipe.util.RecipeMergePatch;
 import com.example.recipesapi.v1.security.model.CustomUserDetails;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Log4j2
 public class RecipeService {
+    static final int MAX_BATCH_SIZE = 1000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final RecipeRepository recipeRepository;
     private final RecipeMapper recipeMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecipeLoadCoalescer recipeLoadCoalescer;
+    private final RecipeDtoCache recipeDtoCache;
 
     @Autowired
-    public RecipeService(final RecipeRepository recipeRepository, final RecipeMapper recipeMapper) {
+    public RecipeService(final RecipeRepository recipeRepository,
+                         final RecipeMapper recipeMapper,
+                         final ApplicationEventPublisher eventPublisher,
+                         final RecipeLoadCoalescer recipeLoadCoalescer,
+                         final RecipeDtoCache recipeDtoCache) {
         this.recipeRepository = recipeRepository;
         this.recipeMapper = recipeMapper;
+        this.eventPublisher = eventPublisher;
+        this.recipeLoadCoalescer = recipeLoadCoalescer;
+        this.recipeDtoCache = recipeDtoCache;
     }
 
     public List<RecipeDto> getAllRecipes() {
-        return recipeRepository.findAll()
-                .stream()
-                .map(recipeMapper::convertToDto)
-                .toList();
+        return RecipeOperationEvent.record("getAllRecipes", null,
+                () -> recipeRepository.findAll()
+                        .stream()
+                        .map(recipeMapper::convertToDto)
+                        .toList(),
+                List::size);
     }
 
+    /**
+     * Served from the {@link RecipeDtoCache}, concurrent misses for the same id share a single database load, so the
+     * returned DTO may be shared between callers and must not be modified.
+     */
     public RecipeDto getRecipeDtoById(Long id) {
-        return recipeMapper.convertToDto(getRecipeById(id));
+        return RecipeOperationEvent.record("getRecipeDtoById", id,
+                () -> recipeDtoCache.get(id,
+                        () -> recipeLoadCoalescer.load(id, () -> recipeMapper.convertToDto(getRecipeById(id)))),
+                recipeDto -> 1);
+    }
+
+    /**
+     * Loads all recipes with one {@code IN} query, their collections are fetched in batches.
+     * Ids that don't exist are reported as missing instead of failing the whole request.
+     */
+    @Transactional(readOnly = true)
+    public RecipeBatchDto getRecipeDtosByIds(Collection<Long> ids) {
+        final Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new TooManyIdsException("Can't get more than " + MAX_BATCH_SIZE + " recipes at once");
+        }
+        return RecipeOperationEvent.record("getRecipeDtosByIds", null,
+                () -> loadBatch(uniqueIds),
+                batch -> batch.getRecipes().size());
     }
 
+    private RecipeBatchDto loadBatch(Set<Long> ids) {
+        final Map<Long, Recipe> found = recipeRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+        final RecipeBatchDto batch = new RecipeBatchDto();
+        ids.forEach(id -> {
+            final Recipe recipe = found.get(id);
+            if (recipe != null) {
+                batch.getRecipes().put(id, recipeMapper.convertToDto(recipe));
+            } else {
+                batch.getMissing().add(id);
+            }
+        });
+        return batch;
+    }
+
+    @Transactional
     public void addRecipe(Recipe recipe, Authentication authentication) {
-        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        recipe.setUser(userDetails.getUser());
-        recipeRepository.save(recipe);
+        RecipeOperationEvent.record("addRecipe", null, () -> {
+            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+            recipe.setUser(userDetails.getUser());
+            recipeRepository.save(recipe);
+            eventPublisher.publishEvent(RecipeChangeEvent.created(recipe));
+        }, 1);
     }
 
+    /**
+     * Deletes with a single statement, without loading the recipe (and with it its owner and all the owner's
+     * recipes). Only the columns the change event needs are read.
+     */
     @PreAuthorize("isOwner(#id)")
+    @Transactional
     public void deleteRecipe(Long id) {
-        Recipe recipe = getRecipeById(id);
+        RecipeOperationEvent.record("deleteRecipe", id, () -> {
+            final List<RecipeSnapshot> snapshots = getSnapshots(List.of(id));
+            if (snapshots.isEmpty()) {
+                log.error("Can't find recipe with id: " + id);
+                throw new CustomNotFoundException("Not found recipe with id: " + id);
+            }
 
-        recipeRepository.deleteById(recipe.getId());
+            recipeRepository.deleteAllByIdIn(List.of(id), oldestDate(snapshots));
+            eventPublisher.publishEvent(RecipeChangeEvent.deleted(snapshots.get(0)));
+        }, 1);
+    }
 
+    /**
+     * Deletes the user's recipes with the lowest ids, at most {@code chunkSize} of them, the same way as
+     * {@link #deleteRecipe(Long)}. Used by account deletion, which calls it until nothing is left.
+     *
+     * @return number of recipes deleted, 0 once the user has none
+     */
+    @Transactional
+    public int deleteRecipesOfUser(Long userId, int chunkSize) {
+        return RecipeOperationEvent.record("deleteRecipesOfUser", null, () -> {
+            final List<Long> ids = recipeRepository.findIdsByUserId(userId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            final List<RecipeSnapshot> snapshots = getSnapshots(ids);
+            final int deleted = recipeRepository.deleteAllByIdIn(ids, oldestDate(snapshots));
+            snapshots.forEach(snapshot -> eventPublisher.publishEvent(RecipeChangeEvent.deleted(snapshot)));
+            return deleted;
+        }, Integer::intValue);
     }
 
     @PreAuthorize("isOwner(#id)")
-    public void updateWholeRecipe(Long id, Recipe modifiedRecipe) {
-        Recipe recipe = getRecipeById(id);
+    @Transactional
+    public RecipeDto updateWholeRecipe(Long id, Recipe modifiedRecipe) {
+        return RecipeOperationEvent.record("updateWholeRecipe", id, () -> {
+            Recipe recipe = getRecipeById(id);
+            final RecipeSnapshot before = RecipeSnapshot.of(recipe);
 
-        recipe.setName(modifiedRecipe.getName());
-        recipe.setDescription(modifiedRecipe.getDescription());
-        recipe.setCategory(modifiedRecipe.getCategory());
-        recipe.setIngredients(modifiedRecipe.getIngredients());
-        recipe.setDirections(modifiedRecipe.getDirections());
+            recipe.setName(modifiedRecipe.getName());
+            recipe.setDescription(modifiedRecipe.getDescription());
+            recipe.setCategory(modifiedRecipe.getCategory());
+            recipe.setIngredients(modifiedRecipe.getIngredients());
+            recipe.setDirections(modifiedRecipe.getDirections());
 
-        recipeRepository.save(recipe);
+            recipeRepository.save(recipe);
+            // Flush so the returned DTO carries the incremented version.
+            recipeRepository.flush();
+            eventPublisher.publishEvent(RecipeChangeEvent.updated(before, recipe));
+            return recipeMapper.convertToDto(recipe);
+        }, recipeDto -> 1);
+    }
+
+    /**
+     * Applies a JSON Merge Patch to the recipe, writing only the attributes that change.
+     *
+     * @param expectedVersion version from the client's {@code If-Match} header, {@code null} to skip the check
+     */
+    @PreAuthorize("isOwner(#id)")
+    @Transactional
+    public RecipeDto patchRecipe(Long id, JsonNode patch, Long expectedVersion) {
+        return RecipeOperationEvent.record("patchRecipe", id, () -> {
+            Recipe recipe = getRecipeById(id);
+            if (expectedVersion != null && !expectedVersion.equals(recipe.getVersion())) {
+                throw new RecipeVersionMismatchException(
+                        "Recipe with id: " + id + " has version " + recipe.getVersion() + ", expected " + expectedVersion);
+            }
+            final RecipeSnapshot before = RecipeSnapshot.of(recipe);
+
+            if (RecipeMergePatch.apply(recipe, patch)) {
+                recipeRepository.saveAndFlush(recipe);
+                eventPublisher.publishEvent(RecipeChangeEvent.updated(before, recipe));
+            }
+            return recipeMapper.convertToDto(recipe);
+        }, recipeDto -> 1);
     }
 
     public List<Recipe> getRecipesByNameContaining(String name) {
-        return recipeRepository.findByNameContainingIgnoreCaseOrderByDateDesc(name);
+        return RecipeOperationEvent.record("getRecipesByNameContaining", null,
+                () -> recipeRepository.findByNameContainingIgnoreCaseOrderByDateDesc(name),
+                List::size);
     }
 
     public List<Recipe> getRecipesByCategory(String category) {
-        return recipeRepository.findAllByCategoryIgnoreCaseOrderByDateDesc(category);
+        return RecipeOperationEvent.record("getRecipesByCategory", null,
+                () -> recipeRepository.findAllByCategoryIgnoreCaseOrderByDateDesc(category),
+                List::size);
     }
 
     public Recipe getRecipeById(Long id) {
-        return recipeRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.error("Can't find recipe with id: " + id);
-                    throw new CustomNotFoundException("Not found recipe with id: " + id);
-                });
+        return RecipeOperationEvent.record("getRecipeById", id,
+                () -> recipeRepository.findById(id)
+                        .orElseThrow(() -> {
+                            log.error("Can't find recipe with id: " + id);
+                            throw new CustomNotFoundException("Not found recipe with id: " + id);
+                        }),
+                recipe -> 1);
+    }
+
+    /**
+     * Snapshots of the recipes as the change events carry them, read without loading the recipes.
+     */
+    public List<RecipeSnapshot> getSnapshots(Collection<Long> ids) {
+        final Map<Long, List<String>> ingredients = new HashMap<>();
+        recipeRepository.findIngredientRows(ids).forEach(row ->
+                ingredients.computeIfAbsent((Long) row[0], key -> new ArrayList<>()).add((String) row[1]));
+        return recipeRepository.findSnapshotRows(ids)
+                .stream()
+                .map(row -> new RecipeSnapshot(
+                        (Long) row[0],
+                        (Long) row[1],
+                        (String) row[2],
+                        (String) row[3],
+                        List.copyOf(ingredients.getOrDefault((Long) row[0], List.of())),
+                        (LocalDateTime) row[4]))
+                .toList();
+    }
+
+    /**
+     * A concurrent update can only move a recipe's date forward, so the recipe is still found at or after this date.
+     */
+    private static LocalDateTime oldestDate(List<RecipeSnapshot> snapshots) {
+        return snapshots.stream()
+                .map(RecipeSnapshot::getDate)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(EPOCH);
     }
 
     public List<Recipe> getAuthenticatedUserRecipes(Authentication authentication) {
         CustomUserDetails customUserDetails = (CustomUserDetails) authentication.getPrincipal();
         Long userId = customUserDetails.getUser().getId();
-        return recipeRepository.findAllByUserId(userId);
+        return RecipeOperationEvent.record("getAuthenticatedUserRecipes", null,
+                () -> recipeRepository.findAllByUserId(userId),
+                List::size);
     }
 
 }
@@ -0,0 +1,216 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.SimilarRecipeDto;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.util.MinHashIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Similar recipes: the most similar recipes of the same category by ingredients, precomputed for every recipe so a
+ * lookup is a single map read.
+ * <p>
+ * Candidates come from the {@link MinHashIndex}, which is fully loaded on startup and updated from committed
+ * {@link RecipeChangeEvent}s. A change only affects the neighbor lists of the changed recipe and of the recipes
+ * sharing a bucket with it before or after the change; those are marked and recomputed in the background,
+ * in parallel on a fork-join pool. Until then lookups return the previous lists.
+ */
+@Service
+@Log4j2
+public class RecipeSimilarityService implements MeterBinder {
+    static final int MAX_LIMIT = 50;
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private final RecipeRepository recipeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RecipeService recipeService;
+    private final MinHashIndex index;
+    private final int neighborCount;
+    private final double minSimilarity;
+    private final ForkJoinPool pool;
+    private final ConcurrentMap<Long, List<MinHashIndex.Neighbor>> neighbors = new ConcurrentHashMap<>();
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    private final AtomicLong recomputed = new AtomicLong();
+
+    public RecipeSimilarityService(final RecipeRepository recipeRepository,
+                                   final TransactionTemplate transactionTemplate,
+                                   final RecipeService recipeService,
+                                   @Value("${recipes.similar.bands:40}") final int bands,
+                                   @Value("${recipes.similar.rows:3}") final int rows,
+                                   @Value("${recipes.similar.max-candidates:2000}") final int maxCandidates,
+                                   @Value("${recipes.similar.neighbors:20}") final int neighborCount,
+                                   @Value("${recipes.similar.min-similarity:0.25}") final double minSimilarity,
+                                   @Value("${recipes.similar.parallelism:0}") final int parallelism) {
+        this.recipeRepository = recipeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.recipeService = recipeService;
+        this.index = new MinHashIndex(bands, rows, maxCandidates);
+        this.neighborCount = Math.min(neighborCount, MAX_LIMIT);
+        this.minSimilarity = minSimilarity;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        final long start = System.nanoTime();
+        final Map<Long, String> categories = new HashMap<>();
+        final Map<Long, List<String>> ingredients = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = recipeRepository.streamIdAndCategory()) {
+                rows.forEach(row -> categories.put((Long) row[0], (String) row[1]));
+            }
+            try (Stream<Object[]> rows = recipeRepository.streamIdAndIngredient()) {
+                rows.forEach(row -> ingredients.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add((String) row[1]));
+            }
+        });
+        index.clear();
+        categories.forEach((id, category) -> index.put(id, category, ingredients.getOrDefault(id, List.of())));
+        stale.clear();
+        neighbors.clear();
+        recompute(categories.keySet().stream().mapToLong(Long::longValue).toArray());
+        log.info("Computed similar recipes of " + index.size() + " recipes in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        final Long id = event.getRecipeId();
+        final Set<Long> affected = new HashSet<>(index.bucketMembers(id));
+        if (event.getAfter() != null) {
+            index.put(id, event.getAfter().getCategory(), event.getAfter().getIngredients());
+            affected.addAll(index.bucketMembers(id));
+        } else {
+            index.remove(id);
+            neighbors.remove(id);
+        }
+        // Also when deleted, in case a recomputation running right now puts the recipe's list back.
+        affected.add(id);
+        stale.addAll(affected);
+    }
+
+    /**
+     * Recomputes the neighbor lists changes made stale.
+     */
+    @Scheduled(fixedDelayString = "${recipes.similar.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (stale.isEmpty()) {
+            return;
+        }
+        final List<Long> ids = new ArrayList<>(stale);
+        stale.removeAll(ids);
+        recompute(ids.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * @throws com.example.recipesapi.v1.recipe.exception.CustomNotFoundException when the recipe doesn't exist
+     */
+    public List<SimilarRecipeDto> getSimilar(Long id, int limit) {
+        final List<MinHashIndex.Neighbor> similar = neighbors.get(id);
+        if (similar == null) {
+            // Not computed yet, or no such recipe.
+            recipeService.getRecipeById(id);
+            return List.of();
+        }
+        final int count = Math.min(similar.size(), Math.max(1, Math.min(limit, MAX_LIMIT)));
+        final List<MinHashIndex.Neighbor> top = similar.subList(0, count);
+        if (top.isEmpty()) {
+            return List.of();
+        }
+        final RecipeBatchDto recipes = recipeService.getRecipeDtosByIds(
+                top.stream().map(MinHashIndex.Neighbor::getRecipeId).toList());
+        final List<SimilarRecipeDto> result = new ArrayList<>(top.size());
+        for (MinHashIndex.Neighbor neighbor : top) {
+            final RecipeDto recipe = recipes.getRecipes().get(neighbor.getRecipeId());
+            if (recipe != null) {
+                result.add(new SimilarRecipeDto(neighbor.getRecipeId(), recipe, neighbor.getSimilarity()));
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("recipes.similar.recipes", index, MinHashIndex::size)
+                .description("Recipes in the similarity index")
+                .register(registry);
+        Gauge.builder("recipes.similar.stale", stale, Set::size)
+                .description("Recipes whose similar recipes are waiting to be recomputed")
+                .register(registry);
+        FunctionCounter.builder("recipes.similar.recomputed", recomputed, AtomicLong::get)
+                .description("Neighbor lists computed")
+                .register(registry);
+    }
+
+    void recompute(long[] ids) {
+        pool.invoke(new RecomputeTask(ids, 0, ids.length));
+    }
+
+    private void recompute(long id) {
+        if (index.contains(id)) {
+            neighbors.put(id, index.neighbors(id, neighborCount, minSimilarity));
+        } else {
+            neighbors.remove(id);
+        }
+        recomputed.incrementAndGet();
+    }
+
+    /**
+     * Splits the ids in halves until they're small enough to compute in one go.
+     */
+    private final class RecomputeTask extends RecursiveAction {
+        private final long[] ids;
+        private final int from;
+        private final int to;
+
+        private RecomputeTask(long[] ids, int from, int to) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    recompute(ids[i]);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new RecomputeTask(ids, from, middle), new RecomputeTask(ids, middle, to));
+        }
+    }
+}
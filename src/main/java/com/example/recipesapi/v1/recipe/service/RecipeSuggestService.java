@@ -0,0 +1,93 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.model.dto.SuggestionDto;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.util.PrefixSuggester;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead suggestions for recipe names, newest recipes first, followed by matching categories,
+ * most used first. Served from memory, see {@link PrefixSuggester}.
+ */
+@Service
+@Log4j2
+public class RecipeSuggestService {
+    static final int MAX_LIMIT = 20;
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeFacetService recipeFacetService;
+    private final TransactionTemplate transactionTemplate;
+    private final PrefixSuggester names;
+
+    public RecipeSuggestService(final RecipeRepository recipeRepository,
+                                final RecipeFacetService recipeFacetService,
+                                final TransactionTemplate transactionTemplate,
+                                @Value("${recipes.suggest.cached-prefix-length:4}") final int cachedPrefixLength,
+                                @Value("${recipes.suggest.max-scan:5000}") final int maxScan) {
+        this.recipeRepository = recipeRepository;
+        this.recipeFacetService = recipeFacetService;
+        this.transactionTemplate = transactionTemplate;
+        this.names = new PrefixSuggester(cachedPrefixLength, MAX_LIMIT, maxScan);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        final long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            names.clear();
+            try (Stream<Object[]> rows = recipeRepository.streamIdNameAndDate()) {
+                rows.forEach(row -> names.add((Long) row[0], (String) row[1], score((Long) row[0], (LocalDateTime) row[2])));
+            }
+        });
+        log.info("Built recipe name suggestions: " + names.size() + " names in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        final RecipeSnapshot before = event.getBefore();
+        final RecipeSnapshot after = event.getAfter();
+        if (before != null) {
+            names.remove(before.getId(), before.getName());
+        }
+        if (after != null) {
+            names.add(after.getId(), after.getName(), score(after.getId(), after.getDate()));
+        }
+    }
+
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        final int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        final List<SuggestionDto> suggestions = new ArrayList<>(size);
+        names.suggest(prefix, size)
+                .forEach(name -> suggestions.add(new SuggestionDto(SuggestionDto.Type.NAME, name.getText(), name.getId())));
+        if (suggestions.size() < size) {
+            recipeFacetService.categoriesStartingWith(prefix, size - suggestions.size())
+                    .forEach(category -> suggestions.add(new SuggestionDto(SuggestionDto.Type.CATEGORY, category, null)));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Recency: time of the last change in epoch millis, the id keeps the order for recipes without a date.
+     */
+    private static long score(Long id, LocalDateTime date) {
+        return date != null ? date.toInstant(ZoneOffset.UTC).toEpochMilli() : id;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.exception.SlowCommitException;
+import com.example.recipesapi.v1.recipe.exception.SyncCursorExpiredException;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeChangesDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeSyncEntryDto;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeTombstone;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.repository.RecipeTombstoneRepository;
+import com.example.recipesapi.v1.recipe.util.RecipeMapper;
+import com.example.recipesapi.v1.recipe.util.SyncCursor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Incremental sync of recipes. Changes are ordered by their timestamp and recipe id, upserts come from
+ * {@link Recipe#getDate()} and deletes from the {@link RecipeTombstone} log, both read with keyset pagination.
+ * <p>
+ * Timestamps are taken before commit, so transactions commit out of timestamp order. Changes younger than the
+ * settle window are held back, and a recipe write that takes more than half the window from its timestamp to its
+ * commit is rolled back, so no change becomes visible behind a cursor a client already holds. The other half
+ * covers the commit itself and the clock difference between instances.
+ * <p>
+ * Tombstones are kept for the retention period. The purge keeps the newest of the expired ones, so a cursor older
+ * than the oldest tombstone left may have missed deletes, and the client has to sync again from the start.
+ */
+@Service
+@Log4j2
+public class RecipeSyncService {
+    static final int MAX_LIMIT = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeTombstoneRepository recipeTombstoneRepository;
+    private final RecipeMapper recipeMapper;
+    private final long settleWindowMillis;
+    private final Duration tombstoneRetention;
+
+    public RecipeSyncService(final RecipeRepository recipeRepository,
+                             final RecipeTombstoneRepository recipeTombstoneRepository,
+                             final RecipeMapper recipeMapper,
+                             @Value("${recipes.sync.settle-window-ms:1000}") final long settleWindowMillis,
+                             @Value("${recipes.sync.tombstone-retention-days:30}") final long tombstoneRetentionDays) {
+        this.recipeRepository = recipeRepository;
+        this.recipeTombstoneRepository = recipeTombstoneRepository;
+        this.recipeMapper = recipeMapper;
+        this.settleWindowMillis = settleWindowMillis;
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    /**
+     * Rolls back a recipe write whose timestamp would already be behind the cursors handed out when it commits.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void checkCommitDelay(RecipeChangeEvent event) {
+        final LocalDateTime changedAt = event.getAfter() != null ? event.getAfter().getDate() : null;
+        if (settleWindowMillis == 0 || changedAt == null) {
+            return;
+        }
+        final LocalDateTime latest = LocalDateTime.now().minusNanos(settleWindowMillis / 2 * 1_000_000);
+        if (changedAt.isBefore(latest)) {
+            throw new SlowCommitException("Recipe with id: " + event.getRecipeId()
+                    + " took too long to commit, try again");
+        }
+    }
+
+    /**
+     * Archived recipes aren't served anymore either, clients drop them like deleted ones.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void recordTombstone(RecipeChangeEvent event) {
+        if (event.getType() == RecipeChangeEvent.ChangeType.DELETED
+                || event.getType() == RecipeChangeEvent.ChangeType.ARCHIVED) {
+            recipeTombstoneRepository.save(
+                    new RecipeTombstone(event.getRecipeId(), event.getUserId(), LocalDateTime.now()));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RecipeChangesDto getChangesSince(String since, int limit) {
+        final SyncCursor cursor = SyncCursor.decode(since);
+        checkNotExpired(cursor);
+        final int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        final LocalDateTime until = LocalDateTime.now().minusNanos(settleWindowMillis * 1_000_000);
+        // One extra row from each side tells whether there is another page.
+        final Pageable page = PageRequest.of(0, pageSize + 1);
+
+        final List<RecipeSyncEntryDto> changes = new ArrayList<>();
+        recipeRepository.findChangedAfter(cursor.getChangedAt(), cursor.getId(), until, page)
+                .forEach(recipe -> changes.add(
+                        new RecipeSyncEntryDto(recipe.getId(), false, recipe.getDate(), recipeMapper.convertToDto(recipe))));
+        recipeTombstoneRepository.findDeletedAfter(cursor.getChangedAt(), cursor.getId(), until, page)
+                .forEach(tombstone -> changes.add(
+                        new RecipeSyncEntryDto(tombstone.getRecipeId(), true, tombstone.getDeletedAt(), null)));
+        changes.sort(Comparator.comparing(RecipeSyncEntryDto::getChangedAt).thenComparing(RecipeSyncEntryDto::getId));
+
+        final boolean hasMore = changes.size() > pageSize;
+        final List<RecipeSyncEntryDto> pageOfChanges = hasMore ? new ArrayList<>(changes.subList(0, pageSize)) : changes;
+        final SyncCursor next = pageOfChanges.isEmpty()
+                ? cursor
+                : toCursor(pageOfChanges.get(pageOfChanges.size() - 1));
+
+        return new RecipeChangesDto(pageOfChanges, next.encode(), hasMore);
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.sync.tombstone-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeTombstones() {
+        final LocalDateTime horizon = LocalDateTime.now().minus(tombstoneRetention);
+        final LocalDateTime newestExpired = recipeTombstoneRepository.findNewestDeletedAtBefore(horizon);
+        if (newestExpired == null) {
+            return;
+        }
+        final int purged = recipeTombstoneRepository.deleteAllDeletedBefore(newestExpired);
+        if (purged > 0) {
+            log.info("Purged " + purged + " recipe tombstones deleted before " + newestExpired);
+        }
+    }
+
+    /**
+     * Only a cursor older than the retention period can be behind purged tombstones.
+     */
+    private void checkNotExpired(SyncCursor cursor) {
+        if (cursor.equals(SyncCursor.START)
+                || !cursor.getChangedAt().isBefore(LocalDateTime.now().minus(tombstoneRetention))) {
+            return;
+        }
+        final LocalDateTime oldestTombstone = recipeTombstoneRepository.findOldestDeletedAt();
+        if (oldestTombstone != null && cursor.getChangedAt().isBefore(oldestTombstone)) {
+            throw new SyncCursorExpiredException("Sync cursor is older than the kept deletes, sync from the start");
+        }
+    }
+
+    private static SyncCursor toCursor(RecipeSyncEntryDto entry) {
+        return new SyncCursor(entry.getChangedAt(), entry.getId());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.TrendingRecipeDto;
+import com.example.recipesapi.v1.recipe.util.CountMinSketch;
+import com.example.recipesapi.v1.recipe.util.TrendingTopK;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Recipe view counts and trending recipes.
+ * <p>
+ * Reads only bump a per-recipe counter, the totals are written to the database in the background with
+ * one batched update, plus one batched insert for recipes viewed for the first time. Views that could not be
+ * written are kept and retried on the next flush. Trending recipes are ranked in memory by views decayed with
+ * a configurable half-life, see {@link TrendingTopK}, and reflect the views seen by this instance.
+ */
+@Service
+@Log4j2
+public class RecipeViewService {
+    static final int MAX_TRENDING_LIMIT = 50;
+    static final String UPDATE_SQL = "update recipe_view_counts set view_count = view_count + ? where recipe_id = ?";
+    static final String INSERT_SQL = "insert into recipe_view_counts (recipe_id, view_count) "
+            + "select id, ? from recipes where id = ?";
+    static final String DELETE_SQL = "delete from recipe_view_counts where recipe_id = ?";
+    private static final long RETIRED = Long.MIN_VALUE / 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecipeService recipeService;
+    private final TrendingTopK trending;
+    private final ConcurrentMap<Long, AtomicLong> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Long> unwritten = new ConcurrentHashMap<>();
+
+    public RecipeViewService(final JdbcTemplate jdbcTemplate,
+                             final TransactionTemplate transactionTemplate,
+                             final RecipeService recipeService,
+                             @Value("${recipes.views.trending-capacity:200}") final int trendingCapacity,
+                             @Value("${recipes.views.trending-half-life-ms:3600000}") final long halfLifeMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.recipeService = recipeService;
+        this.trending = new TrendingTopK(trendingCapacity, new CountMinSketch(4096, 4), halfLifeMillis,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Counts one view, never blocks on the database. A flush retires the counters it takes, a view that finds its
+     * counter retired counts on a new one instead, so none is lost.
+     */
+    public void recordView(Long recipeId) {
+        while (true) {
+            AtomicLong counter = pending.get(recipeId);
+            if (counter == null) {
+                counter = pending.computeIfAbsent(recipeId, id -> new AtomicLong());
+            }
+            if (counter.getAndIncrement() >= 0) {
+                return;
+            }
+            pending.remove(recipeId, counter);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.views.flush-interval-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        final long now = System.currentTimeMillis();
+        pending.forEach((recipeId, counter) -> {
+            // Removed rather than reset, so recipes no longer viewed don't keep a counter.
+            final long views = counter.getAndSet(RETIRED);
+            pending.remove(recipeId, counter);
+            if (views > 0) {
+                trending.add(recipeId, views, now);
+                unwritten.merge(recipeId, views, Long::sum);
+            }
+        });
+        if (unwritten.isEmpty()) {
+            return;
+        }
+        try {
+            write(new TreeMap<>(unwritten));
+        } catch (DataAccessException e) {
+            log.warn("Could not write " + unwritten.size() + " recipe view counts, retrying on next flush", e);
+        }
+    }
+
+    /**
+     * Rows are written in recipe id order so concurrent flushes from several instances lock them in the same order.
+     */
+    private void write(TreeMap<Long, Long> views) {
+        final List<Object[]> updates = toBatchArgs(views);
+        final int[] updated = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, updates));
+        final TreeMap<Long, Long> missing = new TreeMap<>();
+        int index = 0;
+        for (Map.Entry<Long, Long> entry : views.entrySet()) {
+            if (updated != null && updated[index++] == 0) {
+                missing.put(entry.getKey(), entry.getValue());
+            } else {
+                unwritten.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!missing.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, toBatchArgs(missing)));
+            missing.forEach(unwritten::remove);
+        }
+        log.debug("Flushed view counts of " + views.size() + " recipes, " + missing.size() + " new");
+    }
+
+    public List<TrendingRecipeDto> getTrending(int limit) {
+        final List<TrendingTopK.Entry> top = trending.top(Math.max(1, Math.min(limit, MAX_TRENDING_LIMIT)),
+                System.currentTimeMillis());
+        if (top.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final RecipeBatchDto batch = recipeService.getRecipeDtosByIds(top.stream()
+                .map(TrendingTopK.Entry::getId)
+                .collect(Collectors.toList()));
+        final List<TrendingRecipeDto> result = new ArrayList<>(top.size());
+        for (TrendingTopK.Entry entry : top) {
+            final RecipeDto recipe = batch.getRecipes().get(entry.getId());
+            if (recipe != null) {
+                result.add(new TrendingRecipeDto(entry.getId(), recipe, entry.getScore()));
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void deleteViewCount(RecipeChangeEvent event) {
+        if (removed(event)) {
+            jdbcTemplate.update(DELETE_SQL, event.getRecipeId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void forgetDeletedRecipe(RecipeChangeEvent event) {
+        if (removed(event)) {
+            pending.remove(event.getRecipeId());
+            unwritten.remove(event.getRecipeId());
+            trending.remove(event.getRecipeId());
+        }
+    }
+
+    int pendingRecipes() {
+        return pending.size();
+    }
+
+    /**
+     * View counts aren't archived, they go with the recipe either way.
+     */
+    private static boolean removed(RecipeChangeEvent event) {
+        return event.getType() == RecipeChangeEvent.ChangeType.DELETED
+                || event.getType() == RecipeChangeEvent.ChangeType.ARCHIVED;
+    }
+
+    private static List<Object[]> toBatchArgs(Map<Long, Long> views) {
+        return views.entrySet()
+                .stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import com.example.recipesapi.v1.recipe.exception.ImageTooLargeException;
+import com.example.recipesapi.v1.recipe.exception.UnsupportedImageException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps images as files in one directory. Uploads are written to a temporary file next to their final name,
+ * hashed on the way, and moved into place once complete.
+ */
+public class FileSystemImageStorage implements ImageStorage {
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final String TEMP_SUFFIX = ".upload";
+    private static final int HASH_CHARS_IN_KEY = 16;
+
+    private final Path directory;
+
+    public FileSystemImageStorage(final Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public StoredImage save(final String keyPrefix, final InputStream content, final long maxBytes) throws IOException {
+        final Path temp = Files.createTempFile(directory, checkKey(keyPrefix) + "-", TEMP_SUFFIX);
+        try {
+            final MessageDigest digest = sha256();
+            final byte[] head = new byte[12];
+            int headLength = 0;
+            String contentType = null;
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new ImageTooLargeException("Images can't be larger than " + maxBytes + " bytes");
+                    }
+                    if (contentType == null) {
+                        final int copied = Math.min(read, head.length - headLength);
+                        System.arraycopy(buffer, 0, head, headLength, copied);
+                        headLength += copied;
+                        if (headLength == head.length) {
+                            contentType = requireImage(head, headLength);
+                        }
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (contentType == null) {
+                contentType = requireImage(head, headLength);
+            }
+            final String sha256 = HexFormat.of().formatHex(digest.digest());
+            final String key = keyPrefix + "-" + sha256.substring(0, HASH_CHARS_IN_KEY);
+            Files.move(temp, directory.resolve(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new StoredImage(key, contentType, size, sha256);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public SeekableByteChannel open(final String key) throws IOException {
+        return Files.newByteChannel(directory.resolve(checkKey(key)), StandardOpenOption.READ);
+    }
+
+    @Override
+    public Optional<Path> localFile(final String key) {
+        final Path file = directory.resolve(checkKey(key));
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public void delete(final String key) throws IOException {
+        Files.deleteIfExists(directory.resolve(checkKey(key)));
+    }
+
+    /**
+     * Deletes only complete images, temporary files of uploads still running for the prefix are left alone.
+     */
+    @Override
+    public void deleteAll(final String keyPrefix) throws IOException {
+        final Pattern keys = Pattern.compile(Pattern.quote(checkKey(keyPrefix)) + "-[0-9a-f]{" + HASH_CHARS_IN_KEY + "}");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                file -> keys.matcher(file.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Content type from the file signature, the type the client claims is not trusted.
+     */
+    static String sniffContentType(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xff) == 0xff && (head[1] & 0xff) == 0xd8 && (head[2] & 0xff) == 0xff) {
+            return "image/jpeg";
+        }
+        if (length >= 8 && (head[0] & 0xff) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == 0x0d && head[5] == 0x0a && head[6] == 0x1a && head[7] == 0x0a) {
+            return "image/png";
+        }
+        if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8'
+                && (head[4] == '7' || head[4] == '9') && head[5] == 'a') {
+            return "image/gif";
+        }
+        return null;
+    }
+
+    private static String requireImage(byte[] head, int length) {
+        final String contentType = sniffContentType(head, length);
+        if (contentType == null) {
+            throw new UnsupportedImageException("Only JPEG, PNG and GIF images are supported");
+        }
+        return contentType;
+    }
+
+    private static String checkKey(String key) {
+        if (!VALID_KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return key;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Stores recipe images. Content is streamed in and out, implementations must not hold a whole image in memory.
+ */
+public interface ImageStorage {
+
+    /**
+     * Streams the content into a new object named after the prefix and the content's hash, so an image that replaces
+     * another one never changes the bytes readers of the old one see.
+     *
+     * @throws com.example.recipesapi.v1.recipe.exception.ImageTooLargeException when the content exceeds maxBytes
+     * @throws com.example.recipesapi.v1.recipe.exception.UnsupportedImageException when it's no JPEG, PNG or GIF
+     */
+    StoredImage save(String keyPrefix, InputStream content, long maxBytes) throws IOException;
+
+    /**
+     * @throws java.nio.file.NoSuchFileException when nothing is stored under the key
+     */
+    SeekableByteChannel open(String key) throws IOException;
+
+    /**
+     * The file holding the object when the storage keeps it on the local file system, to be sent with sendfile.
+     */
+    Optional<Path> localFile(String key);
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Deletes all objects saved with the prefix.
+     */
+    void deleteAll(String keyPrefix) throws IOException;
+}
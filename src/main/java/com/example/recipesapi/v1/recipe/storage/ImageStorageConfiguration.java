@@ -0,0 +1,31 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Images on the local file system unless another {@link ImageStorage} is defined. Thumbnails are always cached on
+ * the local disk.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ImageStorageConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ImageStorage imageStorage(@Value("${recipes.images.storage.path:data/images}") final Path directory)
+            throws IOException {
+        return new FileSystemImageStorage(directory);
+    }
+
+    @Bean
+    public ThumbnailCache thumbnailCache(@Value("${recipes.images.thumbnails.path:data/thumbnails}") final Path directory,
+                                         @Value("${recipes.images.thumbnails.max-bytes:268435456}") final long maxBytes)
+            throws IOException {
+        return new ThumbnailCache(directory, maxBytes);
+    }
+}
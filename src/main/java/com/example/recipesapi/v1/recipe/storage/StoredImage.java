@@ -0,0 +1,14 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import lombok.Value;
+
+@Value
+public class StoredImage {
+    String key;
+    String contentType;
+    long size;
+    /**
+     * Hex encoded SHA-256 of the content.
+     */
+    String sha256;
+}
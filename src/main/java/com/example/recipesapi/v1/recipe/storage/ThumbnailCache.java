@@ -0,0 +1,157 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Generated thumbnails on the local disk, bounded by their total size. The least recently used thumbnails are
+ * deleted first; all of them can be generated again from the original image.
+ * <p>
+ * Files written by an earlier run are picked up at startup, oldest access first. Thumbnails are created as
+ * {@code .tmp} files and moved into place, so readers never see a partly written one.
+ */
+@Log4j2
+public class ThumbnailCache {
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    // Name to file size, in access order.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ThumbnailCache(final Path directory, final long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        load();
+    }
+
+    public Optional<Path> get(String name) {
+        synchronized (this) {
+            if (entries.get(name) == null) {
+                return Optional.empty();
+            }
+        }
+        final Path file = directory.resolve(name);
+        if (!Files.isRegularFile(file)) {
+            forget(name);
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * A new file in the cache directory to write a thumbnail to before it's {@link #put(String, Path) put}.
+     */
+    public Path createTempFile(String name) throws IOException {
+        return Files.createTempFile(directory, name + "-", TEMP_SUFFIX);
+    }
+
+    /**
+     * Moves the written file into the cache under the name, evicting other thumbnails when the cache grows too big.
+     */
+    public Path put(String name, Path written) throws IOException {
+        final Path file = directory.resolve(name);
+        final long size = Files.size(written);
+        Files.move(written, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        final List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            final Long previous = entries.put(name, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            final Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                final Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(name)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String evictedName : evicted) {
+            deleteQuietly(directory.resolve(evictedName));
+        }
+        return file;
+    }
+
+    /**
+     * Deletes all thumbnails whose name starts with the prefix.
+     */
+    public void removeAll(String prefix) {
+        final List<String> removed = new ArrayList<>();
+        synchronized (this) {
+            final Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, Long> entry = iterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    totalBytes -= entry.getValue();
+                    removed.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+        }
+        for (String name : removed) {
+            deleteQuietly(directory.resolve(name));
+        }
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void forget(String name) {
+        final Long size = entries.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private void load() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    deleteQuietly(file);
+                } else if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        final Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<>();
+        for (Path file : files) {
+            attributes.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+        }
+        files.sort(Comparator.comparing(file -> attributes.get(file).lastAccessTime()));
+        for (Path file : files) {
+            entries.put(file.getFileName().toString(), attributes.get(file).size());
+            totalBytes += attributes.get(file).size();
+        }
+        log.info("Thumbnail cache holds " + entries.size() + " thumbnails, " + totalBytes + " bytes");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Can't delete thumbnail " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import com.example.recipesapi.v1.recipe.exception.CustomNotFoundException;
+
+import java.util.Locale;
+
+/**
+ * The fixed thumbnail sizes, the longer side of the thumbnail in pixels. Only these are generated so the thumbnail
+ * cache can't be filled with arbitrary sizes.
+ */
+public enum ThumbnailSize {
+    SMALL(160),
+    MEDIUM(480),
+    LARGE(960);
+
+    private final int pixels;
+
+    ThumbnailSize(int pixels) {
+        this.pixels = pixels;
+    }
+
+    public int getPixels() {
+        return pixels;
+    }
+
+    public static ThumbnailSize of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new CustomNotFoundException("Not found thumbnail size: " + name);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import lombok.Value;
+
+/**
+ * A single byte range of an HTTP {@code Range} header, resolved against the length of the content.
+ * Multipart responses for several ranges are not supported, such requests are answered with the whole content.
+ */
+@Value
+public class ByteRange {
+    private static final String UNIT = "bytes=";
+
+    /**
+     * First byte, inclusive.
+     */
+    long start;
+    /**
+     * Last byte, inclusive.
+     */
+    long end;
+    boolean satisfiable;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * @return the range, one that isn't satisfiable when it starts after the content, or {@code null} when the
+     * header is missing, malformed or asks for several ranges and should be ignored
+     */
+    public static ByteRange parse(String header, long contentLength) {
+        if (header == null || !header.startsWith(UNIT)) {
+            return null;
+        }
+        final String spec = header.substring(UNIT.length()).trim();
+        if (spec.indexOf(',') >= 0) {
+            return null;
+        }
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            final String first = spec.substring(0, dash).trim();
+            final String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                // Suffix range, the last n bytes.
+                final long suffix = Long.parseLong(last);
+                if (suffix <= 0 || contentLength == 0) {
+                    return unsatisfiable();
+                }
+                return new ByteRange(Math.max(0, contentLength - suffix), contentLength - 1, true);
+            }
+            final long start = Long.parseLong(first);
+            final long end = last.isEmpty() ? contentLength - 1 : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= contentLength) {
+                return unsatisfiable();
+            }
+            return new ByteRange(start, Math.min(end, contentLength - 1), true);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ByteRange unsatisfiable() {
+        return new ByteRange(0, -1, false);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.recipesapi.v1.recipe.util;
+
+/**
+ * Fixed-size frequency estimator. Estimates never undercount; they overcount by at most
+ * {@code e / width * total} with probability {@code 1 - e^-depth}.
+ * <p>
+ * Uses conservative update: only counters below the new estimate are raised, which keeps overcounting of
+ * rare keys much lower than incrementing every row. Not thread safe.
+ */
+public class CountMinSketch {
+    private final double[][] counts;
+    private final long[] seeds;
+    private final int mask;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param depth number of rows, each with its own hash function
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Width and depth must be positive");
+        }
+        final int size = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.counts = new double[depth][size];
+        this.mask = size - 1;
+        this.seeds = new long[depth];
+        for (int row = 0; row < depth; row++) {
+            seeds[row] = mix(0x9E3779B97F4A7C15L * (row + 1));
+        }
+    }
+
+    /**
+     * @return estimate for the key after adding the count
+     */
+    public double add(long key, double count) {
+        final double estimate = estimate(key) + count;
+        for (int row = 0; row < counts.length; row++) {
+            final int column = column(key, row);
+            if (counts[row][column] < estimate) {
+                counts[row][column] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    public double estimate(long key) {
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < counts.length; row++) {
+            min = Math.min(min, counts[row][column(key, row)]);
+        }
+        return min;
+    }
+
+    public void scale(double factor) {
+        for (double[] row : counts) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] *= factor;
+            }
+        }
+    }
+
+    public int width() {
+        return mask + 1;
+    }
+
+    public int depth() {
+        return counts.length;
+    }
+
+    private int column(long key, int row) {
+        return (int) mix(key ^ seeds[row]) & mask;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity buffer that keeps the most recent entries, each tagged with a monotonically increasing sequence
+ * number starting at 1. Readers keep their own cursor, so memory use does not depend on how far behind a reader is.
+ */
+public class EventRingBuffer<T> {
+    private final Object[] slots;
+    private long lastSequence = 0;
+
+    public EventRingBuffer(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+        }
+        this.slots = new Object[capacity];
+    }
+
+    public synchronized long append(T value) {
+        lastSequence++;
+        slots[(int) (lastSequence % slots.length)] = value;
+        return lastSequence;
+    }
+
+    /**
+     * Returns up to {@code max} entries with a sequence greater than {@code afterSequence}.
+     * If some of those entries were already overwritten the returned slice is marked as {@link Slice#isGap()}.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Slice<T> readAfter(long afterSequence, int max) {
+        final long oldest = oldestSequence();
+        final boolean gap = afterSequence < oldest - 1;
+        final long from = Math.max(afterSequence + 1, oldest);
+        final List<Entry<T>> entries = new ArrayList<>();
+        for (long sequence = from; sequence <= lastSequence && entries.size() < max; sequence++) {
+            entries.add(new Entry<>(sequence, (T) slots[(int) (sequence % slots.length)]));
+        }
+        return new Slice<>(entries, gap);
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    private long oldestSequence() {
+        return Math.max(1, lastSequence - slots.length + 1);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    @Value
+    public static class Entry<T> {
+        long sequence;
+        T value;
+    }
+
+    @Value
+    public static class Slice<T> {
+        List<Entry<T>> entries;
+        boolean gap;
+    }
+}
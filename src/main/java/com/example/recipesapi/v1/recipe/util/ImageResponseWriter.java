@@ -0,0 +1,146 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Writes an image to the response without reading it into memory: conditional requests ({@code If-None-Match},
+ * {@code If-Modified-Since}), a single byte range ({@code Range}, {@code If-Range}) and long lived caching headers.
+ * <p>
+ * Local files are handed to the container for sendfile when the connector supports it. Everything else, including
+ * local files on a connector without sendfile, is copied through a small buffer.
+ */
+public final class ImageResponseWriter {
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Opens the content, called only when a body is sent.
+     */
+    @FunctionalInterface
+    public interface ContentSource {
+        SeekableByteChannel open() throws IOException;
+    }
+
+    private ImageResponseWriter() {
+    }
+
+    /**
+     * @param etag      strong entity tag of the content, without quotes
+     * @param localFile the content as a local file for sendfile, {@code null} when it's not on the local disk
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, String contentType,
+                             long contentLength, String etag, Instant lastModified, long maxAgeSeconds,
+                             Path localFile, ContentSource source) throws IOException {
+        final String quotedEtag = "\"" + etag + "\"";
+        final long lastModifiedMillis = lastModified.toEpochMilli() / 1000 * 1000;
+        response.setHeader(HttpHeaders.ETAG, quotedEtag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModifiedMillis);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + maxAgeSeconds);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, quotedEtag, lastModifiedMillis)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = contentLength - 1;
+        final ByteRange range = rangeMatches(request, quotedEtag, lastModifiedMillis)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), contentLength)
+                : null;
+        if (range != null && !range.isSatisfiable()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+        if (range != null) {
+            start = range.getStart();
+            end = range.getEnd();
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength);
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+        final long length = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (localFile != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The container writes the file after the handler returns, straight from the page cache to the socket.
+            request.setAttribute(SENDFILE_FILENAME, localFile.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        copy(source, start, length, response);
+    }
+
+    private static void copy(ContentSource source, long start, long length, HttpServletResponse response)
+            throws IOException {
+        try (SeekableByteChannel channel = source.open()) {
+            channel.position(start);
+            final InputStream in = Channels.newInputStream(channel);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                final int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Content ended before byte " + (start + length));
+                }
+                response.getOutputStream().write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String quotedEtag, long lastModifiedMillis) {
+        final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                    .anyMatch(quotedEtag::equals);
+        }
+        final long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModifiedMillis <= ifModifiedSince;
+    }
+
+    /**
+     * A range is only served when the client's copy, named by {@code If-Range}, is still current.
+     */
+    private static boolean rangeMatches(HttpServletRequest request, String quotedEtag, long lastModifiedMillis) {
+        final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"")) {
+            return ifRange.trim().equals(quotedEtag);
+        }
+        return dateHeader(request, HttpHeaders.IF_RANGE) == lastModifiedMillis;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
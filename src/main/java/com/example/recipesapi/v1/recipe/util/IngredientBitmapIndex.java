@@ -0,0 +1,153 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from normalized ingredient to a compressed bitmap of the ids of recipes using it.
+ * Queries are bitmap intersections, unions and differences that never touch the database.
+ * <p>
+ * Recipe ids are stored as {@code int}s, the index refuses ids that don't fit.
+ */
+public class IngredientBitmapIndex {
+    private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+    private final RoaringBitmap allRecipes = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(long recipeId, Collection<String> ingredients) {
+        final int id = Math.toIntExact(recipeId);
+        lock.writeLock().lock();
+        try {
+            allRecipes.add(id);
+            ingredients.stream()
+                    .map(TermNormalizer::normalize)
+                    .filter(ingredient -> !ingredient.isEmpty())
+                    .forEach(ingredient -> bitmaps.computeIfAbsent(ingredient, key -> new RoaringBitmap()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId, Collection<String> ingredients) {
+        final int id = Math.toIntExact(recipeId);
+        lock.writeLock().lock();
+        try {
+            allRecipes.remove(id);
+            ingredients.stream()
+                    .map(TermNormalizer::normalize)
+                    .forEach(ingredient -> {
+                        final RoaringBitmap bitmap = bitmaps.get(ingredient);
+                        if (bitmap != null) {
+                            bitmap.remove(id);
+                            if (bitmap.isEmpty()) {
+                                bitmaps.remove(ingredient);
+                            }
+                        }
+                    });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            bitmaps.clear();
+            allRecipes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compresses runs in all bitmaps, worth calling after a bulk load.
+     */
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            allRecipes.runOptimize();
+            bitmaps.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds recipes that contain every ingredient of {@code all}, at least one of {@code any} and none of
+     * {@code none}. Empty collections don't restrict the result.
+     */
+    public RoaringBitmap query(Collection<String> all, Collection<String> any, Collection<String> none) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result;
+            if (!all.isEmpty()) {
+                final List<RoaringBitmap> required = lookup(all);
+                if (required.contains(null)) {
+                    return new RoaringBitmap();
+                }
+                result = FastAggregation.and(required.iterator());
+            } else {
+                result = allRecipes.clone();
+            }
+            if (!any.isEmpty()) {
+                result.and(FastAggregation.or(present(lookup(any))));
+            }
+            if (!none.isEmpty()) {
+                result.andNot(FastAggregation.or(present(lookup(none))));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int recipeCount() {
+        lock.readLock().lock();
+        try {
+            return allRecipes.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int ingredientCount() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Highest ids first, which are the most recently created recipes.
+     */
+    public static List<Long> newestFirst(RoaringBitmap bitmap, int limit) {
+        final List<Long> ids = new ArrayList<>(Math.min(limit, bitmap.getCardinality()));
+        final IntIterator iterator = bitmap.getReverseIntIterator();
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add(Integer.toUnsignedLong(iterator.next()));
+        }
+        return ids;
+    }
+
+    private List<RoaringBitmap> lookup(Collection<String> ingredients) {
+        final List<RoaringBitmap> found = new ArrayList<>(ingredients.size());
+        ingredients.forEach(ingredient -> found.add(bitmaps.get(TermNormalizer.normalize(ingredient))));
+        return found;
+    }
+
+    private static RoaringBitmap[] present(List<RoaringBitmap> bitmaps) {
+        return bitmaps.stream().filter(Objects::nonNull).toArray(RoaringBitmap[]::new);
+    }
+}
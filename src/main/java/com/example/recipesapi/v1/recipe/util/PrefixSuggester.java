@@ -0,0 +1,188 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Prefix completion over short texts like recipe names, ranked by a score (higher first).
+ * <p>
+ * All entries live in a sorted skip list, so a prefix is a contiguous range. For short prefixes that range can be a
+ * large part of the data set, so the best entries of every prefix up to {@code cachedPrefixLength} characters are
+ * precomputed and kept up to date on writes. Longer prefixes usually select few entries and are answered by ranking
+ * their whole range. A longer prefix whose range has more than {@code maxScan} entries gets its own precomputed list
+ * the first time it's asked for, kept up to date on writes like the short ones, so no read ranks more than
+ * {@code maxScan} entries. Reads are lock free, writes are serialized.
+ */
+public class PrefixSuggester {
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingLong(Suggestion::getScore)
+            .reversed()
+            .thenComparing(Comparator.comparingLong(Suggestion::getId).reversed());
+
+    private final ConcurrentSkipListMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<String, TopList> topByPrefix = new ConcurrentHashMap<>();
+    private final int cachedPrefixLength;
+    private final int topK;
+    private final int maxScan;
+
+    public PrefixSuggester(final int cachedPrefixLength, final int topK, final int maxScan) {
+        this.cachedPrefixLength = cachedPrefixLength;
+        this.topK = topK;
+        this.maxScan = maxScan;
+    }
+
+    public synchronized void add(long id, String text, long score) {
+        final String normalized = TermNormalizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        final Suggestion suggestion = new Suggestion(id, text, score);
+        entries.put(key(normalized, id), suggestion);
+        for (String prefix : cachedPrefixes(normalized)) {
+            final TopList current = topByPrefix.getOrDefault(prefix, TopList.EMPTY);
+            final List<Suggestion> top = new ArrayList<>(current.getItems());
+            top.add(suggestion);
+            top.sort(BEST_FIRST);
+            if (current.isComplete()) {
+                // Keep some slack so a few removals don't force a rescan of the range.
+                final int capacity = topK * 2;
+                topByPrefix.put(prefix, top.size() > capacity
+                        ? new TopList(List.copyOf(top.subList(0, capacity)), false)
+                        : new TopList(List.copyOf(top), true));
+            } else {
+                // Entries outside the list may beat the new one, so the list can't grow.
+                topByPrefix.put(prefix, new TopList(List.copyOf(top.subList(0, current.getItems().size())), false));
+            }
+        }
+    }
+
+    public synchronized void remove(long id, String text) {
+        final String normalized = TermNormalizer.normalize(text);
+        if (entries.remove(key(normalized, id)) == null) {
+            return;
+        }
+        for (String prefix : cachedPrefixes(normalized)) {
+            final TopList current = topByPrefix.getOrDefault(prefix, TopList.EMPTY);
+            final List<Suggestion> top = new ArrayList<>(current.getItems());
+            if (!top.removeIf(suggestion -> suggestion.getId() == id)) {
+                continue;
+            }
+            if (top.isEmpty() && current.isComplete()) {
+                topByPrefix.remove(prefix);
+            } else if (top.size() < topK && !current.isComplete()) {
+                topByPrefix.put(prefix, rescan(prefix));
+            } else {
+                topByPrefix.put(prefix, new TopList(List.copyOf(top), current.isComplete()));
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        topByPrefix.clear();
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        final String normalized = TermNormalizer.normalize(prefix);
+        final int size = Math.min(limit, topK);
+        if (normalized.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        TopList cached = topByPrefix.get(normalized);
+        if (cached == null && normalized.length() > cachedPrefixLength) {
+            final List<Suggestion> scanned = scan(normalized, size, maxScan);
+            if (scanned != null) {
+                return scanned;
+            }
+            cached = cacheLongPrefix(normalized);
+        }
+        final List<Suggestion> top = (cached != null ? cached : TopList.EMPTY).getItems();
+        return top.subList(0, Math.min(size, top.size()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ranks the whole range of the prefix, or returns {@code null} when it has more than {@code limit} entries: the
+     * entries seen so far are only the alphabetically first ones, so ranking them would miss better ones further on.
+     */
+    private List<Suggestion> scan(String prefix, int size, int limit) {
+        final NavigableMap<String, Suggestion> range =
+                entries.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        final PriorityQueue<Suggestion> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        int scanned = 0;
+        for (Suggestion suggestion : range.values()) {
+            if (scanned++ >= limit) {
+                return null;
+            }
+            best.add(suggestion);
+            if (best.size() > size) {
+                best.poll();
+            }
+        }
+        final List<Suggestion> result = new ArrayList<>(best);
+        result.sort(BEST_FIRST);
+        return List.copyOf(result);
+    }
+
+    private TopList rescan(String prefix) {
+        final int capacity = topK * 2;
+        final List<Suggestion> top = scan(prefix, capacity + 1, Integer.MAX_VALUE);
+        return top.size() > capacity
+                ? new TopList(top.subList(0, capacity), false)
+                : new TopList(top, true);
+    }
+
+    /**
+     * Ranks a long prefix with a large range once and keeps its list up to date from then on.
+     */
+    private synchronized TopList cacheLongPrefix(String prefix) {
+        return topByPrefix.computeIfAbsent(prefix, this::rescan);
+    }
+
+    /**
+     * Every prefix up to {@code cachedPrefixLength}, plus the longer ones that got their own list.
+     */
+    private List<String> cachedPrefixes(String normalized) {
+        final List<String> prefixes = new ArrayList<>(cachedPrefixLength);
+        for (int length = 1; length <= normalized.length(); length++) {
+            final String prefix = normalized.substring(0, length);
+            if (length <= cachedPrefixLength || topByPrefix.containsKey(prefix)) {
+                prefixes.add(prefix);
+            }
+        }
+        return prefixes;
+    }
+
+    private static String key(String normalized, long id) {
+        return normalized + KEY_SEPARATOR + id;
+    }
+
+    /**
+     * Best entries of a prefix range, {@code complete} when it holds every entry of the range.
+     */
+    @Value
+    private static class TopList {
+        static final TopList EMPTY = new TopList(List.of(), true);
+
+        List<Suggestion> items;
+        boolean complete;
+    }
+
+    @Value
+    public static class Suggestion {
+        long id;
+        String text;
+        long score;
+    }
+}
@@ -1,22 +1,46 @@
 package com.example.recipesapi.v1.recipe.util;
 
+import com.example.recipesapi.diagnostics.MappingEvent;
 import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
 import com.example.recipesapi.v1.recipe.model.entity.Recipe;
-import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class RecipeMapper {
-    private final ModelMapper modelMapper;
+    private final TermDictionary termDictionary;
 
-    @Autowired
-    public RecipeMapper(final ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
+    public RecipeMapper(final TermDictionary termDictionary) {
+        this.termDictionary = termDictionary;
     }
 
+    /**
+     * The lists are copied, so the DTO stays usable after the session that loaded the recipe is closed.
+     * Categories and ingredients are the dictionary's instances, so cached DTOs don't hold copies of them.
+     */
     public RecipeDto convertToDto(Recipe recipe) {
-        return modelMapper.map(recipe, RecipeDto.class);
+        if (recipe == null) {
+            return null;
+        }
+        final MappingEvent event = MappingEvent.start("Recipe");
+        final RecipeDto recipeDto = new RecipeDto(
+                recipe.getName(),
+                recipe.getDescription(),
+                termDictionary.intern(recipe.getCategory()),
+                recipe.getIngredients() != null ? intern(recipe.getIngredients()) : new ArrayList<>(),
+                recipe.getDirections() != null ? new ArrayList<>(recipe.getDirections()) : new ArrayList<>(),
+                recipe.getDate(),
+                recipe.getVersion()
+        );
+        event.finish(recipe.getId(), recipeDto.getIngredients().size() + recipeDto.getDirections().size());
+        return recipeDto;
     }
 
+    private List<String> intern(List<String> terms) {
+        final List<String> interned = new ArrayList<>(terms.size());
+        terms.forEach(term -> interned.add(termDictionary.intern(term)));
+        return interned;
+    }
 }
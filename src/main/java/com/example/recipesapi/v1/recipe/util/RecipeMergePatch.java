@@ -0,0 +1,86 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import com.example.recipesapi.v1.recipe.exception.InvalidRecipePatchException;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7396) document to a {@link Recipe}.
+ * Only attributes whose value actually changes are written, so Hibernate leaves the other columns
+ * and collections alone.
+ */
+public final class RecipeMergePatch {
+
+    private RecipeMergePatch() {
+    }
+
+    /**
+     * @return {@code true} if any attribute of the recipe was changed
+     */
+    public static boolean apply(Recipe recipe, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidRecipePatchException("Merge patch must be a JSON object");
+        }
+        boolean changed = false;
+        final Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            final JsonNode value = field.getValue();
+            changed |= switch (field.getKey()) {
+                case "name" -> setText(recipe::getName, recipe::setName, "name", value);
+                case "description" -> setText(recipe::getDescription, recipe::setDescription, "description", value);
+                case "category" -> setText(recipe::getCategory, recipe::setCategory, "category", value);
+                case "ingredients" -> setList(recipe.getIngredients(), recipe::setIngredients, "ingredients", value);
+                case "directions" -> setList(recipe.getDirections(), recipe::setDirections, "directions", value);
+                default -> throw new InvalidRecipePatchException("Field can't be patched: " + field.getKey());
+            };
+        }
+        return changed;
+    }
+
+    private static boolean setText(Supplier<String> getter, Consumer<String> setter, String name, JsonNode value) {
+        if (!value.isTextual() || value.textValue().isBlank()) {
+            throw new InvalidRecipePatchException("Field " + name + " must be a non blank string");
+        }
+        if (Objects.equals(getter.get(), value.textValue())) {
+            return false;
+        }
+        setter.accept(value.textValue());
+        return true;
+    }
+
+    private static boolean setList(List<String> current, Consumer<List<String>> setter, String name, JsonNode value) {
+        final List<String> replacement = new ArrayList<>();
+        if (!value.isNull()) {
+            if (!value.isArray()) {
+                throw new InvalidRecipePatchException("Field " + name + " must be an array of strings or null");
+            }
+            for (JsonNode element : value) {
+                if (!element.isTextual()) {
+                    throw new InvalidRecipePatchException("Field " + name + " must be an array of strings or null");
+                }
+                replacement.add(element.textValue());
+            }
+        }
+        // Compare as plain lists, Hibernate's PersistentBag only implements identity equality.
+        if (current != null && new ArrayList<>(current).equals(replacement)) {
+            return false;
+        }
+        if (current != null) {
+            // Keep the managed collection instance, Hibernate tracks changes on it.
+            current.clear();
+            current.addAll(replacement);
+        } else {
+            setter.accept(replacement);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * De-duplicates concurrent loads of the same key: the first caller (the leader) runs the loader on its own thread,
+ * callers arriving while it runs wait for the leader's result instead of loading again.
+ * <p>
+ * A waiting caller gives up after the timeout and runs the loader itself, so a stuck leader slows requests down
+ * but never blocks them forever. Exceptions thrown by the loader are rethrown to every caller sharing the load.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(final Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        calls.increment();
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            return lead(key, flight, loader);
+        }
+        coalesced.increment();
+        return await(existing, loader);
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        loads.increment();
+        try {
+            final V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            return flight.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            loads.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared load", e);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public long callCount() {
+        return calls.sum();
+    }
+
+    public long loadCount() {
+        return loads.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long timeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Share of calls that were served by another caller's load.
+     */
+    public double coalescingRatio() {
+        final long total = calls.sum();
+        return total == 0 ? 0 : (double) (total - loads.sum()) / total;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import com.example.recipesapi.v1.recipe.exception.InvalidCursorException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the recipe change stream: the change timestamp plus the recipe id as a tie breaker.
+ * Clients only ever see the opaque, url safe encoded form.
+ */
+@Value
+public class SyncCursor implements Comparable<SyncCursor> {
+    public static final SyncCursor START = new SyncCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime changedAt;
+    Long id;
+
+    public static SyncCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = decoded.lastIndexOf(SEPARATOR);
+            return new SyncCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid sync cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        final String raw = changedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(final SyncCursor other) {
+        final int byDate = changedAt.compareTo(other.changedAt);
+        return byDate != 0 ? byDate : id.compareTo(other.id);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of the {@code vocabulary_terms} table: categories and ingredients with their integer ids.
+ * Recipes store the ids, {@link VocabularyTermConverter} translates them, and every recipe loaded shares the
+ * dictionary's single {@code String} instance of each term.
+ * <p>
+ * The table is read in full on first use, lookups run on the caller's connection. A missing term is inserted in a
+ * short transaction of its own on a second connection and shared with other threads as soon as that commits. No
+ * transaction holds the lock on a new term until it ends, so transactions adding the same terms in different orders
+ * never deadlock; a recipe that rolls back may leave an unused term behind. Terms added by other instances are
+ * picked up when their id is first read.
+ */
+@Component
+@Log4j2
+public class TermDictionary implements MeterBinder {
+    private static final String SELECT_ALL = "select id, term from vocabulary_terms";
+    private static final String SELECT_BY_TERM = "select id from vocabulary_terms where term = ?";
+    private static final String SELECT_BY_ID = "select term from vocabulary_terms where id = ?";
+    private static final String INSERT = "insert into vocabulary_terms (term) values (?)";
+    private static final String INSERT_IF_ABSENT = "insert into vocabulary_terms (term) values (?) on conflict (term) do nothing";
+
+    private final DataSource dataSource;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> terms = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile Boolean postgres;
+
+    public TermDictionary(final DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public Integer idOf(String term) {
+        if (term == null) {
+            return null;
+        }
+        ensureLoaded();
+        final Integer id = ids.get(term);
+        return id != null ? id : add(term);
+    }
+
+    public String termOf(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        ensureLoaded();
+        final String term = terms.get(id);
+        return term != null ? term : load(id);
+    }
+
+    /**
+     * The dictionary's instance of a known term, or the term itself. Never touches the database.
+     */
+    public String intern(String term) {
+        if (term == null) {
+            return null;
+        }
+        final Integer id = ids.get(term);
+        final String canonical = id != null ? terms.get(id) : null;
+        return canonical != null ? canonical : term;
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("recipes.vocabulary.terms", this, TermDictionary::size)
+                .description("Distinct categories and ingredients known to the term dictionary")
+                .register(registry);
+    }
+
+    /**
+     * Threads that find the dictionary empty may load it at the same time, each on its own connection.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        final Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(SELECT_ALL)) {
+            while (rows.next()) {
+                put(rows.getInt(1), rows.getString(2));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load the vocabulary", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        if (!loaded) {
+            loaded = true;
+            log.info("Loaded " + terms.size() + " vocabulary terms");
+        }
+    }
+
+    /**
+     * Another instance or thread may add the same term at the same time. On PostgreSQL the insert waits for the
+     * other transaction and does nothing if it commits, elsewhere a failed insert is followed by a second look.
+     */
+    private Integer add(String term) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            final Integer id = insertIfAbsent(connection, term);
+            put(id, term);
+            return id;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not add vocabulary term " + term, e);
+        }
+    }
+
+    private String load(Integer id) {
+        final Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement select = connection.prepareStatement(SELECT_BY_ID)) {
+            select.setInt(1, id);
+            try (ResultSet rows = select.executeQuery()) {
+                if (!rows.next()) {
+                    throw new IllegalStateException("Unknown vocabulary term id " + id);
+                }
+                return put(id, rows.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load vocabulary term " + id, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * @return id of the term, inserted unless it already exists
+     */
+    private Integer insertIfAbsent(Connection connection, String term) throws SQLException {
+        if (postgres == null) {
+            postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        }
+        if (postgres) {
+            insert(connection, INSERT_IF_ABSENT, term);
+            return existingId(connection, term);
+        }
+        final Integer existing = selectId(connection, term);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            insert(connection, INSERT, term);
+        } catch (SQLException e) {
+            // Most likely the unique key, someone else inserted the term since the select.
+            final Integer inserted = selectId(connection, term);
+            if (inserted == null) {
+                throw e;
+            }
+            return inserted;
+        }
+        return existingId(connection, term);
+    }
+
+    private static void insert(Connection connection, String sql, String term) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            insert.setString(1, term);
+            insert.executeUpdate();
+        }
+    }
+
+    private static Integer existingId(Connection connection, String term) throws SQLException {
+        final Integer id = selectId(connection, term);
+        if (id == null) {
+            throw new IllegalStateException("Vocabulary term " + term + " was not added");
+        }
+        return id;
+    }
+
+    private static Integer selectId(Connection connection, String term) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_BY_TERM)) {
+            select.setString(1, term);
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next() ? rows.getInt(1) : null;
+            }
+        }
+    }
+
+    private String put(Integer id, String term) {
+        final String canonical = terms.computeIfAbsent(id, key -> term);
+        ids.putIfAbsent(canonical, id);
+        return canonical;
+    }
+}
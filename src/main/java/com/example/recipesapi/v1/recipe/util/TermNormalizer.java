@@ -0,0 +1,19 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import java.util.Locale;
+
+/**
+ * Canonical form of free text terms like categories and ingredients, used as keys of the in-memory indexes.
+ */
+public final class TermNormalizer {
+
+    private TermNormalizer() {
+    }
+
+    public static String normalize(String term) {
+        if (term == null) {
+            return "";
+        }
+        return term.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Keys with the highest exponentially decayed counts, a view from one half-life ago weighs half as much as a
+ * view now. Counts live in a {@link CountMinSketch}, only the current leaders are tracked exactly, so memory
+ * stays fixed no matter how many keys are seen.
+ * <p>
+ * Decay uses a moving landmark: new counts are boosted by {@code 2^(age of landmark / half-life)} instead of
+ * shrinking every stored count on each tick, and everything is rescaled only when the boost grows too large.
+ */
+public class TrendingTopK {
+    private static final double RESCALE_EXPONENT = 32;
+    private static final Comparator<Candidate> BY_SCORE = Comparator.comparingDouble(Candidate::getScore)
+            .thenComparingLong(Candidate::getId);
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final double halfLifeMillis;
+    private final Map<Long, Double> scores = new HashMap<>();
+    private TreeSet<Candidate> ranking = new TreeSet<>(BY_SCORE);
+    private long landmarkMillis;
+
+    public TrendingTopK(int capacity, CountMinSketch sketch, long halfLifeMillis, long nowMillis) {
+        if (capacity < 1 || halfLifeMillis < 1) {
+            throw new IllegalArgumentException("Capacity and half-life must be positive");
+        }
+        this.capacity = capacity;
+        this.sketch = sketch;
+        this.halfLifeMillis = halfLifeMillis;
+        this.landmarkMillis = nowMillis;
+    }
+
+    public synchronized void add(long id, long count, long nowMillis) {
+        if (count <= 0) {
+            return;
+        }
+        final double estimate = sketch.add(id, count * boost(nowMillis));
+        final Double current = scores.get(id);
+        if (current != null) {
+            ranking.remove(new Candidate(id, current));
+        } else if (scores.size() >= capacity) {
+            final Candidate lowest = ranking.first();
+            if (lowest.getScore() >= estimate) {
+                return;
+            }
+            ranking.pollFirst();
+            scores.remove(lowest.getId());
+        }
+        scores.put(id, estimate);
+        ranking.add(new Candidate(id, estimate));
+    }
+
+    public synchronized void remove(long id) {
+        final Double current = scores.remove(id);
+        if (current != null) {
+            ranking.remove(new Candidate(id, current));
+        }
+    }
+
+    /**
+     * @return up to limit leaders, highest first, scored in views as of now
+     */
+    public synchronized List<Entry> top(int limit, long nowMillis) {
+        final double boost = Math.pow(2, (nowMillis - landmarkMillis) / halfLifeMillis);
+        final List<Entry> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        final Iterator<Candidate> iterator = ranking.descendingIterator();
+        while (iterator.hasNext() && top.size() < limit) {
+            final Candidate candidate = iterator.next();
+            top.add(new Entry(candidate.getId(), candidate.getScore() / boost));
+        }
+        return top;
+    }
+
+    public synchronized int size() {
+        return scores.size();
+    }
+
+    private double boost(long nowMillis) {
+        final double exponent = (nowMillis - landmarkMillis) / halfLifeMillis;
+        if (exponent <= RESCALE_EXPONENT) {
+            return Math.pow(2, exponent);
+        }
+        final double factor = Math.pow(2, -exponent);
+        sketch.scale(factor);
+        final TreeSet<Candidate> rescaled = new TreeSet<>(BY_SCORE);
+        scores.replaceAll((id, score) -> {
+            rescaled.add(new Candidate(id, score * factor));
+            return score * factor;
+        });
+        ranking = rescaled;
+        landmarkMillis = nowMillis;
+        return 1;
+    }
+
+    @Value
+    public static class Entry {
+        long id;
+        double score;
+    }
+
+    @Value
+    private static class Candidate {
+        long id;
+        double score;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores categories and ingredients as ids of the {@link TermDictionary}. Created by Hibernate through Spring,
+ * which injects the dictionary.
+ */
+@Converter
+public class VocabularyTermConverter implements AttributeConverter<String, Integer> {
+    private final TermDictionary termDictionary;
+
+    public VocabularyTermConverter(final TermDictionary termDictionary) {
+        this.termDictionary = termDictionary;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(final String attribute) {
+        return termDictionary.idOf(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(final Integer dbData) {
+        return termDictionary.termOf(dbData);
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.recipesapi.v1.security.authorization;
 
+import com.example.recipesapi.diagnostics.OwnershipCheckEvent;
+import com.example.recipesapi.tracing.Tracing;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
 import com.example.recipesapi.v1.security.model.CustomUserDetails;
+import io.opentelemetry.api.trace.Span;
 import org.springframework.security.access.expression.SecurityExpressionRoot;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
 import org.springframework.security.core.Authentication;
 
+import java.util.List;
+
 public class CustomMethodSecurityExpressionRoot
         extends SecurityExpressionRoot implements MethodSecurityExpressionOperations {
 
@@ -16,11 +22,23 @@ public class CustomMethodSecurityExpressionRoot
     }
 
     public boolean isOwner(Long recipeId) {
-        CustomUserDetails user = (CustomUserDetails) this.getPrincipal();
-        return user.getUser()
-                .getRecipes()
-                .stream()
-                .anyMatch(recipe -> recipe.getId().equals(recipeId));
+        final OwnershipCheckEvent event = OwnershipCheckEvent.start();
+        final Span span = Tracing.tracer().spanBuilder("security.isOwner").startSpan();
+        try {
+            CustomUserDetails user = (CustomUserDetails) this.getPrincipal();
+            final List<Recipe> recipes = user.getUser().getRecipes();
+            final boolean owner = recipes
+                    .stream()
+                    .anyMatch(recipe -> recipe.getId().equals(recipeId));
+            event.finish(recipeId != null ? recipeId : -1, user.getUser().getId() != null ? user.getUser().getId() : -1,
+                    recipes.size(), owner);
+            span.setAttribute("recipe.id", recipeId != null ? recipeId : -1);
+            span.setAttribute("user.recipes", recipes.size());
+            span.setAttribute("security.owner", owner);
+            return owner;
+        } finally {
+            span.end();
+        }
     }
 
     @Override
@@ -0,0 +1,26 @@
+package com.example.recipesapi.v1.security.authorization;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Operators are the users allowed to use the actuator endpoints, configured by email in
+ * {@code recipes.security.operators}. Used in security expressions as {@code @operators.isOperator(authentication)}.
+ */
+@Component("operators")
+public class OperatorAuthorization {
+    private final Set<String> operatorEmails;
+
+    public OperatorAuthorization(@Value("${recipes.security.operators:}") final Set<String> operatorEmails) {
+        this.operatorEmails = operatorEmails;
+    }
+
+    public boolean isOperator(Authentication authentication) {
+        return authentication != null
+                && authentication.isAuthenticated()
+                && operatorEmails.contains(authentication.getName());
+    }
+}
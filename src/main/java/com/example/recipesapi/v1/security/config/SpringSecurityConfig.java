@@ -8,6 +8,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -15,11 +16,11 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SpringSecurityConfig {
 
     private final UserService userService;
-    private final PasswordEncoderConfiguration passwordEncoderConfiguration;
+    private final PasswordEncoder passwordEncoder;
 
-    public SpringSecurityConfig(final UserService userService, final PasswordEncoderConfiguration passwordEncoderConfiguration) {
+    public SpringSecurityConfig(final UserService userService, final PasswordEncoder passwordEncoder) {
         this.userService = userService;
-        this.passwordEncoderConfiguration = passwordEncoderConfiguration;
+        this.passwordEncoder = passwordEncoder;
     }
 
 
@@ -34,7 +35,11 @@ public class SpringSecurityConfig {
                 .antMatchers("/api/v1/auth/register").permitAll()
                 .antMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-doc/**").permitAll()
                 .antMatchers("/h2-console/**").permitAll()
-                .antMatchers(HttpMethod.GET, "/api/v1/recipe", "/api/v1/recipe/{id}").permitAll()
+                .antMatchers(HttpMethod.GET, "/api/v1/recipe", "/api/v1/recipe/{id}", "/api/v1/recipe/{id}/similar").permitAll()
+                .antMatchers(HttpMethod.POST, "/api/v1/recipe/batch").permitAll()
+                .antMatchers(HttpMethod.GET, "/api/v1/recipe/{id}/image", "/api/v1/recipe/{id}/image/thumbnail/{size}").permitAll()
+                .antMatchers(HttpMethod.HEAD, "/api/v1/recipe/{id}/image", "/api/v1/recipe/{id}/image/thumbnail/{size}").permitAll()
+                .antMatchers("/actuator/**").access("@operators.isOperator(authentication)")
                 .and()
                 .authorizeRequests()
                 .anyRequest()
@@ -47,7 +52,7 @@ public class SpringSecurityConfig {
     public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
         auth
                 .userDetailsService(userService)
-                .passwordEncoder(passwordEncoderConfiguration.encoder());
+                .passwordEncoder(passwordEncoder);
     }
 
 }
@@ -1,20 +1,27 @@
 package com.example.recipesapi.v1.security.controller;
 
+import com.example.recipesapi.bulkhead.BulkheadGroup;
+import com.example.recipesapi.v1.security.model.CustomUserDetails;
 import com.example.recipesapi.v1.security.model.dto.UserDto;
 import com.example.recipesapi.v1.security.model.entity.User;
 import com.example.recipesapi.v1.security.model.request.AuthenticationRequest;
+import com.example.recipesapi.v1.security.service.UserDeletionService;
 import com.example.recipesapi.v1.security.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/v1/auth")
+@BulkheadGroup("account")
 public class AuthenticationController {
     public final UserService userService;
+    private final UserDeletionService userDeletionService;
 
-    public AuthenticationController(final UserService userService) {
+    public AuthenticationController(final UserService userService, final UserDeletionService userDeletionService) {
         this.userService = userService;
+        this.userDeletionService = userDeletionService;
     }
 
     @PostMapping("/register")
@@ -34,4 +41,14 @@ public class AuthenticationController {
         return user;
     }
 
+    /**
+     * Deletes the authenticated user's account and recipes in the background.
+     */
+    @DeleteMapping("/me")
+    public ResponseEntity<Void> deleteAccount(Authentication authentication) {
+        final CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        userDeletionService.requestDeletion(userDetails.getUser().getId());
+        return ResponseEntity.accepted().build();
+    }
+
 }
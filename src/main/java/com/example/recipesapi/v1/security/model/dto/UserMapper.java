@@ -1,19 +1,22 @@
 package com.example.recipesapi.v1.security.model.dto;
 
+import com.example.recipesapi.diagnostics.MappingEvent;
 import com.example.recipesapi.v1.security.model.entity.User;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UserMapper {
-    private final ModelMapper modelMapper;
-
-    public UserMapper(final ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
 
     public UserDto convertToDto(User user) {
-        return modelMapper.map(user, UserDto.class);
+        if (user == null) {
+            return null;
+        }
+        final MappingEvent event = MappingEvent.start("User");
+        final UserDto userDto = new UserDto();
+        userDto.setId(user.getId());
+        userDto.setEmail(user.getEmail());
+        event.finish(user.getId(), 0);
+        return userDto;
     }
 
 }
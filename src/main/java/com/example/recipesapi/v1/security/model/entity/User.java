@@ -1,17 +1,28 @@
 package com.example.recipesapi.v1.security.model.entity;
 
+import com.example.recipesapi.cache.SecondLevelCacheConfiguration;
 import com.example.recipesapi.v1.recipe.model.entity.Recipe;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.*;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import javax.persistence.*;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * Cached in the second-level cache by id and by email, the user's recipes are not cached with it.
+ */
 @Entity
 @Table(name = "Users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.USERS_REGION)
+@NaturalIdCache(region = SecondLevelCacheConfiguration.USERS_BY_EMAIL_REGION)
 @Getter
 @Setter
 @ToString
@@ -25,6 +36,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @NonNull
+    @NaturalId(mutable = true)
     private String email;
     @NonNull
     private String password;
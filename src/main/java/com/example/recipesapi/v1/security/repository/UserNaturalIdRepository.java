@@ -0,0 +1,13 @@
+package com.example.recipesapi.v1.security.repository;
+
+import com.example.recipesapi.v1.security.model.entity.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    /**
+     * Looks the user up by its natural id, served from the second-level cache when the user is cached.
+     */
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,37 @@
+package com.example.recipesapi.v1.security.repository;
+
+import com.example.recipesapi.v1.security.model.entity.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+/**
+ * Inside a transaction the lookup uses the transaction's session. Outside of one it opens a session of its own
+ * instead of starting a transaction, so a lookup served from the cache doesn't take a database connection.
+ */
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+    private final EntityManagerFactory entityManagerFactory;
+
+    UserNaturalIdRepositoryImpl(final EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        final EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager != null) {
+            return load(entityManager.unwrap(Session.class), email);
+        }
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).openSession()) {
+            return load(session, email);
+        }
+    }
+
+    private static Optional<User> load(Session session, String email) {
+        return session.bySimpleNaturalId(User.class).loadOptional(email);
+    }
+}
@@ -2,9 +2,17 @@ package com.example.recipesapi.v1.security.repository;
 
 import com.example.recipesapi.v1.security.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+    /**
+     * Deletes the user row only, without loading the user and its recipes. The recipes must be deleted first.
+     * Hibernate evicts the cached users with it, on this node.
+     */
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
 }
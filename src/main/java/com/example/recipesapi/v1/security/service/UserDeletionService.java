@@ -0,0 +1,102 @@
+package com.example.recipesapi.v1.security.service;
+
+import com.example.recipesapi.v1.recipe.service.RecipeService;
+import com.example.recipesapi.v1.security.repository.UserRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes accounts in the background. The user's recipes are deleted in chunks, each in a transaction of its own,
+ * so authors with thousands of recipes neither hold one long transaction nor keep the request waiting. The user
+ * row goes last, together with whatever recipes were added meanwhile.
+ * <p>
+ * A deletion stopped half way (e.g. by a restart) leaves the user with fewer recipes, deleting the account again
+ * picks up where it stopped.
+ */
+@Service
+@Log4j2
+public class UserDeletionService {
+    private final RecipeService recipeService;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final UserSecondLevelCache userSecondLevelCache;
+    private final int chunkSize;
+    private final Set<Long> inProgress = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "user-deletion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserDeletionService(final RecipeService recipeService,
+                               final UserRepository userRepository,
+                               final TransactionTemplate transactionTemplate,
+                               final UserDetailsCache userDetailsCache,
+                               final UserSecondLevelCache userSecondLevelCache,
+                               @Value("${recipes.users.deletion.chunk-size:500}") final int chunkSize) {
+        this.recipeService = recipeService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.userDetailsCache = userDetailsCache;
+        this.userSecondLevelCache = userSecondLevelCache;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return false when the user's deletion is already running
+     */
+    public boolean requestDeletion(Long userId) {
+        if (!inProgress.add(userId)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                deleteUser(userId);
+            } catch (RuntimeException e) {
+                log.error("Deleting user " + userId + " failed, it can be requested again", e);
+            } finally {
+                inProgress.remove(userId);
+            }
+        });
+        return true;
+    }
+
+    void deleteUser(Long userId) {
+        final long start = System.nanoTime();
+        long recipes = 0;
+        int deleted;
+        do {
+            deleted = recipeService.deleteRecipesOfUser(userId, chunkSize);
+            recipes += deleted;
+        } while (deleted == chunkSize);
+
+        final int remaining = transactionTemplate.execute(status -> {
+            int late = 0;
+            int chunk;
+            do {
+                chunk = recipeService.deleteRecipesOfUser(userId, chunkSize);
+                late += chunk;
+            } while (chunk > 0);
+            userRepository.deleteUserById(userId);
+            return late;
+        });
+        userSecondLevelCache.evictUser(userId);
+        userDetailsCache.invalidateUser(userId);
+        log.info("Deleted user " + userId + " and " + (recipes + remaining) + " recipes in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
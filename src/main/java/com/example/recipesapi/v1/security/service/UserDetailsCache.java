@@ -0,0 +1,55 @@
+package com.example.recipesapi.v1.security.service;
+
+import com.example.recipesapi.cache.InvalidationBus;
+import com.example.recipesapi.cache.NearCache;
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.security.model.CustomUserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Users by email, as loaded for authentication, cached on every node. {@code isOwner} checks read the user's recipes
+ * from the cached user, so a user's entry is dropped on all nodes whenever one of their recipes is created or
+ * deleted, and when the user is deleted.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+    private final NearCache<String, CustomUserDetails> users;
+
+    public UserDetailsCache(final InvalidationBus invalidationBus,
+                            @Value("${recipes.cache.users.max-entries:10000}") final int maxEntries,
+                            @Value("${recipes.cache.users.ttl-ms:60000}") final long ttlMillis) {
+        this.users = new NearCache<>("users", maxEntries, Duration.ofMillis(ttlMillis), invalidationBus,
+                Function.identity(), details -> String.valueOf(details.getUser().getId()));
+    }
+
+    public CustomUserDetails get(String email, Function<String, CustomUserDetails> loader) {
+        return users.get(email, loader);
+    }
+
+    /**
+     * Call once the change to the user is committed.
+     */
+    public void invalidateUser(Long userId) {
+        users.invalidateTag(String.valueOf(userId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChange(RecipeChangeEvent event) {
+        if (event.getType() != RecipeChangeEvent.ChangeType.UPDATED && event.getUserId() != null) {
+            invalidateUser(event.getUserId());
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        users.bindTo(registry);
+    }
+}
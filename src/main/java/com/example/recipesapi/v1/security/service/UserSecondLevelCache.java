@@ -0,0 +1,88 @@
+package com.example.recipesapi.v1.security.service;
+
+import com.example.recipesapi.cache.Invalidation;
+import com.example.recipesapi.cache.InvalidationBus;
+import com.example.recipesapi.v1.security.model.entity.User;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Evicts users from Hibernate's second-level cache of every node. Hibernate evicts them on the node that wrote,
+ * the other nodes are told over the {@link InvalidationBus}, for deletions by {@link UserDeletionService} and for
+ * every committed update by {@link UserUpdateListener}. An update also evicts the email the user had before, so no
+ * node resolves the old email to the user any longer. Without the email all cached emails are dropped.
+ */
+@Component
+public class UserSecondLevelCache {
+    static final String NAME = "users-l2";
+    private static final char EMAIL_SEPARATOR = ' ';
+
+    private final InvalidationBus invalidationBus;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public UserSecondLevelCache(final InvalidationBus invalidationBus, final EntityManagerFactory entityManagerFactory) {
+        this.invalidationBus = invalidationBus;
+        this.entityManagerFactory = entityManagerFactory;
+        invalidationBus.subscribe(this::onRemoteInvalidation);
+    }
+
+    /**
+     * Call once the change to the user is committed, before the {@link UserDetailsCache} is invalidated so other
+     * nodes don't reload the user from their second-level cache.
+     */
+    public void evictUser(Long userId) {
+        evictUser(userId, null);
+    }
+
+    /**
+     * @param email email the user was cached under, {@code null} if unknown
+     */
+    public void evictUser(Long userId, String email) {
+        evictLocally(userId, email);
+        final String key = email != null ? userId + EMAIL_SEPARATOR + email : String.valueOf(userId);
+        invalidationBus.publish(Invalidation.key(NAME, key, invalidationBus.nodeId()));
+    }
+
+    void onRemoteInvalidation(Invalidation invalidation) {
+        if (!invalidation.appliesTo(NAME) || invalidationBus.nodeId().equals(invalidation.getOrigin())) {
+            return;
+        }
+        if (invalidation.getKind() == Invalidation.Kind.KEY) {
+            final String key = invalidation.getValue();
+            final int separator = key.indexOf(EMAIL_SEPARATOR);
+            if (separator < 0) {
+                evictLocally(Long.valueOf(key), null);
+            } else {
+                evictLocally(Long.valueOf(key.substring(0, separator)), key.substring(separator + 1));
+            }
+        } else {
+            cache().evictEntityData(User.class);
+            cache().evictNaturalIdData(User.class);
+        }
+    }
+
+    private void evictLocally(Long userId, String email) {
+        cache().evictEntityData(User.class, userId);
+        if (email == null) {
+            cache().evictNaturalIdData(User.class);
+            return;
+        }
+        final SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        final EntityPersister persister = sessionFactory.getMetamodel().entityPersister(User.class);
+        final NaturalIdDataAccess naturalIds = persister.getNaturalIdCacheAccessStrategy();
+        try (Session session = sessionFactory.openSession()) {
+            naturalIds.evict(naturalIds.generateCacheKey(new Object[]{email}, persister,
+                    (SharedSessionContractImplementor) session));
+        }
+    }
+
+    private org.hibernate.Cache cache() {
+        return entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+    }
+}
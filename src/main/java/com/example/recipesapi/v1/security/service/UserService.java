@@ -1,5 +1,6 @@
 package com.example.recipesapi.v1.security.service;
 
+import com.example.recipesapi.diagnostics.UserLookupEvent;
 import com.example.recipesapi.v1.security.exception.UserAlreadyExistsException;
 import com.example.recipesapi.v1.security.exception.UserNotFoundException;
 import com.example.recipesapi.v1.security.model.CustomUserDetails;
@@ -12,7 +13,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService implements UserDetailsService {
@@ -20,20 +20,32 @@ public class UserService implements UserDetailsService {
     private final PasswordEncoder passwordEncoder;
 
     private final UserMapper userMapper;
+    private final UserDetailsCache userDetailsCache;
 
-    public UserService(final UserRepository userRepository, final PasswordEncoder passwordEncoder, final UserMapper userMapper) {
+    public UserService(final UserRepository userRepository, final PasswordEncoder passwordEncoder,
+                       final UserMapper userMapper, final UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
+        this.userDetailsCache = userDetailsCache;
     }
 
+    /**
+     * Served from the {@link UserDetailsCache}, only misses go to the database. Runs without a transaction so
+     * cache hits don't take a connection, the user's recipes are fetched eagerly with the user.
+     */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String email) {
+        return userDetailsCache.get(email, this::loadUser);
+    }
+
+    private CustomUserDetails loadUser(String email) {
+        final UserLookupEvent event = UserLookupEvent.start();
         final User user = userRepository.findByEmail(email)
                 .orElseThrow(
                         () -> new UserNotFoundException("User with email: " + email + " not found")
                 );
+        event.finish(user.getId() != null ? user.getId() : -1, user.getRecipes() != null ? user.getRecipes().size() : 0);
         return new CustomUserDetails(user);
     }
 
@@ -0,0 +1,54 @@
+package com.example.recipesapi.v1.security.service;
+
+import com.example.recipesapi.v1.security.model.entity.User;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Evicts every user whose update was committed from the second-level caches of all nodes, together with the email
+ * the user had before the update.
+ */
+@Component
+public class UserUpdateListener implements PostCommitUpdateEventListener {
+    private final transient UserSecondLevelCache userSecondLevelCache;
+
+    public UserUpdateListener(final UserSecondLevelCache userSecondLevelCache,
+                              final EntityManagerFactory entityManagerFactory) {
+        this.userSecondLevelCache = userSecondLevelCache;
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            userSecondLevelCache.evictUser(user.getId(), previousEmail(event));
+        }
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(final PostUpdateEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return User.class.equals(persister.getMappedClass());
+    }
+
+    private static String previousEmail(PostUpdateEvent event) {
+        final Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            return null;
+        }
+        return (String) oldState[event.getPersister().getEntityMetamodel().getPropertyIndex("email")];
+    }
+}
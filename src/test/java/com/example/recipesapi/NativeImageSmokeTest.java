@@ -0,0 +1,147 @@
+package com.example.recipesapi;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the native executable, started with the in-memory database. Only enabled by the
+ * {@code nativeSmokeTest} Gradle task, see build.gradle.
+ */
+@Tag("native")
+@EnabledIfSystemProperty(named = "recipes.native.executable", matches = ".+")
+class NativeImageSmokeTest {
+    private static final Pattern READY = Pattern.compile("Ready in (\\d+) ms");
+    private static final long MAX_STARTUP_MILLIS = Long.getLong("recipes.native.max-startup-ms", 100);
+    private static final long MAX_RSS_KB = Long.getLong("recipes.native.max-rss-kb", 100 * 1024);
+
+    private static Process application;
+    private static String baseUrl;
+    private static long startupMillis;
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        application = new ProcessBuilder(System.getProperty("recipes.native.executable"),
+                "--spring.profiles.active=h2", "--server.port=" + port)
+                .redirectErrorStream(true)
+                .start();
+        startupMillis = awaitReady().get(30, TimeUnit.SECONDS);
+    }
+
+    @AfterAll
+    static void stopApplication() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            application.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldStartWithinTarget() {
+        assertThat(startupMillis).isLessThan(MAX_STARTUP_MILLIS);
+    }
+
+    @Test
+    void shouldStayWithinMemoryTarget() throws Exception {
+        //when
+        get("/api/v1/recipe", null);
+        //then
+        assertThat(residentSetKb()).isLessThan(MAX_RSS_KB);
+    }
+
+    @Test
+    void shouldRegisterCreateAndReadRecipe() throws Exception {
+        //given
+        final String credentials = "native-smoke@example.com:secret";
+        final HttpResponse<String> registered = post("/api/v1/auth/register",
+                "{\"email\":\"native-smoke@example.com\",\"password\":\"secret\"}", null);
+        //when
+        final HttpResponse<String> created = post("/api/v1/recipe",
+                "{\"name\":\"Soup\",\"description\":\"Hot\",\"category\":\"soup\","
+                        + "\"ingredients\":[\"water\"],\"directions\":[\"boil\"]}", credentials);
+        final HttpResponse<String> recipes = get("/api/v1/recipe", null);
+        //then
+        assertThat(registered.statusCode()).isEqualTo(200);
+        assertThat(created.statusCode()).isEqualTo(200);
+        assertThat(recipes.statusCode()).isEqualTo(200);
+        assertThat(recipes.body()).contains("\"name\":\"Soup\"", "\"ingredients\":[\"water\"]");
+    }
+
+    private static CompletableFuture<Long> awaitReady() {
+        return CompletableFuture.supplyAsync(() -> {
+            try (BufferedReader output = new BufferedReader(
+                    new InputStreamReader(application.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    System.out.println(line);
+                    final Matcher ready = READY.matcher(line);
+                    if (ready.find()) {
+                        final long millis = Long.parseLong(ready.group(1));
+                        CompletableFuture.runAsync(() -> output.lines().forEach(System.out::println));
+                        return millis;
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new IllegalStateException("Native executable exited before it was ready");
+        });
+    }
+
+    private static long residentSetKb() throws IOException {
+        return Files.readAllLines(Path.of("/proc", String.valueOf(application.pid()), "status"))
+                .stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static HttpResponse<String> get(String path, String credentials) throws Exception {
+        return client.send(request(path, credentials).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(String path, String json, String credentials) throws Exception {
+        return client.send(request(path, credentials)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest.Builder request(String path, String credentials) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (credentials != null) {
+            builder.header("Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.recipesapi.audit;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTest {
+    private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+
+    private final RecordingSink sink = new RecordingSink();
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sink.release();
+        if (auditLog != null) {
+            auditLog.shutdown();
+        }
+    }
+
+    @Test
+    void appendedRecordsShouldBeWrittenInBatches() throws InterruptedException {
+        //given
+        auditLog = auditLog(64, AuditLog.BackPressure.DROP, 10);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        auditLog.bindTo(registry);
+        auditLog.start();
+        //when
+        for (long id = 0; id < 25; id++) {
+            assertThat(auditLog.append(record(id))).isTrue();
+        }
+        auditLog.shutdown();
+        //then
+        assertThat(sink.records).extracting(AuditRecord::getRecipeId).hasSize(25).isSorted();
+        assertThat(sink.batchSizes).allMatch(size -> size <= 10);
+        assertThat(auditLog.writtenCount()).isEqualTo(25);
+        assertThat(registry.get("recipes.audit.records").tag("outcome", "written").functionCounter().count()).isEqualTo(25);
+        assertThat(registry.get("recipes.audit.lag").timer().count()).isEqualTo(25);
+    }
+
+    @Test
+    void fullQueueShouldDropWithDropBackPressure() throws InterruptedException {
+        //given
+        auditLog = auditLog(4, AuditLog.BackPressure.DROP, 1);
+        sink.block();
+        auditLog.start();
+        auditLog.append(record(0));
+        assertThat(sink.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        //when
+        int accepted = 0;
+        for (long id = 1; id <= 10; id++) {
+            accepted += auditLog.append(record(id)) ? 1 : 0;
+        }
+        //then
+        assertThat(accepted).isEqualTo(4);
+        assertThat(auditLog.droppedCount()).isEqualTo(6);
+        sink.release();
+        auditLog.shutdown();
+        assertThat(auditLog.writtenCount()).isEqualTo(5);
+    }
+
+    @Test
+    void fullQueueShouldWaitForWriterWithBlockBackPressure() throws InterruptedException {
+        //given
+        auditLog = new AuditLog(sink, 1, AuditLog.BackPressure.BLOCK, 5000, 1, 1, 1, Clock.fixed(NOW, ZoneOffset.UTC));
+        sink.block();
+        auditLog.start();
+        auditLog.append(record(0));
+        assertThat(sink.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        auditLog.append(record(1));
+        //when
+        final Thread releaser = new Thread(() -> {
+            sleep(100);
+            sink.release();
+        });
+        releaser.start();
+        final boolean accepted = auditLog.append(record(2));
+        releaser.join();
+        auditLog.shutdown();
+        //then
+        assertThat(accepted).isTrue();
+        assertThat(auditLog.droppedCount()).isZero();
+        assertThat(sink.records).extracting(AuditRecord::getRecipeId).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    void failedBatchShouldBeRetried() throws InterruptedException {
+        //given
+        auditLog = auditLog(16, AuditLog.BackPressure.DROP, 10);
+        sink.failures.set(2);
+        auditLog.start();
+        //when
+        auditLog.append(record(1));
+        auditLog.append(record(2));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (auditLog.writtenCount() < 2 && System.nanoTime() < deadline) {
+            sleep(5);
+        }
+        //then
+        assertThat(auditLog.failedBatchCount()).isEqualTo(2);
+        assertThat(auditLog.writtenCount()).isEqualTo(2);
+        assertThat(auditLog.droppedCount()).isZero();
+    }
+
+    @Test
+    void shutdownShouldCountQueuedRecordsAsDroppedWhenSinkFails() throws InterruptedException {
+        //given
+        auditLog = auditLog(16, AuditLog.BackPressure.DROP, 2);
+        sink.failures.set(Integer.MAX_VALUE);
+        auditLog.start();
+        for (long id = 0; id < 5; id++) {
+            auditLog.append(record(id));
+        }
+        //when
+        auditLog.shutdown();
+        //then
+        assertThat(auditLog.writtenCount()).isZero();
+        assertThat(auditLog.droppedCount()).isEqualTo(5);
+        assertThat(auditLog.queued()).isZero();
+    }
+
+    private AuditLog auditLog(int capacity, AuditLog.BackPressure backPressure, int batchSize) {
+        return new AuditLog(sink, capacity, backPressure, 100, batchSize, 1, 1, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static AuditRecord record(long recipeId) {
+        return new AuditRecord(NOW, RecipeChangeEvent.ChangeType.UPDATED, recipeId, 1L, 1L, "Pancakes");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingSink implements AuditSink {
+        final List<AuditRecord> records = new CopyOnWriteArrayList<>();
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public void write(List<AuditRecord> batch) throws IOException {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (failures.getAndUpdate(left -> left > 0 ? left - 1 : 0) > 0) {
+                throw new IOException("Sink unavailable");
+            }
+            batchSizes.add(batch.size());
+            records.addAll(batch);
+        }
+    }
+}
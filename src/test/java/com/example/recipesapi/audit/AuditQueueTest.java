@@ -0,0 +1,94 @@
+package com.example.recipesapi.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditQueueTest {
+
+    @Test
+    void capacityShouldBeRoundedUpToPowerOfTwo() {
+        //then
+        assertThat(new AuditQueue<String>(1).capacity()).isEqualTo(1);
+        assertThat(new AuditQueue<String>(5).capacity()).isEqualTo(8);
+        assertThat(new AuditQueue<String>(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new AuditQueue<String>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void offerShouldFailOnceFull() {
+        //given
+        final AuditQueue<String> queue = new AuditQueue<>(2);
+        //when
+        final boolean first = queue.offer("a");
+        final boolean second = queue.offer("b");
+        final boolean third = queue.offer("c");
+        //then
+        assertThat(List.of(first, second, third)).containsExactly(true, true, false);
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void drainShouldKeepOrderAcrossWrapAround() {
+        //given
+        final AuditQueue<Integer> queue = new AuditQueue<>(4);
+        final List<Integer> drained = new ArrayList<>();
+        //when
+        for (int round = 0; round < 5; round++) {
+            for (int value = 0; value < 3; value++) {
+                queue.offer(round * 3 + value);
+            }
+            queue.drain(drained::add, 2);
+            queue.drain(drained::add, 10);
+        }
+        //then
+        assertThat(drained).hasSize(15).isSorted();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersShouldNeitherLoseNorDuplicateValues() throws Exception {
+        //given
+        final AuditQueue<Long> queue = new AuditQueue<>(256);
+        final int producers = 4;
+        final int perProducer = 50_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(producers);
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int producer = 0; producer < producers; producer++) {
+            final long base = (long) producer * perProducer;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long value = base; value < base + perProducer; value++) {
+                    while (!queue.offer(value)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        //when
+        start.countDown();
+        final Set<Long> consumed = new HashSet<>();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (consumed.size() < producers * perProducer && System.nanoTime() < deadline) {
+            queue.drain(value -> assertThat(consumed.add(value)).isTrue(), 100);
+        }
+        executor.shutdown();
+        //then
+        assertThat(consumed).hasSize(producers * perProducer);
+        assertThat(queue.size()).isZero();
+    }
+}
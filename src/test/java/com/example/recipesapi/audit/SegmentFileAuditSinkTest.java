@@ -0,0 +1,104 @@
+package com.example.recipesapi.audit;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentFileAuditSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenRecordsShouldBeReadBack() throws IOException {
+        //given
+        final SegmentFileAuditSink sink = new SegmentFileAuditSink(directory, 4096, 4);
+        final List<AuditRecord> records = List.of(
+                record(1L, RecipeChangeEvent.ChangeType.CREATED, "Carroten soup"),
+                new AuditRecord(Instant.ofEpochSecond(1_700_000_000, 123), RecipeChangeEvent.ChangeType.DELETED,
+                        2L, null, null, null));
+        //when
+        sink.write(records);
+        sink.close();
+        //then
+        final List<Path> segments = SegmentFileAuditSink.segments(directory);
+        assertThat(segments).hasSize(1);
+        assertThat(SegmentFileAuditSink.read(segments.get(0))).isEqualTo(records);
+    }
+
+    @Test
+    void fullSegmentShouldRotateAndKeepNewestSegments() throws IOException {
+        //given
+        final SegmentFileAuditSink sink = new SegmentFileAuditSink(directory, 256, 2);
+        final List<AuditRecord> records = LongStream.range(0, 20)
+                .mapToObj(id -> record(id, RecipeChangeEvent.ChangeType.UPDATED, "Tomato soup " + id))
+                .toList();
+        //when
+        sink.write(records);
+        //then
+        final List<Path> segments = SegmentFileAuditSink.segments(directory);
+        assertThat(segments).hasSize(2);
+        final List<AuditRecord> kept = new ArrayList<>();
+        for (Path segment : segments) {
+            kept.addAll(SegmentFileAuditSink.read(segment));
+        }
+        // The oldest records went with the deleted segments, the rest is complete and in order.
+        assertThat(kept).isNotEmpty().isEqualTo(records.subList(records.size() - kept.size(), records.size()));
+    }
+
+    @Test
+    void restartShouldBeginNewSegment() throws IOException {
+        //given
+        new SegmentFileAuditSink(directory, 4096, 4).write(List.of(record(1L, RecipeChangeEvent.ChangeType.CREATED, "a")));
+        //when
+        new SegmentFileAuditSink(directory, 4096, 4).write(List.of(record(2L, RecipeChangeEvent.ChangeType.CREATED, "b")));
+        //then
+        final List<Path> segments = SegmentFileAuditSink.segments(directory);
+        assertThat(segments).hasSize(2);
+        assertThat(SegmentFileAuditSink.read(segments.get(0))).extracting(AuditRecord::getRecipeId).containsExactly(1L);
+        assertThat(SegmentFileAuditSink.read(segments.get(1))).extracting(AuditRecord::getRecipeId).containsExactly(2L);
+    }
+
+    @Test
+    void readShouldStopAtTornRecord() throws IOException {
+        //given
+        final SegmentFileAuditSink sink = new SegmentFileAuditSink(directory, 4096, 4);
+        sink.write(List.of(record(1L, RecipeChangeEvent.ChangeType.CREATED, "a"),
+                record(2L, RecipeChangeEvent.ChangeType.CREATED, "b")));
+        final Path segment = SegmentFileAuditSink.segments(directory).get(0);
+        // Both records have the same length, flip a byte in the checksum of the second one.
+        final int secondRecordEnd = 2 * recordBytes(segment);
+        //when
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final ByteBuffer checksum = ByteBuffer.allocate(1);
+            channel.read(checksum, secondRecordEnd - 1);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~checksum.get(0)}), secondRecordEnd - 1);
+        }
+        //then
+        assertThat(SegmentFileAuditSink.read(segment)).extracting(AuditRecord::getRecipeId).containsExactly(1L);
+    }
+
+    private static int recordBytes(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            return Integer.BYTES + length.flip().getInt() + Integer.BYTES;
+        }
+    }
+
+    private static AuditRecord record(long recipeId, RecipeChangeEvent.ChangeType action, String name) {
+        return new AuditRecord(Instant.ofEpochMilli(1_700_000_000_000L + recipeId), action, recipeId, 7L, 7L, name);
+    }
+}
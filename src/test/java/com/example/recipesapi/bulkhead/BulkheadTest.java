@@ -0,0 +1,85 @@
+package com.example.recipesapi.bulkhead;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void acquireShouldRejectRightAwayWhenTooManyWait() {
+        //given
+        final Bulkhead bulkhead = new Bulkhead("search", 1, 0, Duration.ofSeconds(10), Duration.ofSeconds(5));
+        bulkhead.acquire();
+        //when
+        final long start = System.nanoTime();
+        //then
+        assertThatThrownBy(bulkhead::acquire)
+                .isInstanceOf(BulkheadFullException.class)
+                .hasMessageContaining("Too many concurrent search requests");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(bulkhead.rejectedFullCount()).isEqualTo(1);
+        assertThat(bulkhead.waitingCount()).isZero();
+    }
+
+    @Test
+    void acquireShouldRejectWhenNoSlotFreesUpInTime() {
+        //given
+        final Bulkhead bulkhead = new Bulkhead("search", 1, 1, Duration.ofMillis(20), Duration.ofSeconds(5));
+        bulkhead.acquire();
+        //when
+        //then
+        assertThatThrownBy(bulkhead::acquire)
+                .isInstanceOf(BulkheadFullException.class)
+                .hasMessageContaining("in time");
+        assertThat(bulkhead.rejectedWaitingCount()).isEqualTo(1);
+        assertThat(bulkhead.waitingCount()).isZero();
+    }
+
+    @Test
+    void acquireShouldWaitForReleasedSlot() throws Exception {
+        //given
+        final Bulkhead bulkhead = new Bulkhead("lookup", 1, 1, Duration.ofSeconds(10), Duration.ofSeconds(5));
+        bulkhead.acquire();
+        final CompletableFuture<Void> waiter = CompletableFuture.runAsync(bulkhead::acquire, executor);
+        while (bulkhead.waitingCount() == 0) {
+            Thread.onSpinWait();
+        }
+        //when
+        bulkhead.release();
+        waiter.get(5, TimeUnit.SECONDS);
+        //then
+        assertThat(bulkhead.acceptedCount()).isEqualTo(2);
+        assertThat(bulkhead.activeCount()).isEqualTo(1);
+        assertThat(bulkhead.waitingCount()).isZero();
+    }
+
+    @Test
+    void saturationShouldBeShareOfSlotsInUse() {
+        //given
+        final Bulkhead bulkhead = new Bulkhead("write", 4, 0, Duration.ZERO, Duration.ofSeconds(5));
+        //when
+        bulkhead.acquire();
+        bulkhead.acquire();
+        bulkhead.acquire();
+        bulkhead.release();
+        //then
+        assertThat(bulkhead.activeCount()).isEqualTo(2);
+        assertThat(bulkhead.saturation()).isEqualTo(0.5);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.recipesapi.bulkhead;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineQueryTimeoutListenerTest {
+
+    @Mock
+    private ExecutionInfo executionInfo;
+    @Mock
+    private Statement statement;
+    private final DeadlineQueryTimeoutListener listenerUnderTest = new DeadlineQueryTimeoutListener();
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void beforeQueryShouldSetTimeLeftRoundedUp() throws Exception {
+        //given
+        RequestDeadline.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2500));
+        given(executionInfo.getStatement()).willReturn(statement);
+        //when
+        listenerUnderTest.beforeQuery(executionInfo, List.of());
+        //then
+        verify(statement).setQueryTimeout(3);
+    }
+
+    @Test
+    void beforeQueryShouldKeepShorterTimeout() throws Exception {
+        //given
+        RequestDeadline.set(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+        given(executionInfo.getStatement()).willReturn(statement);
+        given(statement.getQueryTimeout()).willReturn(2);
+        //when
+        listenerUnderTest.beforeQuery(executionInfo, List.of());
+        //then
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void beforeQueryWithoutDeadlineShouldLeaveStatementAlone() {
+        //given
+        //when
+        listenerUnderTest.beforeQuery(executionInfo, List.of());
+        //then
+        verifyNoInteractions(executionInfo, statement);
+    }
+
+    @Test
+    void timeoutSecondsShouldBeAtLeastOneSecond() {
+        assertThat(DeadlineQueryTimeoutListener.timeoutSeconds(-5)).isEqualTo(1);
+        assertThat(DeadlineQueryTimeoutListener.timeoutSeconds(1)).isEqualTo(1);
+        assertThat(DeadlineQueryTimeoutListener.timeoutSeconds(TimeUnit.SECONDS.toNanos(2))).isEqualTo(2);
+    }
+
+    @Test
+    void afterQueryShouldCountCancelledStatements() {
+        //given
+        given(executionInfo.getThrowable()).willReturn(
+                new SQLException("ERROR: canceling statement due to user request", "57014"));
+        //when
+        listenerUnderTest.afterQuery(executionInfo, List.of());
+        //then
+        assertThat(listenerUnderTest.cancelledCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.recipesapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Coherence of near caches on several nodes, connected by an in-memory bus that delivers right away. See
+ * {@link PostgresInvalidationBusMultiJvmTest} for the lag of a real bus between processes.
+ */
+class NearCacheTest {
+
+    private final Network network = new Network();
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void invalidateShouldDropEntryOnEveryNode() {
+        //given
+        final NearCache<Long, String> first = cache(network.join(), 100);
+        final NearCache<Long, String> second = cache(network.join(), 100);
+        first.get(1L, id -> "Carroten soup");
+        second.get(1L, id -> "Carroten soup");
+        //when
+        first.invalidate(1L);
+        //then
+        assertThat(first.get(1L, id -> "Tomato soup")).isEqualTo("Tomato soup");
+        assertThat(second.get(1L, id -> "Tomato soup")).isEqualTo("Tomato soup");
+        assertThat(second.remoteInvalidationCount()).isEqualTo(1);
+        assertThat(first.remoteInvalidationCount()).isZero();
+    }
+
+    @Test
+    void loadOverlappingInvalidationShouldBeReturnedButNotCached() {
+        //given
+        final NearCache<Long, String> reader = cache(network.join(), 100);
+        final NearCache<Long, String> writer = cache(network.join(), 100);
+        //when
+        // The reader reads the old name, the writer commits a new one before the read completes.
+        final String read = reader.get(1L, id -> {
+            writer.invalidate(1L);
+            return "Carroten soup";
+        });
+        //then
+        assertThat(read).isEqualTo("Carroten soup");
+        assertThat(reader.discardedLoadCount()).isEqualTo(1);
+        assertThat(reader.get(1L, id -> "Tomato soup")).isEqualTo("Tomato soup");
+    }
+
+    @Test
+    void invalidateTagShouldDropEntriesWithTheTagOnEveryNode() {
+        //given
+        final NearCache<String, String> first = taggedCache(network.join());
+        final NearCache<String, String> second = taggedCache(network.join());
+        second.get("anna@test.com", email -> "1:" + email);
+        second.get("bob@test.com", email -> "2:" + email);
+        //when
+        first.invalidateTag("1");
+        //then
+        assertThat(second.size()).isEqualTo(1);
+        assertThat(second.hitCount()).isZero();
+        second.get("bob@test.com", email -> "2:changed");
+        assertThat(second.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void entriesShouldExpireAfterTtlWhenInvalidationsGetLost() {
+        //given
+        final NearCache<Long, String> cache = cache(new LocalInvalidationBus(), 100);
+        cache.get(1L, id -> "Carroten soup");
+        //when
+        nanoTime.addAndGet(Duration.ofSeconds(59).toNanos());
+        final String beforeTtl = cache.get(1L, id -> "Tomato soup");
+        nanoTime.addAndGet(Duration.ofSeconds(2).toNanos());
+        final String afterTtl = cache.get(1L, id -> "Tomato soup");
+        //then
+        assertThat(beforeTtl).isEqualTo("Carroten soup");
+        assertThat(afterTtl).isEqualTo("Tomato soup");
+    }
+
+    @Test
+    void resyncShouldClearEveryCache() {
+        //given
+        final Network.Node node = network.join();
+        final NearCache<Long, String> cache = cache(node, 100);
+        cache.get(1L, id -> "Carroten soup");
+        cache.get(2L, id -> "Tomato soup");
+        //when
+        node.receive(Invalidation.all(Invalidation.ALL_CACHES, ""));
+        //then
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryShouldBeEvicted() {
+        //given
+        final NearCache<Long, String> cache = cache(new LocalInvalidationBus(), 2);
+        cache.get(1L, id -> "Carroten soup");
+        cache.get(2L, id -> "Tomato soup");
+        cache.get(1L, id -> "unused");
+        //when
+        cache.get(3L, id -> "Onion soup");
+        //then
+        assertThat(cache.get(1L, id -> "reloaded")).isEqualTo("Carroten soup");
+        assertThat(cache.get(2L, id -> "reloaded")).isEqualTo("reloaded");
+    }
+
+    @Test
+    void failedLoadShouldNotBeCached() {
+        //given
+        final NearCache<Long, String> cache = cache(new LocalInvalidationBus(), 100);
+        final AtomicInteger loads = new AtomicInteger();
+        //when
+        assertThatThrownBy(() -> cache.get(1L, id -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.get(1L, id -> "Carroten soup" + loads.incrementAndGet());
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private NearCache<Long, String> cache(InvalidationBus bus, int maxEntries) {
+        return new NearCache<>("recipes", maxEntries, Duration.ofMinutes(1), bus, Long::valueOf, null, nanoTime::get);
+    }
+
+    private NearCache<String, String> taggedCache(InvalidationBus bus) {
+        return new NearCache<>("users", 100, Duration.ofMinutes(1), bus, key -> key,
+                value -> value.substring(0, value.indexOf(':')), nanoTime::get);
+    }
+
+    /**
+     * Nodes that deliver every published invalidation to all other nodes before {@code publish} returns.
+     */
+    private static class Network {
+        private final List<Node> nodes = new ArrayList<>();
+
+        Node join() {
+            final Node node = new Node();
+            nodes.add(node);
+            return node;
+        }
+
+        private class Node implements InvalidationBus {
+            private final String nodeId = UUID.randomUUID().toString();
+            private final List<Consumer<Invalidation>> listeners = new ArrayList<>();
+
+            @Override
+            public String nodeId() {
+                return nodeId;
+            }
+
+            @Override
+            public void publish(final Invalidation invalidation) {
+                nodes.stream().filter(node -> node != this).forEach(node -> node.receive(invalidation));
+            }
+
+            @Override
+            public void subscribe(final Consumer<Invalidation> listener) {
+                listeners.add(listener);
+            }
+
+            void receive(Invalidation invalidation) {
+                listeners.forEach(listener -> listener.accept(invalidation));
+            }
+        }
+    }
+}
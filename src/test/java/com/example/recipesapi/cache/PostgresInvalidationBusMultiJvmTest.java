@@ -0,0 +1,152 @@
+package com.example.recipesapi.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several JVMs on one machine sharing a PostgreSQL database, each with a near cache of recipes. This JVM writes,
+ * the others report when each invalidation arrived. It documents what the caches guarantee:
+ * <ul>
+ *     <li>every invalidation reaches every node that was listening when it was sent, in the order it was sent</li>
+ *     <li>the lag from commit to invalidation is typically a few milliseconds, it is asserted to stay below
+ *     {@link #MAX_P99_LAG}; until then other nodes may serve the old value</li>
+ *     <li>a node that wasn't listening clears all its caches once it (re)connects, entries never outlive the ttl</li>
+ * </ul>
+ * Runs only with {@code -Drecipes.test.postgres-url=jdbc:postgresql://localhost:5432/recipes} (and
+ * {@code recipes.test.postgres-username}, {@code recipes.test.postgres-password}).
+ */
+@EnabledIfSystemProperty(named = "recipes.test.postgres-url", matches = ".+")
+@Log4j2
+class PostgresInvalidationBusMultiJvmTest {
+    private static final int NODES = 3;
+    private static final int INVALIDATIONS = 200;
+    private static final Duration MAX_P99_LAG = Duration.ofMillis(250);
+
+    private final List<Process> processes = new ArrayList<>();
+    private PostgresInvalidationBus bus;
+
+    @AfterEach
+    void tearDown() {
+        processes.forEach(Process::destroy);
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    void invalidationsShouldReachEveryNodeInOrder() throws Exception {
+        //given
+        final Map<Integer, BlockingQueue<String>> output = new ConcurrentHashMap<>();
+        for (int node = 0; node < NODES; node++) {
+            output.put(node, start(node));
+        }
+        for (BlockingQueue<String> lines : output.values()) {
+            assertThat(lines.poll(30, TimeUnit.SECONDS)).isEqualTo(Node.READY);
+        }
+        bus = new PostgresInvalidationBus(PostgresInvalidationBusMultiJvmTest::connect, 1000);
+        bus.start();
+        final NearCache<Long, String> writer = new NearCache<>("recipes", 100, Duration.ofMinutes(1), bus, Long::valueOf, null);
+        //when
+        for (long id = 0; id < INVALIDATIONS; id++) {
+            writer.invalidate(id);
+            Thread.sleep(5);
+        }
+        //then
+        final List<Long> lags = new ArrayList<>();
+        for (BlockingQueue<String> lines : output.values()) {
+            for (long id = 0; id < INVALIDATIONS; id++) {
+                final String line = lines.poll(10, TimeUnit.SECONDS);
+                assertThat(line).startsWith(Node.INVALIDATED + " " + id + " ");
+                lags.add(Long.parseLong(line.substring(line.lastIndexOf(' ') + 1)));
+            }
+        }
+        Collections.sort(lags);
+        final long p50 = lags.get(lags.size() / 2);
+        final long p99 = lags.get(lags.size() * 99 / 100);
+        log.info("Invalidation lag over " + NODES + " nodes: p50 " + p50 + " ms, p99 " + p99 + " ms, max "
+                + lags.get(lags.size() - 1) + " ms");
+        assertThat(p99).isLessThan(MAX_P99_LAG.toMillis());
+    }
+
+    private BlockingQueue<String> start(int node) throws IOException {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(java,
+                "-cp", System.getProperty("java.class.path"),
+                "-Drecipes.test.postgres-url=" + System.getProperty("recipes.test.postgres-url"),
+                "-Drecipes.test.postgres-username=" + System.getProperty("recipes.test.postgres-username", ""),
+                "-Drecipes.test.postgres-password=" + System.getProperty("recipes.test.postgres-password", ""),
+                Node.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        processes.add(process);
+        final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        final Thread reader = new Thread(() -> {
+            try (BufferedReader output = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    if (line.startsWith(Node.READY) || line.startsWith(Node.INVALIDATED)) {
+                        lines.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Lost output of node " + node, e);
+            }
+        }, "node-" + node + "-output");
+        reader.setDaemon(true);
+        reader.start();
+        return lines;
+    }
+
+    private static java.sql.Connection connect() throws java.sql.SQLException {
+        return DriverManager.getConnection(System.getProperty("recipes.test.postgres-url"),
+                System.getProperty("recipes.test.postgres-username"),
+                System.getProperty("recipes.test.postgres-password"));
+    }
+
+    /**
+     * Node started in a JVM of its own, prints every recipe invalidation with its lag in ms.
+     */
+    public static class Node {
+        static final String READY = "READY";
+        static final String INVALIDATED = "INVALIDATED";
+
+        public static void main(String[] args) throws Exception {
+            final PostgresInvalidationBus bus = new PostgresInvalidationBus(PostgresInvalidationBusMultiJvmTest::connect, 1000);
+            // Subscribed after the cache, so a line is printed once the cache applied the invalidation.
+            final NearCache<Long, String> cache = new NearCache<>("recipes", 100, Duration.ofMinutes(1), bus, Long::valueOf, null);
+            bus.subscribe(invalidation -> {
+                if (invalidation.getKind() == Invalidation.Kind.KEY) {
+                    System.out.println(INVALIDATED + " " + invalidation.getValue() + " "
+                            + (System.currentTimeMillis() - invalidation.getSentAtMillis()));
+                }
+            });
+            bus.start();
+            // LISTEN is issued right after start, give it a moment before announcing readiness.
+            Thread.sleep(1000);
+            cache.get(0L, id -> "Carroten soup");
+            System.out.println(READY);
+            Thread.sleep(Long.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.recipesapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostgresInvalidationBusTest {
+
+    @Test
+    void parseShouldReadWhatFormatWrote() {
+        //given
+        final Invalidation invalidation = new Invalidation("users", Invalidation.Kind.KEY, "odd|email@test.com", "node-1", 1667304000000L);
+        //when
+        final Invalidation parsed = PostgresInvalidationBus.parse(PostgresInvalidationBus.format(invalidation));
+        //then
+        assertThat(parsed).isEqualTo(invalidation);
+    }
+
+    @Test
+    void parseShouldIgnoreMalformedPayload() {
+        assertThat(PostgresInvalidationBus.parse("node-1|yesterday|users|KEY|1")).isNull();
+        assertThat(PostgresInvalidationBus.parse("node-1|1667304000000|users|SOME|1")).isNull();
+        assertThat(PostgresInvalidationBus.parse("node-1|1667304000000")).isNull();
+    }
+}
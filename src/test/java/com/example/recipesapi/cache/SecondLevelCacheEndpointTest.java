@@ -0,0 +1,72 @@
+package com.example.recipesapi.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.ITERABLE;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheEndpointTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private SessionFactory sessionFactory;
+    @Mock
+    private Statistics statistics;
+    @Mock
+    private CacheRegionStatistics region;
+    private SecondLevelCacheEndpoint endpointUnderTest;
+
+    @BeforeEach
+    void setUp() {
+        given(entityManagerFactory.unwrap(SessionFactory.class)).willReturn(sessionFactory);
+        given(sessionFactory.getStatistics()).willReturn(statistics);
+        given(statistics.getSecondLevelCacheRegionNames()).willReturn(new String[]{"users", "users-by-email"});
+        endpointUnderTest = new SecondLevelCacheEndpoint(entityManagerFactory);
+    }
+
+    @Test
+    void reportShouldSayStatisticsAreDisabledInsteadOfReportingZeros() {
+        //given
+        given(statistics.isStatisticsEnabled()).willReturn(false);
+        //when
+        Map<String, Object> report = endpointUnderTest.report();
+        //then
+        assertThat(report).containsOnlyKeys("statisticsEnabled", "regions");
+        assertThat(report.get("statisticsEnabled")).isEqualTo(false);
+        assertThat(report.get("regions")).asInstanceOf(ITERABLE).containsExactly("users", "users-by-email");
+    }
+
+    @Test
+    void enablingStatisticsShouldStartCountingFromZero() {
+        //given
+        given(statistics.isStatisticsEnabled()).willReturn(false, true);
+        given(statistics.getDomainDataRegionStatistics("users")).willReturn(region);
+        given(statistics.getDomainDataRegionStatistics("users-by-email")).willReturn(region);
+        given(region.getHitCount()).willReturn(3L);
+        given(region.getMissCount()).willReturn(1L);
+        //when
+        Map<String, Object> report = endpointUnderTest.statistics(true);
+        //then
+        verify(statistics).clear();
+        verify(statistics).setStatisticsEnabled(true);
+        assertThat(report.get("statisticsEnabled")).isEqualTo(true);
+        assertThat(report.get("regions")).asInstanceOf(MAP)
+                .extractingByKey("users").asInstanceOf(MAP)
+                .containsEntry("hitRatio", 0.75);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.recipesapi.diagnostics;
+
+import jdk.jfr.RecordingState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrRecordingEndpointTest {
+
+    private final JfrRecordingEndpoint endpointUnderTest = new JfrRecordingEndpoint(60, 10);
+
+    @AfterEach
+    void tearDown() {
+        endpointUnderTest.close();
+    }
+
+    @Test
+    void startShouldBoundDurationByMaximum() {
+        //when
+        Map<String, Object> status = endpointUnderTest.start(3600L, null);
+        //then
+        assertThat(status.get("state")).isEqualTo(RecordingState.RUNNING);
+        assertThat(status.get("duration")).isEqualTo(Duration.ofSeconds(60));
+        assertThat(status.get("maxSizeBytes")).isEqualTo(10L * 1024 * 1024);
+    }
+
+    @Test
+    void startShouldRejectSecondRecordingAndUnknownSettings() {
+        //given
+        endpointUnderTest.start(null, "default");
+        //then
+        assertThatThrownBy(() -> endpointUnderTest.start(null, "default"))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        endpointUnderTest.stop();
+        assertThatThrownBy(() -> endpointUnderTest.start(null, "everything"))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+    }
+
+    @Test
+    void stoppedRecordingShouldBeDownloadable() throws Exception {
+        //given
+        endpointUnderTest.start(null, null);
+        RecipeOperationEvent.start("getRecipeById", 1L).finish(1);
+        endpointUnderTest.stop();
+        //when
+        WebEndpointResponse<Resource> response = endpointUnderTest.download(JfrRecordingEndpoint.FILE_NAME);
+        //then
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(response.getBody().contentLength()).isPositive();
+    }
+
+    @Test
+    void downloadShouldNotDeleteEarlierDumpStillBeingRead() throws Exception {
+        //given
+        endpointUnderTest.start(null, null);
+        endpointUnderTest.stop();
+        Resource first = endpointUnderTest.download(JfrRecordingEndpoint.FILE_NAME).getBody();
+        //when
+        try (InputStream stream = first.getInputStream()) {
+            endpointUnderTest.download(JfrRecordingEndpoint.FILE_NAME).getBody().getInputStream().close();
+            //then
+            assertThat(stream.readAllBytes()).isNotEmpty();
+        }
+        assertThat(first.exists()).isFalse();
+    }
+
+    @Test
+    void downloadWithoutRecordingShouldBeNotFound() {
+        //when
+        WebEndpointResponse<Resource> response = endpointUnderTest.download(JfrRecordingEndpoint.FILE_NAME);
+        //then
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
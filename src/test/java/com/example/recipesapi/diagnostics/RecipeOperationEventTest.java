@@ -0,0 +1,57 @@
+package com.example.recipesapi.diagnostics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeOperationEventTest {
+
+    @Test
+    void finishedEventShouldBeRecordedWithIdAndRows() throws Exception {
+        //given
+        Path file = Files.createTempFile("recipe-operation", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RecipeOperationEvent.class);
+            recording.start();
+            //when
+            RecipeOperationEvent.start("getRecipeById", 7L).finish(1);
+            RecipeOperationEvent.start("getAllRecipes", null).finish(42);
+            recording.stop();
+            recording.dump(file);
+            //then
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events).extracting(event -> event.getString("operation"))
+                    .containsExactly("getRecipeById", "getAllRecipes");
+            assertThat(events).extracting(event -> event.getLong("recipeId")).containsExactly(7L, -1L);
+            assertThat(events).extracting(event -> event.getInt("rows")).containsExactly(1, 42);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void eventsShouldNotBeRecordedWhenDisabled() throws Exception {
+        //given
+        Path file = Files.createTempFile("recipe-operation", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.disable(RecipeOperationEvent.class);
+            recording.start();
+            //when
+            RecipeOperationEvent.start("getRecipeById", 7L).finish(1);
+            recording.stop();
+            recording.dump(file);
+            //then
+            assertThat(RecordingFile.readAllEvents(file))
+                    .noneMatch(event -> event.getEventType().getName().equals(RecipeOperationEvent.NAME));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
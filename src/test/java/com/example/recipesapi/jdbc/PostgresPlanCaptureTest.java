@@ -0,0 +1,27 @@
+package com.example.recipesapi.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostgresPlanCaptureTest {
+
+    @Test
+    void numberPlaceholdersShouldSkipQuotedText() {
+        //given
+        String sql = "select * from recipes where name = ? and description <> '?' and \"category?\" = ?";
+        //when
+        String numbered = PostgresPlanCapture.numberPlaceholders(sql);
+        //then
+        assertThat(numbered).isEqualTo("select * from recipes where name = $1 and description <> '?' and \"category?\" = $2");
+        assertThat(PostgresPlanCapture.countPlaceholders(sql)).isEqualTo(2);
+    }
+
+    @Test
+    void isExplainableShouldAcceptSingleDataStatementsOnly() {
+        assertThat(PostgresPlanCapture.isExplainable("select * from recipes where id = ?")).isTrue();
+        assertThat(PostgresPlanCapture.isExplainable("  update recipes set name = ? where id = ?")).isTrue();
+        assertThat(PostgresPlanCapture.isExplainable("call refresh()")).isFalse();
+        assertThat(PostgresPlanCapture.isExplainable("delete from a;\ndelete from b")).isFalse();
+    }
+}
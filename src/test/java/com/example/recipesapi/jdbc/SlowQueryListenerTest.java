@@ -0,0 +1,100 @@
+package com.example.recipesapi.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SlowQueryListenerTest {
+
+    private static final String SQL = "select r.id from recipes r where r.name=? and r.user_id=?";
+
+    @Mock
+    private SlowQueryLog slowQueryLog;
+    @Mock
+    private PostgresPlanCapture planCapture;
+    private SlowQueryListener listenerUnderTest;
+    private final Instant now = Instant.parse("2022-11-01T12:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        listenerUnderTest = new SlowQueryListener(slowQueryLog, planCapture, 200, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void afterQueryShouldRecordSlowStatementWithRedactedBinds() throws Exception {
+        //given
+        given(slowQueryLog.record(SQL, 250, "[1:String, 2:Long]", now)).willReturn(true);
+        //when
+        listenerUnderTest.afterQuery(execution(250), List.of(query("Carroten soup", 7L)));
+        //then
+        verify(planCapture).captureLater(SQL);
+    }
+
+    @Test
+    void afterQueryShouldNotCaptureKnownStatementAgain() throws Exception {
+        //given
+        given(slowQueryLog.record(eq(SQL), anyLong(), anyString(), any())).willReturn(false);
+        //when
+        listenerUnderTest.afterQuery(execution(250), List.of(query("Carroten soup", 7L)));
+        //then
+        verify(planCapture, never()).captureLater(any());
+    }
+
+    @Test
+    void afterQueryShouldIgnoreFastStatements() throws Exception {
+        //when
+        listenerUnderTest.afterQuery(execution(199), List.of(query("Carroten soup", 7L)));
+        //then
+        verify(slowQueryLog, never()).record(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void redactedBindsShouldNeverContainValues() throws Exception {
+        //when
+        String binds = SlowQueryListener.redactedBinds(List.of(query("secret@example.com", null)));
+        //then
+        assertThat(binds).isEqualTo("[1:String, 2:null]").doesNotContain("secret");
+    }
+
+    private ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        executionInfo.setSuccess(true);
+        return executionInfo;
+    }
+
+    private QueryInfo query(String name, Long userId) throws Exception {
+        QueryInfo queryInfo = new QueryInfo(SQL);
+        queryInfo.getParametersList().add(List.of(
+                new ParameterSetOperation(PreparedStatement.class.getMethod("setString", int.class, String.class),
+                        new Object[]{1, name}),
+                userId == null
+                        ? new ParameterSetOperation(PreparedStatement.class.getMethod("setNull", int.class, int.class),
+                        new Object[]{2, Types.BIGINT})
+                        : new ParameterSetOperation(PreparedStatement.class.getMethod("setLong", int.class, long.class),
+                        new Object[]{2, userId})));
+        return queryInfo;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.recipesapi.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLogUnderTest = new SlowQueryLog(2, 3);
+    private final Instant now = Instant.parse("2022-11-01T12:00:00Z");
+
+    @Test
+    void recordShouldAggregatePerStatementAndAskForPlanOnce() {
+        //when
+        boolean first = slowQueryLogUnderTest.record("select a", 300, "[1:Long]", now);
+        boolean second = slowQueryLogUnderTest.record("select a", 500, "[1:Long]", now.plusSeconds(1));
+        //then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        SlowQueryLog.OffenderView offender = slowQueryLogUnderTest.top(10).get(0);
+        assertThat(offender.getCount()).isEqualTo(2);
+        assertThat(offender.getTotalMillis()).isEqualTo(800);
+        assertThat(offender.getMaxMillis()).isEqualTo(500);
+        assertThat(offender.getAverageMillis()).isEqualTo(400);
+        assertThat(offender.getLastSeen()).isEqualTo(now.plusSeconds(1));
+    }
+
+    @Test
+    void recordShouldEvictCheapestStatementWhenFull() {
+        //given
+        slowQueryLogUnderTest.record("select a", 1000, "[]", now);
+        slowQueryLogUnderTest.record("select b", 300, "[]", now);
+        //when
+        slowQueryLogUnderTest.record("select c", 400, "[]", now);
+        slowQueryLogUnderTest.record("select d", 200, "[]", now);
+        //then
+        assertThat(slowQueryLogUnderTest.top(10)).extracting(SlowQueryLog.OffenderView::getSql)
+                .containsExactly("select a", "select c");
+    }
+
+    @Test
+    void recentShouldKeepLatestExecutionsNewestFirst() {
+        //when
+        for (int i = 0; i < 5; i++) {
+            slowQueryLogUnderTest.record("select " + i, 300, "[]", now.plusSeconds(i));
+        }
+        //then
+        assertThat(slowQueryLogUnderTest.recent()).extracting(SlowQueryLog.Execution::getSql)
+                .containsExactly("select 4", "select 3", "select 2");
+    }
+
+    @Test
+    void attachPlanShouldShowInTop() {
+        //given
+        slowQueryLogUnderTest.record("select a", 300, "[]", now);
+        //when
+        slowQueryLogUnderTest.attachPlan("select a", "Seq Scan on recipes");
+        //then
+        assertThat(slowQueryLogUnderTest.top(1).get(0).getPlan()).isEqualTo("Seq Scan on recipes");
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.recipesapi.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanProcessorTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final AtomicLong clock = new AtomicLong();
+    private TailSamplingSpanProcessor processorUnderTest;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        processorUnderTest = new TailSamplingSpanProcessor(SimpleSpanProcessor.create(exporter),
+                100, 0, 10, 3, 1000, clock::get);
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processorUnderTest).build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void shouldExportWholeTraceWhenRootIsSlow() {
+        //given
+        Span root = start("GET /api/v1/recipe/{id}", null, 0);
+        Span child = start("SELECT", root, 10);
+        child.end(20, TimeUnit.MILLISECONDS);
+        //when
+        root.end(150, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(exporter.getFinishedSpanItems()).extracting(SpanData::getName)
+                .containsExactly("SELECT", "GET /api/v1/recipe/{id}");
+        assertThat(processorUnderTest.getKeptTraces()).isEqualTo(1);
+        assertThat(processorUnderTest.getPendingTraces()).isZero();
+    }
+
+    @Test
+    void shouldDropFastTrace() {
+        //given
+        Span root = start("GET /api/v1/recipe/{id}", null, 0);
+        start("SELECT", root, 10).end(20, TimeUnit.MILLISECONDS);
+        //when
+        root.end(50, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(exporter.getFinishedSpanItems()).isEmpty();
+        assertThat(processorUnderTest.getDroppedTraces()).isEqualTo(1);
+        assertThat(processorUnderTest.getPendingTraces()).isZero();
+    }
+
+    @Test
+    void shouldExportFastTraceWhenChildFailed() {
+        //given
+        Span root = start("PUT /api/v1/recipe/{id}", null, 0);
+        Span child = start("UPDATE", root, 10);
+        child.setStatus(StatusCode.ERROR);
+        child.end(20, TimeUnit.MILLISECONDS);
+        //when
+        root.end(30, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(exporter.getFinishedSpanItems()).hasSize(2);
+    }
+
+    @Test
+    void shouldCapSpansPerTrace() {
+        //given
+        Span root = start("GET /api/v1/recipe", null, 0);
+        for (int i = 0; i < 5; i++) {
+            start("SELECT", root, i).end(i + 1, TimeUnit.MILLISECONDS);
+        }
+        //when
+        root.end(200, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(exporter.getFinishedSpanItems()).hasSize(4);
+    }
+
+    @Test
+    void shouldEvictTracesWhoseRootNeverEnds() {
+        //given
+        Span root = start("GET /api/v1/recipe/feed", null, 0);
+        start("SELECT", root, 0).end(1, TimeUnit.MILLISECONDS);
+        //when
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        start("SELECT", null, 0).end(1, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(processorUnderTest.getPendingTraces()).isZero();
+        assertThat(processorUnderTest.getEvictedTraces()).isEqualTo(1);
+    }
+
+    private Span start(String name, Span parent, long startMillis) {
+        return tracer.spanBuilder(name)
+                .setParent(parent == null ? Context.root() : Context.root().with(parent))
+                .setStartTimestamp(startMillis, TimeUnit.MILLISECONDS)
+                .startSpan();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.recipesapi.v1.recipe.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts from a populated schema as it was before ingredients and directions had an order column.
+ * Runs only with {@code -Drecipes.test.postgres-url=jdbc:postgresql://localhost:5432/recipes} (and
+ * {@code recipes.test.postgres-username}, {@code recipes.test.postgres-password}).
+ */
+@EnabledIfSystemProperty(named = "recipes.test.postgres-url", matches = ".+")
+class RecipeCollectionOrderMigrationTest {
+    private final String schema = "collection_order_test_" + System.nanoTime();
+    private JdbcTemplate admin;
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        admin = new JdbcTemplate(dataSource(null));
+        admin.execute("CREATE SCHEMA " + schema);
+        dataSource = dataSource(schema);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE recipes (id bigserial PRIMARY KEY, name varchar(255))");
+        jdbcTemplate.execute("CREATE TABLE recipe_ingredients (recipe_id bigint NOT NULL REFERENCES recipes, " +
+                "ingredients varchar(255))");
+        jdbcTemplate.execute("CREATE TABLE recipe_directions (recipe_id bigint NOT NULL REFERENCES recipes, " +
+                "directions varchar(255))");
+        jdbcTemplate.update("INSERT INTO recipes (id, name) VALUES (1, 'Soup'), (2, 'Stew')");
+        jdbcTemplate.update("INSERT INTO recipe_ingredients VALUES (1, 'water'), (2, 'beef'), (1, 'salt'), (1, 'leek')");
+        jdbcTemplate.update("INSERT INTO recipe_directions VALUES (1, 'Boil'), (2, 'Braise')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        admin.execute("DROP SCHEMA " + schema + " CASCADE");
+    }
+
+    @Test
+    void migrationShouldNumberRowsBeforeMakingOrderColumnsPrimaryKey() {
+        //when
+        migration().afterPropertiesSet();
+        //then
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT ingredients FROM recipe_ingredients WHERE recipe_id = 1 ORDER BY ingredients_order", String.class))
+                .containsExactly("water", "salt", "leek");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT ingredients_order FROM recipe_ingredients WHERE recipe_id = 2", Integer.class))
+                .containsExactly(0);
+        for (String[] collection : RecipeCollectionOrderMigration.COLLECTIONS) {
+            assertThat(nullable(collection[0], collection[1])).isEqualTo("NO");
+            assertThat(primaryKey(collection[0])).containsExactly("recipe_id", collection[1]);
+        }
+    }
+
+    @Test
+    void migrationShouldDoNothingOnMigratedSchema() {
+        //given
+        migration().afterPropertiesSet();
+        jdbcTemplate.update("INSERT INTO recipe_ingredients VALUES (2, 'onion', 1)");
+        //when
+        migration().afterPropertiesSet();
+        //then
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT ingredients FROM recipe_ingredients WHERE recipe_id = 2 ORDER BY ingredients_order", String.class))
+                .containsExactly("beef", "onion");
+    }
+
+    private RecipeCollectionOrderMigration migration() {
+        return new RecipeCollectionOrderMigration(dataSource,
+                new DefaultListableBeanFactory().getBeanProvider(RecipeVocabularyMigration.class));
+    }
+
+    private String nullable(String table, String column) {
+        return jdbcTemplate.queryForObject("SELECT is_nullable FROM information_schema.columns " +
+                "WHERE table_schema = ? AND table_name = ? AND column_name = ?", String.class, schema, table, column);
+    }
+
+    private List<String> primaryKey(String table) {
+        return jdbcTemplate.queryForList("SELECT k.column_name FROM information_schema.table_constraints c " +
+                "JOIN information_schema.key_column_usage k ON k.constraint_schema = c.constraint_schema " +
+                "AND k.constraint_name = c.constraint_name " +
+                "WHERE c.table_schema = ? AND c.table_name = ? AND c.constraint_type = 'PRIMARY KEY' " +
+                "ORDER BY k.ordinal_position", String.class, schema, table);
+    }
+
+    private static DriverManagerDataSource dataSource(String schema) {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("recipes.test.postgres-url"),
+                System.getProperty("recipes.test.postgres-username"),
+                System.getProperty("recipes.test.postgres-password"));
+        if (schema != null) {
+            final Properties properties = new Properties();
+            properties.setProperty("currentSchema", schema);
+            dataSource.setConnectionProperties(properties);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.recipesapi.v1.recipe.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipePartitionsTest {
+
+    @Test
+    void nameShouldRoundTripToMonth() {
+        //given
+        final YearMonth month = YearMonth.of(2024, 3);
+        //when
+        final String name = RecipePartitions.name(month);
+        //then
+        assertThat(name).isEqualTo("recipes_p2024_03");
+        assertThat(RecipePartitions.month(name)).contains(month);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"recipes_default", "recipes_p2024", "recipes_p2024_13", "recipe_ingredients"})
+    void monthShouldBeEmptyForOtherTables(String name) {
+        //then
+        assertThat(RecipePartitions.month(name)).isEmpty();
+    }
+
+    @Test
+    void boundsShouldCoverWholeMonth() {
+        //when
+        final String december = RecipePartitions.bounds(YearMonth.of(2023, 12));
+        //then
+        assertThat(december).isEqualTo("FOR VALUES FROM ('2023-12-01 00:00:00') TO ('2024-01-01 00:00:00')");
+    }
+
+    @Test
+    void shouldRejectInvalidIdentifier() {
+        //then
+        assertThat(RecipePartitions.checkIdentifier("recipes_archive")).isEqualTo("recipes_archive");
+        assertThatThrownBy(() -> RecipePartitions.checkIdentifier("archive; drop table recipes"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.recipesapi.v1.recipe.repository;
+
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.util.TermDictionary;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read and update cost of the ingredient and direction collections as recipes grow.
+ * Costs are measured in JDBC statements, which unlike wall clock time is stable enough to assert on;
+ * timings are only logged.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TermDictionary.class)
+@Log4j2
+class RecipeCollectionStorageTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50, 200})
+    void readShouldKeepInsertionOrder(int size) {
+        //given
+        final Long id = persistRecipe(size);
+        statistics.clear();
+        //when
+        final long start = System.nanoTime();
+        final Recipe recipe = entityManager.find(Recipe.class, id);
+        final List<String> ingredients = new ArrayList<>(recipe.getIngredients());
+        final List<String> directions = new ArrayList<>(recipe.getDirections());
+        final long elapsed = System.nanoTime() - start;
+        //then
+        log.info("Read recipe with " + size + " ingredients: " + statistics.getPrepareStatementCount()
+                + " statements, " + elapsed / 1000 + " us");
+        assertThat(ingredients).containsExactlyElementsOf(items("ingredient", size));
+        assertThat(directions).containsExactlyElementsOf(items("direction", size));
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50, 200})
+    void appendingIngredientShouldNotRewriteCollection(int size) {
+        //given
+        final Long id = persistRecipe(size);
+        final Recipe recipe = entityManager.find(Recipe.class, id);
+        recipe.getIngredients().size();
+        statistics.clear();
+        //when
+        final long start = System.nanoTime();
+        recipe.getIngredients().add("salt");
+        entityManager.flush();
+        final long elapsed = System.nanoTime() - start;
+        //then
+        log.info("Appended ingredient to recipe with " + size + " ingredients: "
+                + statistics.getPrepareStatementCount() + " statements, " + elapsed / 1000 + " us");
+        // One update of the recipe row (version and date) and one insert of the new ingredient row.
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50, 200})
+    void changingIngredientShouldUpdateSingleRow(int size) {
+        //given
+        final Long id = persistRecipe(size);
+        final Recipe recipe = entityManager.find(Recipe.class, id);
+        recipe.getIngredients().size();
+        statistics.clear();
+        //when
+        recipe.getIngredients().set(size / 2, "pepper");
+        entityManager.flush();
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    private Long persistRecipe(int size) {
+        final Recipe recipe = new Recipe(null,
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                items("ingredient", size),
+                items("direction", size),
+                null, null);
+        final Long id = entityManager.persistAndFlush(recipe).getId();
+        entityManager.clear();
+        return id;
+    }
+
+    private static List<String> items(String prefix, int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> prefix + " " + i)
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.recipesapi.v1.recipe.repository;
+
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.util.TermDictionary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(TermDictionary.class)
+class RecipeVocabularyStorageTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private TermDictionary termDictionary;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void recipesShouldShareVocabularyTerms() {
+        //given
+        persistRecipe("Vocabulary soup", List.of("vocabulary onion", "vocabulary salt"));
+        persistRecipe("Vocabulary stew", List.of("vocabulary salt", "vocabulary onion"));
+        //when
+        Number terms = (Number) entityManager.getEntityManager()
+                .createNativeQuery("select count(*) from vocabulary_terms where term in ('vocabulary onion', 'vocabulary salt')")
+                .getSingleResult();
+        //then
+        assertThat(terms.intValue()).isEqualTo(2);
+    }
+
+    @Test
+    void readShouldReturnSharedInstances() {
+        //given
+        Long first = persistRecipe("Vocabulary soup", List.of("vocabulary pepper"));
+        Long second = persistRecipe("Vocabulary stew", List.of("vocabulary pepper"));
+        //when
+        Recipe soup = entityManager.find(Recipe.class, first);
+        Recipe stew = entityManager.find(Recipe.class, second);
+        //then
+        assertThat(soup.getIngredients()).containsExactly("vocabulary pepper");
+        assertThat(soup.getCategory()).isSameAs(stew.getCategory());
+        assertThat(soup.getIngredients().get(0)).isSameAs(stew.getIngredients().get(0));
+    }
+
+    @Test
+    void findAllByCategoryShouldIgnoreCase() {
+        //given
+        Long id = persistRecipe("Vocabulary soup", List.of("vocabulary leek"));
+        //when
+        List<Recipe> recipes = recipeRepository.findAllByCategoryIgnoreCaseOrderByDateDesc("VOCABULARY CATEGORY");
+        //then
+        assertThat(recipes).extracting(Recipe::getId).containsExactly(id);
+        assertThat(recipeRepository.findAllByCategoryIgnoreCaseOrderByDateDesc("unknown category")).isEmpty();
+    }
+
+    @Test
+    void ingredientsShouldBeCountedOncePerRecipe() {
+        //given
+        persistRecipe("Vocabulary soup", List.of("vocabulary thyme", "vocabulary thyme", "Vocabulary Thyme"));
+        persistRecipe("Vocabulary stew", List.of("vocabulary thyme"));
+        //when
+        List<Object[]> counts = recipeRepository.countByIngredient();
+        long spellings = recipeRepository.countByIngredientIn(List.of("vocabulary thyme", "Vocabulary Thyme"));
+        //then
+        assertThat(counts).filteredOn(row -> "vocabulary thyme".equals(row[0]))
+                .singleElement()
+                .satisfies(row -> assertThat(((Number) row[1]).longValue()).isEqualTo(2));
+        assertThat(counts).filteredOn(row -> "Vocabulary Thyme".equals(row[0]))
+                .singleElement()
+                .satisfies(row -> assertThat(((Number) row[1]).longValue()).isEqualTo(1));
+        assertThat(spellings).isEqualTo(2);
+    }
+
+    @Test
+    void termsShouldBeCommittedBeforeTheRecipe() throws Exception {
+        //given
+        termDictionary.idOf("vocabulary known");
+        int sharedTerms = termDictionary.size();
+        //when
+        persistRecipe("Vocabulary soup", List.of("vocabulary committed"));
+        //then
+        assertThat(termDictionary.size()).isEqualTo(sharedTerms + 1);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("select id from vocabulary_terms where term = ?")) {
+            select.setString(1, "vocabulary committed");
+            try (ResultSet rows = select.executeQuery()) {
+                assertThat(rows.next()).isTrue();
+                assertThat(rows.getInt(1)).isEqualTo(termDictionary.idOf("vocabulary committed"));
+            }
+        }
+    }
+
+    private Long persistRecipe(String name, List<String> ingredients) {
+        final Recipe recipe = new Recipe(null, name, "Description", "Vocabulary category",
+                new ArrayList<>(ingredients), new ArrayList<>(List.of("Cook")), null, null);
+        final Long id = entityManager.persistAndFlush(recipe).getId();
+        entityManager.clear();
+        return id;
+    }
+}
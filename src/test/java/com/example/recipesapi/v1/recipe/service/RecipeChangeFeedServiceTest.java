@@ -0,0 +1,65 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeChangeFeedServiceTest {
+
+    private RecipeChangeFeedService recipeChangeFeedServiceUnderTest;
+
+    @BeforeEach
+    void setUp() {
+        recipeChangeFeedServiceUnderTest = new RecipeChangeFeedService(2, 60_000, 10, 1, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipeChangeFeedServiceUnderTest.shutdown();
+    }
+
+    @Test
+    void subscribeShouldResumeFromEventIdOfThisBoot() {
+        //given
+        recipeChangeFeedServiceUnderTest.onRecipeChange(deleted(1L));
+        recipeChangeFeedServiceUnderTest.onRecipeChange(deleted(2L));
+        //when
+        recipeChangeFeedServiceUnderTest.subscribe(recipeChangeFeedServiceUnderTest.eventId(1), null, null);
+        //then
+        assertThat(recipeChangeFeedServiceUnderTest.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribeShouldResetClientWithEventIdOfAnotherBoot() {
+        //given
+        recipeChangeFeedServiceUnderTest.onRecipeChange(deleted(1L));
+        //when
+        recipeChangeFeedServiceUnderTest.subscribe("previous-1", null, null);
+        recipeChangeFeedServiceUnderTest.subscribe("1", null, null);
+        //then
+        assertThat(recipeChangeFeedServiceUnderTest.subscriberCount()).isZero();
+    }
+
+    @Test
+    void subscribeShouldResetClientThatMissedMoreThanTheBuffer() {
+        //given
+        recipeChangeFeedServiceUnderTest.onRecipeChange(deleted(1L));
+        recipeChangeFeedServiceUnderTest.onRecipeChange(deleted(2L));
+        recipeChangeFeedServiceUnderTest.onRecipeChange(deleted(3L));
+        //when
+        recipeChangeFeedServiceUnderTest.subscribe(recipeChangeFeedServiceUnderTest.eventId(0), null, null);
+        //then
+        assertThat(recipeChangeFeedServiceUnderTest.subscriberCount()).isZero();
+    }
+
+    private static RecipeChangeEvent deleted(Long id) {
+        return RecipeChangeEvent.deleted(new RecipeSnapshot(id, 1L, "Soup", "soup", List.of(), LocalDateTime.now()));
+    }
+}
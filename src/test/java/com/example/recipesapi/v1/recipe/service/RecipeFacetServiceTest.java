@@ -0,0 +1,123 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeFacetsDto;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeFacetServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+    @InjectMocks
+    private RecipeFacetService recipeFacetServiceUnderTest;
+
+    @Test
+    void rebuildShouldMergeCategoriesCaseInsensitively() {
+        //given
+        given(recipeRepository.countByCategory()).willReturn(List.of(
+                new Object[]{"Soup", 2L},
+                new Object[]{"soup", 1L},
+                new Object[]{"dessert", 4L}));
+        given(recipeRepository.countByIngredient()).willReturn(List.of());
+        given(recipeRepository.count()).willReturn(7L);
+        //when
+        recipeFacetServiceUnderTest.rebuild();
+        RecipeFacetsDto facets = recipeFacetServiceUnderTest.getFacets(10);
+        //then
+        assertThat(facets.getTotal()).isEqualTo(7);
+        assertThat(facets.getCategories()).containsExactly(entry("dessert", 4L), entry("soup", 3L));
+    }
+
+    @Test
+    void rebuildShouldCountRecipeOncePerNormalizedIngredientLikeChangeEvents() {
+        //given
+        RecipeSnapshot soup = snapshot("soup", List.of("Salt", "salt ", "Tomato"));
+        given(recipeRepository.countByCategory()).willReturn(List.<Object[]>of(new Object[]{"soup", 1L}));
+        given(recipeRepository.countByIngredient()).willReturn(List.of(
+                new Object[]{"Salt", 1L},
+                new Object[]{"salt ", 1L},
+                new Object[]{"Tomato", 1L},
+                new Object[]{"salt", 1L}));
+        given(recipeRepository.countByIngredientIn(List.of("Salt", "salt ", "salt"))).willReturn(2L);
+        given(recipeRepository.count()).willReturn(3L);
+        //when
+        recipeFacetServiceUnderTest.rebuild();
+        RecipeFacetsDto rebuilt = recipeFacetServiceUnderTest.getFacets(10);
+        recipeFacetServiceUnderTest.onRecipeChange(RecipeChangeEvent.deleted(soup));
+        RecipeFacetsDto afterDelete = recipeFacetServiceUnderTest.getFacets(10);
+        //then
+        assertThat(rebuilt.getTotal()).isEqualTo(3);
+        assertThat(rebuilt.getIngredients()).containsExactly(entry("salt", 2L), entry("tomato", 1L));
+        assertThat(afterDelete.getTotal()).isEqualTo(2);
+        assertThat(afterDelete.getIngredients()).containsExactly(entry("salt", 1L));
+    }
+
+    @Test
+    void getFacetsShouldReturnMostCommonIngredients() {
+        //given
+        recipeFacetServiceUnderTest.onRecipeChange(created(snapshot("soup", List.of("salt", "leek"))));
+        recipeFacetServiceUnderTest.onRecipeChange(created(snapshot("soup", List.of("salt", "beef"))));
+        recipeFacetServiceUnderTest.onRecipeChange(created(snapshot("stew", List.of("salt", "beef"))));
+        recipeFacetServiceUnderTest.onRecipeChange(created(snapshot("stew", List.of("apple"))));
+        //when
+        RecipeFacetsDto facets = recipeFacetServiceUnderTest.getFacets(3);
+        //then
+        assertThat(facets.getIngredients()).containsExactly(entry("salt", 3L), entry("beef", 2L), entry("apple", 1L));
+        assertThat(facets.getCategories()).containsExactly(entry("soup", 2L), entry("stew", 2L));
+    }
+
+    @Test
+    void onRecipeChangeShouldMoveCountsBetweenCategories() {
+        //given
+        RecipeSnapshot soup = snapshot("Soup", List.of("Tomato", "salt"));
+        RecipeSnapshot stew = snapshot("Stew", List.of("tomato", "Beef"));
+        recipeFacetServiceUnderTest.onRecipeChange(
+                new RecipeChangeEvent(RecipeChangeEvent.ChangeType.CREATED, 1L, 1L, null, soup, Instant.now()));
+        //when
+        recipeFacetServiceUnderTest.onRecipeChange(
+                new RecipeChangeEvent(RecipeChangeEvent.ChangeType.UPDATED, 1L, 1L, soup, stew, Instant.now()));
+        RecipeFacetsDto facets = recipeFacetServiceUnderTest.getFacets(10);
+        //then
+        assertThat(facets.getTotal()).isEqualTo(1);
+        assertThat(facets.getCategories()).containsExactly(entry("stew", 1L));
+        assertThat(facets.getIngredients()).containsOnly(entry("beef", 1L), entry("tomato", 1L));
+    }
+
+    @Test
+    void onRecipeChangeShouldDropCategoryWhenLastRecipeIsDeleted() {
+        //given
+        RecipeSnapshot soup = snapshot("soup", List.of("salt", "Salt"));
+        recipeFacetServiceUnderTest.onRecipeChange(
+                new RecipeChangeEvent(RecipeChangeEvent.ChangeType.CREATED, 1L, 1L, null, soup, Instant.now()));
+        //when
+        recipeFacetServiceUnderTest.onRecipeChange(RecipeChangeEvent.deleted(soup));
+        RecipeFacetsDto facets = recipeFacetServiceUnderTest.getFacets(10);
+        //then
+        assertThat(facets.getTotal()).isZero();
+        assertThat(facets.getCategories()).isEmpty();
+        assertThat(facets.getIngredients()).isEmpty();
+    }
+
+    private RecipeChangeEvent created(RecipeSnapshot snapshot) {
+        return new RecipeChangeEvent(RecipeChangeEvent.ChangeType.CREATED, 1L, 1L, null, snapshot, Instant.now());
+    }
+
+    private RecipeSnapshot snapshot(String category, List<String> ingredients) {
+        return new RecipeSnapshot(1L, 1L, "Recipe", category, ingredients, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.exception.CustomNotFoundException;
+import com.example.recipesapi.v1.recipe.exception.UnsupportedImageException;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeImage;
+import com.example.recipesapi.v1.recipe.repository.RecipeImageRepository;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.storage.FileSystemImageStorage;
+import com.example.recipesapi.v1.recipe.storage.StoredImage;
+import com.example.recipesapi.v1.recipe.storage.ThumbnailCache;
+import com.example.recipesapi.v1.recipe.storage.ThumbnailSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeImageServiceTest {
+
+    @TempDir
+    Path directory;
+    @Mock
+    private RecipeImageRepository recipeImageRepository;
+    @Mock
+    private RecipeRepository recipeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private FileSystemImageStorage imageStorage;
+    private ThumbnailCache thumbnailCache;
+    private RecipeImageService recipeImageServiceUnderTest;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStorage = new FileSystemImageStorage(directory.resolve("images"));
+        thumbnailCache = new ThumbnailCache(directory.resolve("thumbnails"), 10_000_000);
+        recipeImageServiceUnderTest = service(1_000_000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        recipeImageServiceUnderTest.shutdown();
+    }
+
+    @Test
+    void uploadShouldStoreImageAndSaveWhereItIsStored() throws Exception {
+        //given
+        byte[] png = png(2000, 1000);
+        given(recipeRepository.existsById(1L)).willReturn(true);
+        given(recipeImageRepository.findById(1L)).willReturn(Optional.empty());
+        given(recipeRepository.getReferenceById(1L)).willReturn(recipe(1L));
+        //when
+        StoredImage stored = recipeImageServiceUnderTest.upload(1L, new ByteArrayInputStream(png));
+        //then
+        ArgumentCaptor<RecipeImage> saved = ArgumentCaptor.forClass(RecipeImage.class);
+        verify(recipeImageRepository).save(saved.capture());
+        assertThat(saved.getValue().getStorageKey()).isEqualTo(stored.getKey());
+        assertThat(saved.getValue().getContentType()).isEqualTo("image/png");
+        assertThat(saved.getValue().getSize()).isEqualTo(png.length);
+        assertThat(Files.readAllBytes(imageStorage.localFile(stored.getKey()).orElseThrow())).isEqualTo(png);
+    }
+
+    @Test
+    void uploadShouldDeletePreviousImage() throws Exception {
+        //given
+        StoredImage previous = imageStorage.save("1", new ByteArrayInputStream(png(10, 10)), 1_000_000);
+        given(recipeRepository.existsById(1L)).willReturn(true);
+        given(recipeImageRepository.findById(1L)).willReturn(Optional.of(image(previous)));
+        //when
+        StoredImage stored = recipeImageServiceUnderTest.upload(1L, new ByteArrayInputStream(png(20, 20)));
+        //then
+        assertThat(imageStorage.localFile(previous.getKey())).isEmpty();
+        assertThat(imageStorage.localFile(stored.getKey())).isPresent();
+    }
+
+    @Test
+    void uploadShouldReplaceImageInsertedByConcurrentUpload() throws Exception {
+        //given
+        StoredImage concurrent = imageStorage.save("1", new ByteArrayInputStream(png(10, 10)), 1_000_000);
+        given(recipeRepository.existsById(1L)).willReturn(true);
+        given(recipeRepository.getReferenceById(1L)).willReturn(recipe(1L));
+        given(recipeImageRepository.findById(1L)).willReturn(Optional.empty(), Optional.of(image(concurrent)));
+        willThrow(new DataIntegrityViolationException("duplicate key")).willDoNothing()
+                .given(transactionManager).commit(any());
+        //when
+        StoredImage stored = recipeImageServiceUnderTest.upload(1L, new ByteArrayInputStream(png(20, 20)));
+        //then
+        ArgumentCaptor<RecipeImage> saved = ArgumentCaptor.forClass(RecipeImage.class);
+        verify(recipeImageRepository, times(2)).save(saved.capture());
+        assertThat(saved.getValue().getStorageKey()).isEqualTo(stored.getKey());
+        assertThat(imageStorage.localFile(concurrent.getKey())).isEmpty();
+        assertThat(imageStorage.localFile(stored.getKey())).isPresent();
+    }
+
+    @Test
+    void uploadShouldRejectImageWithTooManyPixels() throws Exception {
+        //given
+        recipeImageServiceUnderTest.shutdown();
+        recipeImageServiceUnderTest = service(10_000);
+        given(recipeRepository.existsById(1L)).willReturn(true);
+        //when
+        //then
+        assertThatThrownBy(() -> recipeImageServiceUnderTest.upload(1L, new ByteArrayInputStream(png(200, 100))))
+                .isInstanceOf(UnsupportedImageException.class);
+        verify(recipeImageRepository, never()).save(any());
+        assertThat(Files.list(directory.resolve("images"))).isEmpty();
+    }
+
+    @Test
+    void uploadShouldThrowIfRecipeDoesNotExist() {
+        //given
+        given(recipeRepository.existsById(1L)).willReturn(false);
+        //when
+        //then
+        assertThatThrownBy(() -> recipeImageServiceUnderTest.upload(1L, new ByteArrayInputStream(new byte[0])))
+                .isInstanceOf(CustomNotFoundException.class);
+    }
+
+    @Test
+    void getThumbnailShouldScaleLongerSideAndCacheResult() throws Exception {
+        //given
+        StoredImage stored = imageStorage.save("1", new ByteArrayInputStream(png(2000, 1000)), 1_000_000);
+        RecipeImage image = image(stored);
+        //when
+        Path thumbnail = recipeImageServiceUnderTest.getThumbnail(image, ThumbnailSize.SMALL);
+        Path again = recipeImageServiceUnderTest.getThumbnail(image, ThumbnailSize.SMALL);
+        //then
+        BufferedImage read = ImageIO.read(thumbnail.toFile());
+        assertThat(read.getWidth()).isEqualTo(160);
+        assertThat(read.getHeight()).isEqualTo(80);
+        assertThat(again).isEqualTo(thumbnail);
+        assertThat(thumbnailCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void getThumbnailShouldNotUpscaleSmallImages() throws Exception {
+        //given
+        StoredImage stored = imageStorage.save("1", new ByteArrayInputStream(png(100, 50)), 1_000_000);
+        //when
+        Path thumbnail = recipeImageServiceUnderTest.getThumbnail(image(stored), ThumbnailSize.LARGE);
+        //then
+        BufferedImage read = ImageIO.read(thumbnail.toFile());
+        assertThat(read.getWidth()).isEqualTo(100);
+        assertThat(read.getHeight()).isEqualTo(50);
+    }
+
+    @Test
+    void deletedRecipeShouldLoseImagesAndThumbnails() throws Exception {
+        //given
+        StoredImage stored = imageStorage.save("1", new ByteArrayInputStream(png(400, 400)), 1_000_000);
+        recipeImageServiceUnderTest.getThumbnail(image(stored), ThumbnailSize.SMALL);
+        RecipeSnapshot snapshot = new RecipeSnapshot(1L, 2L, "Soup", "soup", List.of(), LocalDateTime.now());
+        //when
+        recipeImageServiceUnderTest.onRecipeChange(RecipeChangeEvent.deleted(snapshot));
+        //then
+        assertThat(imageStorage.localFile(stored.getKey())).isEmpty();
+        assertThat(thumbnailCache.size()).isZero();
+    }
+
+    private RecipeImageService service(long maxPixels) {
+        return new RecipeImageService(recipeImageRepository, recipeRepository,
+                new TransactionTemplate(transactionManager), imageStorage, thumbnailCache,
+                1_000_000, maxPixels, 1, 10_000);
+    }
+
+    private static RecipeImage image(StoredImage stored) {
+        return new RecipeImage(1L, recipe(1L), stored.getKey(), stored.getContentType(), stored.getSize(),
+                stored.getSha256(), LocalDateTime.now());
+    }
+
+    private static Recipe recipe(Long id) {
+        Recipe recipe = new Recipe(null, "Carroten soup", "Delicious tomate soup", "soup",
+                List.of("carrot"), List.of("boil"), null, null);
+        recipe.setId(id);
+        return recipe;
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < width; x++) {
+            image.setRGB(x, x * height / width, 0xff336699);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.recipesapi.v1.recipe.service;
 
 
+import com.example.recipesapi.cache.LocalInvalidationBus;
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
 import com.example.recipesapi.v1.recipe.exception.CustomNotFoundException;
+import com.example.recipesapi.v1.recipe.exception.RecipeVersionMismatchException;
+import com.example.recipesapi.v1.recipe.exception.TooManyIdsException;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
 import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
 import com.example.recipesapi.v1.recipe.model.entity.Recipe;
 import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
@@ -9,24 +15,31 @@ import com.example.recipesapi.v1.recipe.service.RecipeService;
 import com.example.recipesapi.v1.recipe.util.RecipeMapper;
 import com.example.recipesapi.v1.security.model.CustomUserDetails;
 import com.example.recipesapi.v1.security.model.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +55,12 @@ class RecipeServiceTest {
     private CustomUserDetails customUserDetails;
     @Mock
     private User user;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private RecipeLoadCoalescer recipeLoadCoalescer = new RecipeLoadCoalescer(1000);
+    @Spy
+    private RecipeDtoCache recipeDtoCache = new RecipeDtoCache(new LocalInvalidationBus(), 1000, 60000);
     @InjectMocks
     private RecipeService underTestRecipeService;
 
@@ -68,6 +87,30 @@ class RecipeServiceTest {
         assertThat(capturedRecipe).isEqualTo(recipe);
     }
 
+    @Test
+    void addRecipeShouldPublishCreatedEvent() {
+        //given
+        Recipe recipe = new Recipe(1L,
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                List.of("Tomaten", "Peper", "sól"),
+                List.of("Tomaten", "Peper", "sól"),
+                LocalDateTime.now(), null);
+
+        given(authentication.getPrincipal()).willReturn(customUserDetails);
+        //when
+        underTestRecipeService.addRecipe(recipe, authentication);
+        //then
+        ArgumentCaptor<RecipeChangeEvent> eventArgumentCaptor = ArgumentCaptor.forClass(RecipeChangeEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+
+        final RecipeChangeEvent capturedEvent = eventArgumentCaptor.getValue();
+        assertThat(capturedEvent.getType()).isEqualTo(RecipeChangeEvent.ChangeType.CREATED);
+        assertThat(capturedEvent.getRecipeId()).isEqualTo(recipe.getId());
+        assertThat(capturedEvent.getAfter().getCategory()).isEqualTo("soup");
+    }
+
     @Test
     void canGetAllRecipes() {
         //when
@@ -146,6 +189,48 @@ class RecipeServiceTest {
                 .hasMessageContaining("Not found recipe with id: " + id);
     }
 
+    @Test
+    void patchRecipeWillThrowWhenVersionDoesNotMatch() throws Exception {
+        //given
+        Long id = 1L;
+        Recipe recipe = new Recipe(1L,
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                List.of("Tomaten", "Peper", "sól"),
+                List.of("Tomaten", "Peper", "sól"),
+                LocalDateTime.now(), null);
+        recipe.setVersion(3L);
+
+        given(recipeRepository.findById(anyLong())).willReturn(Optional.of(recipe));
+        //when
+        //then
+        assertThatThrownBy(() -> underTestRecipeService.patchRecipe(id,
+                new ObjectMapper().readTree("{\"name\": \"Tomato soup\"}"), 2L))
+                .isInstanceOf(RecipeVersionMismatchException.class);
+
+        verify(recipeRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patchRecipeWillNotSaveWhenNothingChanged() throws Exception {
+        //given
+        Long id = 1L;
+        Recipe recipe = new Recipe(1L,
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                List.of("Tomaten", "Peper", "sól"),
+                List.of("Tomaten", "Peper", "sól"),
+                LocalDateTime.now(), null);
+
+        given(recipeRepository.findById(anyLong())).willReturn(Optional.of(recipe));
+        //when
+        underTestRecipeService.patchRecipe(id, new ObjectMapper().readTree("{\"category\": \"soup\"}"), null);
+        //then
+        verify(recipeRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     void canGetRecipeById() {
         //given
@@ -178,9 +263,8 @@ class RecipeServiceTest {
     }
 
     @Test
-    void getRecipeByIdWillThrowWhenCantFind() {
-        //give
-        Long id = 1L;
+    void getRecipeDtoByIdShouldServeRepeatedCallsFromCache() {
+        //given
         Recipe recipe = new Recipe(1L,
                 "Carroten soup",
                 "Delicious tomate soup",
@@ -188,17 +272,28 @@ class RecipeServiceTest {
                 List.of("Tomaten", "Peper", "sól"),
                 List.of("Tomaten", "Peper", "sól"),
                 LocalDateTime.now(), null);
+        RecipeDto recipeDto = new RecipeDto(
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                List.of("Tomaten", "Peper", "sól"),
+                List.of("Tomaten", "Peper", "sól"),
+                LocalDateTime.now());
 
-        given(recipeRepository.findById(id)).willReturn(Optional.empty());
+        given(recipeRepository.findById(1L)).willReturn(Optional.of(recipe));
+        given(recipeMapper.convertToDto(recipe)).willReturn(recipeDto);
         //when
+        underTestRecipeService.getRecipeDtoById(1L);
+        RecipeDto cached = underTestRecipeService.getRecipeDtoById(1L);
+        recipeDtoCache.onRecipeChange(RecipeChangeEvent.updated(RecipeSnapshot.of(recipe), recipe));
+        underTestRecipeService.getRecipeDtoById(1L);
         //then
-        assertThatThrownBy(() -> underTestRecipeService.getRecipeDtoById(recipe.getId()))
-                .isInstanceOf(CustomNotFoundException.class)
-                .hasMessageContaining("Not found recipe with id: " + id);
+        assertThat(cached).isSameAs(recipeDto);
+        verify(recipeRepository, times(2)).findById(1L);
     }
 
     @Test
-    void canRemoveRecipe() {
+    void canGetRecipesByIdsAndReportMissing() {
         //given
         Recipe recipe = new Recipe(1L,
                 "Carroten soup",
@@ -208,21 +303,39 @@ class RecipeServiceTest {
                 List.of("Tomaten", "Peper", "sól"),
                 LocalDateTime.now(), null);
 
-        given(recipeRepository.findById(recipe.getId())).willReturn(Optional.of(recipe));
+        RecipeDto recipeDto = new RecipeDto(
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                List.of("Tomaten", "Peper", "sól"),
+                List.of("Tomaten", "Peper", "sól"),
+                LocalDateTime.now());
+
+        given(recipeRepository.findAllById(any())).willReturn(List.of(recipe));
+        given(recipeMapper.convertToDto(recipe)).willReturn(recipeDto);
         //when
-        underTestRecipeService.deleteRecipe(recipe.getId());
+        RecipeBatchDto batch = underTestRecipeService.getRecipeDtosByIds(List.of(1L, 2L, 1L));
         //then
-
-        ArgumentCaptor<Long> recipeIdArgumentCaptor = ArgumentCaptor.forClass(Long.class);
-
-        verify(recipeRepository).deleteById(recipeIdArgumentCaptor.capture());
-        final Long capturedId = recipeIdArgumentCaptor.getValue();
-        assertThat(capturedId).isEqualTo(recipe.getId());
+        Assertions.assertThat(batch.getRecipes()).containsOnlyKeys(1L);
+        Assertions.assertThat(batch.getMissing()).containsExactly(2L);
+        verify(recipeRepository, times(1)).findAllById(any());
     }
 
     @Test
-    void removeRecipeWillThrowIfInvalidId() {
+    void getRecipesByIdsWillThrowWhenTooManyIds() {
         //given
+        List<Long> ids = LongStream.rangeClosed(1, RecipeService.MAX_BATCH_SIZE + 1).boxed().toList();
+        //when
+        //then
+        assertThatThrownBy(() -> underTestRecipeService.getRecipeDtosByIds(ids))
+                .isInstanceOf(TooManyIdsException.class);
+        verify(recipeRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getRecipeByIdWillThrowWhenCantFind() {
+        //give
+        Long id = 1L;
         Recipe recipe = new Recipe(1L,
                 "Carroten soup",
                 "Delicious tomate soup",
@@ -231,15 +344,78 @@ class RecipeServiceTest {
                 List.of("Tomaten", "Peper", "sól"),
                 LocalDateTime.now(), null);
 
-        given(recipeRepository.findById(anyLong())).willReturn(Optional.empty());
+        given(recipeRepository.findById(id)).willReturn(Optional.empty());
         //when
         //then
-        assertThatThrownBy(() -> underTestRecipeService.deleteRecipe(recipe.getId()))
+        assertThatThrownBy(() -> underTestRecipeService.getRecipeDtoById(recipe.getId()))
                 .isInstanceOf(CustomNotFoundException.class)
-                .hasMessageContaining("Not found recipe with id: " + recipe.getId());
+                .hasMessageContaining("Not found recipe with id: " + id);
+    }
 
-        verify(recipeRepository, never()).deleteById(any());
+    @Test
+    void canRemoveRecipe() {
+        //given
+        LocalDateTime date = LocalDateTime.now();
+        given(recipeRepository.findSnapshotRows(List.of(1L))).willReturn(List.<Object[]>of(
+                new Object[]{1L, 2L, "Carroten soup", "soup", date}));
+        given(recipeRepository.findIngredientRows(List.of(1L))).willReturn(List.of(
+                new Object[]{1L, "Tomaten"}, new Object[]{1L, "Peper"}));
+        //when
+        underTestRecipeService.deleteRecipe(1L);
+        //then
+        ArgumentCaptor<List<Long>> recipeIdsArgumentCaptor = ArgumentCaptor.forClass(List.class);
+
+        verify(recipeRepository).deleteAllByIdIn(recipeIdsArgumentCaptor.capture(), eq(date));
+        assertThat(recipeIdsArgumentCaptor.getValue()).isEqualTo(List.of(1L));
+        verify(recipeRepository, never()).findById(any());
+
+        ArgumentCaptor<RecipeChangeEvent> eventArgumentCaptor = ArgumentCaptor.forClass(RecipeChangeEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        final RecipeChangeEvent capturedEvent = eventArgumentCaptor.getValue();
+        assertThat(capturedEvent.getType()).isEqualTo(RecipeChangeEvent.ChangeType.DELETED);
+        assertThat(capturedEvent.getBefore().getUserId()).isEqualTo(2L);
+        assertThat(capturedEvent.getBefore().getIngredients()).isEqualTo(List.of("Tomaten", "Peper"));
+    }
 
+    @Test
+    void removeRecipeWillThrowIfInvalidId() {
+        //given
+        given(recipeRepository.findSnapshotRows(List.of(1L))).willReturn(List.of());
+        //when
+        //then
+        assertThatThrownBy(() -> underTestRecipeService.deleteRecipe(1L))
+                .isInstanceOf(CustomNotFoundException.class)
+                .hasMessageContaining("Not found recipe with id: " + 1L);
+
+        verify(recipeRepository, never()).deleteAllByIdIn(any(), any());
+
+    }
+
+    @Test
+    void deleteRecipesOfUserShouldDeleteOneChunk() {
+        //given
+        LocalDateTime date = LocalDateTime.now();
+        given(recipeRepository.findIdsByUserId(eq(2L), any())).willReturn(List.of(1L, 3L));
+        given(recipeRepository.findSnapshotRows(List.of(1L, 3L))).willReturn(List.of(
+                new Object[]{1L, 2L, "Carroten soup", "soup", date},
+                new Object[]{3L, 2L, "Tomato soup", "soup", date}));
+        given(recipeRepository.deleteAllByIdIn(List.of(1L, 3L), date)).willReturn(2);
+        //when
+        int deleted = underTestRecipeService.deleteRecipesOfUser(2L, 2);
+        //then
+        assertThat(deleted).isEqualTo(2);
+        verify(eventPublisher, times(2)).publishEvent(any(RecipeChangeEvent.class));
+    }
+
+    @Test
+    void deleteRecipesOfUserShouldStopWhenNothingLeft() {
+        //given
+        given(recipeRepository.findIdsByUserId(eq(2L), any())).willReturn(List.of());
+        //when
+        int deleted = underTestRecipeService.deleteRecipesOfUser(2L, 2);
+        //then
+        assertThat(deleted).isZero();
+        verify(recipeRepository, never()).deleteAllByIdIn(any(), any());
     }
 
     @Test
@@ -0,0 +1,114 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.exception.CustomNotFoundException;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.SimilarRecipeDto;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeSimilarityServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private RecipeService recipeService;
+    private RecipeSimilarityService recipeSimilarityServiceUnderTest;
+
+    @BeforeEach
+    void setUp() {
+        recipeSimilarityServiceUnderTest = new RecipeSimilarityService(recipeRepository,
+                new TransactionTemplate(transactionManager), recipeService, 40, 3, 1000, 20, 0.25, 2);
+        given(recipeRepository.streamIdAndCategory()).willReturn(Stream.of(
+                new Object[]{1L, "soup"}, new Object[]{2L, "soup"}, new Object[]{3L, "salad"}));
+        given(recipeRepository.streamIdAndIngredient()).willReturn(Stream.of(
+                new Object[]{1L, "tomato"}, new Object[]{1L, "onion"}, new Object[]{1L, "garlic"},
+                new Object[]{2L, "tomato"}, new Object[]{2L, "onion"}, new Object[]{2L, "garlic"},
+                new Object[]{3L, "tomato"}, new Object[]{3L, "onion"}, new Object[]{3L, "garlic"}));
+        recipeSimilarityServiceUnderTest.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipeSimilarityServiceUnderTest.shutdown();
+    }
+
+    @Test
+    void getSimilarShouldReturnPrecomputedNeighborsOfSameCategory() {
+        //given
+        RecipeBatchDto batch = new RecipeBatchDto();
+        batch.getRecipes().put(2L, new RecipeDto());
+        given(recipeService.getRecipeDtosByIds(List.of(2L))).willReturn(batch);
+        //when
+        List<SimilarRecipeDto> similar = recipeSimilarityServiceUnderTest.getSimilar(1L, 10);
+        //then
+        assertThat(similar).extracting(SimilarRecipeDto::getRecipeId).containsExactly(2L);
+        assertThat(similar.get(0).getSimilarity()).isEqualTo(1.0);
+    }
+
+    @Test
+    void changedRecipeShouldBeRecomputedWithItsFormerNeighbors() {
+        //given
+        Recipe changed = new Recipe(null, "Stew", "Hearty stew", "soup", List.of("beef", "potato", "leek"),
+                List.of("simmer"), null, null);
+        changed.setId(2L);
+        recipeSimilarityServiceUnderTest.onRecipeChange(RecipeChangeEvent.updated(
+                snapshot(2L, "soup", List.of("tomato", "onion", "garlic")), changed));
+        //when
+        recipeSimilarityServiceUnderTest.refresh();
+        //then
+        assertThat(recipeSimilarityServiceUnderTest.getSimilar(1L, 10)).isEmpty();
+        assertThat(recipeSimilarityServiceUnderTest.getSimilar(2L, 10)).isEmpty();
+    }
+
+    @Test
+    void deletedRecipeShouldDisappearFromNeighbors() {
+        //given
+        recipeSimilarityServiceUnderTest.onRecipeChange(RecipeChangeEvent.deleted(
+                snapshot(2L, "soup", List.of("tomato", "onion", "garlic"))));
+        willThrow(new CustomNotFoundException("Not found recipe with id: 2")).given(recipeService).getRecipeById(2L);
+        //when
+        recipeSimilarityServiceUnderTest.refresh();
+        //then
+        assertThat(recipeSimilarityServiceUnderTest.getSimilar(1L, 10)).isEmpty();
+        assertThatThrownBy(() -> recipeSimilarityServiceUnderTest.getSimilar(2L, 10))
+                .isInstanceOf(CustomNotFoundException.class);
+    }
+
+    @Test
+    void neighborsMissingFromDatabaseShouldBeSkipped() {
+        //given
+        given(recipeService.getRecipeDtosByIds(anyCollection())).willReturn(new RecipeBatchDto());
+        //when
+        List<SimilarRecipeDto> similar = recipeSimilarityServiceUnderTest.getSimilar(1L, 10);
+        //then
+        assertThat(similar).isEmpty();
+    }
+
+    private static RecipeSnapshot snapshot(Long id, String category, List<String> ingredients) {
+        return new RecipeSnapshot(id, 1L, "Soup", category, ingredients, LocalDateTime.now());
+    }
+}
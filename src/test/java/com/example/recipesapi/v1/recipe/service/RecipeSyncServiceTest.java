@@ -0,0 +1,190 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.exception.InvalidCursorException;
+import com.example.recipesapi.v1.recipe.exception.SlowCommitException;
+import com.example.recipesapi.v1.recipe.exception.SyncCursorExpiredException;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeChangesDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeSyncEntryDto;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.example.recipesapi.v1.recipe.model.entity.RecipeTombstone;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.recipe.repository.RecipeTombstoneRepository;
+import com.example.recipesapi.v1.recipe.util.RecipeMapper;
+import com.example.recipesapi.v1.recipe.util.SyncCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeSyncServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+    @Mock
+    private RecipeTombstoneRepository recipeTombstoneRepository;
+    @Mock
+    private RecipeMapper recipeMapper;
+    private RecipeSyncService recipeSyncServiceUnderTest;
+
+    private final LocalDateTime now = LocalDateTime.of(2022, 11, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        recipeSyncServiceUnderTest = new RecipeSyncService(recipeRepository, recipeTombstoneRepository, recipeMapper,
+                0, 30);
+    }
+
+    @Test
+    void getChangesSinceShouldMergeUpsertsAndTombstonesInOrder() {
+        //given
+        given(recipeRepository.findChangedAfter(any(), any(), any(), any())).willReturn(List.of(
+                recipe(1L, now.minusMinutes(3)),
+                recipe(3L, now.minusMinutes(1))));
+        given(recipeTombstoneRepository.findDeletedAfter(any(), any(), any(), any())).willReturn(List.of(
+                new RecipeTombstone(2L, 1L, now.minusMinutes(2))));
+        //when
+        RecipeChangesDto changes = recipeSyncServiceUnderTest.getChangesSince(null, 10);
+        //then
+        assertThat(changes.getChanges()).extracting(RecipeSyncEntryDto::getId).containsExactly(1L, 2L, 3L);
+        assertThat(changes.getChanges()).extracting(RecipeSyncEntryDto::isDeleted).containsExactly(false, true, false);
+        assertThat(changes.isHasMore()).isFalse();
+        assertThat(SyncCursor.decode(changes.getNextCursor())).isEqualTo(new SyncCursor(now.minusMinutes(1), 3L));
+    }
+
+    @Test
+    void getChangesSinceShouldCutPageAndReportMore() {
+        //given
+        given(recipeRepository.findChangedAfter(any(), any(), any(), any())).willReturn(List.of(
+                recipe(1L, now.minusMinutes(3)),
+                recipe(3L, now.minusMinutes(1))));
+        given(recipeTombstoneRepository.findDeletedAfter(any(), any(), any(), any())).willReturn(List.of(
+                new RecipeTombstone(2L, 1L, now.minusMinutes(2))));
+        //when
+        RecipeChangesDto changes = recipeSyncServiceUnderTest.getChangesSince(null, 2);
+        //then
+        assertThat(changes.getChanges()).extracting(RecipeSyncEntryDto::getId).containsExactly(1L, 2L);
+        assertThat(changes.isHasMore()).isTrue();
+        assertThat(SyncCursor.decode(changes.getNextCursor())).isEqualTo(new SyncCursor(now.minusMinutes(2), 2L));
+    }
+
+    @Test
+    void getChangesSinceShouldKeepCursorWhenNothingChanged() {
+        //given
+        String since = new SyncCursor(now, 5L).encode();
+        //when
+        RecipeChangesDto changes = recipeSyncServiceUnderTest.getChangesSince(since, 10);
+        //then
+        assertThat(changes.getChanges()).isEmpty();
+        assertThat(changes.getNextCursor()).isEqualTo(since);
+    }
+
+    @Test
+    void getChangesSinceShouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> recipeSyncServiceUnderTest.getChangesSince("not a cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void getChangesSinceShouldRejectCursorOlderThanKeptTombstones() {
+        //given
+        String since = new SyncCursor(LocalDateTime.now().minusDays(40), 5L).encode();
+        given(recipeTombstoneRepository.findOldestDeletedAt()).willReturn(LocalDateTime.now().minusDays(35));
+        //when
+        //then
+        assertThatThrownBy(() -> recipeSyncServiceUnderTest.getChangesSince(since, 10))
+                .isInstanceOf(SyncCursorExpiredException.class);
+    }
+
+    @Test
+    void purgeTombstonesShouldKeepNewestExpiredTombstone() {
+        //given
+        LocalDateTime newestExpired = LocalDateTime.now().minusDays(31);
+        given(recipeTombstoneRepository.findNewestDeletedAtBefore(any())).willReturn(newestExpired);
+        //when
+        recipeSyncServiceUnderTest.purgeTombstones();
+        //then
+        verify(recipeTombstoneRepository).deleteAllDeletedBefore(newestExpired);
+    }
+
+    @Test
+    void checkCommitDelayShouldRejectChangeStampedBeforeTheWindow() {
+        //given
+        recipeSyncServiceUnderTest = new RecipeSyncService(recipeRepository, recipeTombstoneRepository, recipeMapper,
+                1000, 30);
+        RecipeSnapshot stale = new RecipeSnapshot(7L, 1L, "Soup", "soup", List.of(),
+                LocalDateTime.now().minusSeconds(5));
+        RecipeSnapshot fresh = new RecipeSnapshot(8L, 1L, "Soup", "soup", List.of(), LocalDateTime.now());
+        //when
+        recipeSyncServiceUnderTest.checkCommitDelay(
+                new RecipeChangeEvent(RecipeChangeEvent.ChangeType.CREATED, 8L, 1L, null, fresh, Instant.now()));
+        //then
+        assertThatThrownBy(() -> recipeSyncServiceUnderTest.checkCommitDelay(
+                new RecipeChangeEvent(RecipeChangeEvent.ChangeType.UPDATED, 7L, 1L, stale, stale, Instant.now())))
+                .isInstanceOf(SlowCommitException.class);
+    }
+
+    @Test
+    void recordTombstoneShouldSaveOnlyDeletes() {
+        //given
+        RecipeSnapshot snapshot = new RecipeSnapshot(7L, 1L, "Soup", "soup", List.of(), now);
+        RecipeChangeEvent updated = new RecipeChangeEvent(
+                RecipeChangeEvent.ChangeType.UPDATED, 7L, 1L, snapshot, snapshot, Instant.now());
+        //when
+        recipeSyncServiceUnderTest.recordTombstone(updated);
+        recipeSyncServiceUnderTest.recordTombstone(RecipeChangeEvent.deleted(snapshot));
+        //then
+        ArgumentCaptor<RecipeTombstone> tombstoneArgumentCaptor = ArgumentCaptor.forClass(RecipeTombstone.class);
+        verify(recipeTombstoneRepository).save(tombstoneArgumentCaptor.capture());
+        assertThat(tombstoneArgumentCaptor.getValue().getRecipeId()).isEqualTo(7L);
+    }
+
+    @Test
+    void recordTombstoneShouldSaveArchivedRecipes() {
+        //given
+        RecipeSnapshot snapshot = new RecipeSnapshot(7L, 1L, "Soup", "soup", List.of(), now);
+        //when
+        recipeSyncServiceUnderTest.recordTombstone(RecipeChangeEvent.archived(snapshot));
+        //then
+        ArgumentCaptor<RecipeTombstone> tombstoneArgumentCaptor = ArgumentCaptor.forClass(RecipeTombstone.class);
+        verify(recipeTombstoneRepository).save(tombstoneArgumentCaptor.capture());
+        assertThat(tombstoneArgumentCaptor.getValue().getRecipeId()).isEqualTo(7L);
+    }
+
+    @Test
+    void recordTombstoneShouldIgnoreCreates() {
+        //given
+        RecipeSnapshot snapshot = new RecipeSnapshot(7L, 1L, "Soup", "soup", List.of(), now);
+        RecipeChangeEvent created = new RecipeChangeEvent(
+                RecipeChangeEvent.ChangeType.CREATED, 7L, 1L, null, snapshot, Instant.now());
+        //when
+        recipeSyncServiceUnderTest.recordTombstone(created);
+        //then
+        verify(recipeTombstoneRepository, never()).save(any());
+    }
+
+    private Recipe recipe(Long id, LocalDateTime date) {
+        return new Recipe(id,
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                List.of("Tomaten", "Peper", "sól"),
+                List.of("Tomaten", "Peper", "sól"),
+                date, null);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.recipesapi.v1.recipe.service;
+
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeBatchDto;
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
+import com.example.recipesapi.v1.recipe.model.dto.TrendingRecipeDto;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeViewServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private RecipeService recipeService;
+    private RecipeViewService recipeViewServiceUnderTest;
+
+    @BeforeEach
+    void setUp() {
+        recipeViewServiceUnderTest = new RecipeViewService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                recipeService, 10, 3_600_000);
+    }
+
+    @Test
+    void flushShouldWriteAllViewsInOneBatchOrderedById() {
+        //given
+        recipeViewServiceUnderTest.recordView(2L);
+        recipeViewServiceUnderTest.recordView(1L);
+        recipeViewServiceUnderTest.recordView(2L);
+        given(jdbcTemplate.batchUpdate(eq(RecipeViewService.UPDATE_SQL), anyList())).willReturn(new int[]{1, 1});
+        //when
+        recipeViewServiceUnderTest.flush();
+        //then
+        assertThat(capturedBatch(RecipeViewService.UPDATE_SQL, 1).get(0))
+                .containsExactly(new Object[]{1L, 1L}, new Object[]{2L, 2L});
+        verify(jdbcTemplate, never()).batchUpdate(eq(RecipeViewService.INSERT_SQL), anyList());
+    }
+
+    @Test
+    void flushShouldInsertCountsOfRecipesViewedForTheFirstTime() {
+        //given
+        recipeViewServiceUnderTest.recordView(1L);
+        recipeViewServiceUnderTest.recordView(2L);
+        given(jdbcTemplate.batchUpdate(eq(RecipeViewService.UPDATE_SQL), anyList())).willReturn(new int[]{1, 0});
+        //when
+        recipeViewServiceUnderTest.flush();
+        //then
+        assertThat(capturedBatch(RecipeViewService.INSERT_SQL, 1).get(0))
+                .containsExactly(new Object[]{1L, 2L});
+    }
+
+    @Test
+    void failedFlushShouldBeRetriedWithoutLosingViews() {
+        //given
+        recipeViewServiceUnderTest.recordView(1L);
+        given(jdbcTemplate.batchUpdate(eq(RecipeViewService.UPDATE_SQL), anyList()))
+                .willThrow(new DataAccessResourceFailureException("connection refused"))
+                .willReturn(new int[]{1});
+        recipeViewServiceUnderTest.flush();
+        recipeViewServiceUnderTest.recordView(1L);
+        //when
+        recipeViewServiceUnderTest.flush();
+        //then
+        assertThat(capturedBatch(RecipeViewService.UPDATE_SQL, 2).get(1))
+                .containsExactly(new Object[]{2L, 1L});
+    }
+
+    @Test
+    void flushShouldDropCountersItTook() {
+        //given
+        recipeViewServiceUnderTest.recordView(1L);
+        recipeViewServiceUnderTest.recordView(2L);
+        given(jdbcTemplate.batchUpdate(eq(RecipeViewService.UPDATE_SQL), anyList())).willReturn(new int[]{1, 1});
+        //when
+        recipeViewServiceUnderTest.flush();
+        recipeViewServiceUnderTest.recordView(2L);
+        //then
+        assertThat(recipeViewServiceUnderTest.pendingRecipes()).isEqualTo(1);
+    }
+
+    @Test
+    void flushWithoutViewsShouldNotTouchTheDatabase() {
+        //when
+        recipeViewServiceUnderTest.flush();
+        //then
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void trendingShouldReturnMostViewedRecipesAfterFlush() {
+        //given
+        for (int i = 0; i < 3; i++) {
+            recipeViewServiceUnderTest.recordView(2L);
+        }
+        recipeViewServiceUnderTest.recordView(1L);
+        given(jdbcTemplate.batchUpdate(eq(RecipeViewService.UPDATE_SQL), anyList())).willReturn(new int[]{1, 1});
+        recipeViewServiceUnderTest.flush();
+        given(recipeService.getRecipeDtosByIds(List.of(2L, 1L)))
+                .willReturn(new RecipeBatchDto(Map.of(1L, new RecipeDto(), 2L, new RecipeDto()), new ArrayList<>()));
+        //when
+        List<TrendingRecipeDto> trending = recipeViewServiceUnderTest.getTrending(10);
+        //then
+        assertThat(trending).extracting(TrendingRecipeDto::getRecipeId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void deletedRecipeShouldBeDroppedFromTrendingAndPendingViews() {
+        //given
+        recipeViewServiceUnderTest.recordView(1L);
+        given(jdbcTemplate.batchUpdate(eq(RecipeViewService.UPDATE_SQL), anyList())).willReturn(new int[]{1});
+        recipeViewServiceUnderTest.flush();
+        recipeViewServiceUnderTest.recordView(1L);
+        RecipeChangeEvent deleted = RecipeChangeEvent.deleted(RecipeSnapshot.of(recipe(1L)));
+        //when
+        recipeViewServiceUnderTest.deleteViewCount(deleted);
+        recipeViewServiceUnderTest.forgetDeletedRecipe(deleted);
+        recipeViewServiceUnderTest.flush();
+        //then
+        verify(jdbcTemplate).update(RecipeViewService.DELETE_SQL, 1L);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(RecipeViewService.UPDATE_SQL), anyList());
+        assertThat(recipeViewServiceUnderTest.getTrending(10)).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> capturedBatch(String sql, int calls) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(calls)).batchUpdate(eq(sql), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static Recipe recipe(Long id) {
+        return new Recipe(id, "Soup", "Hot", "soup", List.of("water"), List.of("boil"), LocalDateTime.now(), null);
+    }
+}
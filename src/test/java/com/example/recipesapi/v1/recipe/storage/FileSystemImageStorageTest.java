@@ -0,0 +1,133 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import com.example.recipesapi.v1.recipe.exception.ImageTooLargeException;
+import com.example.recipesapi.v1.recipe.exception.UnsupportedImageException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemImageStorageTest {
+
+    @TempDir
+    Path directory;
+    private FileSystemImageStorage storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new FileSystemImageStorage(directory);
+    }
+
+    @Test
+    void saveShouldStoreContentUnderHashedKey() throws Exception {
+        //given
+        byte[] png = image(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a}, 20_000);
+        //when
+        StoredImage stored = storage.save("1", new ByteArrayInputStream(png), 100_000);
+        //then
+        assertThat(stored.getKey()).startsWith("1-").hasSize(2 + 16);
+        assertThat(stored.getContentType()).isEqualTo("image/png");
+        assertThat(stored.getSize()).isEqualTo(png.length);
+        assertThat(stored.getSha256()).startsWith(stored.getKey().substring(2));
+        assertThat(Files.readAllBytes(storage.localFile(stored.getKey()).orElseThrow())).isEqualTo(png);
+        assertThat(fileCount()).isEqualTo(1);
+    }
+
+    @Test
+    void openShouldReadFromAnyPosition() throws Exception {
+        //given
+        byte[] jpeg = image(new byte[]{(byte) 0xff, (byte) 0xd8, (byte) 0xff}, 1000);
+        StoredImage stored = storage.save("2", new ByteArrayInputStream(jpeg), 100_000);
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+        //when
+        try (SeekableByteChannel channel = storage.open(stored.getKey())) {
+            channel.position(500);
+            channel.read(buffer);
+        }
+        //then
+        assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(jpeg, 500, 510));
+    }
+
+    @Test
+    void saveShouldRejectTooLargeImageAndCleanUp() throws Exception {
+        //given
+        byte[] gif = image("GIF89a".getBytes(), 20_000);
+        //when
+        //then
+        assertThatThrownBy(() -> storage.save("3", new ByteArrayInputStream(gif), 10_000))
+                .isInstanceOf(ImageTooLargeException.class);
+        assertThat(fileCount()).isZero();
+    }
+
+    @Test
+    void saveShouldRejectContentThatIsNoImage() throws Exception {
+        //given
+        byte[] html = "<html><body>not an image</body></html>".getBytes();
+        //when
+        //then
+        assertThatThrownBy(() -> storage.save("4", new ByteArrayInputStream(html), 10_000))
+                .isInstanceOf(UnsupportedImageException.class);
+        assertThat(fileCount()).isZero();
+    }
+
+    @Test
+    void deleteAllShouldDeleteOnlyImagesOfThePrefix() throws Exception {
+        //given
+        byte[] first = image("GIF87a".getBytes(), 100);
+        byte[] second = image("GIF89a".getBytes(), 100);
+        StoredImage old = storage.save("5", new ByteArrayInputStream(first), 10_000);
+        StoredImage replaced = storage.save("5", new ByteArrayInputStream(second), 10_000);
+        StoredImage other = storage.save("50", new ByteArrayInputStream(first), 10_000);
+        //when
+        storage.deleteAll("5");
+        //then
+        assertThat(storage.localFile(old.getKey())).isEmpty();
+        assertThat(storage.localFile(replaced.getKey())).isEmpty();
+        assertThat(storage.localFile(other.getKey())).isPresent();
+    }
+
+    @Test
+    void deleteAllShouldKeepUploadsInProgress() throws Exception {
+        //given
+        StoredImage stored = storage.save("6", new ByteArrayInputStream(image("GIF87a".getBytes(), 100)), 10_000);
+        Path upload = Files.createTempFile(directory, "6-", ".upload");
+        //when
+        storage.deleteAll("6");
+        //then
+        assertThat(storage.localFile(stored.getKey())).isEmpty();
+        assertThat(upload).exists();
+    }
+
+    @Test
+    void shouldRejectKeysOutsideTheDirectory() {
+        //when
+        //then
+        assertThatThrownBy(() -> storage.open("../secret")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] image(byte[] signature, int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        System.arraycopy(signature, 0, content, 0, signature.length);
+        return content;
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
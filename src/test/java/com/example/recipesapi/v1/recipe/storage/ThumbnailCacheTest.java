@@ -0,0 +1,81 @@
+package com.example.recipesapi.v1.recipe.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void putShouldEvictLeastRecentlyUsedThumbnails() throws Exception {
+        //given
+        ThumbnailCache cache = new ThumbnailCache(directory, 250);
+        put(cache, "1-a-small.jpg", 100);
+        put(cache, "2-b-small.jpg", 100);
+        cache.get("1-a-small.jpg");
+        //when
+        put(cache, "3-c-small.jpg", 100);
+        //then
+        assertThat(cache.get("1-a-small.jpg")).isPresent();
+        assertThat(cache.get("2-b-small.jpg")).isEmpty();
+        assertThat(cache.get("3-c-small.jpg")).isPresent();
+        assertThat(Files.exists(directory.resolve("2-b-small.jpg"))).isFalse();
+        assertThat(cache.totalBytes()).isEqualTo(200);
+    }
+
+    @Test
+    void putShouldReplaceThumbnailWithSameName() throws Exception {
+        //given
+        ThumbnailCache cache = new ThumbnailCache(directory, 1000);
+        put(cache, "1-a-small.jpg", 100);
+        //when
+        put(cache, "1-a-small.jpg", 300);
+        //then
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.totalBytes()).isEqualTo(300);
+    }
+
+    @Test
+    void removeAllShouldRemoveThumbnailsOfPrefix() throws Exception {
+        //given
+        ThumbnailCache cache = new ThumbnailCache(directory, 1000);
+        put(cache, "1-a-small.jpg", 100);
+        put(cache, "1-a-large.jpg", 100);
+        put(cache, "10-b-small.jpg", 100);
+        //when
+        cache.removeAll("1-a-");
+        //then
+        assertThat(cache.get("1-a-small.jpg")).isEmpty();
+        assertThat(cache.get("1-a-large.jpg")).isEmpty();
+        assertThat(cache.get("10-b-small.jpg")).isPresent();
+        assertThat(cache.totalBytes()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldPickUpThumbnailsOfEarlierRunAndDropUnfinishedOnes() throws Exception {
+        //given
+        Files.write(directory.resolve("1-a-small.jpg"), new byte[100]);
+        Files.write(directory.resolve("2-b-small.jpg-123" + ThumbnailCache.TEMP_SUFFIX), new byte[100]);
+        //when
+        ThumbnailCache cache = new ThumbnailCache(directory, 1000);
+        //then
+        assertThat(cache.get("1-a-small.jpg")).isPresent();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.totalBytes()).isEqualTo(100);
+        assertThat(Files.exists(directory.resolve("2-b-small.jpg-123" + ThumbnailCache.TEMP_SUFFIX))).isFalse();
+    }
+
+    private static void put(ThumbnailCache cache, String name, int size) throws IOException {
+        Path temp = cache.createTempFile(name);
+        Files.write(temp, new byte[size]);
+        cache.put(name, temp);
+    }
+}
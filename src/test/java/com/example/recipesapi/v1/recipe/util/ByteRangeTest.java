@@ -0,0 +1,56 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteRangeTest {
+
+    @Test
+    void shouldParseClosedRange() {
+        //when
+        ByteRange range = ByteRange.parse("bytes=100-199", 1000);
+        //then
+        assertThat(range).isEqualTo(new ByteRange(100, 199, true));
+        assertThat(range.length()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldClampEndToContentLength() {
+        //when
+        ByteRange open = ByteRange.parse("bytes=900-", 1000);
+        ByteRange tooLong = ByteRange.parse("bytes=900-5000", 1000);
+        //then
+        assertThat(open).isEqualTo(new ByteRange(900, 999, true));
+        assertThat(tooLong).isEqualTo(new ByteRange(900, 999, true));
+    }
+
+    @Test
+    void shouldParseSuffixRange() {
+        //when
+        ByteRange lastBytes = ByteRange.parse("bytes=-100", 1000);
+        ByteRange moreThanContent = ByteRange.parse("bytes=-5000", 1000);
+        //then
+        assertThat(lastBytes).isEqualTo(new ByteRange(900, 999, true));
+        assertThat(moreThanContent).isEqualTo(new ByteRange(0, 999, true));
+    }
+
+    @Test
+    void rangeStartingAfterContentShouldNotBeSatisfiable() {
+        //when
+        ByteRange range = ByteRange.parse("bytes=1000-", 1000);
+        //then
+        assertThat(range.isSatisfiable()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "items=0-10", "bytes=", "bytes=-", "bytes=10-5", "bytes=a-b", "bytes=0-10,20-30"})
+    void shouldIgnoreInvalidOrMultipleRanges(String header) {
+        //when
+        ByteRange range = ByteRange.parse(header, 1000);
+        //then
+        assertThat(range).isNull();
+    }
+}
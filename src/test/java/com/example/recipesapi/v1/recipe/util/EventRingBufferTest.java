@@ -0,0 +1,68 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventRingBufferTest {
+
+    @Test
+    void readAfterShouldReturnEntriesInSequenceOrder() {
+        //given
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(4);
+        buffer.append("a");
+        buffer.append("b");
+        buffer.append("c");
+        //when
+        EventRingBuffer.Slice<String> slice = buffer.readAfter(1, 10);
+        //then
+        assertThat(slice.isGap()).isFalse();
+        assertThat(slice.getEntries()).extracting(EventRingBuffer.Entry::getValue).containsExactly("b", "c");
+        assertThat(slice.getEntries()).extracting(EventRingBuffer.Entry::getSequence).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void readAfterShouldReportGapWhenEntriesWereOverwritten() {
+        //given
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(2);
+        List.of("a", "b", "c", "d").forEach(buffer::append);
+        //when
+        EventRingBuffer.Slice<String> slice = buffer.readAfter(0, 10);
+        //then
+        assertThat(slice.isGap()).isTrue();
+        assertThat(slice.getEntries()).extracting(EventRingBuffer.Entry::getValue).containsExactly("c", "d");
+    }
+
+    @Test
+    void readAfterShouldRespectMax() {
+        //given
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(8);
+        List.of("a", "b", "c", "d").forEach(buffer::append);
+        //when
+        EventRingBuffer.Slice<String> slice = buffer.readAfter(0, 2);
+        //then
+        assertThat(slice.isGap()).isFalse();
+        assertThat(slice.getEntries()).extracting(EventRingBuffer.Entry::getValue).containsExactly("a", "b");
+    }
+
+    @Test
+    void readAfterLastSequenceShouldBeEmpty() {
+        //given
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(2);
+        buffer.append("a");
+        //when
+        EventRingBuffer.Slice<String> slice = buffer.readAfter(buffer.lastSequence(), 10);
+        //then
+        assertThat(slice.isGap()).isFalse();
+        assertThat(slice.getEntries()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThatThrownBy(() -> new EventRingBuffer<String>(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
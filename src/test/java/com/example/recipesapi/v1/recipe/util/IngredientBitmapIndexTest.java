@@ -0,0 +1,77 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientBitmapIndexTest {
+
+    private IngredientBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IngredientBitmapIndex();
+        index.add(1L, List.of("Tomato", "Onion", "Salt"));
+        index.add(2L, List.of("tomato", "Beef"));
+        index.add(3L, List.of("Onion", "Carrot"));
+        index.add(4L, List.of());
+    }
+
+    @Test
+    void queryAllShouldIntersect() {
+        assertThat(ids(index.query(List.of("tomato", "ONION"), List.of(), List.of()))).containsExactly(1);
+    }
+
+    @Test
+    void queryAnyShouldUnite() {
+        assertThat(ids(index.query(List.of(), List.of("beef", "carrot"), List.of()))).containsExactly(2, 3);
+    }
+
+    @Test
+    void queryNoneShouldExcludeFromAllRecipes() {
+        assertThat(ids(index.query(List.of(), List.of(), List.of("onion")))).containsExactly(2, 4);
+    }
+
+    @Test
+    void queryWithUnknownRequiredIngredientShouldBeEmpty() {
+        assertThat(ids(index.query(List.of("tomato", "saffron"), List.of(), List.of()))).isEmpty();
+    }
+
+    @Test
+    void queryShouldCombineAllAnyAndNone() {
+        assertThat(ids(index.query(List.of("tomato"), List.of("salt", "beef"), List.of("beef")))).containsExactly(1);
+    }
+
+    @Test
+    void removeShouldDropRecipeAndEmptyIngredients() {
+        //when
+        index.remove(2L, List.of("tomato", "Beef"));
+        //then
+        assertThat(ids(index.query(List.of("tomato"), List.of(), List.of()))).containsExactly(1);
+        assertThat(index.recipeCount()).isEqualTo(3);
+        assertThat(index.ingredientCount()).isEqualTo(4);
+    }
+
+    @Test
+    void queryResultShouldNotAliasIndexBitmaps() {
+        //given
+        RoaringBitmap result = index.query(List.of("tomato"), List.of(), List.of());
+        //when
+        result.add(100);
+        //then
+        assertThat(ids(index.query(List.of("tomato"), List.of(), List.of()))).containsExactly(1, 2);
+    }
+
+    @Test
+    void newestFirstShouldReturnHighestIdsUpToLimit() {
+        assertThat(IngredientBitmapIndex.newestFirst(RoaringBitmap.bitmapOf(1, 5, 3, 9), 3)).containsExactly(9L, 5L, 3L);
+    }
+
+    private static int[] ids(RoaringBitmap bitmap) {
+        return bitmap.toArray();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MinHashIndexTest {
+
+    private MinHashIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MinHashIndex(40, 3, 1000);
+    }
+
+    @Test
+    void neighborsShouldBeRankedByJaccardSimilarity() {
+        //given
+        index.put(1L, "soup", List.of("tomato", "onion", "garlic", "basil"));
+        index.put(2L, "soup", List.of("Tomato", "Onion ", "garlic", "basil"));
+        index.put(3L, "soup", List.of("tomato", "onion", "garlic", "carrot"));
+        index.put(4L, "soup", List.of("beef", "potato", "leek", "pepper"));
+        //when
+        List<MinHashIndex.Neighbor> neighbors = index.neighbors(1L, 10, 0.5);
+        //then
+        assertThat(neighbors).containsExactly(new MinHashIndex.Neighbor(2L, 1.0), new MinHashIndex.Neighbor(3L, 0.6));
+    }
+
+    @Test
+    void neighborsShouldOnlyBeInSameCategory() {
+        //given
+        index.put(1L, "soup", List.of("tomato", "onion", "garlic"));
+        index.put(2L, "Salad", List.of("tomato", "onion", "garlic"));
+        index.put(3L, " SOUP", List.of("tomato", "onion", "garlic"));
+        //when
+        List<MinHashIndex.Neighbor> neighbors = index.neighbors(1L, 10, 0.1);
+        //then
+        assertThat(neighbors).extracting(MinHashIndex.Neighbor::getRecipeId).containsExactly(3L);
+        assertThat(index.candidates(1L)).containsExactly(3L);
+        assertThat(index.bucketMembers(1L)).containsExactly(3L);
+    }
+
+    @Test
+    void neighborsShouldBeLimited() {
+        //given
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, "soup", List.of("tomato", "onion", "garlic"));
+        }
+        //when
+        List<MinHashIndex.Neighbor> neighbors = index.neighbors(1L, 3, 0.1);
+        //then
+        assertThat(neighbors).extracting(MinHashIndex.Neighbor::getRecipeId).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void candidatesShouldBeCappedWithinTheCategory() {
+        //given
+        index = new MinHashIndex(40, 3, 2);
+        for (long id = 2; id <= 10; id++) {
+            index.put(id, "salad", List.of("tomato", "onion", "garlic"));
+        }
+        index.put(1L, "soup", List.of("tomato", "onion", "garlic"));
+        index.put(11L, "soup", List.of("tomato", "onion", "garlic"));
+        index.put(12L, "soup", List.of("tomato", "onion", "garlic"));
+        index.put(13L, "soup", List.of("tomato", "onion", "garlic"));
+        //when
+        List<MinHashIndex.Neighbor> neighbors = index.neighbors(1L, 10, 0.1);
+        //then
+        assertThat(neighbors).hasSize(2);
+        assertThat(index.bucketMembers(1L)).containsExactlyInAnyOrder(11L, 12L, 13L);
+    }
+
+    @Test
+    void removeAndReplaceShouldUpdateBuckets() {
+        //given
+        index.put(1L, "soup", List.of("tomato", "onion", "garlic"));
+        index.put(2L, "soup", List.of("tomato", "onion", "garlic"));
+        index.put(3L, "soup", List.of("tomato", "onion", "garlic"));
+        //when
+        index.remove(2L);
+        index.put(3L, "soup", List.of("beef", "potato", "leek"));
+        //then
+        assertThat(index.candidates(1L)).isEmpty();
+        assertThat(index.contains(2L)).isFalse();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void recipeWithoutIngredientsShouldHaveNoNeighbors() {
+        //given
+        index.put(1L, "soup", List.of());
+        index.put(2L, "soup", List.of());
+        //when
+        //then
+        assertThat(index.neighbors(1L, 10, 0)).isEmpty();
+        assertThat(index.contains(1L)).isTrue();
+    }
+
+    @Test
+    void similarSetsShouldAlmostAlwaysBeCandidates() {
+        //given
+        // 200 pairs sharing 10 of 16 ingredients (similarity 0.625), no ingredient shared between pairs.
+        for (int pair = 0; pair < 200; pair++) {
+            List<String> first = new ArrayList<>();
+            List<String> second = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                first.add("shared-" + pair + "-" + i);
+                second.add("shared-" + pair + "-" + i);
+            }
+            for (int i = 0; i < 3; i++) {
+                first.add("first-" + pair + "-" + i);
+                second.add("second-" + pair + "-" + i);
+            }
+            index.put(pair * 2L, "soup", first);
+            index.put(pair * 2L + 1, "soup", second);
+        }
+        //when
+        int found = 0;
+        int unrelated = 0;
+        for (int pair = 0; pair < 200; pair++) {
+            Set<Long> candidates = index.candidates(pair * 2L);
+            if (candidates.contains(pair * 2L + 1)) {
+                found++;
+            }
+            unrelated += candidates.size() - (candidates.contains(pair * 2L + 1) ? 1 : 0);
+        }
+        //then
+        assertThat(found).isGreaterThanOrEqualTo(198);
+        assertThat(unrelated).isZero();
+    }
+
+    @Test
+    void jaccardShouldDivideIntersectionByUnion() {
+        assertThat(MinHashIndex.jaccard(Set.of("a", "b", "c"), Set.of("b", "c", "d"))).isEqualTo(0.5);
+        assertThat(MinHashIndex.jaccard(Set.of(), Set.of())).isZero();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixSuggesterTest {
+
+    @Test
+    void suggestShouldRankByScoreForCachedPrefix() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(2, 5, 100);
+        suggester.add(1L, "Carrot soup", 10);
+        suggester.add(2L, "Carbonara", 30);
+        suggester.add(3L, "Cake", 20);
+        suggester.add(4L, "Tomato soup", 40);
+        //when
+        List<PrefixSuggester.Suggestion> suggestions = suggester.suggest("ca", 10);
+        //then
+        assertThat(suggestions).extracting(PrefixSuggester.Suggestion::getText)
+                .containsExactly("Carbonara", "Cake", "Carrot soup");
+    }
+
+    @Test
+    void suggestShouldScanLongPrefixes() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(2, 5, 100);
+        suggester.add(1L, "Carrot soup", 10);
+        suggester.add(2L, "Carrot cake", 30);
+        suggester.add(3L, "Carbonara", 20);
+        //when
+        List<PrefixSuggester.Suggestion> suggestions = suggester.suggest("  CARROT ", 10);
+        //then
+        assertThat(suggestions).extracting(PrefixSuggester.Suggestion::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void suggestShouldRankWholeRangeOfLongPrefixBeyondMaxScan() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(1, 2, 3);
+        LongStream.rangeClosed(1, 9).forEach(id -> suggester.add(id, "Soup " + id, id));
+        //when
+        List<PrefixSuggester.Suggestion> suggestions = suggester.suggest("soup", 2);
+        //then
+        assertThat(suggestions).extracting(PrefixSuggester.Suggestion::getId).containsExactly(9L, 8L);
+    }
+
+    @Test
+    void suggestShouldKeepLongPrefixListUpToDate() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(1, 2, 3);
+        LongStream.rangeClosed(1, 9).forEach(id -> suggester.add(id, "Soup " + id, id));
+        suggester.suggest("soup", 2);
+        //when
+        suggester.add(10L, "Soup 10", 100);
+        suggester.remove(9L, "Soup 9");
+        //then
+        assertThat(suggester.suggest("soup", 2)).extracting(PrefixSuggester.Suggestion::getId).containsExactly(10L, 8L);
+    }
+
+    @Test
+    void suggestShouldStayCorrectWhenCachedEntriesAreRemoved() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(1, 2, 100);
+        LongStream.rangeClosed(1, 10).forEach(id -> suggester.add(id, "Soup " + id, id));
+        //when
+        LongStream.rangeClosed(7, 10).forEach(id -> suggester.remove(id, "Soup " + id));
+        //then
+        assertThat(suggester.suggest("s", 2)).extracting(PrefixSuggester.Suggestion::getId).containsExactly(6L, 5L);
+    }
+
+    @Test
+    void suggestShouldNotPromoteWorseEntryIntoTruncatedList() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(1, 1, 100);
+        suggester.add(1L, "Apple pie", 10);
+        suggester.add(2L, "Apricot jam", 20);
+        suggester.add(3L, "Avocado toast", 30);
+        //when
+        suggester.add(4L, "Almond cake", 5);
+        suggester.remove(3L, "Avocado toast");
+        //then
+        assertThat(suggester.suggest("a", 1)).extracting(PrefixSuggester.Suggestion::getId).containsExactly(2L);
+    }
+
+    @Test
+    void suggestShouldLimitResultSize() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(3, 3, 100);
+        LongStream.rangeClosed(1, 10).forEach(id -> suggester.add(id, "Pasta " + id, id));
+        //then
+        assertThat(suggester.suggest("pasta", 50)).hasSize(3);
+        assertThat(suggester.suggest("pa", 50)).hasSize(3);
+    }
+
+    @Test
+    void suggestShouldReturnNothingForBlankPrefix() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester(3, 3, 100);
+        suggester.add(1L, "Pasta", 1);
+        //then
+        assertThat(suggester.suggest(" ", 5)).isEmpty();
+    }
+}
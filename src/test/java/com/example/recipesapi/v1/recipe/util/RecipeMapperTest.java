@@ -1,54 +1,84 @@
 package com.example.recipesapi.v1.recipe.util;
 
+import com.example.recipesapi.v1.recipe.model.dto.RecipeDto;
 import com.example.recipesapi.v1.recipe.model.entity.Recipe;
-import com.example.recipesapi.v1.recipe.util.RecipeMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.verify;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
-@ExtendWith(MockitoExtension.class)
 class RecipeMapperTest {
 
-    @Mock
-    private ModelMapper modelMapper;
+    private TermDictionary termDictionary;
     private RecipeMapper recipeMapperUnderTest;
 
     @BeforeEach
     void setUp() {
-        recipeMapperUnderTest = new RecipeMapper(modelMapper);
+        termDictionary = mock(TermDictionary.class);
+        given(termDictionary.intern(any())).willAnswer(returnsFirstArg());
+        recipeMapperUnderTest = new RecipeMapper(termDictionary);
     }
 
     @Test
     void convertToDtoShouldReturnRecipeDto() {
         //given
-
+        LocalDateTime date = LocalDateTime.now();
         Recipe recipe = new Recipe(1L,
                 "Carroten soup",
                 "Delicious tomate soup",
                 "soup",
                 List.of("Tomaten", "Peper", "sól"),
                 List.of("Tomaten", "Peper", "sól"),
-                LocalDateTime.now(), null);
+                date, null);
+        recipe.setVersion(3L);
         //when
-        recipeMapperUnderTest.convertToDto(recipe);
+        RecipeDto recipeDto = recipeMapperUnderTest.convertToDto(recipe);
 
         //then
-        ArgumentCaptor<Recipe> recipeArgumentCaptor = ArgumentCaptor.forClass(Recipe.class);
-        verify(modelMapper).map(recipeArgumentCaptor.capture(), any());
+        assertThat(recipeDto.getName()).isEqualTo("Carroten soup");
+        assertThat(recipeDto.getDescription()).isEqualTo("Delicious tomate soup");
+        assertThat(recipeDto.getCategory()).isEqualTo("soup");
+        assertThat(recipeDto.getIngredients()).containsExactly("Tomaten", "Peper", "sól");
+        assertThat(recipeDto.getDirections()).containsExactly("Tomaten", "Peper", "sól");
+        assertThat(recipeDto.getDate()).isEqualTo(date);
+        assertThat(recipeDto.getVersion()).isEqualTo(3L);
+    }
 
-        Recipe capturedRecipe = recipeArgumentCaptor.getValue();
-        assertThat(capturedRecipe).isEqualTo(recipe);
+    @Test
+    void convertToDtoShouldCopyLists() {
+        //given
+        List<String> ingredients = new ArrayList<>(List.of("water"));
+        Recipe recipe = new Recipe(1L, "Soup", "Hot", "soup", ingredients, new ArrayList<>(), LocalDateTime.now(), null);
+        //when
+        RecipeDto recipeDto = recipeMapperUnderTest.convertToDto(recipe);
+        ingredients.add("salt");
+
+        //then
+        assertThat(recipeDto.getIngredients()).containsExactly("water");
+    }
+
+    @Test
+    void convertToDtoShouldUseDictionaryInstances() {
+        //given
+        String soup = "soup";
+        String water = "water";
+        given(termDictionary.intern("soup")).willReturn(soup);
+        given(termDictionary.intern("water")).willReturn(water);
+        Recipe recipe = new Recipe(1L, "Soup", "Hot", new String("soup"), List.of(new String("water")),
+                new ArrayList<>(), LocalDateTime.now(), null);
+        //when
+        RecipeDto recipeDto = recipeMapperUnderTest.convertToDto(recipe);
+        //then
+        assertThat(recipeDto.getCategory()).isSameAs(soup);
+        assertThat(recipeDto.getIngredients().get(0)).isSameAs(water);
     }
 
-}
\ No newline at end of file
+}
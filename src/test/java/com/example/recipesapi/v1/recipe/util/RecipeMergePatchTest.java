@@ -0,0 +1,100 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import com.example.recipesapi.v1.recipe.exception.InvalidRecipePatchException;
+import com.example.recipesapi.v1.recipe.model.entity.Recipe;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipeMergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Recipe recipe;
+
+    @BeforeEach
+    void setUp() {
+        recipe = new Recipe(1L,
+                "Carroten soup",
+                "Delicious tomate soup",
+                "soup",
+                new ArrayList<>(List.of("Tomaten", "Peper", "sól")),
+                new ArrayList<>(List.of("Boil", "Serve")),
+                LocalDateTime.now(), null);
+    }
+
+    @Test
+    void applyShouldOnlyChangePatchedFields() throws Exception {
+        //given
+        List<String> ingredients = recipe.getIngredients();
+        JsonNode patch = objectMapper.readTree("{\"name\": \"Tomato soup\"}");
+        //when
+        boolean changed = RecipeMergePatch.apply(recipe, patch);
+        //then
+        assertThat(changed).isTrue();
+        assertThat(recipe.getName()).isEqualTo("Tomato soup");
+        assertThat(recipe.getDescription()).isEqualTo("Delicious tomate soup");
+        assertThat(recipe.getIngredients()).isSameAs(ingredients);
+    }
+
+    @Test
+    void applyShouldReportNoChangeForEqualValues() throws Exception {
+        //given
+        JsonNode patch = objectMapper.readTree(
+                "{\"category\": \"soup\", \"ingredients\": [\"Tomaten\", \"Peper\", \"sól\"]}");
+        //when
+        boolean changed = RecipeMergePatch.apply(recipe, patch);
+        //then
+        assertThat(changed).isFalse();
+    }
+
+    @Test
+    void applyShouldReplaceListContentInPlace() throws Exception {
+        //given
+        List<String> directions = recipe.getDirections();
+        JsonNode patch = objectMapper.readTree("{\"directions\": [\"Cut\", \"Boil\", \"Serve\"]}");
+        //when
+        RecipeMergePatch.apply(recipe, patch);
+        //then
+        assertThat(recipe.getDirections()).isSameAs(directions);
+        assertThat(recipe.getDirections()).containsExactly("Cut", "Boil", "Serve");
+    }
+
+    @Test
+    void applyShouldClearListOnNull() throws Exception {
+        //given
+        JsonNode patch = objectMapper.readTree("{\"directions\": null}");
+        //when
+        RecipeMergePatch.apply(recipe, patch);
+        //then
+        assertThat(recipe.getDirections()).isEmpty();
+    }
+
+    @Test
+    void applyShouldRejectRemovingRequiredField() throws Exception {
+        //given
+        JsonNode patch = objectMapper.readTree("{\"name\": null}");
+        //when
+        //then
+        assertThatThrownBy(() -> RecipeMergePatch.apply(recipe, patch))
+                .isInstanceOf(InvalidRecipePatchException.class)
+                .hasMessageContaining("name");
+    }
+
+    @Test
+    void applyShouldRejectUnknownField() throws Exception {
+        //given
+        JsonNode patch = objectMapper.readTree("{\"user\": 2}");
+        //when
+        //then
+        assertThatThrownBy(() -> RecipeMergePatch.apply(recipe, patch))
+                .isInstanceOf(InvalidRecipePatchException.class);
+    }
+}
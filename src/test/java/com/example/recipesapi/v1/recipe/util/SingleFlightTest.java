@@ -0,0 +1,144 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 64;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLoadsOfSameKeyShouldShareOneLoad() throws Exception {
+        //given
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        //when
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                loaderCalls.incrementAndGet();
+                await(release);
+                return "recipe 1";
+            })));
+        }
+        waitUntil(() -> singleFlight.coalescedCount() == THREADS - 1);
+        release.countDown();
+        //then
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("recipe 1");
+        }
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(singleFlight.loadCount()).isEqualTo(1);
+        assertThat(singleFlight.coalescingRatio()).isEqualTo((double) (THREADS - 1) / THREADS);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void loadsOfDifferentKeysShouldNotBeShared() throws Exception {
+        //given
+        SingleFlight<Long, Long> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+        AtomicInteger loaderCalls = new AtomicInteger();
+        //when
+        List<Future<Long>> results = new ArrayList<>();
+        for (long key = 0; key < THREADS; key++) {
+            final long id = key;
+            results.add(executor.submit(() -> singleFlight.load(id, () -> {
+                loaderCalls.incrementAndGet();
+                return id;
+            })));
+        }
+        //then
+        for (int key = 0; key < THREADS; key++) {
+            assertThat(results.get(key).get(10, TimeUnit.SECONDS)).isEqualTo(key);
+        }
+        assertThat(loaderCalls).hasValue(THREADS);
+    }
+
+    @Test
+    void leaderExceptionShouldBeRethrownToWaitingCallers() throws Exception {
+        //given
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load(1L, () -> {
+            await(release);
+            throw new IllegalArgumentException("not found");
+        }));
+        waitUntil(() -> singleFlight.inFlightCount() == 1);
+        Future<String> follower = executor.submit(() -> singleFlight.load(1L, () -> "unexpected"));
+        waitUntil(() -> singleFlight.coalescedCount() == 1);
+        //when
+        release.countDown();
+        //then
+        assertThatThrownBy(() -> follower.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> leader.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void waitingCallerShouldLoadItselfAfterTimeout() throws Exception {
+        //given
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load(1L, () -> {
+            await(release);
+            return "slow";
+        }));
+        waitUntil(() -> singleFlight.inFlightCount() == 1);
+        //when
+        String value = singleFlight.load(1L, () -> "fast");
+        release.countDown();
+        //then
+        assertThat(value).isEqualTo("fast");
+        assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(singleFlight.timeoutCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sequentialLoadsShouldNotReuseCompletedResult() {
+        //given
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>(Duration.ofSeconds(1));
+        AtomicInteger counter = new AtomicInteger();
+        //when
+        singleFlight.load(1L, counter::incrementAndGet);
+        int second = singleFlight.load(1L, counter::incrementAndGet);
+        //then
+        assertThat(second).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.recipesapi.v1.recipe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrendingTopKTest {
+
+    private static final long HALF_LIFE = 60_000;
+
+    @Test
+    void topShouldRankByCountHighestFirst() {
+        //given
+        TrendingTopK trending = new TrendingTopK(10, new CountMinSketch(1024, 4), HALF_LIFE, 0);
+        //when
+        trending.add(1L, 5, 0);
+        trending.add(2L, 20, 0);
+        trending.add(3L, 10, 0);
+        trending.add(1L, 1, 0);
+        List<TrendingTopK.Entry> top = trending.top(2, 0);
+        //then
+        assertThat(top).extracting(TrendingTopK.Entry::getId).containsExactly(2L, 3L);
+        assertThat(top.get(0).getScore()).isEqualTo(20.0);
+    }
+
+    @Test
+    void olderViewsShouldWeighLess() {
+        //given
+        TrendingTopK trending = new TrendingTopK(10, new CountMinSketch(1024, 4), HALF_LIFE, 0);
+        //when
+        trending.add(1L, 100, 0);
+        trending.add(2L, 60, 2 * HALF_LIFE);
+        List<TrendingTopK.Entry> top = trending.top(10, 2 * HALF_LIFE);
+        //then
+        assertThat(top).extracting(TrendingTopK.Entry::getId).containsExactly(2L, 1L);
+        assertThat(top.get(1).getScore()).isCloseTo(25.0, within(1e-9));
+    }
+
+    @Test
+    void scoresShouldSurviveRescaling() {
+        //given
+        TrendingTopK trending = new TrendingTopK(10, new CountMinSketch(1024, 4), HALF_LIFE, 0);
+        trending.add(1L, 1L << 40, 0);
+        //when
+        long later = 40 * HALF_LIFE;
+        trending.add(2L, 3, later);
+        List<TrendingTopK.Entry> top = trending.top(10, later);
+        //then
+        assertThat(top).extracting(TrendingTopK.Entry::getId).containsExactly(2L, 1L);
+        assertThat(top.get(0).getScore()).isCloseTo(3.0, within(1e-9));
+        assertThat(top.get(1).getScore()).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void fullRankingShouldOnlyAdmitKeysAboveTheLowest() {
+        //given
+        TrendingTopK trending = new TrendingTopK(2, new CountMinSketch(1024, 4), HALF_LIFE, 0);
+        trending.add(1L, 10, 0);
+        trending.add(2L, 5, 0);
+        //when
+        trending.add(3L, 1, 0);
+        trending.add(4L, 7, 0);
+        //then
+        assertThat(trending.size()).isEqualTo(2);
+        assertThat(trending.top(10, 0)).extracting(TrendingTopK.Entry::getId).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void removedKeyShouldLeaveTheRanking() {
+        //given
+        TrendingTopK trending = new TrendingTopK(10, new CountMinSketch(1024, 4), HALF_LIFE, 0);
+        trending.add(1L, 10, 0);
+        trending.add(2L, 5, 0);
+        //when
+        trending.remove(1L);
+        //then
+        assertThat(trending.top(10, 0)).extracting(TrendingTopK.Entry::getId).containsExactly(2L);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.recipesapi.v1.security.repository;
+
+import com.example.recipesapi.cache.SecondLevelCacheConfiguration;
+import com.example.recipesapi.v1.recipe.repository.RecipeRepository;
+import com.example.recipesapi.v1.security.model.entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookups of users by email through the second-level cache, outside of transactions like the authentication does.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SecondLevelCacheConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findByEmailShouldNotQueryUsersOnceCached() {
+        //given
+        userRepository.saveAndFlush(new User("cached@test.com", "password"));
+        userRepository.findByEmail("cached@test.com");
+        statistics.clear();
+        //when
+        final Optional<User> user = userRepository.findByEmail("cached@test.com");
+        //then
+        assertThat(user).map(User::getEmail).contains("cached@test.com");
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getNaturalIdQueryExecutionCount()).isZero();
+        // Only the user's recipes are read.
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void deletedUserShouldNotBeFoundByEmail() {
+        //given
+        final User user = userRepository.saveAndFlush(new User("deleted@test.com", "password"));
+        userRepository.findByEmail("deleted@test.com");
+        //when
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> userRepository.deleteUserById(user.getId()));
+        //then
+        assertThat(userRepository.findByEmail("deleted@test.com")).isEmpty();
+        assertThat(userRepository.findById(user.getId())).isEmpty();
+    }
+
+    @Test
+    void deletingRecipesShouldKeepUsersCached() {
+        //given
+        final User user = userRepository.saveAndFlush(new User("recipes@test.com", "password"));
+        userRepository.findByEmail("recipes@test.com");
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                recipeRepository.deleteAllByIdIn(List.of(-1L), LocalDateTime.of(1970, 1, 1, 0, 0)));
+        //then
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+    }
+
+    @Test
+    void findByEmailShouldBeEmptyForUnknownEmail() {
+        //then
+        assertThat(userRepository.findByEmail("unknown@test.com")).isEmpty();
+    }
+}
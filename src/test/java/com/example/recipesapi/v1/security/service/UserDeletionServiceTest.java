@@ -0,0 +1,73 @@
+package com.example.recipesapi.v1.security.service;
+
+import com.example.recipesapi.v1.recipe.service.RecipeService;
+import com.example.recipesapi.v1.security.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserDeletionServiceTest {
+
+    @Mock
+    private RecipeService recipeService;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UserDetailsCache userDetailsCache;
+    @Mock
+    private UserSecondLevelCache userSecondLevelCache;
+    private UserDeletionService userDeletionServiceUnderTest;
+
+    @BeforeEach
+    void setUp() {
+        userDeletionServiceUnderTest = new UserDeletionService(recipeService, userRepository,
+                new TransactionTemplate(transactionManager), userDetailsCache, userSecondLevelCache, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDeletionServiceUnderTest.shutdown();
+    }
+
+    @Test
+    void deleteUserShouldDeleteRecipesInChunksBeforeUser() {
+        //given
+        given(recipeService.deleteRecipesOfUser(1L, 2)).willReturn(2, 2, 1, 0);
+        //when
+        userDeletionServiceUnderTest.deleteUser(1L);
+        //then
+        final InOrder inOrder = inOrder(recipeService, userRepository, userSecondLevelCache, userDetailsCache);
+        inOrder.verify(recipeService, times(4)).deleteRecipesOfUser(1L, 2);
+        inOrder.verify(userRepository).deleteUserById(1L);
+        inOrder.verify(userSecondLevelCache).evictUser(1L);
+        inOrder.verify(userDetailsCache).invalidateUser(1L);
+        // Only the check for late recipes shares the transaction with the user row.
+        verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void deleteUserWithoutRecipesShouldDeleteUser() {
+        //given
+        given(recipeService.deleteRecipesOfUser(1L, 2)).willReturn(0);
+        //when
+        userDeletionServiceUnderTest.deleteUser(1L);
+        //then
+        verify(recipeService, times(2)).deleteRecipesOfUser(1L, 2);
+        verify(userRepository).deleteUserById(1L);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.recipesapi.v1.security.service;
+
+import com.example.recipesapi.cache.Invalidation;
+import com.example.recipesapi.cache.InvalidationBus;
+import com.example.recipesapi.v1.security.model.entity.User;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserSecondLevelCacheTest {
+
+    @Mock
+    private InvalidationBus invalidationBus;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private Cache jpaCache;
+    @Mock
+    private org.hibernate.Cache hibernateCache;
+    @Captor
+    private ArgumentCaptor<Consumer<Invalidation>> listenerCaptor;
+    @Captor
+    private ArgumentCaptor<Invalidation> invalidationCaptor;
+    private UserSecondLevelCache userSecondLevelCacheUnderTest;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        lenient().when(jpaCache.unwrap(org.hibernate.Cache.class)).thenReturn(hibernateCache);
+        given(invalidationBus.nodeId()).willReturn("this");
+        userSecondLevelCacheUnderTest = new UserSecondLevelCache(invalidationBus, entityManagerFactory);
+        verify(invalidationBus).subscribe(listenerCaptor.capture());
+    }
+
+    @Test
+    void evictUserShouldEvictLocallyAndPublish() {
+        //when
+        userSecondLevelCacheUnderTest.evictUser(1L);
+        //then
+        verify(hibernateCache).evictEntityData(User.class, 1L);
+        verify(hibernateCache).evictNaturalIdData(User.class);
+        verify(invalidationBus).publish(invalidationCaptor.capture());
+        assertThat(invalidationCaptor.getValue().getCache()).isEqualTo(UserSecondLevelCache.NAME);
+        assertThat(invalidationCaptor.getValue().getValue()).isEqualTo("1");
+    }
+
+    @Test
+    void remoteEvictionShouldEvictUser() {
+        //when
+        listenerCaptor.getValue().accept(Invalidation.key(UserSecondLevelCache.NAME, "1", "other"));
+        //then
+        verify(hibernateCache).evictEntityData(User.class, 1L);
+        verify(hibernateCache).evictNaturalIdData(User.class);
+        verify(invalidationBus, never()).publish(any());
+    }
+
+    @Test
+    void evictUserWithEmailShouldEvictOnlyThatEmailAndPublishIt() {
+        //given
+        NaturalIdDataAccess naturalIds = naturalIdAccess();
+        //when
+        userSecondLevelCacheUnderTest.evictUser(1L, "old@example.com");
+        //then
+        verify(hibernateCache).evictEntityData(User.class, 1L);
+        verify(naturalIds).evict("old@example.com-key");
+        verify(hibernateCache, never()).evictNaturalIdData(any(Class.class));
+        verify(invalidationBus).publish(invalidationCaptor.capture());
+        assertThat(invalidationCaptor.getValue().getValue()).isEqualTo("1 old@example.com");
+    }
+
+    @Test
+    void remoteEvictionWithEmailShouldEvictThatEmail() {
+        //given
+        NaturalIdDataAccess naturalIds = naturalIdAccess();
+        //when
+        listenerCaptor.getValue().accept(Invalidation.key(UserSecondLevelCache.NAME, "1 old@example.com", "other"));
+        //then
+        verify(hibernateCache).evictEntityData(User.class, 1L);
+        verify(naturalIds).evict("old@example.com-key");
+        verify(hibernateCache, never()).evictNaturalIdData(any(Class.class));
+    }
+
+    @Test
+    void missedInvalidationsShouldEvictAllUsers() {
+        //when
+        listenerCaptor.getValue().accept(Invalidation.all(Invalidation.ALL_CACHES, "other"));
+        //then
+        verify(hibernateCache).evictEntityData(User.class);
+        verify(hibernateCache).evictNaturalIdData(User.class);
+    }
+
+    @Test
+    void ownAndOtherInvalidationsShouldBeIgnored() {
+        //when
+        listenerCaptor.getValue().accept(Invalidation.key(UserSecondLevelCache.NAME, "1", "this"));
+        listenerCaptor.getValue().accept(Invalidation.tag("users", "1", "other"));
+        //then
+        verify(hibernateCache, never()).evictEntityData(any(Class.class), any());
+        verify(hibernateCache, never()).evictNaturalIdData(any(Class.class));
+    }
+
+    private NaturalIdDataAccess naturalIdAccess() {
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class);
+        MetamodelImplementor metamodel = mock(MetamodelImplementor.class);
+        EntityPersister persister = mock(EntityPersister.class);
+        NaturalIdDataAccess naturalIds = mock(NaturalIdDataAccess.class);
+        SessionImplementor session = mock(SessionImplementor.class);
+        given(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).willReturn(sessionFactory);
+        given(sessionFactory.getMetamodel()).willReturn(metamodel);
+        given(metamodel.entityPersister(User.class)).willReturn(persister);
+        given(persister.getNaturalIdCacheAccessStrategy()).willReturn(naturalIds);
+        given(sessionFactory.openSession()).willReturn(session);
+        given(naturalIds.generateCacheKey(new Object[]{"old@example.com"}, persister, session))
+                .willReturn("old@example.com-key");
+        return naturalIds;
+    }
+}
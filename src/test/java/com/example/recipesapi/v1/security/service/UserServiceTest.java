@@ -1,5 +1,8 @@
 package com.example.recipesapi.v1.security.service;
 
+import com.example.recipesapi.cache.LocalInvalidationBus;
+import com.example.recipesapi.v1.recipe.event.RecipeChangeEvent;
+import com.example.recipesapi.v1.recipe.event.RecipeSnapshot;
 import com.example.recipesapi.v1.security.exception.UserAlreadyExistsException;
 import com.example.recipesapi.v1.security.exception.UserNotFoundException;
 import com.example.recipesapi.v1.security.model.dto.UserMapper;
@@ -12,9 +15,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -22,6 +29,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +41,8 @@ public class UserServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private UserMapper userMapper;
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(new LocalInvalidationBus(), 1000, 60000);
     @InjectMocks
     private UserService userServiceUnderTest;
 
@@ -140,4 +150,20 @@ public class UserServiceTest {
 
     }
 
+    @Test
+    void loadUserByUsername_shouldLoadOnceUntilUsersRecipesChange() {
+        //given
+        User user = User.builder().id(1L).email("test@test.com").password("password").recipes(List.of()).build();
+        given(userRepository.findByEmail("test@test.com")).willReturn(Optional.of(user));
+        //when
+        userServiceUnderTest.loadUserByUsername("test@test.com");
+        userServiceUnderTest.loadUserByUsername("test@test.com");
+        userDetailsCache.onRecipeChange(RecipeChangeEvent.deleted(
+                new RecipeSnapshot(7L, 1L, "Carroten soup", "soup", List.of(), LocalDateTime.now())));
+        final UserDetails userDetails = userServiceUnderTest.loadUserByUsername("test@test.com");
+        //then
+        assertThat(userDetails.getUsername()).isEqualTo("test@test.com");
+        verify(userRepository, times(2)).findByEmail("test@test.com");
+    }
+
 }